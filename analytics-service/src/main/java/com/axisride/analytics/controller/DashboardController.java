@@ -0,0 +1,55 @@
+package com.axisride.analytics.controller;
+
+import com.axisride.analytics.dto.CorridorStatsResponse;
+import com.axisride.analytics.dto.SignupStatsResponse;
+import com.axisride.analytics.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Operations dashboards, served from the pre-aggregated panes. Windows and steps are ISO-8601
+ * durations in whole panes, e.g. {@code PT1H}. Restricted to {@code ROLE_ADMIN} by
+ * {@link com.axisride.analytics.config.SecurityConfig}.
+ */
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    @GetMapping("/corridors")
+    public ResponseEntity<List<CorridorStatsResponse>> topCorridors(
+            @RequestParam(defaultValue = "PT1H") Duration window,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(dashboardService.topCorridors(window, Math.max(1, Math.min(limit, 200))));
+    }
+
+    @GetMapping("/corridors/series")
+    public ResponseEntity<List<CorridorStatsResponse>> corridorSeries(
+            @RequestParam(required = false) String departureCity,
+            @RequestParam(required = false) String arrivalCity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "PT1H") Duration window,
+            @RequestParam(defaultValue = "PT5M") Duration step) {
+        return ResponseEntity.ok(dashboardService.corridorSeries(departureCity, arrivalCity, from, to, window, step));
+    }
+
+    @GetMapping("/signups")
+    public ResponseEntity<List<SignupStatsResponse>> signupSeries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "PT1H") Duration step) {
+        return ResponseEntity.ok(dashboardService.signupSeries(from, to, step));
+    }
+}
@@ -0,0 +1,36 @@
+package com.axisride.analytics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CorridorStatsResponse {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String departureCity;
+    private String arrivalCity;
+    private long bookingsRequested;
+    private long seatsRequested;
+    private long bookingsRejected;
+    private long bookingsConfirmed;
+    private long seatsConfirmed;
+    private long bookingsCancelled;
+    private Double cancellationRate;
+    private long departures;
+    private long seatsOffered;
+    private long seatsFilled;
+    private Double fillRate;
+    private long tripsCompleted;
+    private long tripsCancelled;
+    private Map<String, BigDecimal> confirmedAmount;
+    private Map<String, BigDecimal> revenue;
+}
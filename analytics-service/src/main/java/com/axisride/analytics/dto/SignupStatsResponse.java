@@ -0,0 +1,19 @@
+package com.axisride.analytics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SignupStatsResponse {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Map<String, Long> signupsByRole;
+}
@@ -0,0 +1,92 @@
+package com.axisride.analytics.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Booking and trip counters of one corridor over one time bucket, in the trip's currency.
+ * Recent buckets are panes of {@code analytics.window.pane}; older ones are rolled up into
+ * hourly rows. Counters only ever grow: every snapshot adds its deltas to the row.
+ */
+@Entity
+@Table(name = "corridor_stats", indexes = {
+        @Index(name = "idx_corridor_stats_bucket", columnList = "bucket_start"),
+        @Index(name = "idx_corridor_stats_corridor", columnList = "departure_city, arrival_city, bucket_start")
+})
+@IdClass(CorridorStatsId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CorridorStats {
+
+    @Id
+    @Column(name = "bucket_minutes")
+    private Integer bucketMinutes;
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Id
+    @Column(name = "departure_city", length = 100)
+    private String departureCity;
+
+    @Id
+    @Column(name = "arrival_city", length = 100)
+    private String arrivalCity;
+
+    @Id
+    @Column(name = "currency", length = 3)
+    private String currency;
+
+    @Column(name = "bookings_requested", nullable = false)
+    private Long bookingsRequested;
+
+    @Column(name = "seats_requested", nullable = false)
+    private Long seatsRequested;
+
+    // Requests refused because the trip filled up meanwhile
+    @Column(name = "bookings_rejected", nullable = false)
+    private Long bookingsRejected;
+
+    @Column(name = "bookings_confirmed", nullable = false)
+    private Long bookingsConfirmed;
+
+    @Column(name = "seats_confirmed", nullable = false)
+    private Long seatsConfirmed;
+
+    @Column(name = "confirmed_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal confirmedAmount;
+
+    @Column(name = "bookings_cancelled", nullable = false)
+    private Long bookingsCancelled;
+
+    @Column(name = "departures", nullable = false)
+    private Long departures;
+
+    @Column(name = "seats_offered", nullable = false)
+    private Long seatsOffered;
+
+    @Column(name = "seats_filled", nullable = false)
+    private Long seatsFilled;
+
+    @Column(name = "trips_completed", nullable = false)
+    private Long tripsCompleted;
+
+    // Price of the bookings that rode on completed trips
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(name = "trips_cancelled", nullable = false)
+    private Long tripsCancelled;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,20 @@
+package com.axisride.analytics.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorridorStatsId implements Serializable {
+
+    private Integer bucketMinutes;
+    private LocalDateTime bucketStart;
+    private String departureCity;
+    private String arrivalCity;
+    private String currency;
+}
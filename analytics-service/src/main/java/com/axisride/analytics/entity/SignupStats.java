@@ -0,0 +1,40 @@
+package com.axisride.analytics.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * New accounts per role over one time bucket; a user with several roles counts in each.
+ */
+@Entity
+@Table(name = "signup_stats", indexes = @Index(name = "idx_signup_stats_bucket", columnList = "bucket_start"))
+@IdClass(SignupStatsId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SignupStats {
+
+    @Id
+    @Column(name = "bucket_minutes")
+    private Integer bucketMinutes;
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Id
+    @Column(name = "role", length = 30)
+    private String role;
+
+    @Column(name = "signups", nullable = false)
+    private Long signups;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
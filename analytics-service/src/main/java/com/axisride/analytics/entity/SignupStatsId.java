@@ -0,0 +1,18 @@
+package com.axisride.analytics.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignupStatsId implements Serializable {
+
+    private Integer bucketMinutes;
+    private LocalDateTime bucketStart;
+    private String role;
+}
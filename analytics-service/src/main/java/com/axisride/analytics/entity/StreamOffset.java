@@ -0,0 +1,37 @@
+package com.axisride.analytics.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Next offset to consume per partition, written in the same transaction as the counters it
+ * accounts for. Consumption resumes from here rather than from the offsets committed to Kafka.
+ */
+@Entity
+@Table(name = "stream_offsets")
+@IdClass(StreamOffsetId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StreamOffset {
+
+    @Id
+    @Column(name = "topic")
+    private String topic;
+
+    @Id
+    @Column(name = "partition_id")
+    private Integer partitionId;
+
+    @Column(name = "next_offset", nullable = false)
+    private Long nextOffset;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,16 @@
+package com.axisride.analytics.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamOffsetId implements Serializable {
+
+    private String topic;
+    private Integer partitionId;
+}
@@ -0,0 +1,42 @@
+package com.axisride.analytics.event;
+
+import com.axisride.events.EventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consumer-side binding of the {@code TripBookingsChanged} schema published by trip-service on
+ * the {@code trip.*} topics. The corridor, capacity and booked totals are null in version 1
+ * messages.
+ */
+@EventType(name = "TripBookingsChanged", version = 2)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripBookingsChangedEvent {
+
+    public static final String CANCELLED_TOPIC = "trip.cancelled";
+    public static final String STARTED_TOPIC = "trip.started";
+    public static final String COMPLETED_TOPIC = "trip.completed";
+
+    private String tripId;
+    private String driverId;
+    private String tripStatus;
+    private List<String> bookingIds;
+    private List<String> passengerIds;
+    private List<String> bookingStatuses;
+    private String changedBy;
+    private String reason;
+    private LocalDateTime occurredAt;
+    private String departureCity;
+    private String arrivalCity;
+    private String currency;
+    private Integer totalSeats;
+    private Integer seatsBooked;
+    private BigDecimal bookedAmount;
+}
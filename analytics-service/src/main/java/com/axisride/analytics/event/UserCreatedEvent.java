@@ -0,0 +1,29 @@
+package com.axisride.analytics.event;
+
+import com.axisride.events.EventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Consumer-side binding of the {@code UserCreated} schema published by auth-service.
+ */
+@EventType(name = "UserCreated", version = 1)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCreatedEvent {
+
+    public static final String TOPIC = "user.created";
+
+    private String userId;
+    private String email;
+    private String phoneNumber;
+    private String firstName;
+    private String lastName;
+    private Set<String> roles;
+    private LocalDateTime createdAt;
+}
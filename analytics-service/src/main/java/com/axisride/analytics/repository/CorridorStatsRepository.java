@@ -0,0 +1,77 @@
+package com.axisride.analytics.repository;
+
+import com.axisride.analytics.entity.CorridorStats;
+import com.axisride.analytics.entity.CorridorStatsId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CorridorStatsRepository extends JpaRepository<CorridorStats, CorridorStatsId> {
+
+    String SUM_COUNTERS =
+            "SUM(s.bookingsRequested) AS bookingsRequested, SUM(s.seatsRequested) AS seatsRequested, " +
+            "SUM(s.bookingsRejected) AS bookingsRejected, SUM(s.bookingsConfirmed) AS bookingsConfirmed, " +
+            "SUM(s.seatsConfirmed) AS seatsConfirmed, SUM(s.confirmedAmount) AS confirmedAmount, " +
+            "SUM(s.bookingsCancelled) AS bookingsCancelled, SUM(s.departures) AS departures, " +
+            "SUM(s.seatsOffered) AS seatsOffered, SUM(s.seatsFilled) AS seatsFilled, " +
+            "SUM(s.tripsCompleted) AS tripsCompleted, SUM(s.revenue) AS revenue, " +
+            "SUM(s.tripsCancelled) AS tripsCancelled";
+
+    /**
+     * Totals per corridor and currency of the buckets starting in {@code [from, to)}.
+     */
+    @Query("SELECT s.departureCity AS departureCity, s.arrivalCity AS arrivalCity, s.currency AS currency, " +
+           SUM_COUNTERS + " FROM CorridorStats s " +
+           "WHERE s.bucketStart >= :from AND s.bucketStart < :to " +
+           "GROUP BY s.departureCity, s.arrivalCity, s.currency")
+    List<CorridorTotals> sumByCorridor(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Totals per bucket and currency of one corridor, or of all of them when the cities are
+     * null, for the buckets starting in {@code [from, to)}.
+     */
+    @Query("SELECT s.bucketStart AS bucketStart, s.currency AS currency, " +
+           SUM_COUNTERS + " FROM CorridorStats s " +
+           "WHERE (:departureCity IS NULL OR s.departureCity = :departureCity) " +
+           "AND (:arrivalCity IS NULL OR s.arrivalCity = :arrivalCity) " +
+           "AND s.bucketStart >= :from AND s.bucketStart < :to " +
+           "GROUP BY s.bucketStart, s.currency ORDER BY s.bucketStart")
+    List<BucketTotals> sumByBucket(
+        @Param("departureCity") String departureCity,
+        @Param("arrivalCity") String arrivalCity,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to
+    );
+
+    interface Counters {
+        String getCurrency();
+        Long getBookingsRequested();
+        Long getSeatsRequested();
+        Long getBookingsRejected();
+        Long getBookingsConfirmed();
+        Long getSeatsConfirmed();
+        BigDecimal getConfirmedAmount();
+        Long getBookingsCancelled();
+        Long getDepartures();
+        Long getSeatsOffered();
+        Long getSeatsFilled();
+        Long getTripsCompleted();
+        BigDecimal getRevenue();
+        Long getTripsCancelled();
+    }
+
+    interface CorridorTotals extends Counters {
+        String getDepartureCity();
+        String getArrivalCity();
+    }
+
+    interface BucketTotals extends Counters {
+        LocalDateTime getBucketStart();
+    }
+}
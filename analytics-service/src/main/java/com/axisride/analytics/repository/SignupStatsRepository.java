@@ -0,0 +1,26 @@
+package com.axisride.analytics.repository;
+
+import com.axisride.analytics.entity.SignupStats;
+import com.axisride.analytics.entity.SignupStatsId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SignupStatsRepository extends JpaRepository<SignupStats, SignupStatsId> {
+
+    @Query("SELECT s.bucketStart AS bucketStart, s.role AS role, SUM(s.signups) AS signups " +
+           "FROM SignupStats s WHERE s.bucketStart >= :from AND s.bucketStart < :to " +
+           "GROUP BY s.bucketStart, s.role ORDER BY s.bucketStart")
+    List<BucketSignups> sumByBucket(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    interface BucketSignups {
+        LocalDateTime getBucketStart();
+        String getRole();
+        Long getSignups();
+    }
+}
@@ -0,0 +1,15 @@
+package com.axisride.analytics.repository;
+
+import com.axisride.analytics.entity.StreamOffset;
+import com.axisride.analytics.entity.StreamOffsetId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StreamOffsetRepository extends JpaRepository<StreamOffset, StreamOffsetId> {
+
+    List<StreamOffset> findByTopicIn(Collection<String> topics);
+}
@@ -0,0 +1,131 @@
+package com.axisride.analytics.service;
+
+import com.axisride.analytics.event.BookingEvent;
+import com.axisride.analytics.event.TripBookingsChangedEvent;
+import com.axisride.analytics.event.UserCreatedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the user, booking and trip events into {@link StatsAggregator}.
+ * <p>
+ * Assigned partitions are read from the offsets stored with the counters, or from the start of
+ * the topic when none is stored, so a new deployment backfills from the retained history.
+ * Offsets committed to Kafka are not used, and revoked partitions are snapshotted before they
+ * go. A consumer that loses its partitions without a revoke, e.g. after a session timeout, may
+ * still add what it counted meanwhile, which the new owner counts again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsEventListener implements ConsumerSeekAware {
+
+    private final StatsAggregator aggregator;
+    private final StatsSnapshotStore snapshotStore;
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        Map<TopicPartition, Long> stored = snapshotStore.nextOffsets(assignments.keySet());
+        List<TopicPartition> fromStart = new ArrayList<>();
+        for (TopicPartition partition : assignments.keySet()) {
+            Long offset = stored.get(partition);
+            if (offset != null) {
+                callback.seek(partition.topic(), partition.partition(), offset);
+            } else {
+                fromStart.add(partition);
+            }
+        }
+        if (!fromStart.isEmpty()) {
+            callback.seekToBeginning(fromStart);
+        }
+        log.info("Resuming {} partitions from stored offsets, {} from the start", stored.size(), fromStart.size());
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        aggregator.flushRevoked(partitions);
+    }
+
+    @KafkaListener(topics = UserCreatedEvent.TOPIC)
+    public void onUserCreated(@Payload UserCreatedEvent event,
+                              @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+                              @Header(KafkaHeaders.OFFSET) long offset) {
+        LocalDateTime createdAt = event.getCreatedAt() != null ? event.getCreatedAt() : LocalDateTime.now();
+        aggregator.countSignup(new TopicPartition(UserCreatedEvent.TOPIC, partition), offset, createdAt,
+                event.getRoles() != null ? event.getRoles() : List.of());
+    }
+
+    @KafkaListener(topics = {BookingEvent.CREATED_TOPIC, BookingEvent.CONFIRMED_TOPIC, BookingEvent.CANCELLED_TOPIC})
+    public void onBooking(@Payload BookingEvent event,
+                          @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+                          @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+                          @Header(KafkaHeaders.OFFSET) long offset) {
+        aggregator.countCorridor(new TopicPartition(topic, partition), offset, event.getOccurredAt(),
+                event.getDepartureCity(), event.getArrivalCity(), event.getCurrency(), counters -> {
+                    switch (topic) {
+                        case BookingEvent.CREATED_TOPIC -> {
+                            counters.bookingsRequested++;
+                            counters.seatsRequested += event.getSeats();
+                            if ("CANCELLED".equals(event.getStatus())) {
+                                counters.bookingsRejected++;
+                            }
+                        }
+                        case BookingEvent.CONFIRMED_TOPIC -> {
+                            counters.bookingsConfirmed++;
+                            counters.seatsConfirmed += event.getSeats();
+                            counters.confirmedAmount = counters.confirmedAmount.add(amount(event.getTotalPrice()));
+                        }
+                        default -> counters.bookingsCancelled++;
+                    }
+                });
+    }
+
+    @KafkaListener(topics = {TripBookingsChangedEvent.STARTED_TOPIC, TripBookingsChangedEvent.COMPLETED_TOPIC,
+            TripBookingsChangedEvent.CANCELLED_TOPIC})
+    public void onTripChanged(@Payload TripBookingsChangedEvent event,
+                              @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+                              @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+                              @Header(KafkaHeaders.OFFSET) long offset) {
+        aggregator.countCorridor(new TopicPartition(topic, partition), offset, event.getOccurredAt(),
+                event.getDepartureCity(), event.getArrivalCity(), event.getCurrency(), counters -> {
+                    // Bookings the trip change cancelled have no booking.cancelled of their own
+                    counters.bookingsCancelled += event.getBookingStatuses().stream()
+                            .filter("CANCELLED"::equals)
+                            .count();
+                    switch (topic) {
+                        case TripBookingsChangedEvent.STARTED_TOPIC -> {
+                            counters.departures++;
+                            counters.seatsOffered += valueOrZero(event.getTotalSeats());
+                            counters.seatsFilled += valueOrZero(event.getSeatsBooked());
+                        }
+                        case TripBookingsChangedEvent.COMPLETED_TOPIC -> {
+                            counters.tripsCompleted++;
+                            counters.revenue = counters.revenue.add(amount(event.getBookedAmount()));
+                        }
+                        default -> counters.tripsCancelled++;
+                    }
+                });
+    }
+
+    private static int valueOrZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static BigDecimal amount(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,259 @@
+package com.axisride.analytics.service;
+
+import com.axisride.analytics.dto.CorridorStatsResponse;
+import com.axisride.analytics.dto.SignupStatsResponse;
+import com.axisride.analytics.repository.CorridorStatsRepository;
+import com.axisride.analytics.repository.SignupStatsRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Dashboard queries over the stored panes only, never over trip or booking data.
+ * <p>
+ * A sliding window is the sum of the panes that start in it, the current, partial pane
+ * included; a series slides it by {@code step}, adding the panes that enter and subtracting
+ * those that leave, and is tumbling when the window equals the step. Buckets older than
+ * {@code analytics.compaction.after} are hourly and count at their hour's start. Results are
+ * cached for {@code analytics.dashboard.cache-ttl} and lag the event streams by up to one
+ * snapshot interval.
+ */
+@Service
+public class DashboardService {
+
+    private final CorridorStatsRepository corridorStatsRepository;
+    private final SignupStatsRepository signupStatsRepository;
+    private final StatsAggregator aggregator;
+    private final Duration maxRange;
+    private final int maxPoints;
+    private final Cache<Object, List<?>> results;
+
+    public DashboardService(CorridorStatsRepository corridorStatsRepository,
+                            SignupStatsRepository signupStatsRepository,
+                            StatsAggregator aggregator,
+                            @Value("${analytics.dashboard.cache-ttl:PT5S}") Duration cacheTtl,
+                            @Value("${analytics.dashboard.max-range:P92D}") Duration maxRange,
+                            @Value("${analytics.dashboard.max-points:2000}") int maxPoints) {
+        this.corridorStatsRepository = corridorStatsRepository;
+        this.signupStatsRepository = signupStatsRepository;
+        this.aggregator = aggregator;
+        this.maxRange = maxRange;
+        this.maxPoints = maxPoints;
+        this.results = Caffeine.newBuilder().expireAfterWrite(cacheTtl).maximumSize(1000).build();
+    }
+
+    /**
+     * The {@code limit} corridors with the most booking requests over the last {@code window}.
+     */
+    public List<CorridorStatsResponse> topCorridors(Duration window, int limit) {
+        checkPanes("window", window);
+        checkRange(window);
+        LocalDateTime to = aggregator.paneStart(LocalDateTime.now()).plus(aggregator.pane());
+        LocalDateTime from = to.minus(window);
+        return cached(new TopCorridors(to, window, limit), () -> {
+            Map<List<String>, Totals> byCorridor = new LinkedHashMap<>();
+            for (CorridorStatsRepository.CorridorTotals row : corridorStatsRepository.sumByCorridor(from, to)) {
+                byCorridor.computeIfAbsent(List.of(row.getDepartureCity(), row.getArrivalCity()), k -> new Totals())
+                        .add(row, 1);
+            }
+            return byCorridor.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<List<String>, Totals> e) -> e.getValue().bookingsRequested)
+                            .reversed())
+                    .limit(limit)
+                    .map(e -> e.getValue().toResponse(from, to, e.getKey().get(0), e.getKey().get(1)))
+                    .toList();
+        });
+    }
+
+    /**
+     * Sliding {@code window} totals of one corridor, or of all when the cities are null, at
+     * every {@code step} from {@code from} to {@code to}.
+     */
+    public List<CorridorStatsResponse> corridorSeries(String departureCity, String arrivalCity,
+                                                      LocalDateTime from, LocalDateTime to,
+                                                      Duration window, Duration step) {
+        checkPanes("window", window);
+        checkPanes("step", step);
+        LocalDateTime first = aggregator.paneStart(from).plus(step);
+        LocalDateTime last = endOfPane(to);
+        int points = checkPoints(first, last, step);
+        String departure = departureCity != null ? StatsAggregator.normalizeCity(departureCity) : null;
+        String arrival = arrivalCity != null ? StatsAggregator.normalizeCity(arrivalCity) : null;
+        return cached(new CorridorSeries(departure, arrival, first, last, window, step), () -> {
+            LocalDateTime lastEnd = first.plus(step.multipliedBy(points - 1));
+            List<CorridorStatsRepository.BucketTotals> buckets =
+                    corridorStatsRepository.sumByBucket(departure, arrival, first.minus(window), lastEnd);
+            List<CorridorStatsResponse> series = new ArrayList<>(points);
+            Totals totals = new Totals();
+            int entering = 0;
+            int leaving = 0;
+            for (int i = 0; i < points; i++) {
+                LocalDateTime end = first.plus(step.multipliedBy(i));
+                LocalDateTime start = end.minus(window);
+                for (; entering < buckets.size() && buckets.get(entering).getBucketStart().isBefore(end); entering++) {
+                    totals.add(buckets.get(entering), 1);
+                }
+                for (; leaving < entering && buckets.get(leaving).getBucketStart().isBefore(start); leaving++) {
+                    totals.add(buckets.get(leaving), -1);
+                }
+                series.add(totals.toResponse(start, end, departure, arrival));
+            }
+            return series;
+        });
+    }
+
+    /**
+     * New accounts per role in consecutive {@code step} buckets from {@code from} to {@code to}.
+     */
+    public List<SignupStatsResponse> signupSeries(LocalDateTime from, LocalDateTime to, Duration step) {
+        checkPanes("step", step);
+        LocalDateTime first = aggregator.paneStart(from);
+        int points = checkPoints(first.plus(step), endOfPane(to), step);
+        return cached(new SignupSeries(first, points, step), () -> {
+            List<Map<String, Long>> byRole = new ArrayList<>(points);
+            for (int i = 0; i < points; i++) {
+                byRole.add(new TreeMap<>());
+            }
+            long stepMinutes = step.toMinutes();
+            for (SignupStatsRepository.BucketSignups row
+                    : signupStatsRepository.sumByBucket(first, first.plus(step.multipliedBy(points)))) {
+                int index = (int) (Duration.between(first, row.getBucketStart()).toMinutes() / stepMinutes);
+                byRole.get(index).merge(row.getRole(), row.getSignups(), Long::sum);
+            }
+            List<SignupStatsResponse> series = new ArrayList<>(points);
+            for (int i = 0; i < points; i++) {
+                LocalDateTime start = first.plus(step.multipliedBy(i));
+                series.add(SignupStatsResponse.builder()
+                        .from(start)
+                        .to(start.plus(step))
+                        .signupsByRole(byRole.get(i))
+                        .build());
+            }
+            return series;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> cached(Object query, Supplier<List<T>> load) {
+        return (List<T>) results.get(query, k -> load.get());
+    }
+
+    private LocalDateTime endOfPane(LocalDateTime time) {
+        LocalDateTime start = aggregator.paneStart(time);
+        return start.equals(time) ? time : start.plus(aggregator.pane());
+    }
+
+    private void checkPanes(String name, Duration duration) {
+        Duration pane = aggregator.pane();
+        if (duration.compareTo(pane) < 0 || duration.toNanos() % pane.toNanos() != 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, name + " must be a multiple of " + pane);
+        }
+    }
+
+    private void checkRange(Duration range) {
+        if (range.compareTo(maxRange) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Range is limited to " + maxRange);
+        }
+    }
+
+    // Number of step ends from first to last, both included
+    private int checkPoints(LocalDateTime first, LocalDateTime last, Duration step) {
+        if (last.isBefore(first)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be at least one step before to");
+        }
+        checkRange(Duration.between(first, last));
+        long points = (Duration.between(first, last).toNanos() + step.toNanos() - 1) / step.toNanos() + 1;
+        if (points > maxPoints) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxPoints + " points per query");
+        }
+        return (int) points;
+    }
+
+    private record TopCorridors(LocalDateTime to, Duration window, int limit) {
+    }
+
+    private record CorridorSeries(String departureCity, String arrivalCity, LocalDateTime first,
+                                  LocalDateTime last, Duration window, Duration step) {
+    }
+
+    private record SignupSeries(LocalDateTime first, int points, Duration step) {
+    }
+
+    /**
+     * Running sums over a window, amounts per currency.
+     */
+    private static final class Totals {
+        long bookingsRequested;
+        long seatsRequested;
+        long bookingsRejected;
+        long bookingsConfirmed;
+        long seatsConfirmed;
+        long bookingsCancelled;
+        long departures;
+        long seatsOffered;
+        long seatsFilled;
+        long tripsCompleted;
+        long tripsCancelled;
+        final Map<String, BigDecimal> confirmedAmount = new TreeMap<>();
+        final Map<String, BigDecimal> revenue = new TreeMap<>();
+
+        void add(CorridorStatsRepository.Counters row, int sign) {
+            bookingsRequested += sign * row.getBookingsRequested();
+            seatsRequested += sign * row.getSeatsRequested();
+            bookingsRejected += sign * row.getBookingsRejected();
+            bookingsConfirmed += sign * row.getBookingsConfirmed();
+            seatsConfirmed += sign * row.getSeatsConfirmed();
+            bookingsCancelled += sign * row.getBookingsCancelled();
+            departures += sign * row.getDepartures();
+            seatsOffered += sign * row.getSeatsOffered();
+            seatsFilled += sign * row.getSeatsFilled();
+            tripsCompleted += sign * row.getTripsCompleted();
+            tripsCancelled += sign * row.getTripsCancelled();
+            BigDecimal factor = BigDecimal.valueOf(sign);
+            confirmedAmount.merge(row.getCurrency(), row.getConfirmedAmount().multiply(factor), BigDecimal::add);
+            revenue.merge(row.getCurrency(), row.getRevenue().multiply(factor), BigDecimal::add);
+        }
+
+        CorridorStatsResponse toResponse(LocalDateTime from, LocalDateTime to, String departureCity, String arrivalCity) {
+            return CorridorStatsResponse.builder()
+                    .from(from)
+                    .to(to)
+                    .departureCity(departureCity)
+                    .arrivalCity(arrivalCity)
+                    .bookingsRequested(bookingsRequested)
+                    .seatsRequested(seatsRequested)
+                    .bookingsRejected(bookingsRejected)
+                    .bookingsConfirmed(bookingsConfirmed)
+                    .seatsConfirmed(seatsConfirmed)
+                    .bookingsCancelled(bookingsCancelled)
+                    .cancellationRate(ratio(bookingsCancelled, bookingsRequested))
+                    .departures(departures)
+                    .seatsOffered(seatsOffered)
+                    .seatsFilled(seatsFilled)
+                    .fillRate(ratio(seatsFilled, seatsOffered))
+                    .tripsCompleted(tripsCompleted)
+                    .tripsCancelled(tripsCancelled)
+                    .confirmedAmount(new TreeMap<>(confirmedAmount))
+                    .revenue(new TreeMap<>(revenue))
+                    .build();
+        }
+
+        private static Double ratio(long part, long whole) {
+            return whole > 0 ? (double) part / whole : null;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.axisride.analytics.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Windowed counters of the analytics streams, held in memory between two snapshots.
+ * <p>
+ * Events are counted by event time into tumbling panes of {@code analytics.window.pane}, per
+ * partition together with the next offset to read. Every {@code analytics.snapshot.interval-ms}
+ * the panes are handed to {@link StatsSnapshotStore}, which adds them to the stored panes and
+ * moves the stored offsets in one transaction, and counting starts over from zero; sliding
+ * windows are sums of stored panes. A failed snapshot is merged back into the next one. When
+ * partitions are revoked the snapshot is written first, or their panes are dropped so that the
+ * new owner counts those events again from the stored offsets.
+ */
+@Component
+@Slf4j
+public class StatsAggregator {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final StatsSnapshotStore snapshotStore;
+    private final MeterRegistry meterRegistry;
+    private final Duration pane;
+    private final int paneMinutes;
+    private final Timer flushTimer;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Guarded by this, swapped for an empty map by each snapshot
+    private Map<TopicPartition, PartitionPanes> partitions = new HashMap<>();
+
+    public StatsAggregator(StatsSnapshotStore snapshotStore,
+                           MeterRegistry meterRegistry,
+                           @Value("${analytics.window.pane:PT5M}") Duration pane) {
+        long minutes = pane.toMinutes();
+        if (minutes < 1 || 60 % minutes != 0 || !pane.equals(Duration.ofMinutes(minutes))) {
+            throw new IllegalStateException("analytics.window.pane must be whole minutes dividing an hour, got " + pane);
+        }
+        this.snapshotStore = snapshotStore;
+        this.meterRegistry = meterRegistry;
+        this.pane = pane;
+        this.paneMinutes = (int) minutes;
+        this.flushTimer = meterRegistry.timer("analytics.snapshot.flush");
+    }
+
+    public Duration pane() {
+        return pane;
+    }
+
+    public LocalDateTime paneStart(LocalDateTime time) {
+        LocalDateTime minute = time.truncatedTo(ChronoUnit.MINUTES);
+        return minute.minusMinutes(minute.getMinute() % paneMinutes);
+    }
+
+    /**
+     * Applies {@code update} to the counters of the corridor's pane. Events of producers that
+     * do not send the corridor yet only move the offset.
+     */
+    public synchronized void countCorridor(TopicPartition partition, long offset, LocalDateTime occurredAt,
+                                           String departureCity, String arrivalCity, String currency,
+                                           Consumer<CorridorCounters> update) {
+        PartitionPanes panes = consumed(partition, offset);
+        if (departureCity == null || arrivalCity == null || currency == null) {
+            meterRegistry.counter("analytics.events.skipped", "topic", partition.topic()).increment();
+            return;
+        }
+        CorridorKey key = new CorridorKey(paneStart(occurredAt), normalizeCity(departureCity),
+                normalizeCity(arrivalCity), currency);
+        update.accept(panes.corridors.computeIfAbsent(key, k -> new CorridorCounters()));
+    }
+
+    public synchronized void countSignup(TopicPartition partition, long offset, LocalDateTime occurredAt,
+                                         Collection<String> roles) {
+        PartitionPanes panes = consumed(partition, offset);
+        LocalDateTime bucketStart = paneStart(occurredAt);
+        for (String role : roles) {
+            panes.signups.merge(new SignupKey(bucketStart, role), 1L, Long::sum);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.snapshot.interval-ms:10000}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            snapshot(List.of());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the snapshot before {@code revoked} go to another consumer. Runs on the consumer
+     * thread, after waiting for a scheduled snapshot in progress.
+     */
+    public void flushRevoked(Collection<TopicPartition> revoked) {
+        flushLock.lock();
+        try {
+            snapshot(revoked);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushLock.lock();
+        try {
+            snapshot(List.of());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void snapshot(Collection<TopicPartition> revoked) {
+        Map<TopicPartition, PartitionPanes> batch;
+        synchronized (this) {
+            if (partitions.isEmpty()) {
+                return;
+            }
+            batch = partitions;
+            partitions = new HashMap<>();
+        }
+        try {
+            flushTimer.record(() -> snapshotStore.write(paneMinutes, batch));
+            log.debug("Stored the panes of {} partitions", batch.size());
+        } catch (RuntimeException e) {
+            int failed = batch.size();
+            // Revoked partitions are recounted by their next owner from the stored offsets
+            batch.keySet().removeAll(revoked);
+            log.error("Failed to store the analytics panes of {} partitions, {} kept for the next snapshot",
+                    failed, batch.size(), e);
+            synchronized (this) {
+                batch.forEach((partition, panes) -> partitions.merge(partition, panes, PartitionPanes::add));
+            }
+        }
+    }
+
+    private PartitionPanes consumed(TopicPartition partition, long offset) {
+        PartitionPanes panes = partitions.computeIfAbsent(partition, p -> new PartitionPanes());
+        panes.nextOffset = Math.max(panes.nextOffset, offset + 1);
+        return panes;
+    }
+
+    // Same normalization as the corridor keys of trip-service's search cache
+    static String normalizeCity(String city) {
+        return WHITESPACE.matcher(city.trim()).replaceAll(" ");
+    }
+
+    record CorridorKey(LocalDateTime bucketStart, String departureCity, String arrivalCity, String currency) {
+    }
+
+    record SignupKey(LocalDateTime bucketStart, String role) {
+    }
+
+    /**
+     * Counters of one corridor pane, see {@code CorridorStats} for their meaning.
+     */
+    static final class CorridorCounters {
+        long bookingsRequested;
+        long seatsRequested;
+        long bookingsRejected;
+        long bookingsConfirmed;
+        long seatsConfirmed;
+        BigDecimal confirmedAmount = BigDecimal.ZERO;
+        long bookingsCancelled;
+        long departures;
+        long seatsOffered;
+        long seatsFilled;
+        long tripsCompleted;
+        BigDecimal revenue = BigDecimal.ZERO;
+        long tripsCancelled;
+
+        CorridorCounters add(CorridorCounters other) {
+            bookingsRequested += other.bookingsRequested;
+            seatsRequested += other.seatsRequested;
+            bookingsRejected += other.bookingsRejected;
+            bookingsConfirmed += other.bookingsConfirmed;
+            seatsConfirmed += other.seatsConfirmed;
+            confirmedAmount = confirmedAmount.add(other.confirmedAmount);
+            bookingsCancelled += other.bookingsCancelled;
+            departures += other.departures;
+            seatsOffered += other.seatsOffered;
+            seatsFilled += other.seatsFilled;
+            tripsCompleted += other.tripsCompleted;
+            revenue = revenue.add(other.revenue);
+            tripsCancelled += other.tripsCancelled;
+            return this;
+        }
+    }
+
+    static final class PartitionPanes {
+        final Map<CorridorKey, CorridorCounters> corridors = new HashMap<>();
+        final Map<SignupKey, Long> signups = new HashMap<>();
+        long nextOffset;
+
+        PartitionPanes add(PartitionPanes other) {
+            other.corridors.forEach((key, counters) -> corridors.merge(key, counters, CorridorCounters::add));
+            other.signups.forEach((key, count) -> signups.merge(key, count, Long::sum));
+            nextOffset = Math.max(nextOffset, other.nextOffset);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.axisride.analytics.service;
+
+import com.axisride.analytics.entity.StreamOffset;
+import com.axisride.analytics.repository.StreamOffsetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Stored side of {@link StatsAggregator}: adds snapshots to the pane rows and keeps the table
+ * compact.
+ * <p>
+ * A snapshot is one transaction of JDBC batches, so several instances can add to the same
+ * rows and the stored offsets never run ahead of the counters. Panes older than
+ * {@code analytics.compaction.after} are rolled up into hourly rows by a single
+ * {@code DELETE ... RETURNING} feeding the hourly upsert: a late snapshot landing on a pane
+ * that is being rolled up is either moved with it or left for the next compaction, never lost.
+ */
+@Component
+@Slf4j
+public class StatsSnapshotStore {
+
+    private static final int HOURLY = 60;
+
+    private static final String[] CORRIDOR_COUNTERS = {
+            "bookings_requested", "seats_requested", "bookings_rejected", "bookings_confirmed", "seats_confirmed",
+            "confirmed_amount", "bookings_cancelled", "departures", "seats_offered", "seats_filled",
+            "trips_completed", "revenue", "trips_cancelled"};
+
+    private static final String CORRIDOR_KEY = "bucket_minutes, bucket_start, departure_city, arrival_city, currency";
+
+    private static final String MERGE_CORRIDOR =
+            " ON CONFLICT (" + CORRIDOR_KEY + ") DO UPDATE SET " +
+            mergeCounters("corridor_stats", CORRIDOR_COUNTERS) + ", updated_at = EXCLUDED.updated_at";
+
+    private static final String UPSERT_CORRIDOR =
+            "INSERT INTO corridor_stats (" + CORRIDOR_KEY + ", " + String.join(", ", CORRIDOR_COUNTERS) + ", updated_at) " +
+            "VALUES (" + String.join(", ", Collections.nCopies(CORRIDOR_COUNTERS.length + 6, "?")) + ")" +
+            MERGE_CORRIDOR;
+
+    private static final String ROLL_UP_CORRIDORS =
+            "WITH moved AS (DELETE FROM corridor_stats WHERE bucket_minutes < " + HOURLY + " AND bucket_start < ? " +
+            "  RETURNING *) " +
+            "INSERT INTO corridor_stats (" + CORRIDOR_KEY + ", " + String.join(", ", CORRIDOR_COUNTERS) + ", updated_at) " +
+            "SELECT " + HOURLY + ", date_trunc('hour', bucket_start), departure_city, arrival_city, currency, " +
+            sumCounters(CORRIDOR_COUNTERS) + ", CAST(? AS timestamp) FROM moved " +
+            "GROUP BY date_trunc('hour', bucket_start), departure_city, arrival_city, currency" +
+            MERGE_CORRIDOR;
+
+    private static final String MERGE_SIGNUPS =
+            " ON CONFLICT (bucket_minutes, bucket_start, role) DO UPDATE SET " +
+            "signups = signup_stats.signups + EXCLUDED.signups, updated_at = EXCLUDED.updated_at";
+
+    private static final String UPSERT_SIGNUPS =
+            "INSERT INTO signup_stats (bucket_minutes, bucket_start, role, signups, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?)" + MERGE_SIGNUPS;
+
+    private static final String ROLL_UP_SIGNUPS =
+            "WITH moved AS (DELETE FROM signup_stats WHERE bucket_minutes < " + HOURLY + " AND bucket_start < ? " +
+            "  RETURNING *) " +
+            "INSERT INTO signup_stats (bucket_minutes, bucket_start, role, signups, updated_at) " +
+            "SELECT " + HOURLY + ", date_trunc('hour', bucket_start), role, SUM(signups), CAST(? AS timestamp) FROM moved " +
+            "GROUP BY date_trunc('hour', bucket_start), role" + MERGE_SIGNUPS;
+
+    private static final String UPSERT_OFFSET =
+            "INSERT INTO stream_offsets (topic, partition_id, next_offset, updated_at) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (topic, partition_id) DO UPDATE SET " +
+            "next_offset = EXCLUDED.next_offset, updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StreamOffsetRepository offsetRepository;
+    private final Duration compactAfter;
+    private final Duration retention;
+
+    public StatsSnapshotStore(JdbcTemplate jdbcTemplate,
+                              StreamOffsetRepository offsetRepository,
+                              @Value("${analytics.compaction.after:P2D}") Duration compactAfter,
+                              @Value("${analytics.compaction.retention:P400D}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.offsetRepository = offsetRepository;
+        this.compactAfter = compactAfter;
+        this.retention = retention;
+    }
+
+    /**
+     * Adds the panes of {@code partitions}, merged, to the stored panes of
+     * {@code bucketMinutes} and moves the partitions' stored offsets past them.
+     */
+    @Transactional
+    public void write(int bucketMinutes, Map<TopicPartition, StatsAggregator.PartitionPanes> partitions) {
+        Map<StatsAggregator.CorridorKey, StatsAggregator.CorridorCounters> corridors = new HashMap<>();
+        Map<StatsAggregator.SignupKey, Long> signups = new HashMap<>();
+        partitions.values().forEach(panes -> {
+            panes.corridors.forEach((key, counters) ->
+                    corridors.computeIfAbsent(key, k -> new StatsAggregator.CorridorCounters()).add(counters));
+            panes.signups.forEach((key, count) -> signups.merge(key, count, Long::sum));
+        });
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> corridorRows = new ArrayList<>(corridors.size());
+        corridors.forEach((key, counters) -> corridorRows.add(new Object[]{
+                bucketMinutes, Timestamp.valueOf(key.bucketStart()), key.departureCity(), key.arrivalCity(),
+                key.currency(), counters.bookingsRequested, counters.seatsRequested, counters.bookingsRejected,
+                counters.bookingsConfirmed, counters.seatsConfirmed, counters.confirmedAmount,
+                counters.bookingsCancelled, counters.departures, counters.seatsOffered, counters.seatsFilled,
+                counters.tripsCompleted, counters.revenue, counters.tripsCancelled, now}));
+        List<Object[]> signupRows = new ArrayList<>(signups.size());
+        signups.forEach((key, count) -> signupRows.add(new Object[]{
+                bucketMinutes, Timestamp.valueOf(key.bucketStart()), key.role(), count, now}));
+        List<Object[]> offsetRows = new ArrayList<>(partitions.size());
+        partitions.forEach((partition, panes) -> offsetRows.add(new Object[]{
+                partition.topic(), partition.partition(), panes.nextOffset, now}));
+
+        if (!corridorRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_CORRIDOR, corridorRows);
+        }
+        if (!signupRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SIGNUPS, signupRows);
+        }
+        jdbcTemplate.batchUpdate(UPSERT_OFFSET, offsetRows);
+    }
+
+    /**
+     * Stored next offset of each of {@code partitions} that has one.
+     */
+    public Map<TopicPartition, Long> nextOffsets(Collection<TopicPartition> partitions) {
+        Set<String> topics = partitions.stream().map(TopicPartition::topic).collect(Collectors.toSet());
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (StreamOffset offset : offsetRepository.findByTopicIn(topics)) {
+            TopicPartition partition = new TopicPartition(offset.getTopic(), offset.getPartitionId());
+            if (partitions.contains(partition)) {
+                offsets.put(partition, offset.getNextOffset());
+            }
+        }
+        return offsets;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.compaction.interval-ms:600000}")
+    public void compact() {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp cutoff = Timestamp.valueOf(now.minus(compactAfter).truncatedTo(ChronoUnit.HOURS));
+        Timestamp expiry = Timestamp.valueOf(now.minus(retention));
+        try {
+            int corridors = jdbcTemplate.update(ROLL_UP_CORRIDORS, cutoff, Timestamp.valueOf(now));
+            int signups = jdbcTemplate.update(ROLL_UP_SIGNUPS, cutoff, Timestamp.valueOf(now));
+            int expired = jdbcTemplate.update("DELETE FROM corridor_stats WHERE bucket_start < ?", expiry)
+                    + jdbcTemplate.update("DELETE FROM signup_stats WHERE bucket_start < ?", expiry);
+            log.debug("Rolled panes before {} into {} corridor and {} signup hours, expired {} rows",
+                    cutoff, corridors, signups, expired);
+        } catch (RuntimeException e) {
+            log.warn("Analytics compaction failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private static String mergeCounters(String table, String[] columns) {
+        List<String> merges = new ArrayList<>(columns.length);
+        for (String column : columns) {
+            merges.add(column + " = " + table + "." + column + " + EXCLUDED." + column);
+        }
+        return String.join(", ", merges);
+    }
+
+    private static String sumCounters(String[] columns) {
+        List<String> sums = new ArrayList<>(columns.length);
+        for (String column : columns) {
+            sums.add("SUM(" + column + ")");
+        }
+        return String.join(", ", sums);
+    }
+}
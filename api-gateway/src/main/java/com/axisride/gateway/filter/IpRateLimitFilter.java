@@ -0,0 +1,46 @@
+package com.axisride.gateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Per client IP bucket, taken before authentication so that invalid tokens are rate limited
+ * too.
+ */
+@Component
+public class IpRateLimitFilter extends RateLimitFilter {
+
+    private final RemoteAddressResolver addressResolver;
+
+    public IpRateLimitFilter(ReactiveStringRedisTemplate redisTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${gateway.rate-limit.ip.replenish-rate:50}") int replenishRate,
+                             @Value("${gateway.rate-limit.ip.burst-capacity:100}") int burstCapacity,
+                             @Value("${gateway.rate-limit.trusted-proxies:0}") int trustedProxies) {
+        super(redisTemplate, meterRegistry, "ip", replenishRate, burstCapacity);
+        this.addressResolver = trustedProxies > 0
+                ? XForwardedRemoteAddressResolver.maxTrustedIndex(trustedProxies)
+                : new RemoteAddressResolver() { };
+    }
+
+    @Override
+    protected String bucket(ServerWebExchange exchange) {
+        InetSocketAddress address = addressResolver.resolve(exchange);
+        if (address == null || address.getAddress() == null) {
+            return "unknown";
+        }
+        return address.getAddress().getHostAddress();
+    }
+
+    @Override
+    public int getOrder() {
+        return -110;
+    }
+}
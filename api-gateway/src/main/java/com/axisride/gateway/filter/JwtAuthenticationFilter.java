@@ -0,0 +1,289 @@
+package com.axisride.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authenticates every routed request at the edge.
+ * <p>
+ * Bearer tokens are verified locally with the shared HMAC secret; verified claims are kept in
+ * a bounded cache until the token expires. Revoked tokens are looked up in Redis under
+ * {@code auth:revoked:<sha256>} (written by auth-service on logout), with the answer memoised
+ * for a few seconds. The user id, email and roles are then forwarded as {@code X-User-*}
+ * headers, which are always stripped from the incoming request so clients cannot forge them.
+ * Requests without a valid token only pass on the configured public paths, where an invalid,
+ * expired or revoked token is removed and the request continues anonymously.
+ * <p>
+ * Browsers cannot set headers on a WebSocket handshake, so on the configured WebSocket paths
+ * the token may instead come as a {@code bearer.<token>} entry of {@code Sec-WebSocket-Protocol}
+ * or, failing that, as the {@code access_token} query parameter. Both are removed before the
+ * handshake is forwarded, so the token never reaches a backend or its access logs. The
+ * backend echoes one of the remaining subprotocols, which browsers require once any was
+ * offered: a client sending the token this way also offers the endpoint's own subprotocol
+ * ({@code v12.stomp} for chat, {@code locations.v1} for the location stream).
+ */
+@Component
+public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_EMAIL_HEADER = "X-User-Email";
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String REVOKED_PREFIX = "auth:revoked:";
+    private static final String WEBSOCKET_PROTOCOL_HEADER = "Sec-WebSocket-Protocol";
+    private static final String PROTOCOL_TOKEN_PREFIX = "bearer.";
+    private static final String ACCESS_TOKEN_PARAM = "access_token";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final JwtParser jwtParser;
+    private final List<PathPattern> publicPaths;
+    private final List<PathPattern> publicGetPaths;
+    private final List<PathPattern> websocketPaths;
+    private final Cache<String, Claims> verifiedTokens;
+    private final Cache<String, Boolean> revocationChecks;
+
+    public JwtAuthenticationFilter(ReactiveStringRedisTemplate redisTemplate,
+                                   @Value("${jwt.secret}") String jwtSecret,
+                                   @Value("${gateway.auth.public-paths}") List<String> publicPaths,
+                                   @Value("${gateway.auth.public-get-paths}") List<String> publicGetPaths,
+                                   @Value("${gateway.auth.websocket-paths:}") List<String> websocketPaths,
+                                   @Value("${gateway.auth.cache.max-size:50000}") long cacheSize,
+                                   @Value("${gateway.auth.revocation-check-ttl:PT5S}") Duration revocationCheckTtl) {
+        this.redisTemplate = redisTemplate;
+        this.jwtParser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
+                .build();
+        this.publicPaths = parse(publicPaths);
+        this.publicGetPaths = parse(publicGetPaths);
+        this.websocketPaths = parse(websocketPaths);
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.revocationChecks = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(revocationCheckTtl)
+                .build();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest incoming = exchange.getRequest();
+        String token = extractToken(incoming);
+        boolean handshake = isWebSocketHandshake(incoming);
+        ServerHttpRequest.Builder builder = incoming.mutate()
+                .headers(headers -> {
+                    headers.remove(USER_ID_HEADER);
+                    headers.remove(USER_EMAIL_HEADER);
+                    headers.remove(USER_ROLES_HEADER);
+                    if (handshake) {
+                        removeProtocolTokens(headers);
+                    }
+                });
+        if (handshake) {
+            builder.uri(UriComponentsBuilder.fromUri(incoming.getURI())
+                    .replaceQueryParam(ACCESS_TOKEN_PARAM)
+                    .build(true)
+                    .toUri());
+        }
+        ServerHttpRequest request = builder.build();
+        boolean publicPath = isPublic(request);
+
+        if (token == null) {
+            return publicPath ? chain.filter(exchange.mutate().request(request).build()) : unauthorized(exchange);
+        }
+
+        String tokenHash = hash(token);
+        Claims claims = verify(token, tokenHash);
+        if (claims == null) {
+            return publicPath ? anonymous(exchange, request, chain) : unauthorized(exchange);
+        }
+
+        return isRevoked(tokenHash).flatMap(revoked -> {
+            if (revoked) {
+                return publicPath ? anonymous(exchange, request, chain) : unauthorized(exchange);
+            }
+            String userId = claims.get("userId", String.class);
+            if (userId == null) {
+                // Refresh tokens carry no user id and are only accepted where no identity is needed
+                return publicPath ? chain.filter(exchange.mutate().request(request).build()) : unauthorized(exchange);
+            }
+
+            List<?> roles = claims.get("roles", List.class);
+            ServerHttpRequest authenticated = request.mutate()
+                    .header(USER_ID_HEADER, userId)
+                    .header(USER_EMAIL_HEADER, claims.getSubject())
+                    .header(USER_ROLES_HEADER, roles != null ? String.join(",", roles.stream().map(String::valueOf).toList()) : "")
+                    .build();
+            return chain.filter(exchange.mutate().request(authenticated).build());
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return -100;
+    }
+
+    private Claims verify(String token, String tokenHash) {
+        Claims cached = verifiedTokens.getIfPresent(tokenHash);
+        if (cached != null && cached.getExpiration().after(new Date())) {
+            return cached;
+        }
+        try {
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            if (claims.getExpiration() == null) {
+                return null;
+            }
+            verifiedTokens.put(tokenHash, claims);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected JWT: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Mono<Boolean> isRevoked(String tokenHash) {
+        Boolean known = revocationChecks.getIfPresent(tokenHash);
+        if (known != null) {
+            return Mono.just(known);
+        }
+        return redisTemplate.hasKey(REVOKED_PREFIX + tokenHash)
+                .doOnNext(revoked -> revocationChecks.put(tokenHash, revoked))
+                .onErrorResume(e -> {
+                    // Revocation is best effort: a valid signature is still accepted when Redis is down
+                    log.warn("Token revocation check failed: {}", e.getMessage());
+                    return Mono.just(false);
+                });
+    }
+
+    private boolean isPublic(ServerHttpRequest request) {
+        PathContainer path = request.getPath().pathWithinApplication();
+        if (publicPaths.stream().anyMatch(pattern -> pattern.matches(path))) {
+            return true;
+        }
+        return HttpMethod.GET.equals(request.getMethod())
+                && publicGetPaths.stream().anyMatch(pattern -> pattern.matches(path));
+    }
+
+    private String extractToken(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            return header.substring(BEARER_PREFIX.length()).trim();
+        }
+        if (!isWebSocketHandshake(request)) {
+            return null;
+        }
+        for (String protocols : request.getHeaders().getOrEmpty(WEBSOCKET_PROTOCOL_HEADER)) {
+            for (String protocol : protocols.split(",")) {
+                protocol = protocol.trim();
+                if (protocol.startsWith(PROTOCOL_TOKEN_PREFIX)) {
+                    return protocol.substring(PROTOCOL_TOKEN_PREFIX.length());
+                }
+            }
+        }
+        return request.getQueryParams().getFirst(ACCESS_TOKEN_PARAM);
+    }
+
+    private boolean isWebSocketHandshake(ServerHttpRequest request) {
+        PathContainer path = request.getPath().pathWithinApplication();
+        return HttpMethod.GET.equals(request.getMethod())
+                && "websocket".equalsIgnoreCase(request.getHeaders().getUpgrade())
+                && websocketPaths.stream().anyMatch(pattern -> pattern.matches(path));
+    }
+
+    // Keeps the subprotocols the client offered for the backend to choose from
+    private static void removeProtocolTokens(HttpHeaders headers) {
+        List<String> protocols = headers.getOrEmpty(WEBSOCKET_PROTOCOL_HEADER).stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .filter(protocol -> !protocol.isEmpty() && !protocol.startsWith(PROTOCOL_TOKEN_PREFIX))
+                .toList();
+        if (protocols.isEmpty()) {
+            headers.remove(WEBSOCKET_PROTOCOL_HEADER);
+        } else {
+            headers.set(WEBSOCKET_PROTOCOL_HEADER, String.join(", ", protocols));
+        }
+    }
+
+    // A stale or bad token on a public path is dropped rather than failing the request
+    private Mono<Void> anonymous(ServerWebExchange exchange, ServerHttpRequest request, GatewayFilterChain chain) {
+        ServerHttpRequest withoutToken = request.mutate()
+                .headers(headers -> headers.remove(HttpHeaders.AUTHORIZATION))
+                .build();
+        return chain.filter(exchange.mutate().request(withoutToken).build());
+    }
+
+    private Mono<Void> unauthorized(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        return exchange.getResponse().setComplete();
+    }
+
+    private static List<PathPattern> parse(List<String> patterns) {
+        return patterns.stream()
+                .map(String::trim)
+                .filter(pattern -> !pattern.isEmpty())
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.axisride.gateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Redis token-bucket rate limiting for routed requests, one bucket per key of a scope.
+ * <p>
+ * {@link IpRateLimitFilter} runs before {@link JwtAuthenticationFilter}, so floods are cut off
+ * before any token is verified; {@link UserRateLimitFilter} runs after it, on the verified
+ * user id. Each bucket is checked and updated by one Lua script call so it is shared by all
+ * gateway instances. Rejected requests get a 429; if Redis is unavailable requests are let
+ * through.
+ */
+public abstract class RateLimitFilter implements GlobalFilter, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    private static final RedisScript<Long> SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/token_bucket.lua"), Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String scope;
+    private final int replenishRate;
+    private final int burstCapacity;
+
+    protected RateLimitFilter(ReactiveStringRedisTemplate redisTemplate, MeterRegistry meterRegistry,
+                              String scope, int replenishRate, int burstCapacity) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.scope = scope;
+        this.replenishRate = replenishRate;
+        this.burstCapacity = burstCapacity;
+    }
+
+    /**
+     * The bucket of this request within the scope, or {@code null} if the scope does not apply.
+     */
+    protected abstract String bucket(ServerWebExchange exchange);
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String bucket = bucket(exchange);
+        if (bucket == null) {
+            return chain.filter(exchange);
+        }
+        List<String> keys = List.of("rate:" + scope + ":" + bucket);
+        List<String> args = List.of("1", String.valueOf(replenishRate), String.valueOf(burstCapacity));
+
+        return redisTemplate.execute(SCRIPT, keys, args)
+                .next()
+                .onErrorResume(e -> {
+                    log.warn("Rate limiter unavailable, letting request through: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .map(remaining -> {
+                    setRemaining(exchange.getResponse().getHeaders(), Math.max(remaining, 0));
+                    return remaining >= 0;
+                })
+                .defaultIfEmpty(true)
+                .flatMap(allowed -> {
+                    if (allowed) {
+                        return chain.filter(exchange);
+                    }
+                    meterRegistry.counter("gateway.rate_limit.rejected", "scope", scope).increment();
+                    exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                    return exchange.getResponse().setComplete();
+                });
+    }
+
+    // The header reports the scarcest of the buckets the request went through
+    private static void setRemaining(HttpHeaders headers, long remaining) {
+        String previous = headers.getFirst(REMAINING_HEADER);
+        if (previous == null || Long.parseLong(previous) > remaining) {
+            headers.set(REMAINING_HEADER, String.valueOf(remaining));
+        }
+    }
+}
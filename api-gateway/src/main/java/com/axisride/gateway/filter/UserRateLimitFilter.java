@@ -0,0 +1,32 @@
+package com.axisride.gateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Per user bucket, taken after {@link JwtAuthenticationFilter} has set the verified user id.
+ * Anonymous requests only count against their IP.
+ */
+@Component
+public class UserRateLimitFilter extends RateLimitFilter {
+
+    public UserRateLimitFilter(ReactiveStringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${gateway.rate-limit.user.replenish-rate:20}") int replenishRate,
+                               @Value("${gateway.rate-limit.user.burst-capacity:40}") int burstCapacity) {
+        super(redisTemplate, meterRegistry, "user", replenishRate, burstCapacity);
+    }
+
+    @Override
+    protected String bucket(ServerWebExchange exchange) {
+        return exchange.getRequest().getHeaders().getFirst(JwtAuthenticationFilter.USER_ID_HEADER);
+    }
+
+    @Override
+    public int getOrder() {
+        return -90;
+    }
+}
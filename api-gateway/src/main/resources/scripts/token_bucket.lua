@@ -0,0 +1,27 @@
+-- Token bucket checked and consumed atomically.
+-- KEYS[1]  bucket hash
+-- ARGV[1]  tokens requested
+-- ARGV[2]  replenish rate (tokens per second)
+-- ARGV[3]  burst capacity
+-- Returns the tokens left when allowed, -1 when rejected
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local requested = tonumber(ARGV[1])
+local rate = tonumber(ARGV[2])
+local capacity = tonumber(ARGV[3])
+
+local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local available = tonumber(bucket[1]) or capacity
+local last = tonumber(bucket[2]) or now
+available = math.min(capacity, available + math.max(0, now - last) * rate / 1000)
+
+local allowed = available >= requested
+if allowed then
+  available = available - requested
+end
+redis.call('HSET', KEYS[1], 'tokens', available, 'ts', now)
+redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate * 1000) * 2)
+if allowed then
+  return math.floor(available)
+end
+return -1
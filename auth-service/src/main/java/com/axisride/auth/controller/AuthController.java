@@ -2,6 +2,7 @@ package com.axisride.auth.controller;
 
 import com.axisride.auth.dto.AuthResponse;
 import com.axisride.auth.dto.LoginRequest;
+import com.axisride.auth.dto.LogoutRequest;
 import com.axisride.auth.dto.RegisterRequest;
 import com.axisride.auth.service.AuthService;
 import jakarta.validation.Valid;
@@ -36,6 +37,14 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
     
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String accessToken,
+                                       @RequestBody(required = false) LogoutRequest request) {
+        String token = accessToken != null ? accessToken.replace("Bearer ", "") : null;
+        authService.logout(token, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
+    
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Auth Service is running");
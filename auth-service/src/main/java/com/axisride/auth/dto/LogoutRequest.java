@@ -0,0 +1,16 @@
+package com.axisride.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LogoutRequest {
+    
+    // Revoked together with the access token, so the session cannot be renewed
+    private String refreshToken;
+}
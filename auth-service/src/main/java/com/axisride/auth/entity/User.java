@@ -40,7 +40,7 @@ public class User {
     @Column(name = "last_name", nullable = false, length = 50)
     private String lastName;
     
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id"),
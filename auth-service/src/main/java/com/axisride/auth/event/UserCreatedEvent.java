@@ -0,0 +1,30 @@
+package com.axisride.auth.event;
+
+import com.axisride.events.EventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Payload of the {@code user.created} topic. Carries only the public profile, never the
+ * password hash or two-factor secret of the {@code User} entity.
+ */
+@EventType(name = "UserCreated", version = 1)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserCreatedEvent {
+    
+    private String userId;
+    private String email;
+    private String phoneNumber;
+    private String firstName;
+    private String lastName;
+    private Set<String> roles;
+    private LocalDateTime createdAt;
+}
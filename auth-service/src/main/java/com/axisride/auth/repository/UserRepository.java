@@ -1,16 +1,45 @@
 package com.axisride.auth.repository;
 
 import com.axisride.auth.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByEmail(String email);
     Optional<User> findByPhoneNumber(String phoneNumber);
     Optional<User> findByKeycloakUserId(String keycloakUserId);
     Boolean existsByEmail(String email);
     Boolean existsByPhoneNumber(String phoneNumber);
+    
+    /**
+     * Resolves a login identifier against both the email and the phone number indexes in a
+     * single statement, roles included. An email match wins over a phone match.
+     */
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.roles " +
+           "WHERE u.email = :identity OR u.phoneNumber = :identity")
+    List<User> findAllByLoginIdentity(@Param("identity") String identity);
+    
+    default Optional<User> findByLoginIdentity(String identity) {
+        List<User> users = findAllByLoginIdentity(identity);
+        return users.stream()
+                .filter(user -> identity.equals(user.getEmail()))
+                .findFirst()
+                .or(() -> users.stream().findFirst());
+    }
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash, u.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE u.id = :id AND u.password = :oldHash")
+    int updatePasswordHash(@Param("id") String id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
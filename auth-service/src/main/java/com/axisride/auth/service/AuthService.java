@@ -5,17 +5,18 @@ import com.axisride.auth.dto.LoginRequest;
 import com.axisride.auth.dto.RegisterRequest;
 import com.axisride.auth.entity.Role;
 import com.axisride.auth.entity.User;
-import com.axisride.auth.repository.RoleRepository;
+import com.axisride.auth.event.UserCreatedEvent;
 import com.axisride.auth.repository.UserRepository;
+import com.axisride.outbox.OutboxPublisher;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -25,10 +26,12 @@ import java.util.stream.Collectors;
 public class AuthService {
     
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final RoleCache roleCache;
+    private final PasswordVerificationService passwordVerificationService;
     private final JwtService jwtService;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final TokenRevocationService tokenRevocationService;
+    private final LastLoginWriter lastLoginWriter;
+    private final OutboxPublisher outboxPublisher;
     
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -45,7 +48,7 @@ public class AuthService {
         User user = User.builder()
                 .email(request.getEmail())
                 .phoneNumber(request.getPhoneNumber())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordVerificationService.encode(request.getPassword()))
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
                 .emailVerified(false)
@@ -59,32 +62,25 @@ public class AuthService {
         String roleName = request.getRole() != null && request.getRole().equalsIgnoreCase("DRIVER") 
                 ? "ROLE_DRIVER" : "ROLE_USER";
         
-        Role userRole = roleRepository.findByName(Role.RoleName.valueOf(roleName))
-                .orElseThrow(() -> new RuntimeException("Role not found"));
-        roles.add(userRole);
+        roles.add(roleCache.get(Role.RoleName.valueOf(roleName)));
         user.setRoles(roles);
         
         // Save user
         User savedUser = userRepository.save(user);
         
-        // Publish user created event to Kafka
+        // Written to the outbox, relayed to Kafka once this transaction commits
         publishUserCreatedEvent(savedUser);
         
-        // Generate tokens
-        String accessToken = jwtService.generateAccessToken(savedUser);
-        String refreshToken = jwtService.generateRefreshToken(savedUser);
-        
-        return buildAuthResponse(savedUser, accessToken, refreshToken);
+        return issueTokens(savedUser);
     }
     
     public AuthResponse login(LoginRequest request) {
-        // Find user by email or phone
-        User user = userRepository.findByEmail(request.getEmailOrPhone())
-                .or(() -> userRepository.findByPhoneNumber(request.getEmailOrPhone()))
+        // Find user by email or phone, roles included
+        User user = userRepository.findByLoginIdentity(request.getEmailOrPhone())
                 .orElseThrow(() -> new RuntimeException("Invalid credentials"));
         
         // Check password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordVerificationService.matches(user, request.getPassword())) {
             throw new RuntimeException("Invalid credentials");
         }
         
@@ -93,37 +89,56 @@ public class AuthService {
             throw new RuntimeException("Account is inactive");
         }
         
-        // Update last login
-        user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
-        
-        // Generate tokens
-        String accessToken = jwtService.generateAccessToken(user);
-        String refreshToken = jwtService.generateRefreshToken(user);
+        // Last login is written behind, off the request path
+        lastLoginWriter.recordLogin(user.getId(), LocalDateTime.now());
         
-        return buildAuthResponse(user, accessToken, refreshToken);
+        return issueTokens(user);
     }
     
     public AuthResponse refreshToken(String refreshToken) {
-        if (!jwtService.validateToken(refreshToken)) {
-            throw new RuntimeException("Invalid refresh token");
-        }
-        
-        String email = jwtService.extractEmail(refreshToken);
+        String email = jwtService.verify(refreshToken)
+                .filter(claims -> !tokenRevocationService.isRevoked(refreshToken))
+                .map(claims -> claims.getSubject())
+                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        String newAccessToken = jwtService.generateAccessToken(user);
-        String newRefreshToken = jwtService.generateRefreshToken(user);
-        
-        return buildAuthResponse(user, newAccessToken, newRefreshToken);
+        return issueTokens(user);
     }
     
-    private AuthResponse buildAuthResponse(User user, String accessToken, String refreshToken) {
+    /**
+     * Revokes the access token and the refresh token, each when given and still valid. Either
+     * may be missing, e.g. after the access token expired; when both are valid they must belong
+     * to the same user.
+     */
+    public void logout(String token, String refreshToken) {
+        Optional<Claims> access = token != null ? jwtService.verify(token) : Optional.empty();
+        Optional<Claims> refresh = refreshToken != null ? jwtService.verify(refreshToken) : Optional.empty();
+        if (access.isPresent() && refresh.isPresent()
+                && !access.get().getSubject().equals(refresh.get().getSubject())) {
+            throw new RuntimeException("Tokens belong to different users");
+        }
+        access.ifPresent(claims -> {
+            tokenRevocationService.revoke(token, claims);
+            jwtService.evict(token);
+        });
+        refresh.ifPresent(claims -> tokenRevocationService.revoke(refreshToken, claims));
+    }
+    
+    private AuthResponse issueTokens(User user) {
+        // Role names are resolved once and shared by the access token and the response
         Set<String> roleNames = user.getRoles().stream()
                 .map(role -> role.getName().name())
                 .collect(Collectors.toSet());
         
+        String accessToken = jwtService.generateAccessToken(user, roleNames);
+        String refreshToken = jwtService.generateRefreshToken(user);
+        
+        return buildAuthResponse(user, roleNames, accessToken, refreshToken);
+    }
+    
+    private AuthResponse buildAuthResponse(User user, Set<String> roleNames, String accessToken, String refreshToken) {
+        
         AuthResponse.UserInfo userInfo = AuthResponse.UserInfo.builder()
                 .id(user.getId())
                 .email(user.getEmail())
@@ -145,11 +160,18 @@ public class AuthService {
     }
     
     private void publishUserCreatedEvent(User user) {
-        try {
-            kafkaTemplate.send("user.created", user.getId(), user);
-            log.info("Published user.created event for user: {}", user.getId());
-        } catch (Exception e) {
-            log.error("Failed to publish user.created event", e);
-        }
+        UserCreatedEvent event = UserCreatedEvent.builder()
+                .userId(user.getId())
+                .email(user.getEmail())
+                .phoneNumber(user.getPhoneNumber())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .roles(user.getRoles().stream()
+                        .map(role -> role.getName().name())
+                        .collect(Collectors.toSet()))
+                .createdAt(user.getCreatedAt())
+                .build();
+        outboxPublisher.publish("user.created", user.getId(), event);
+        log.info("Queued user.created event for user: {}", user.getId());
     }
 }
@@ -0,0 +1,124 @@
+package com.axisride.auth.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for {@code users.last_login}.
+ * <p>
+ * Logins only record the timestamp in memory; repeated logins of the same user collapse to the
+ * latest one. The buffer is flushed with a JDBC batch of narrow UPDATEs on a fixed delay, or
+ * as soon as it reaches {@code auth.last-login.batch-size}, and once more on shutdown. The
+ * UPDATE never moves {@code last_login} backwards, so a late flush cannot overwrite a newer
+ * value written by another instance.
+ */
+@Component
+@Slf4j
+public class LastLoginWriter {
+
+    private static final String UPDATE_LAST_LOGIN =
+            "UPDATE users SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ExecutorService eagerFlusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "last-login-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LastLoginWriter(JdbcTemplate jdbcTemplate,
+                           @Value("${auth.last-login.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void recordLogin(String userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (current, next) -> next.isAfter(current) ? next : current);
+        if (pending.size() >= batchSize && !flushLock.isLocked()) {
+            try {
+                eagerFlusher.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // Shutting down: the final flush picks the entry up
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.last-login.flush-interval-ms:1000}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        eagerFlusher.shutdown();
+        flushLock.lock();
+        try {
+            if (!pending.isEmpty()) {
+                log.info("Flushing {} pending last-login updates before shutdown", pending.size());
+            }
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void drain() {
+        while (!pending.isEmpty()) {
+            List<Map.Entry<String, LocalDateTime>> batch = new ArrayList<>(batchSize);
+            Iterator<String> userIds = pending.keySet().iterator();
+            while (userIds.hasNext() && batch.size() < batchSize) {
+                String userId = userIds.next();
+                LocalDateTime loginTime = pending.remove(userId);
+                if (loginTime != null) {
+                    batch.add(Map.entry(userId, loginTime));
+                }
+            }
+            if (batch.isEmpty() || !write(batch)) {
+                return;
+            }
+        }
+    }
+
+    private boolean write(List<Map.Entry<String, LocalDateTime>> batch) {
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, batch, batch.size(), (ps, entry) -> {
+                Timestamp loginTime = Timestamp.valueOf(entry.getValue());
+                ps.setTimestamp(1, loginTime);
+                ps.setString(2, entry.getKey());
+                ps.setTimestamp(3, loginTime);
+            });
+            log.debug("Flushed {} last-login updates", batch.size());
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} last-login updates, they will be retried", batch.size(), e);
+            batch.forEach(entry -> recordLogin(entry.getKey(), entry.getValue()));
+            return false;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.axisride.auth.service;
+
+import com.axisride.auth.entity.User;
+import com.axisride.auth.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs bcrypt on a small bounded pool instead of the servlet threads.
+ * <p>
+ * When the queue is full the request is refused with 429 straight away, and a request whose
+ * hash is not computed within {@code auth.password.verification.timeout} gets 503, so a login
+ * storm cannot tie up every Tomcat thread. After a successful match, hashes whose cost differs
+ * from {@code auth.password.bcrypt-strength} are re-encoded in the background; changing the
+ * property migrates users to the new cost as they log in.
+ */
+@Service
+@Slf4j
+public class PasswordVerificationService {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    private final int bcryptStrength;
+    private final Duration timeout;
+    private final ThreadPoolExecutor executor;
+
+    public PasswordVerificationService(PasswordEncoder passwordEncoder,
+                                       UserRepository userRepository,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${auth.password.bcrypt-strength:10}") int bcryptStrength,
+                                       @Value("${auth.password.verification.threads:4}") int threads,
+                                       @Value("${auth.password.verification.queue-capacity:64}") int queueCapacity,
+                                       @Value("${auth.password.verification.timeout:PT2S}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.bcryptStrength = bcryptStrength;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.password.verification.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("auth.password.verification.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks the password of {@code user}, scheduling a rehash when the stored cost is not the
+     * configured one.
+     */
+    public boolean matches(User user, String rawPassword) {
+        String encoded = user.getPassword();
+        boolean matches = submit("verify", () -> passwordEncoder.matches(rawPassword, encoded));
+        if (matches && needsRehash(encoded)) {
+            scheduleRehash(user.getId(), rawPassword, encoded);
+        }
+        return matches;
+    }
+
+    public String encode(String rawPassword) {
+        return submit("encode", () -> passwordEncoder.encode(rawPassword));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T submit(String operation, Callable<T> work) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                meterRegistry.timer("auth.password.verification.queue.wait")
+                        .record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return work.call();
+                } finally {
+                    meterRegistry.timer("auth.password.verification", "operation", operation)
+                            .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("auth.password.verification.rejected", "reason", "queue_full").increment();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts, please retry");
+        }
+
+        try {
+            return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Drops the task if it is still queued; a hash already being computed runs to completion
+            result.cancel(false);
+            executor.remove((Runnable) result);
+            meterRegistry.counter("auth.password.verification.rejected", "reason", "timeout").increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Authentication is overloaded, please retry");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(false);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Authentication interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private boolean needsRehash(String encoded) {
+        Matcher matcher = BCRYPT_COST.matcher(encoded);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != bcryptStrength;
+    }
+
+    private void scheduleRehash(String userId, String rawPassword, String oldHash) {
+        try {
+            executor.execute(() -> {
+                try {
+                    String newHash = passwordEncoder.encode(rawPassword);
+                    // Only replaces the hash that was verified, never a password changed meanwhile
+                    if (userRepository.updatePasswordHash(userId, oldHash, newHash) == 1) {
+                        meterRegistry.counter("auth.password.rehashed").increment();
+                        log.debug("Rehashed password of user {} with cost {}", userId, bcryptStrength);
+                    }
+                } catch (Exception e) {
+                    log.warn("Password rehash failed for user {}: {}", userId, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Busy: the rehash will be attempted again on the next login
+            log.debug("Skipping password rehash for user {}, executor saturated", userId);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.axisride.auth.service;
+
+import com.axisride.auth.entity.Role;
+import com.axisride.auth.repository.RoleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of the {@code roles} table. The table holds one row per {@link Role.RoleName}
+ * and rows are never renamed, so each role is read from the database once per instance.
+ */
+@Service
+@RequiredArgsConstructor
+public class RoleCache {
+
+    private final RoleRepository roleRepository;
+
+    private final Map<Role.RoleName, Role> roles = new ConcurrentHashMap<>();
+
+    public Role get(Role.RoleName name) {
+        Role cached = roles.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        // Missing roles are not cached, so a role seeded after startup is picked up
+        Role role = roleRepository.findByName(name)
+                .orElseThrow(() -> new RuntimeException("Role not found"));
+        roles.put(name, role);
+        return role;
+    }
+}
@@ -0,0 +1,37 @@
+package com.axisride.auth.service;
+
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Keeps revoked tokens in Redis under {@code auth:revoked:<sha256>} until they would have
+ * expired anyway. The api-gateway reads the same keys to reject revoked tokens at the edge.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationService {
+    
+    private static final String REVOKED_PREFIX = "auth:revoked:";
+    
+    private final StringRedisTemplate redisTemplate;
+    
+    public void revoke(String token, Claims claims) {
+        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+        if (remainingMillis <= 0) {
+            return;
+        }
+        redisTemplate.opsForValue().set(REVOKED_PREFIX + JwtService.hashToken(token), "1",
+                Duration.ofMillis(remainingMillis));
+        log.info("Revoked token for {}", claims.getSubject());
+    }
+    
+    public boolean isRevoked(String token) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(REVOKED_PREFIX + JwtService.hashToken(token)));
+    }
+}
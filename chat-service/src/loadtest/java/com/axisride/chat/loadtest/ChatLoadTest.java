@@ -0,0 +1,239 @@
+package com.axisride.chat.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Delivery latency load test for chat-service.
+ * <p>
+ * Opens one conversation per simulated passenger/driver pair, connects both over STOMP, has
+ * the passengers send messages at a fixed total rate and measures, on the driver side, the
+ * time from send to delivery. Passengers and drivers are spread round-robin over the given
+ * WebSocket URLs, so with several instances most messages cross the Redis relay. Sender and
+ * receiver share this JVM's clock, the send time travels in {@code clientMessageId}.
+ * <p>
+ * The instances under test run with the {@code loadtest} profile, whose
+ * {@link com.axisride.chat.client.LoadTestTripClient} accepts the generated trips, passengers
+ * and drivers in place of trip-service.
+ * <pre>
+ * --url=ws://host:port/chat/ws[,ws://other:port/chat/ws]   (default ws://localhost:808/chat/ws)
+ * --api=http://host:port                                    REST base, default from the first url
+ * --conversations=1000 --messages=20 --rate=2000 --connect-parallelism=200 --drain-seconds=10
+ * </pre>
+ */
+public class ChatLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        List<String> urls = Arrays.asList(options.getOrDefault("url", "ws://localhost:808/chat/ws").split(","));
+        String api = options.getOrDefault("api", urls.get(0).replaceFirst("^ws", "http").replaceFirst("/chat/ws$", ""));
+        int conversations = Integer.parseInt(options.getOrDefault("conversations", "1000"));
+        int messagesPerConversation = Integer.parseInt(options.getOrDefault("messages", "20"));
+        int rate = Integer.parseInt(options.getOrDefault("rate", "2000"));
+        int connectParallelism = Integer.parseInt(options.getOrDefault("connect-parallelism", "200"));
+        int drainSeconds = Integer.parseInt(options.getOrDefault("drain-seconds", "10"));
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        HttpClient http = HttpClient.newHttpClient();
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(converter);
+
+        int total = conversations * messagesPerConversation;
+        AtomicLongArray latencies = new AtomicLongArray(total);
+        AtomicInteger received = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        System.out.printf("Opening %d conversations (%d connections) against %s%n", conversations, conversations * 2, urls);
+        long connectStart = System.nanoTime();
+        Semaphore inFlight = new Semaphore(connectParallelism);
+        List<CompletableFuture<StompSession>> passengerFutures = new ArrayList<>(conversations);
+        List<String> conversationIds = new ArrayList<>(conversations);
+        for (int i = 0; i < conversations; i++) {
+            String passengerId = "loadtest-passenger-" + i;
+            String driverId = "loadtest-driver-" + i;
+            String conversationId = openConversation(http, objectMapper, api, passengerId, driverId, "loadtest-trip-" + i);
+            conversationIds.add(conversationId);
+
+            inFlight.acquire(2);
+            CompletableFuture<StompSession> driver = connect(stompClient, urls.get((2 * i + 1) % urls.size()), driverId)
+                    .thenApply(session -> {
+                        subscribe(session, conversationId, latencies, received);
+                        return session;
+                    });
+            CompletableFuture<StompSession> passenger = connect(stompClient, urls.get((2 * i) % urls.size()), passengerId)
+                    .thenApply(session -> {
+                        session.subscribe("/user/queue/errors", new CountingHandler(errors));
+                        return session;
+                    });
+            driver.whenComplete((s, e) -> inFlight.release());
+            passenger.whenComplete((s, e) -> inFlight.release());
+            passengerFutures.add(passenger);
+        }
+        List<StompSession> passengers = new ArrayList<>(conversations);
+        for (CompletableFuture<StompSession> future : passengerFutures) {
+            passengers.add(future.get(60, TimeUnit.SECONDS));
+        }
+        System.out.printf("Connected in %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart));
+        // Let the subscriptions (and the Redis channel listens behind them) settle
+        Thread.sleep(2000);
+
+        ScheduledExecutorService sender = Executors.newSingleThreadScheduledExecutor();
+        AtomicInteger sent = new AtomicInteger();
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(rate, 1);
+        long sendStart = System.nanoTime();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        sender.scheduleAtFixedRate(() -> {
+            int n = sent.getAndIncrement();
+            if (n >= total) {
+                done.complete(null);
+                return;
+            }
+            int conversation = n % conversations;
+            Map<String, String> body = new HashMap<>();
+            body.put("content", "load test message " + n);
+            body.put("clientMessageId", n + ":" + System.nanoTime());
+            try {
+                passengers.get(conversation).send("/app/conversations/" + conversationIds.get(conversation) + "/send", body);
+            } catch (RuntimeException e) {
+                errors.incrementAndGet();
+            }
+        }, 0, periodNanos, TimeUnit.NANOSECONDS);
+        done.get();
+        sender.shutdownNow();
+        long sendMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sendStart);
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(drainSeconds);
+        while (received.get() < total && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        report(total, sendMillis, received.get(), errors.get(), latencies);
+        System.exit(0);
+    }
+
+    private static String openConversation(HttpClient http, ObjectMapper objectMapper, String api,
+                                           String passengerId, String driverId, String tripId) throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("tripId", tripId, "driverId", driverId));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(api + "/chat/conversations"))
+                .header("Content-Type", "application/json")
+                .header("X-User-Id", passengerId)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Opening conversation failed: " + response.statusCode() + " " + response.body());
+        }
+        return objectMapper.readTree(response.body()).get("id").asText();
+    }
+
+    private static CompletableFuture<StompSession> connect(WebSocketStompClient client, String url, String userId) {
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        headers.add("X-User-Id", userId);
+        return client.connectAsync(url, headers, new StompSessionHandlerAdapter() {
+        });
+    }
+
+    private static void subscribe(StompSession session, String conversationId,
+                                  AtomicLongArray latencies, AtomicInteger received) {
+        session.subscribe("/topic/conversations/" + conversationId, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                long now = System.nanoTime();
+                Object clientMessageId = ((Map<?, ?>) payload).get("clientMessageId");
+                if (clientMessageId == null) {
+                    return;
+                }
+                String[] parts = clientMessageId.toString().split(":");
+                latencies.set(Integer.parseInt(parts[0]), now - Long.parseLong(parts[1]));
+                received.incrementAndGet();
+            }
+        });
+    }
+
+    private static void report(int total, long sendMillis, int received, int errors, AtomicLongArray latencies) {
+        long[] values = new long[received];
+        int count = 0;
+        for (int i = 0; i < latencies.length() && count < values.length; i++) {
+            long latency = latencies.get(i);
+            if (latency > 0) {
+                values[count++] = latency;
+            }
+        }
+        values = Arrays.copyOf(values, count);
+        Arrays.sort(values);
+        System.out.printf("%nSent %d messages in %d ms (%.0f msg/s), delivered %d, lost %d, errors %d%n",
+                total, sendMillis, total * 1000.0 / Math.max(sendMillis, 1), count, total - count, errors);
+        if (count == 0) {
+            return;
+        }
+        System.out.printf("Delivery latency (ms): p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                percentile(values, 0.50), percentile(values, 0.90), percentile(values, 0.99),
+                percentile(values, 0.999), values[values.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private static final class CountingHandler implements StompFrameHandler {
+
+        private final AtomicInteger counter;
+
+        CountingHandler(AtomicInteger counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return Map.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            counter.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.axisride.chat.client;
+
+import com.axisride.chat.dto.TripParticipantResponse;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Stands in for trip-service under the {@code loadtest} profile, which ChatLoadTest runs
+ * against, so conversations open without real trips and bookings. Only the load test's own
+ * users are accepted: passenger {@code loadtest-passenger-N} booked on {@code loadtest-trip-N},
+ * driven by {@code loadtest-driver-N}.
+ */
+@Component
+@Primary
+@Profile("loadtest")
+public class LoadTestTripClient implements TripClient {
+
+    private static final String TRIP_PREFIX = "loadtest-trip-";
+
+    @Override
+    public TripParticipantResponse getParticipant(String tripId, String passengerId) {
+        String n = tripId.startsWith(TRIP_PREFIX) ? tripId.substring(TRIP_PREFIX.length()) : null;
+        if (n == null || !passengerId.equals("loadtest-passenger-" + n)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "No active booking on this trip");
+        }
+        return TripParticipantResponse.builder()
+                .tripId(tripId)
+                .driverId("loadtest-driver-" + n)
+                .passengerId(passengerId)
+                .tripStatus("PLANNED")
+                .build();
+    }
+}
@@ -0,0 +1,16 @@
+package com.axisride.chat.client;
+
+import com.axisride.chat.dto.TripParticipantResponse;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+
+@FeignClient(name = "trip-service")
+public interface TripClient {
+    
+    // 404 unless the passenger holds an active booking on the trip
+    @GetMapping("/trips/{tripId}/bookings/participant")
+    TripParticipantResponse getParticipant(@PathVariable("tripId") String tripId,
+                                           @RequestHeader("X-User-Id") String passengerId);
+}
@@ -0,0 +1,54 @@
+package com.axisride.chat.config;
+
+import com.axisride.chat.service.ChatFanout;
+import com.axisride.chat.service.ConversationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Guards inbound STOMP frames: a conversation topic can only be subscribed to by its
+ * participants, and clients never publish to broker destinations directly.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatChannelInterceptor implements ChannelInterceptor {
+    
+    private static final String ERRORS_QUEUE = "/user/queue/errors";
+    
+    private final ConversationService conversationService;
+    
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        String destination = accessor.getDestination();
+        Principal user = accessor.getUser();
+        
+        if (accessor.getCommand() == StompCommand.SUBSCRIBE) {
+            if (ERRORS_QUEUE.equals(destination)) {
+                return message;
+            }
+            String conversationId = destination != null && destination.startsWith(ChatFanout.DESTINATION_PREFIX)
+                    ? destination.substring(ChatFanout.DESTINATION_PREFIX.length()) : null;
+            if (conversationId == null || user == null
+                    || !conversationService.isParticipant(conversationId, user.getName())) {
+                throw new MessageDeliveryException("Cannot subscribe to " + destination);
+            }
+        } else if (accessor.getCommand() == StompCommand.SEND
+                && (destination == null || !destination.startsWith("/app/"))) {
+            throw new MessageDeliveryException("Cannot send to " + destination);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,52 @@
+package com.axisride.chat.config;
+
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Identifies the chat user once, from the {@code X-User-Id} header the gateway sets on the
+ * handshake; the user becomes the principal of every STOMP frame of the session. Handshakes
+ * without it are refused.
+ */
+@Component
+public class ChatHandshakeHandler extends DefaultHandshakeHandler implements HandshakeInterceptor {
+    
+    private static final String USER_ID_ATTRIBUTE = "userId";
+    
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String userId = request.getHeaders().getFirst("X-User-Id");
+        if (userId == null || userId.isBlank()) {
+            return false;
+        }
+        attributes.put(USER_ID_ATTRIBUTE, userId);
+        return true;
+    }
+    
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+    
+    @Override
+    protected Principal determineUser(ServerHttpRequest request, WebSocketHandler wsHandler,
+                                      Map<String, Object> attributes) {
+        return new ChatUser((String) attributes.get(USER_ID_ATTRIBUTE));
+    }
+    
+    record ChatUser(String name) implements Principal {
+        
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
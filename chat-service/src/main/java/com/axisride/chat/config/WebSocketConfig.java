@@ -0,0 +1,100 @@
+package com.axisride.chat.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+/**
+ * STOMP over WebSocket at {@code /chat/ws}. Clients subscribe to
+ * {@code /topic/conversations/{id}} and {@code /user/queue/errors} and send to
+ * {@code /app/conversations/{id}/send}.
+ * <p>
+ * Sockets are served by Tomcat's NIO connector, so an idle connection holds no thread; frames
+ * are processed by small fixed pools sized to the CPU count. Slow clients are disconnected once
+ * their send buffer or send time limit is exceeded instead of holding back the others.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+    
+    private final ChatHandshakeHandler chatHandshakeHandler;
+    private final ChatChannelInterceptor chatChannelInterceptor;
+    
+    private TaskScheduler messageBrokerTaskScheduler;
+    
+    @Value("${chat.websocket.allowed-origins:*}")
+    private String[] allowedOrigins;
+    
+    @Value("${chat.websocket.heartbeat-ms:25000}")
+    private long heartbeatMs;
+    
+    @Value("${chat.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+    
+    @Value("${chat.websocket.send-buffer-size-limit:262144}")
+    private int sendBufferSizeLimit;
+    
+    @Value("${chat.websocket.message-size-limit:16384}")
+    private int messageSizeLimit;
+    
+    @Value("${chat.websocket.threads:0}")
+    private int threads;
+    
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler taskScheduler) {
+        this.messageBrokerTaskScheduler = taskScheduler;
+    }
+    
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/chat/ws")
+                .setHandshakeHandler(chatHandshakeHandler)
+                .addInterceptors(chatHandshakeHandler)
+                .setAllowedOriginPatterns(allowedOrigins);
+        // A sender's frames are handled in the order they arrived
+        registry.setPreserveReceiveOrder(true);
+    }
+    
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.setApplicationDestinationPrefixes("/app");
+        registry.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[]{heartbeatMs, heartbeatMs})
+                .setTaskScheduler(messageBrokerTaskScheduler);
+        // Messages of a conversation reach each session in the order they were published
+        registry.setPreservePublishOrder(true);
+    }
+    
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(chatChannelInterceptor);
+        registration.taskExecutor().corePoolSize(poolSize()).maxPoolSize(poolSize());
+    }
+    
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor().corePoolSize(poolSize()).maxPoolSize(poolSize());
+    }
+    
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
+    }
+    
+    private int poolSize() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors() * 2;
+    }
+}
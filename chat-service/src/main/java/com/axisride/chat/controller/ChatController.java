@@ -0,0 +1,50 @@
+package com.axisride.chat.controller;
+
+import com.axisride.chat.dto.ChatErrorResponse;
+import com.axisride.chat.dto.SendMessageRequest;
+import com.axisride.chat.service.ChatService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.Principal;
+
+/**
+ * STOMP side of the chat. The sent message comes back to the sender through the conversation
+ * topic like for the other participant; failures go to the sender's {@code /user/queue/errors}.
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+public class ChatController {
+    
+    private final ChatService chatService;
+    
+    @MessageMapping("/conversations/{conversationId}/send")
+    public void send(@DestinationVariable String conversationId,
+                     @Valid @Payload SendMessageRequest request,
+                     Principal user) {
+        chatService.send(conversationId, user.getName(), request);
+    }
+    
+    @MessageExceptionHandler
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public ChatErrorResponse handleError(Exception e, @DestinationVariable String conversationId,
+                                         @Payload(required = false) SendMessageRequest request) {
+        String error = e instanceof ResponseStatusException statusException
+                ? statusException.getReason() : "Message could not be sent";
+        log.debug("Chat message to conversation {} rejected: {}", conversationId, e.getMessage());
+        return ChatErrorResponse.builder()
+                .conversationId(conversationId)
+                .clientMessageId(request != null ? request.getClientMessageId() : null)
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.axisride.chat.controller;
+
+import com.axisride.chat.entity.ChatMessage;
+import com.axisride.chat.service.ChatLogRouter;
+import com.axisride.chat.service.ChatLogStore;
+import com.axisride.chat.service.ChatMessageWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Conversation logs of this instance, called by the other instances' {@link ChatLogRouter}
+ * for the conversations this one owns. Always local, and not routed by the gateway; calls for
+ * a conversation owned elsewhere are refused with 409.
+ */
+@RestController
+@RequestMapping("/internal/chat/conversations/{conversationId}/log")
+@RequiredArgsConstructor
+public class ChatLogController {
+
+    private final ChatMessageWriter messageWriter;
+    private final ChatLogStore chatLogStore;
+    private final ChatLogRouter chatLogRouter;
+
+    @PostMapping
+    public ResponseEntity<ChatMessage> append(@PathVariable String conversationId, @RequestBody ChatMessage message) {
+        requireOwner(conversationId);
+        message.setConversationId(conversationId);
+        try {
+            messageWriter.write(message);
+        } catch (UncheckedIOException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Could not store the message");
+        }
+        return ResponseEntity.ok(message);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ChatMessage>> read(
+            @PathVariable String conversationId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int limit) {
+        requireOwner(conversationId);
+        return ResponseEntity.ok(chatLogStore.read(conversationId, before, Math.min(Math.max(limit, 1), 200)));
+    }
+
+    @PostMapping("/seal")
+    public ResponseEntity<Void> seal(@PathVariable String conversationId) {
+        requireOwner(conversationId);
+        chatLogStore.seal(conversationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private void requireOwner(String conversationId) {
+        if (!chatLogRouter.ownsLocally(conversationId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Conversation is owned by another instance");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.axisride.chat.controller;
+
+import com.axisride.chat.dto.ChatMessageResponse;
+import com.axisride.chat.dto.ConversationResponse;
+import com.axisride.chat.dto.CreateConversationRequest;
+import com.axisride.chat.service.ChatService;
+import com.axisride.chat.service.ConversationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/chat/conversations")
+@RequiredArgsConstructor
+public class ConversationController {
+    
+    private final ConversationService conversationService;
+    private final ChatService chatService;
+    
+    @PostMapping
+    public ResponseEntity<ConversationResponse> openConversation(
+            @RequestHeader("X-User-Id") String passengerId,
+            @Valid @RequestBody CreateConversationRequest request) {
+        return ResponseEntity.ok(conversationService.openConversation(passengerId, request));
+    }
+    
+    @GetMapping
+    public ResponseEntity<List<ConversationResponse>> getConversations(@RequestHeader("X-User-Id") String userId) {
+        return ResponseEntity.ok(conversationService.getConversations(userId));
+    }
+    
+    @GetMapping("/{conversationId}")
+    public ResponseEntity<ConversationResponse> getConversation(
+            @PathVariable String conversationId,
+            @RequestHeader("X-User-Id") String userId) {
+        return ResponseEntity.ok(conversationService.getConversation(conversationId, userId));
+    }
+    
+    @GetMapping("/{conversationId}/messages")
+    public ResponseEntity<List<ChatMessageResponse>> getMessages(
+            @PathVariable String conversationId,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(chatService.getMessages(conversationId, userId, before, Math.min(Math.max(limit, 1), 200)));
+    }
+}
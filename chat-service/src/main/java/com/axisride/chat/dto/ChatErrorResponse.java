@@ -0,0 +1,16 @@
+package com.axisride.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatErrorResponse {
+    private String conversationId;
+    private String clientMessageId;
+    private String error;
+}
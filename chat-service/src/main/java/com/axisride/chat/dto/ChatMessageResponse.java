@@ -0,0 +1,22 @@
+package com.axisride.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatMessageResponse {
+    private String id;
+    private String conversationId;
+    private String senderId;
+    private String content;
+    private LocalDateTime sentAt;
+    private Long offset;
+    private String clientMessageId;
+}
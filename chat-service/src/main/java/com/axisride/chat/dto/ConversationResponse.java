@@ -0,0 +1,23 @@
+package com.axisride.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConversationResponse {
+    private String id;
+    private String tripId;
+    private String passengerId;
+    private String driverId;
+    private LocalDateTime createdAt;
+    private LocalDateTime lastMessageAt;
+    private Long messageCount;
+    private LocalDateTime closedAt;
+}
@@ -0,0 +1,20 @@
+package com.axisride.chat.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreateConversationRequest {
+    
+    @NotBlank(message = "Trip id is required")
+    private String tripId;
+    
+    @NotBlank(message = "Driver id is required")
+    private String driverId;
+}
@@ -0,0 +1,23 @@
+package com.axisride.chat.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SendMessageRequest {
+    
+    @NotBlank(message = "Message content is required")
+    @Size(max = 2000, message = "Message must be at most 2000 characters")
+    private String content;
+    
+    // Echoed back so the sender can match its optimistic copy
+    @Size(max = 64)
+    private String clientMessageId;
+}
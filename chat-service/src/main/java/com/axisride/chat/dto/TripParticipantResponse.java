@@ -0,0 +1,17 @@
+package com.axisride.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripParticipantResponse {
+    private String tripId;
+    private String driverId;
+    private String passengerId;
+    private String tripStatus;
+}
@@ -0,0 +1,31 @@
+package com.axisride.chat.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A message of a conversation log ({@code ChatLogStore}), not a table: Postgres only holds
+ * the conversations. The offset is the message's position in its conversation, from 0.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatMessage {
+    
+    private String id;
+    
+    private String conversationId;
+    
+    private String senderId;
+    
+    private String content;
+    
+    private LocalDateTime sentAt;
+    
+    private long offset;
+}
@@ -0,0 +1,63 @@
+package com.axisride.chat.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One chat between a passenger and the driver of a trip.
+ */
+@Entity
+@Table(name = "conversations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_conversation_trip_passenger", columnNames = {"trip_id", "passenger_id"})
+}, indexes = {
+        @Index(name = "idx_conversation_driver", columnList = "driver_id"),
+        @Index(name = "idx_conversation_closed", columnList = "closed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Conversation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+    
+    @Column(name = "trip_id", nullable = false)
+    private String tripId;
+    
+    @Column(name = "passenger_id", nullable = false)
+    private String passengerId;
+    
+    @Column(name = "driver_id", nullable = false)
+    private String driverId;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Written by ChatMessageWriter with each flush, the messages themselves are in the chat log
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+    
+    // With a default so ddl-auto can add the column to existing rows
+    @Column(name = "message_count", nullable = false, columnDefinition = "bigint not null default 0")
+    @Builder.Default
+    private long messageCount = 0;
+    
+    // Instance holding the conversation's log, set once by ChatLogRouter and never moved
+    @Column(name = "owner_instance")
+    private String ownerInstance;
+    
+    // Set when the trip is completed or cancelled, starts the log retention
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+    
+    public boolean hasParticipant(String userId) {
+        return passengerId.equals(userId) || driverId.equals(userId);
+    }
+}
@@ -0,0 +1,34 @@
+package com.axisride.chat.repository;
+
+import com.axisride.chat.entity.Conversation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, String> {
+    
+    Optional<Conversation> findByTripIdAndPassengerId(String tripId, String passengerId);
+    
+    List<Conversation> findByPassengerIdOrderByCreatedAtDesc(String passengerId);
+    
+    List<Conversation> findByDriverIdOrderByCreatedAtDesc(String driverId);
+    
+    List<Conversation> findByTripIdAndClosedAtIsNull(String tripId);
+    
+    @Query("SELECT c.ownerInstance FROM Conversation c WHERE c.id = :id")
+    Optional<String> findOwnerInstanceById(@Param("id") String id);
+    
+    // Sets the owner of conversations that have none yet; an owner once set is never replaced
+    @Transactional
+    @Modifying
+    @Query("UPDATE Conversation c SET c.ownerInstance = :owner WHERE c.id IN :ids AND c.ownerInstance IS NULL")
+    int claimOwner(@Param("ids") Collection<String> ids, @Param("owner") String owner);
+}
@@ -0,0 +1,101 @@
+package com.axisride.chat.service;
+
+import com.axisride.chat.dto.ChatMessageResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Delivers chat messages to the STOMP subscribers of this instance and relays them to the
+ * other instances through Redis pub/sub.
+ * <p>
+ * Each conversation has its own Redis channel, and an instance listens to it only while
+ * {@link ConversationSessions} has a local subscriber for the conversation, so a message is
+ * only shipped to the nodes that hold one of its two participants. The sending instance
+ * delivers locally without the Redis round trip and ignores its own echo.
+ */
+@Component
+@Slf4j
+public class ChatFanout implements MessageListener {
+
+    public static final String DESTINATION_PREFIX = "/topic/conversations/";
+    private static final String CHANNEL_PREFIX = "chat:conversation:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public ChatFanout(StringRedisTemplate redisTemplate,
+                      RedisMessageListenerContainer listenerContainer,
+                      SimpMessagingTemplate messagingTemplate,
+                      ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public void deliverLocally(ChatMessageResponse message) {
+        messagingTemplate.convertAndSend(DESTINATION_PREFIX + message.getConversationId(), message);
+    }
+
+    public void publish(ChatMessageResponse message) {
+        try {
+            String envelope = objectMapper.writeValueAsString(new Envelope(instanceId, message));
+            redisTemplate.convertAndSend(CHANNEL_PREFIX + message.getConversationId(), envelope);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialise chat message " + message.getId(), e);
+        } catch (RuntimeException e) {
+            // Stored by the write-behind writer anyway; remote participants get it from history
+            log.warn("Could not relay chat message {} to other instances: {}", message.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Starts relaying the conversation's channel to this instance. A Redis failure only costs
+     * the cross-instance relay, local subscribers are still served.
+     */
+    void listen(String conversationId) {
+        try {
+            listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL_PREFIX + conversationId));
+        } catch (RuntimeException e) {
+            log.warn("Could not listen to relay channel of conversation {}: {}", conversationId, e.getMessage());
+        }
+    }
+
+    void stopListening(String conversationId) {
+        try {
+            listenerContainer.removeMessageListener(this, new ChannelTopic(CHANNEL_PREFIX + conversationId));
+        } catch (RuntimeException e) {
+            log.warn("Could not stop listening to relay channel of conversation {}: {}", conversationId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Envelope envelope = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), Envelope.class);
+            if (!instanceId.equals(envelope.origin())) {
+                deliverLocally(envelope.message());
+            }
+        } catch (Exception e) {
+            log.warn("Ignoring malformed chat relay message: {}", e.getMessage());
+        }
+    }
+
+    record Envelope(String origin, ChatMessageResponse message) {
+    }
+}
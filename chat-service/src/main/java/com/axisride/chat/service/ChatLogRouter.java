@@ -0,0 +1,196 @@
+package com.axisride.chat.service;
+
+import com.axisride.chat.entity.ChatMessage;
+import com.axisride.chat.repository.ConversationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Sends every operation on a conversation log to the one instance that owns the conversation,
+ * so that a conversation has a single log, a single offset sequence and a single writer of its
+ * metadata.
+ * <p>
+ * Ownership is pinned in Postgres ({@code conversations.owner_instance}): the first instance
+ * to append to a conversation claims it with a conditional update, and the owner never changes
+ * afterwards. An instance only writes the logs Postgres says it owns, whatever the registry
+ * shows, so two instances never append to the same log. When the owner is not registered
+ * (restarting, or not visible yet) operations on its conversations fail with a
+ * {@link ResourceAccessException} rather than being served anywhere else. At startup an
+ * instance claims the unowned conversations it already holds logs for.
+ * <p>
+ * Logs therefore never move: replicas keep a stable {@code eureka.instance.instance-id} and
+ * their own persistent {@code chat.log.directory}, and a replaced replica comes back with both.
+ * Calls to the owner go to its {@code /internal/chat} endpoints.
+ */
+@Component
+@Slf4j
+public class ChatLogRouter {
+
+    static final String INTERNAL_PATH = "/internal/chat/conversations/{conversationId}/log";
+
+    private static final int CLAIM_BATCH_SIZE = 1000;
+
+    private final ChatMessageWriter messageWriter;
+    private final ChatLogStore chatLogStore;
+    private final ConversationRepository conversationRepository;
+    private final DiscoveryClient discoveryClient;
+    private final String serviceId;
+    private final String instanceId;
+    private final RestClient restClient;
+    // Owners are never replaced, so they are cached without expiry
+    private final Cache<String, String> owners;
+
+    public ChatLogRouter(ChatMessageWriter messageWriter,
+                         ChatLogStore chatLogStore,
+                         ConversationRepository conversationRepository,
+                         DiscoveryClient discoveryClient,
+                         RestClient.Builder restClientBuilder,
+                         @Value("${spring.application.name}") String serviceId,
+                         @Value("${eureka.instance.instance-id:${spring.application.name}}") String instanceId,
+                         @Value("${chat.log.forward-timeout:PT2S}") Duration forwardTimeout,
+                         @Value("${chat.conversations.cache.max-size:200000}") long maxOwners) {
+        this.messageWriter = messageWriter;
+        this.chatLogStore = chatLogStore;
+        this.conversationRepository = conversationRepository;
+        this.discoveryClient = discoveryClient;
+        this.serviceId = serviceId;
+        this.instanceId = instanceId;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout((int) forwardTimeout.toMillis());
+        requestFactory.setReadTimeout((int) forwardTimeout.toMillis());
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+        this.owners = Caffeine.newBuilder().maximumSize(maxOwners).build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void claimLocalLogs() {
+        List<String> local = chatLogStore.conversationIds();
+        int claimed = 0;
+        try {
+            for (int from = 0; from < local.size(); from += CLAIM_BATCH_SIZE) {
+                claimed += conversationRepository.claimOwner(
+                        local.subList(from, Math.min(from + CLAIM_BATCH_SIZE, local.size())), instanceId);
+            }
+        } catch (DataAccessException e) {
+            // Unclaimed conversations are claimed by their next append, wherever it lands
+            log.warn("Could not claim the local chat logs: {}", e.getMessage());
+        }
+        if (claimed > 0) {
+            log.info("Claimed {} conversations whose logs are on this instance", claimed);
+        }
+    }
+
+    /**
+     * Appends the message to its conversation's log on the owner and sets its offset. A
+     * conversation without an owner is claimed by this instance. Throws
+     * {@link org.springframework.web.client.RestClientException} if the owner cannot be
+     * determined or reached.
+     */
+    public void append(ChatMessage message) {
+        String owner = ownerOf(message.getConversationId(), true);
+        if (instanceId.equals(owner)) {
+            messageWriter.write(message);
+            return;
+        }
+        ChatMessage stored = restClient.post()
+                .uri(UriComponentsBuilder.fromUri(uriOf(owner)).path(INTERNAL_PATH)
+                        .buildAndExpand(message.getConversationId()).toUri())
+                .body(message)
+                .retrieve()
+                .body(ChatMessage.class);
+        message.setOffset(stored.getOffset());
+    }
+
+    public List<ChatMessage> read(String conversationId, Long before, int limit) {
+        String owner = ownerOf(conversationId, false);
+        if (owner == null) {
+            // Nothing was ever appended
+            return List.of();
+        }
+        if (instanceId.equals(owner)) {
+            return chatLogStore.read(conversationId, before, limit);
+        }
+        return restClient.get()
+                .uri(UriComponentsBuilder.fromUri(uriOf(owner)).path(INTERNAL_PATH)
+                        .queryParamIfPresent("before", Optional.ofNullable(before))
+                        .queryParam("limit", limit)
+                        .buildAndExpand(conversationId).toUri())
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<ChatMessage>>() {
+                });
+    }
+
+    public void seal(String conversationId) {
+        String owner = ownerOf(conversationId, false);
+        if (owner == null) {
+            return;
+        }
+        if (instanceId.equals(owner)) {
+            chatLogStore.seal(conversationId);
+            return;
+        }
+        restClient.post()
+                .uri(UriComponentsBuilder.fromUri(uriOf(owner)).path(INTERNAL_PATH + "/seal")
+                        .buildAndExpand(conversationId).toUri())
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    /**
+     * Whether this instance owns the conversation, checked before serving a forwarded call.
+     */
+    public boolean ownsLocally(String conversationId) {
+        return instanceId.equals(ownerOf(conversationId, false));
+    }
+
+    // The owner's instance id, or null when the conversation has none and claim is not set
+    private String ownerOf(String conversationId, boolean claim) {
+        String owner = owners.getIfPresent(conversationId);
+        if (owner != null) {
+            return owner;
+        }
+        try {
+            owner = conversationRepository.findOwnerInstanceById(conversationId).orElse(null);
+            if (owner == null && claim) {
+                // Loses to a concurrent claim from another instance, then reads its owner
+                conversationRepository.claimOwner(List.of(conversationId), instanceId);
+                owner = conversationRepository.findOwnerInstanceById(conversationId).orElseThrow(() ->
+                        new ResourceAccessException("Conversation " + conversationId + " no longer exists"));
+            }
+        } catch (DataAccessException e) {
+            throw new ResourceAccessException("Owner of conversation " + conversationId + " is unknown: "
+                    + e.getMessage());
+        }
+        if (owner != null) {
+            owners.put(conversationId, owner);
+        }
+        return owner;
+    }
+
+    private URI uriOf(String owner) {
+        for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+            if (owner.equals(instance.getInstanceId())) {
+                return instance.getUri();
+            }
+        }
+        throw new ResourceAccessException("Owner " + owner + " of the conversation is not registered");
+    }
+}
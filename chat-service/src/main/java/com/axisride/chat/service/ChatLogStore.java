@@ -0,0 +1,165 @@
+package com.axisride.chat.service;
+
+import com.axisride.chat.entity.ChatMessage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Chat history as one append-only {@link ConversationLog} per conversation, under
+ * {@code chat.log.directory}. Postgres only keeps the conversation metadata. The directory
+ * is local to the instance; callers go through {@link ChatLogRouter} so that each
+ * conversation is only written and read on the instance that owns it.
+ * <p>
+ * Recently used logs stay open (and mapped) in a bounded cache. Everything that changes a
+ * log runs inside the cache's per-key {@code compute}, so appends, sealing and deletion of
+ * one conversation never overlap and a log is never open twice. Evicted logs are not
+ * unmapped explicitly, a reader may still hold them; the mappings go with the garbage.
+ */
+@Component
+@Slf4j
+public class ChatLogStore {
+
+    private static final int MIN_SEGMENT_BYTES = 64 * 1024;
+    private static final Pattern CONVERSATION_ID = Pattern.compile("[A-Za-z0-9-]+");
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int indexInterval;
+    private final Cache<String, ConversationLog> openLogs;
+
+    public ChatLogStore(@Value("${chat.log.directory:data/chat-log}") String directory,
+                        @Value("${chat.log.segment-bytes:1048576}") int segmentBytes,
+                        @Value("${chat.log.index-interval:32}") int indexInterval,
+                        @Value("${chat.log.max-open:10000}") long maxOpen,
+                        MeterRegistry meterRegistry) {
+        if (segmentBytes < MIN_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("chat.log.segment-bytes must be at least " + MIN_SEGMENT_BYTES);
+        }
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.segmentBytes = segmentBytes;
+        this.indexInterval = Math.max(indexInterval, 1);
+        this.openLogs = Caffeine.newBuilder()
+                .maximumSize(maxOpen)
+                .removalListener((String id, ConversationLog log, RemovalCause cause) -> {
+                    if (log != null && cause.wasEvicted()) {
+                        log.force();
+                    }
+                })
+                .build();
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create chat log directory " + this.directory, e);
+        }
+        meterRegistry.gauge("chat.log.open", openLogs, Cache::estimatedSize);
+        log.info("Chat history in {} ({} byte segments)", this.directory, segmentBytes);
+    }
+
+    /**
+     * Appends the message to its conversation's log and sets its offset. The bytes are in
+     * the page cache on return; {@link #force} makes them durable.
+     */
+    public void append(ChatMessage message) {
+        openLogs.asMap().compute(message.getConversationId(), (id, log) -> {
+            ConversationLog target = log != null ? log : open(id);
+            target.append(message);
+            return target;
+        });
+    }
+
+    /**
+     * Up to {@code limit} messages older than offset {@code before} ({@code null} for the
+     * latest), newest first.
+     */
+    public List<ChatMessage> read(String conversationId, Long before, int limit) {
+        ConversationLog log = openLogs.get(conversationId, this::open);
+        return log.read(before != null ? before : Long.MAX_VALUE, limit);
+    }
+
+    public void force(Collection<String> conversationIds) {
+        for (String conversationId : conversationIds) {
+            ConversationLog log = openLogs.getIfPresent(conversationId);
+            if (log != null) {
+                log.force();
+            }
+        }
+    }
+
+    /**
+     * Compacts a conversation that is not expected to grow: its last segment gets its index
+     * written and is trimmed to the bytes used. The log is closed afterwards.
+     */
+    public void seal(String conversationId) {
+        openLogs.asMap().compute(conversationId, (id, log) -> {
+            if (log != null) {
+                log.seal();
+            } else if (ConversationLog.hasActiveSegment(resolve(id))) {
+                open(id).seal();
+            }
+            return null;
+        });
+    }
+
+    public void delete(String conversationId) {
+        openLogs.asMap().compute(conversationId, (id, log) -> {
+            Path conversationDirectory = resolve(id);
+            if (Files.isDirectory(conversationDirectory)) {
+                try (Stream<Path> files = Files.walk(conversationDirectory)) {
+                    for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                        Files.delete(file);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot delete chat log of conversation " + id, e);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Conversations with a log on this instance.
+     */
+    public List<String> conversationIds() {
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries.filter(Files::isDirectory)
+                    .map(entry -> entry.getFileName().toString())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list chat log directory " + directory, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        openLogs.asMap().values().forEach(ConversationLog::force);
+        openLogs.invalidateAll();
+    }
+
+    private ConversationLog open(String conversationId) {
+        return ConversationLog.open(conversationId, resolve(conversationId), segmentBytes, indexInterval);
+    }
+
+    private Path resolve(String conversationId) {
+        if (!CONVERSATION_ID.matcher(conversationId).matches()) {
+            throw new IllegalArgumentException("Invalid conversation id " + conversationId);
+        }
+        return directory.resolve(conversationId);
+    }
+}
@@ -0,0 +1,119 @@
+package com.axisride.chat.service;
+
+import com.axisride.chat.entity.ChatMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stores chat messages in the conversation logs and writes their metadata behind.
+ * <p>
+ * The append is a copy into a memory-mapped segment, done on the sending thread so the
+ * message has its offset before it is delivered. Each flush forces the logs written since the
+ * previous one to disk, then moves {@code last_message_at} and {@code message_count} of those
+ * conversations with one JDBC batch, so the metadata never runs ahead of the log. A failed
+ * flush keeps the conversations for the next one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatMessageWriter {
+
+    private static final String TOUCH_CONVERSATION =
+            "UPDATE conversations SET last_message_at = ?, message_count = ? " +
+            "WHERE id = ? AND message_count < ?";
+
+    private final ChatLogStore chatLogStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // conversation -> latest message not yet reflected in Postgres
+    private final Map<String, LastMessage> pending = new ConcurrentHashMap<>();
+    private Timer flushTimer;
+
+    @PostConstruct
+    void init() {
+        flushTimer = meterRegistry.timer("chat.write-behind.flush");
+        meterRegistry.gauge("chat.write-behind.pending", pending, Map::size);
+    }
+
+    /**
+     * Appends the message to its conversation's log, setting its offset.
+     */
+    public void write(ChatMessage message) {
+        chatLogStore.append(message);
+        pending.merge(message.getConversationId(), new LastMessage(message.getOffset(), message.getSentAt()),
+                LastMessage::latest);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.write-behind.flush-interval-ms:100}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            Map<String, LastMessage> batch = new HashMap<>();
+            for (String conversationId : pending.keySet()) {
+                LastMessage last = pending.remove(conversationId);
+                if (last != null) {
+                    batch.put(conversationId, last);
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Waits for a running flush, the nested tryLock is reentrant
+        flushLock.lock();
+        try {
+            flush();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeBatch(Map<String, LastMessage> batch) {
+        try {
+            flushTimer.record(() -> {
+                chatLogStore.force(batch.keySet());
+                List<Object[]> touches = new ArrayList<>(batch.size());
+                batch.forEach((conversationId, last) -> touches.add(new Object[]{
+                        Timestamp.valueOf(last.sentAt()), last.offset() + 1, conversationId, last.offset() + 1}));
+                jdbcTemplate.batchUpdate(TOUCH_CONVERSATION, touches);
+            });
+            log.debug("Stored metadata of {} conversations", batch.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to write metadata of {} conversations, it will be retried", batch.size(), e);
+            batch.forEach((conversationId, last) -> pending.merge(conversationId, last, LastMessage::latest));
+        }
+    }
+
+    record LastMessage(long offset, LocalDateTime sentAt) {
+
+        LastMessage latest(LastMessage other) {
+            return offset >= other.offset ? this : other;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.axisride.chat.service;
+
+import com.axisride.chat.entity.Conversation;
+import com.axisride.chat.event.TripBookingsChangedEvent;
+import com.axisride.chat.repository.ConversationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ties the life of chat history to the trip. When a trip is completed or cancelled its
+ * conversations are closed and their logs sealed (compacted); {@code chat.log.retention}
+ * after that, the logs and the conversation rows are deleted.
+ * <p>
+ * A trip event reaches one instance of the consumer group, which asks each conversation's
+ * owner ({@link ChatLogRouter}) to seal it. The periodic maintenance seals and purges the logs
+ * this instance holds based on the closing times in Postgres, which also covers logs left on
+ * an instance that lost the claim of their conversation.
+ */
+@Service
+@Slf4j
+public class ChatRetentionService {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ConversationService conversationService;
+    private final ConversationRepository conversationRepository;
+    private final ChatLogStore chatLogStore;
+    private final ChatLogRouter chatLogRouter;
+    private final Duration retention;
+
+    public ChatRetentionService(ConversationService conversationService,
+                                ConversationRepository conversationRepository,
+                                ChatLogStore chatLogStore,
+                                ChatLogRouter chatLogRouter,
+                                @Value("${chat.log.retention:P30D}") Duration retention) {
+        this.conversationService = conversationService;
+        this.conversationRepository = conversationRepository;
+        this.chatLogStore = chatLogStore;
+        this.chatLogRouter = chatLogRouter;
+        this.retention = retention;
+    }
+
+    @KafkaListener(topics = {TripBookingsChangedEvent.COMPLETED_TOPIC, TripBookingsChangedEvent.CANCELLED_TOPIC})
+    public void onTripClosed(TripBookingsChangedEvent event) {
+        LocalDateTime closedAt = event.getOccurredAt() != null ? event.getOccurredAt() : LocalDateTime.now();
+        List<String> closed = conversationService.closeTripConversations(event.getTripId(), closedAt);
+        for (String id : closed) {
+            try {
+                chatLogRouter.seal(id);
+            } catch (RestClientException e) {
+                // The owner seals it at its next maintenance
+                log.warn("Could not seal the log of conversation {}: {}", id, e.getMessage());
+            }
+        }
+        if (!closed.isEmpty()) {
+            log.info("Closed {} conversations of {} trip {}", closed.size(), event.getTripStatus(), event.getTripId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.log.maintenance-interval-ms:3600000}",
+            initialDelayString = "${chat.log.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        List<String> local = chatLogStore.conversationIds();
+        int sealed = 0;
+        int purged = 0;
+        for (int from = 0; from < local.size(); from += BATCH_SIZE) {
+            List<String> ids = local.subList(from, Math.min(from + BATCH_SIZE, local.size()));
+            Map<String, Conversation> conversations = conversationRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Conversation::getId, Function.identity()));
+            List<String> expired = new ArrayList<>();
+            for (String id : ids) {
+                Conversation conversation = conversations.get(id);
+                try {
+                    if (conversation == null || isBefore(conversation.getClosedAt(), cutoff)) {
+                        chatLogStore.delete(id);
+                        expired.add(id);
+                    } else if (conversation.getClosedAt() != null) {
+                        chatLogStore.seal(id);
+                        sealed++;
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Chat log maintenance failed for conversation {}", id, e);
+                }
+            }
+            if (!expired.isEmpty()) {
+                conversationService.deleteConversations(expired);
+                purged += expired.size();
+            }
+        }
+        log.info("Chat log maintenance: {} logs, {} closed, {} purged", local.size(), sealed, purged);
+    }
+
+    private static boolean isBefore(LocalDateTime closedAt, LocalDateTime cutoff) {
+        return closedAt != null && closedAt.isBefore(cutoff);
+    }
+}
@@ -0,0 +1,96 @@
+package com.axisride.chat.service;
+
+import com.axisride.chat.dto.ChatMessageResponse;
+import com.axisride.chat.dto.SendMessageRequest;
+import com.axisride.chat.entity.ChatMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Sending and reading chat messages. A message is appended to its conversation log on the
+ * instance that owns the conversation ({@link ChatLogRouter}), then delivered to the local
+ * subscribers and relayed to the other instances. Once the owner of a conversation is known
+ * nothing on the send path waits for Postgres, and history is read from the owner's log alone.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChatService {
+
+    private final ConversationService conversationService;
+    private final ConversationSessions conversationSessions;
+    private final ChatFanout fanout;
+    private final ChatLogRouter chatLogRouter;
+    private final MeterRegistry meterRegistry;
+
+    public ChatMessageResponse send(String conversationId, String senderId, SendMessageRequest request) {
+        if (!conversationService.isParticipant(conversationId, senderId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not a participant of this conversation");
+        }
+
+        ChatMessage message = ChatMessage.builder()
+                .id(UUID.randomUUID().toString())
+                .conversationId(conversationId)
+                .senderId(senderId)
+                .content(request.getContent())
+                .sentAt(LocalDateTime.now())
+                .build();
+        try {
+            chatLogRouter.append(message);
+        } catch (UncheckedIOException | RestClientException e) {
+            meterRegistry.counter("chat.messages.rejected").increment();
+            log.error("Could not store chat message in conversation {}", conversationId, e);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Chat is unavailable, please retry");
+        }
+
+        ChatMessageResponse response = toResponse(message, request.getClientMessageId());
+        if (conversationSessions.hasLocalSubscribers(conversationId)) {
+            fanout.deliverLocally(response);
+        }
+        fanout.publish(response);
+        meterRegistry.counter("chat.messages.sent").increment();
+        return response;
+    }
+
+    /**
+     * The last {@code limit} messages before offset {@code before}, or the latest ones when it
+     * is {@code null}, newest first. The oldest offset returned is the next page's cursor.
+     */
+    public List<ChatMessageResponse> getMessages(String conversationId, String userId, Long before, int limit) {
+        if (!conversationService.isParticipant(conversationId, userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Conversation not found");
+        }
+        List<ChatMessage> messages;
+        try {
+            messages = chatLogRouter.read(conversationId, before, limit);
+        } catch (RestClientException e) {
+            log.error("Could not read the history of conversation {}", conversationId, e);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Chat is unavailable, please retry");
+        }
+        return messages.stream()
+                .map(message -> toResponse(message, null))
+                .toList();
+    }
+
+    private static ChatMessageResponse toResponse(ChatMessage message, String clientMessageId) {
+        return ChatMessageResponse.builder()
+                .id(message.getId())
+                .conversationId(message.getConversationId())
+                .senderId(message.getSenderId())
+                .content(message.getContent())
+                .sentAt(message.getSentAt())
+                .offset(message.getOffset())
+                .clientMessageId(clientMessageId)
+                .build();
+    }
+}
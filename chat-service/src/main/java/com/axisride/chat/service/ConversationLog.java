@@ -0,0 +1,147 @@
+package com.axisride.chat.service;
+
+import com.axisride.chat.entity.ChatMessage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * The messages of one conversation: a directory of {@link LogSegment}s named by the offset of
+ * their first message. Offsets count the conversation's messages from 0 and are the cursor of
+ * backward pagination. Appends are serialised by {@link ChatLogStore}; reads are lock-free.
+ */
+final class ConversationLog {
+
+    private final String conversationId;
+    private final Path directory;
+    private final int segmentBytes;
+    private final int indexInterval;
+    private final ConcurrentSkipListMap<Long, LogSegment> segments = new ConcurrentSkipListMap<>();
+
+    private ConversationLog(String conversationId, Path directory, int segmentBytes, int indexInterval) {
+        this.conversationId = conversationId;
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.indexInterval = indexInterval;
+    }
+
+    /**
+     * Opens the segments found in {@code directory}. The directory itself is only created
+     * with the first message.
+     */
+    static ConversationLog open(String conversationId, Path directory, int segmentBytes, int indexInterval) {
+        ConversationLog log = new ConversationLog(conversationId, directory, segmentBytes, indexInterval);
+        if (!Files.isDirectory(directory)) {
+            return log;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(ConversationLog::isSegment).toList()) {
+                LogSegment segment = LogSegment.open(file, segmentBytes, indexInterval);
+                log.segments.put(segment.baseOffset(), segment);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open chat log of conversation " + conversationId, e);
+        }
+        return log;
+    }
+
+    long nextOffset() {
+        Map.Entry<Long, LogSegment> last = segments.lastEntry();
+        return last != null ? last.getValue().nextOffset() : 0;
+    }
+
+    /**
+     * Appends the message, rolling to a new segment when the active one is full or sealed,
+     * and sets its offset.
+     */
+    long append(ChatMessage message) {
+        long offset = nextOffset();
+        Map.Entry<Long, LogSegment> last = segments.lastEntry();
+        LogSegment active = last != null ? last.getValue() : null;
+        if (active == null || !active.append(message, offset)) {
+            try {
+                if (active != null) {
+                    active.seal();
+                } else {
+                    Files.createDirectories(directory);
+                }
+                active = LogSegment.create(directory, offset, segmentBytes, indexInterval);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot roll chat log of conversation " + conversationId, e);
+            }
+            segments.put(offset, active);
+            if (!active.append(message, offset)) {
+                throw new IllegalArgumentException("Chat message " + message.getId() + " does not fit in a log segment");
+            }
+        }
+        message.setOffset(offset);
+        return offset;
+    }
+
+    /**
+     * Up to {@code limit} messages older than offset {@code before}, newest first.
+     */
+    List<ChatMessage> read(long before, int limit) {
+        long end = Math.min(before, nextOffset());
+        Map.Entry<Long, LogSegment> first = segments.firstEntry();
+        if (first == null || end <= first.getKey()) {
+            return List.of();
+        }
+        long start = Math.max(first.getKey(), end - limit);
+        List<ChatMessage> messages = new ArrayList<>((int) (end - start));
+        for (LogSegment segment : segments.tailMap(segments.floorKey(start)).values()) {
+            if (segment.baseOffset() >= end) {
+                break;
+            }
+            segment.read(conversationId, start, end, messages);
+        }
+        Collections.reverse(messages);
+        return messages;
+    }
+
+    void seal() {
+        Map.Entry<Long, LogSegment> last = segments.lastEntry();
+        if (last == null) {
+            return;
+        }
+        try {
+            last.getValue().seal();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot seal chat log of conversation " + conversationId, e);
+        }
+    }
+
+    void force() {
+        Map.Entry<Long, LogSegment> last = segments.lastEntry();
+        if (last != null) {
+            last.getValue().force();
+        }
+    }
+
+    /**
+     * Whether {@code directory} holds a segment that was never sealed, without mapping it.
+     */
+    static boolean hasActiveSegment(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return false;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(ConversationLog::isSegment)
+                    .anyMatch(file -> !Files.exists(LogSegment.indexFile(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isSegment(Path file) {
+        return file.getFileName().toString().endsWith(LogSegment.LOG_SUFFIX);
+    }
+}
@@ -0,0 +1,170 @@
+package com.axisride.chat.service;
+
+import com.axisride.chat.client.TripClient;
+import com.axisride.chat.dto.ConversationResponse;
+import com.axisride.chat.dto.CreateConversationRequest;
+import com.axisride.chat.dto.TripParticipantResponse;
+import com.axisride.chat.entity.Conversation;
+import com.axisride.chat.repository.ConversationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Conversations and their participants. Every message sent and every subscription is checked
+ * against the participants, so they are kept in a local cache; a conversation never changes
+ * participants once created.
+ */
+@Service
+@Slf4j
+public class ConversationService {
+
+    private final ConversationRepository conversationRepository;
+    private final TripClient tripClient;
+    private final Cache<String, Participants> participants;
+
+    public ConversationService(ConversationRepository conversationRepository,
+                               TripClient tripClient,
+                               @Value("${chat.conversations.cache.max-size:200000}") long maxSize,
+                               @Value("${chat.conversations.cache.ttl:PT1H}") Duration ttl) {
+        this.conversationRepository = conversationRepository;
+        this.tripClient = tripClient;
+        this.participants = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(ttl)
+                .build();
+    }
+
+    /**
+     * Opens the conversation between the calling passenger and the trip's driver, or returns
+     * the existing one. A new conversation needs the passenger to hold an active booking on the
+     * trip and the driver to be the trip's, both checked with trip-service.
+     */
+    public ConversationResponse openConversation(String passengerId, CreateConversationRequest request) {
+        if (passengerId.equals(request.getDriverId())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot open a conversation with yourself");
+        }
+        Conversation conversation = conversationRepository
+                .findByTripIdAndPassengerId(request.getTripId(), passengerId)
+                .orElseGet(() -> create(passengerId, verifiedDriver(passengerId, request), request));
+        if (!conversation.getDriverId().equals(request.getDriverId())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Driver does not match the trip");
+        }
+        return toResponse(conversation);
+    }
+
+    public ConversationResponse getConversation(String conversationId, String userId) {
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .filter(c -> c.hasParticipant(userId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Conversation not found"));
+        return toResponse(conversation);
+    }
+
+    public List<ConversationResponse> getConversations(String userId) {
+        List<Conversation> asPassenger = conversationRepository.findByPassengerIdOrderByCreatedAtDesc(userId);
+        List<Conversation> asDriver = conversationRepository.findByDriverIdOrderByCreatedAtDesc(userId);
+        return Stream.concat(asPassenger.stream(), asDriver.stream())
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * Participants of the conversation, or {@code null} if it does not exist.
+     */
+    public Participants participants(String conversationId) {
+        return participants.get(conversationId, id -> conversationRepository.findById(id)
+                .map(c -> new Participants(c.getPassengerId(), c.getDriverId()))
+                .orElse(null));
+    }
+
+    public boolean isParticipant(String conversationId, String userId) {
+        Participants found = participants(conversationId);
+        return found != null && found.includes(userId);
+    }
+
+    /**
+     * Marks the open conversations of a completed or cancelled trip as closed and returns
+     * their ids. Already closed ones are left alone, so redelivered events are harmless.
+     */
+    @Transactional
+    public List<String> closeTripConversations(String tripId, LocalDateTime closedAt) {
+        List<Conversation> open = conversationRepository.findByTripIdAndClosedAtIsNull(tripId);
+        open.forEach(conversation -> conversation.setClosedAt(closedAt));
+        conversationRepository.saveAll(open);
+        return open.stream().map(Conversation::getId).toList();
+    }
+
+    /**
+     * Drops the metadata of conversations whose history has been purged.
+     */
+    @Transactional
+    public void deleteConversations(List<String> conversationIds) {
+        conversationRepository.deleteAllByIdInBatch(conversationIds);
+        participants.invalidateAll(conversationIds);
+    }
+
+    // The trip's driver, once trip-service confirms the passenger's booking
+    private String verifiedDriver(String passengerId, CreateConversationRequest request) {
+        TripParticipantResponse participant;
+        try {
+            participant = tripClient.getParticipant(request.getTripId(), passengerId);
+        } catch (FeignException.NotFound e) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "No active booking on this trip");
+        } catch (FeignException e) {
+            log.warn("Could not check booking of passenger {} on trip {}: {}",
+                    passengerId, request.getTripId(), e.getMessage());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Trip service unavailable");
+        }
+        return participant.getDriverId();
+    }
+
+    private Conversation create(String passengerId, String driverId, CreateConversationRequest request) {
+        Conversation conversation = Conversation.builder()
+                .tripId(request.getTripId())
+                .passengerId(passengerId)
+                .driverId(driverId)
+                .createdAt(LocalDateTime.now())
+                .build();
+        try {
+            conversation = conversationRepository.save(conversation);
+            log.info("Opened conversation {} for trip {}", conversation.getId(), conversation.getTripId());
+            return conversation;
+        } catch (DataIntegrityViolationException e) {
+            // Opened concurrently by another request
+            return conversationRepository.findByTripIdAndPassengerId(request.getTripId(), passengerId)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private ConversationResponse toResponse(Conversation conversation) {
+        return ConversationResponse.builder()
+                .id(conversation.getId())
+                .tripId(conversation.getTripId())
+                .passengerId(conversation.getPassengerId())
+                .driverId(conversation.getDriverId())
+                .createdAt(conversation.getCreatedAt())
+                .lastMessageAt(conversation.getLastMessageAt())
+                .messageCount(conversation.getMessageCount())
+                .closedAt(conversation.getClosedAt())
+                .build();
+    }
+
+    public record Participants(String passengerId, String driverId) {
+
+        public boolean includes(String userId) {
+            return passengerId.equals(userId) || driverId.equals(userId);
+        }
+    }
+}
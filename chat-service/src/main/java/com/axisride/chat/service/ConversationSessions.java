@@ -0,0 +1,104 @@
+package com.axisride.chat.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory registry of the STOMP sessions of this instance subscribed to each conversation.
+ * <p>
+ * The first local subscriber of a conversation makes {@link ChatFanout} listen to its Redis
+ * channel and the last one leaving stops it. Updates for one conversation are serialised by
+ * {@link ConcurrentHashMap#compute}, so listen and stop-listening calls cannot cross.
+ */
+@Component
+@Slf4j
+public class ConversationSessions {
+
+    private final ChatFanout fanout;
+    // conversation -> sessions, and session -> (subscription id -> conversation)
+    private final Map<String, Set<String>> sessionsByConversation = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, String>> subscriptionsBySession = new ConcurrentHashMap<>();
+
+    public ConversationSessions(ChatFanout fanout, MeterRegistry meterRegistry) {
+        this.fanout = fanout;
+        meterRegistry.gauge("chat.sessions", subscriptionsBySession, Map::size);
+        meterRegistry.gauge("chat.conversations.local", sessionsByConversation, Map::size);
+    }
+
+    public boolean hasLocalSubscribers(String conversationId) {
+        return sessionsByConversation.containsKey(conversationId);
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String conversationId = conversationId(accessor.getDestination());
+        if (conversationId == null) {
+            return;
+        }
+        subscriptionsBySession.computeIfAbsent(accessor.getSessionId(), id -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), conversationId);
+        sessionsByConversation.compute(conversationId, (id, sessions) -> {
+            if (sessions == null) {
+                fanout.listen(id);
+                sessions = new HashSet<>();
+            }
+            sessions.add(accessor.getSessionId());
+            return sessions;
+        });
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = subscriptionsBySession.get(accessor.getSessionId());
+        if (subscriptions == null) {
+            return;
+        }
+        String conversationId = subscriptions.remove(accessor.getSubscriptionId());
+        if (conversationId != null && !subscriptions.containsValue(conversationId)) {
+            leave(conversationId, accessor.getSessionId());
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = subscriptionsBySession.remove(event.getSessionId());
+        if (subscriptions == null) {
+            return;
+        }
+        for (String conversationId : Set.copyOf(subscriptions.values())) {
+            leave(conversationId, event.getSessionId());
+        }
+    }
+
+    private void leave(String conversationId, String sessionId) {
+        sessionsByConversation.computeIfPresent(conversationId, (id, sessions) -> {
+            sessions.remove(sessionId);
+            if (sessions.isEmpty()) {
+                fanout.stopListening(id);
+                return null;
+            }
+            return sessions;
+        });
+    }
+
+    static String conversationId(String destination) {
+        if (destination == null || !destination.startsWith(ChatFanout.DESTINATION_PREFIX)) {
+            return null;
+        }
+        String id = destination.substring(ChatFanout.DESTINATION_PREFIX.length());
+        return id.isEmpty() || id.indexOf('/') >= 0 ? null : id;
+    }
+}
@@ -0,0 +1,315 @@
+package com.axisride.chat.service;
+
+import com.axisride.chat.entity.ChatMessage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * One fixed-size file of a {@link ConversationLog}, memory-mapped for appends and reads.
+ * <p>
+ * A record is its length, a CRC32C of the rest, the offset, the send time in epoch
+ * microseconds (UTC), then id, sender and content as length-prefixed UTF-8; the conversation
+ * is the log's directory. The file is mapped at the full segment size up front, so its
+ * unwritten part reads as zeros and a zero length ends the scan; a torn record at the end
+ * fails its checksum on recovery and is overwritten by the next append.
+ * <p>
+ * Every {@code indexInterval}th record goes to a sparse in-memory index, so a read seeks to
+ * the nearest indexed record and scans at most {@code indexInterval - 1} records forward.
+ * Sealing writes the index next to the segment, trims the file to what was written and
+ * remaps it read-only; an unsealed segment rebuilds its index while recovering.
+ * <p>
+ * One thread appends at a time. Readers take no lock: they only look at records below
+ * {@link #nextOffset()}, which is published after the record bytes.
+ */
+final class LogSegment {
+
+    static final String LOG_SUFFIX = ".log";
+    static final String INDEX_SUFFIX = ".idx";
+
+    // length, checksum
+    private static final int RECORD_HEADER = 8;
+    // offset, sent at, and the id, sender and content lengths
+    private static final int RECORD_FIXED = 8 + 8 + 2 + 2 + 4;
+    // next offset, size
+    private static final int INDEX_HEADER = 8 + 4;
+    private static final int INDEX_ENTRY = 8;
+
+    private final Path file;
+    private final long baseOffset;
+    private final int indexInterval;
+    private final int[] indexOffsets;
+    private final int[] indexPositions;
+
+    private volatile MappedByteBuffer buffer;
+    private volatile int indexEntries;
+    private volatile int size;
+    private volatile long nextOffset;
+    private volatile boolean sealed;
+
+    private LogSegment(Path file, long baseOffset, int indexInterval, MappedByteBuffer buffer, int indexCapacity) {
+        this.file = file;
+        this.baseOffset = baseOffset;
+        this.indexInterval = indexInterval;
+        this.indexOffsets = new int[indexCapacity];
+        this.indexPositions = new int[indexCapacity];
+        this.buffer = buffer;
+        this.nextOffset = baseOffset;
+    }
+
+    static LogSegment create(Path directory, long baseOffset, int segmentBytes, int indexInterval) throws IOException {
+        Path file = directory.resolve(fileName(baseOffset, LOG_SUFFIX));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        return new LogSegment(file, baseOffset, indexInterval, buffer, indexCapacity(segmentBytes, indexInterval));
+    }
+
+    static LogSegment open(Path file, int segmentBytes, int indexInterval) throws IOException {
+        String name = file.getFileName().toString();
+        long baseOffset = Long.parseLong(name.substring(0, name.length() - LOG_SUFFIX.length()));
+        Path indexFile = indexFile(file);
+        return Files.exists(indexFile)
+                ? openSealed(file, indexFile, baseOffset, indexInterval)
+                : recover(file, baseOffset, segmentBytes, indexInterval);
+    }
+
+    private static LogSegment openSealed(Path file, Path indexFile, long baseOffset, int indexInterval) throws IOException {
+        ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+        long nextOffset = index.getLong();
+        int size = index.getInt();
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        LogSegment segment = new LogSegment(file, baseOffset, indexInterval, buffer, index.remaining() / INDEX_ENTRY);
+        while (index.remaining() >= INDEX_ENTRY) {
+            segment.addIndexEntry(index.getInt(), index.getInt());
+        }
+        segment.size = size;
+        segment.nextOffset = nextOffset;
+        segment.sealed = true;
+        return segment;
+    }
+
+    private static LogSegment recover(Path file, long baseOffset, int segmentBytes, int indexInterval) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentBytes, channel.size()));
+        }
+        LogSegment segment = new LogSegment(file, baseOffset, indexInterval, buffer,
+                indexCapacity(buffer.capacity(), indexInterval));
+        int position = 0;
+        long offset = baseOffset;
+        while (position + RECORD_HEADER + RECORD_FIXED <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length < RECORD_FIXED || position + RECORD_HEADER + length > buffer.capacity()
+                    || buffer.getInt(position + 4) != checksum(buffer, position, length)
+                    || buffer.getLong(position + RECORD_HEADER) != offset) {
+                break;
+            }
+            if ((offset - baseOffset) % indexInterval == 0) {
+                segment.addIndexEntry((int) (offset - baseOffset), position);
+            }
+            position += RECORD_HEADER + length;
+            offset++;
+        }
+        segment.size = position;
+        segment.nextOffset = offset;
+        return segment;
+    }
+
+    long baseOffset() {
+        return baseOffset;
+    }
+
+    long nextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * Appends the message at {@code offset}, which must be {@link #nextOffset()}. Returns
+     * {@code false} if the segment is sealed or has no room left for it.
+     */
+    boolean append(ChatMessage message, long offset) {
+        byte[] id = utf8(message.getId());
+        byte[] sender = utf8(message.getSenderId());
+        byte[] content = utf8(message.getContent());
+        if (id.length > 0xFFFF || sender.length > 0xFFFF) {
+            throw new IllegalArgumentException("Chat message " + message.getId() + " has an oversized id or sender");
+        }
+        int length = RECORD_FIXED + id.length + sender.length + content.length;
+        int position = size;
+        MappedByteBuffer target = buffer;
+        if (sealed || position + RECORD_HEADER + length > target.capacity()) {
+            return false;
+        }
+
+        ByteBuffer out = target.duplicate();
+        out.position(position + RECORD_HEADER);
+        out.putLong(offset)
+                .putLong(toMicros(message.getSentAt()))
+                .putShort((short) id.length).put(id)
+                .putShort((short) sender.length).put(sender)
+                .putInt(content.length).put(content);
+        target.putInt(position + 4, checksum(target, position, length));
+        target.putInt(position, length);
+        if ((offset - baseOffset) % indexInterval == 0) {
+            addIndexEntry((int) (offset - baseOffset), position);
+        }
+        size = position + RECORD_HEADER + length;
+        nextOffset = offset + 1;
+        return true;
+    }
+
+    /**
+     * Adds the messages with {@code from <= offset < to} to {@code into}, oldest first. The
+     * records are decoded straight from the mapping, without a read call or an intermediate copy
+     * of the segment.
+     */
+    void read(String conversationId, long from, long to, List<ChatMessage> into) {
+        long end = Math.min(to, nextOffset);
+        long start = Math.max(from, baseOffset);
+        if (start >= end) {
+            return;
+        }
+        ByteBuffer in = buffer.duplicate();
+        int entry = floorIndexEntry((int) (start - baseOffset));
+        long offset = baseOffset + indexOffsets[entry];
+        int position = indexPositions[entry];
+        while (offset < end) {
+            if (offset >= start) {
+                into.add(decode(in, position, conversationId));
+            }
+            position += RECORD_HEADER + in.getInt(position);
+            offset++;
+        }
+    }
+
+    void force() {
+        if (!sealed) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Stores the index, trims the file to the records written and remaps it read-only. Safe
+     * with readers in flight: the old mapping stays valid and they never read past the size.
+     */
+    void seal() throws IOException {
+        if (sealed) {
+            return;
+        }
+        buffer.force();
+        writeIndex();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        sealed = true;
+    }
+
+    private void writeIndex() throws IOException {
+        int entries = indexEntries;
+        ByteBuffer index = ByteBuffer.allocate(INDEX_HEADER + entries * INDEX_ENTRY);
+        index.putLong(nextOffset).putInt(size);
+        for (int i = 0; i < entries; i++) {
+            index.putInt(indexOffsets[i]).putInt(indexPositions[i]);
+        }
+        Path indexFile = indexFile(file);
+        Path temporary = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        Files.write(temporary, index.array());
+        Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void addIndexEntry(int relativeOffset, int position) {
+        int entries = indexEntries;
+        indexOffsets[entries] = relativeOffset;
+        indexPositions[entries] = position;
+        indexEntries = entries + 1;
+    }
+
+    private int floorIndexEntry(int relativeOffset) {
+        int low = 0;
+        int high = indexEntries - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (indexOffsets[mid] <= relativeOffset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static ChatMessage decode(ByteBuffer in, int position, String conversationId) {
+        in.position(position + RECORD_HEADER);
+        long offset = in.getLong();
+        long sentAt = in.getLong();
+        String id = readString(in, Short.toUnsignedInt(in.getShort()));
+        String senderId = readString(in, Short.toUnsignedInt(in.getShort()));
+        String content = readString(in, in.getInt());
+        return ChatMessage.builder()
+                .id(id)
+                .conversationId(conversationId)
+                .senderId(senderId)
+                .content(content)
+                .sentAt(fromMicros(sentAt))
+                .offset(offset)
+                .build();
+    }
+
+    private static String readString(ByteBuffer in, int length) {
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int checksum(ByteBuffer buffer, int position, int length) {
+        ByteBuffer body = buffer.duplicate();
+        body.limit(position + RECORD_HEADER + length).position(position + RECORD_HEADER);
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static int indexCapacity(int segmentBytes, int indexInterval) {
+        return segmentBytes / (RECORD_HEADER + RECORD_FIXED) / indexInterval + 1;
+    }
+
+    static Path indexFile(Path file) {
+        String name = file.getFileName().toString();
+        return file.resolveSibling(name.substring(0, name.length() - LOG_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    static String fileName(long baseOffset, String suffix) {
+        return String.format("%020d%s", baseOffset, suffix);
+    }
+}
@@ -0,0 +1,174 @@
+package com.axisride.chat.service;
+
+import com.axisride.chat.entity.ChatMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogSegmentTest {
+
+    private static final String CONVERSATION = "conversation-1";
+    private static final int SEGMENT_BYTES = 4096;
+    private static final int INDEX_INTERVAL = 4;
+    private static final LocalDateTime SENT_AT = LocalDateTime.of(2024, 3, 14, 8, 30, 15, 123_456_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsRangesAcrossIndexEntries() throws IOException {
+        LogSegment segment = LogSegment.create(directory, 100, SEGMENT_BYTES, INDEX_INTERVAL);
+        appendAll(segment, 100, 10);
+
+        assertThat(segment.nextOffset()).isEqualTo(110);
+        assertThat(offsets(read(segment, 103, 107))).containsExactly(103L, 104L, 105L, 106L);
+        assertThat(offsets(read(segment, 0, Long.MAX_VALUE))).hasSize(10).startsWith(100L).endsWith(109L);
+        assertThat(read(segment, 110, 120)).isEmpty();
+
+        ChatMessage message = read(segment, 105, 106).get(0);
+        assertThat(message.getId()).isEqualTo("message-105");
+        assertThat(message.getConversationId()).isEqualTo(CONVERSATION);
+        assertThat(message.getSenderId()).isEqualTo("passenger-1");
+        assertThat(message.getContent()).isEqualTo("Où êtes-vous ? 105");
+        assertThat(message.getSentAt()).isEqualTo(SENT_AT.plusSeconds(105));
+    }
+
+    @Test
+    void refusesAppendsThatDoNotFit() throws IOException {
+        LogSegment segment = LogSegment.create(directory, 0, 256, INDEX_INTERVAL);
+
+        long offset = 0;
+        while (segment.append(message(offset), offset)) {
+            offset++;
+        }
+
+        assertThat(offset).isPositive();
+        assertThat(segment.nextOffset()).isEqualTo(offset);
+        assertThat(read(segment, 0, offset)).hasSize((int) offset);
+    }
+
+    @Test
+    void recoversAnUnsealedSegmentAfterACrash() throws IOException {
+        LogSegment segment = LogSegment.create(directory, 0, SEGMENT_BYTES, INDEX_INTERVAL);
+        appendAll(segment, 0, 9);
+        segment.force();
+
+        LogSegment recovered = LogSegment.open(logFile(0), SEGMENT_BYTES, INDEX_INTERVAL);
+
+        assertThat(recovered.nextOffset()).isEqualTo(9);
+        assertThat(offsets(read(recovered, 5, 9))).containsExactly(5L, 6L, 7L, 8L);
+        assertThat(recovered.append(message(9), 9)).isTrue();
+        assertThat(offsets(read(recovered, 8, 10))).containsExactly(8L, 9L);
+    }
+
+    @Test
+    void dropsATornRecordAndOverwritesIt() throws IOException {
+        LogSegment segment = LogSegment.create(directory, 0, SEGMENT_BYTES, INDEX_INTERVAL);
+        appendAll(segment, 0, 6);
+        segment.force();
+        corrupt(logFile(0), "Où êtes-vous ? 5");
+
+        LogSegment recovered = LogSegment.open(logFile(0), SEGMENT_BYTES, INDEX_INTERVAL);
+
+        assertThat(recovered.nextOffset()).isEqualTo(5);
+        assertThat(recovered.append(message(5), 5)).isTrue();
+        assertThat(read(recovered, 5, 6)).extracting(ChatMessage::getContent).containsExactly("Où êtes-vous ? 5");
+    }
+
+    @Test
+    void stopsRecoveryAtTheFirstChecksumMismatch() throws IOException {
+        LogSegment segment = LogSegment.create(directory, 0, SEGMENT_BYTES, INDEX_INTERVAL);
+        appendAll(segment, 0, 8);
+        segment.force();
+        corrupt(logFile(0), "Où êtes-vous ? 3");
+
+        LogSegment recovered = LogSegment.open(logFile(0), SEGMENT_BYTES, INDEX_INTERVAL);
+
+        // Nothing after a damaged record is trusted, even records whose own checksum holds
+        assertThat(recovered.nextOffset()).isEqualTo(3);
+        assertThat(offsets(read(recovered, 0, 8))).containsExactly(0L, 1L, 2L);
+    }
+
+    @Test
+    void sealingTrimsTheFileAndKeepsItReadable() throws IOException {
+        LogSegment segment = LogSegment.create(directory, 40, SEGMENT_BYTES, INDEX_INTERVAL);
+        appendAll(segment, 40, 7);
+
+        segment.seal();
+
+        assertThat(Files.size(logFile(40))).isLessThan(SEGMENT_BYTES);
+        assertThat(LogSegment.indexFile(logFile(40))).exists();
+        assertThat(segment.append(message(47), 47)).isFalse();
+        assertThat(offsets(read(segment, 45, 50))).containsExactly(45L, 46L);
+
+        LogSegment reopened = LogSegment.open(logFile(40), SEGMENT_BYTES, INDEX_INTERVAL);
+        assertThat(reopened.nextOffset()).isEqualTo(47);
+        assertThat(reopened.append(message(47), 47)).isFalse();
+        assertThat(offsets(read(reopened, 41, 47))).containsExactly(41L, 42L, 43L, 44L, 45L, 46L);
+    }
+
+    private static void appendAll(LogSegment segment, long from, int count) {
+        for (long offset = from; offset < from + count; offset++) {
+            assertThat(segment.append(message(offset), offset)).isTrue();
+        }
+    }
+
+    private static ChatMessage message(long offset) {
+        return ChatMessage.builder()
+                .id("message-" + offset)
+                .conversationId(CONVERSATION)
+                .senderId("passenger-1")
+                .content("Où êtes-vous ? " + offset)
+                .sentAt(SENT_AT.plusSeconds(offset))
+                .build();
+    }
+
+    private static List<ChatMessage> read(LogSegment segment, long from, long to) {
+        List<ChatMessage> messages = new ArrayList<>();
+        segment.read(CONVERSATION, from, to, messages);
+        return messages;
+    }
+
+    private static List<Long> offsets(List<ChatMessage> messages) {
+        return messages.stream().map(ChatMessage::getOffset).toList();
+    }
+
+    private Path logFile(long baseOffset) {
+        return directory.resolve(LogSegment.fileName(baseOffset, LogSegment.LOG_SUFFIX));
+    }
+
+    // Flips the last byte of the given content, as a write cut short by a crash would leave it
+    private static void corrupt(Path file, String content) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        byte[] needle = content.getBytes(StandardCharsets.UTF_8);
+        int position = indexOf(bytes, needle) + needle.length - 1;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) (bytes[position] ^ 0x7f)}), position);
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte[] needle) {
+        outer:
+        for (int i = 0; i <= bytes.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (bytes[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        throw new IllegalArgumentException("Not in the segment");
+    }
+}
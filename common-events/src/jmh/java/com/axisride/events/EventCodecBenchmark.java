@@ -0,0 +1,168 @@
+package com.axisride.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary codec with the Jackson path previously used by {@code JsonSerializer}
+ * on a booking event. Run with {@code ./gradlew :common-events:jmh}; payload sizes are
+ * printed once at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventCodecBenchmark {
+
+    private ObjectMapper objectMapper;
+    private BinaryEventCodec codec;
+    private BookingPayload event;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        codec = new BinaryEventCodec(SchemaRegistry.load(SchemaRegistry.DEFAULT_LOCATION), List.of(BookingPayload.class));
+
+        event = new BookingPayload();
+        event.setBookingId("3f1c2a9e-6a4b-4c1e-9a51-2f0f3c7d8e11");
+        event.setTripId("9b7d4c21-0e5f-4a8b-b6c3-1d2e3f4a5b6c");
+        event.setPassengerId("a1b2c3d4-e5f6-4789-abcd-ef0123456789");
+        event.setDriverId("0f9e8d7c-6b5a-4321-9876-543210fedcba");
+        event.setSeats(2);
+        event.setTotalPrice(new BigDecimal("4500.00"));
+        event.setStatus("PENDING");
+        event.setOccurredAt(LocalDateTime.of(2024, 3, 14, 8, 30, 15, 123_000_000));
+
+        json = objectMapper.writeValueAsBytes(event);
+        binary = codec.encode(event);
+        System.out.printf("%nPayload size: json=%d bytes, binary=%d bytes%n", json.length, binary.length);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws Exception {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return codec.encode(event);
+    }
+
+    @Benchmark
+    public BookingPayload jsonDecode() throws Exception {
+        return objectMapper.readValue(json, BookingPayload.class);
+    }
+
+    @Benchmark
+    public BookingPayload binaryDecode() {
+        return codec.decode(binary, BookingPayload.class);
+    }
+
+    @EventType(name = "BookingEvent", version = 1)
+    public static class BookingPayload {
+
+        private String bookingId;
+        private String tripId;
+        private String passengerId;
+        private String driverId;
+        private int seats;
+        private BigDecimal totalPrice;
+        private String status;
+        private String cancelledBy;
+        private String cancellationReason;
+        private LocalDateTime occurredAt;
+
+        public String getBookingId() {
+            return bookingId;
+        }
+
+        public void setBookingId(String bookingId) {
+            this.bookingId = bookingId;
+        }
+
+        public String getTripId() {
+            return tripId;
+        }
+
+        public void setTripId(String tripId) {
+            this.tripId = tripId;
+        }
+
+        public String getPassengerId() {
+            return passengerId;
+        }
+
+        public void setPassengerId(String passengerId) {
+            this.passengerId = passengerId;
+        }
+
+        public String getDriverId() {
+            return driverId;
+        }
+
+        public void setDriverId(String driverId) {
+            this.driverId = driverId;
+        }
+
+        public int getSeats() {
+            return seats;
+        }
+
+        public void setSeats(int seats) {
+            this.seats = seats;
+        }
+
+        public BigDecimal getTotalPrice() {
+            return totalPrice;
+        }
+
+        public void setTotalPrice(BigDecimal totalPrice) {
+            this.totalPrice = totalPrice;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public String getCancelledBy() {
+            return cancelledBy;
+        }
+
+        public void setCancelledBy(String cancelledBy) {
+            this.cancelledBy = cancelledBy;
+        }
+
+        public String getCancellationReason() {
+            return cancellationReason;
+        }
+
+        public void setCancellationReason(String cancellationReason) {
+            this.cancellationReason = cancellationReason;
+        }
+
+        public LocalDateTime getOccurredAt() {
+            return occurredAt;
+        }
+
+        public void setOccurredAt(LocalDateTime occurredAt) {
+            this.occurredAt = occurredAt;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.axisride.events;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schema-driven binary encoding of {@link EventType} classes.
+ * <p>
+ * A message is a magic byte, the writer's schema id as a varint, then each field in schema
+ * order with no names or delimiters: zig-zag varints for numbers, length-prefixed UTF-8 for
+ * strings, epoch microseconds (UTC) for timestamps, scale plus unscaled bytes for decimals,
+ * and a presence byte before nullable fields. A reader whose class is bound to another
+ * version of the same schema resolves fields by name, skipping fields it does not know and
+ * leaving missing ones at their default, in the spirit of Avro schema resolution.
+ */
+public class BinaryEventCodec {
+
+    static final int MAGIC = 0xA1;
+
+    private final SchemaRegistry registry;
+    private final Map<Class<?>, EventBinding> bindingsByType = new HashMap<>();
+    private final Map<String, EventBinding> bindingsBySchemaName = new HashMap<>();
+
+    public BinaryEventCodec(SchemaRegistry registry, Collection<Class<?>> eventTypes) {
+        this.registry = registry;
+        for (Class<?> type : eventTypes) {
+            EventType eventType = type.getAnnotation(EventType.class);
+            if (eventType == null) {
+                throw new IllegalArgumentException(type.getName() + " is not annotated with @EventType");
+            }
+            EventBinding binding = new EventBinding(type, registry.get(eventType.name(), eventType.version()));
+            bindingsByType.put(type, binding);
+            EventBinding previous = bindingsBySchemaName.putIfAbsent(eventType.name(), binding);
+            if (previous != null) {
+                throw new IllegalStateException("Schema " + eventType.name() + " is bound to both "
+                        + previous.type().getName() + " and " + type.getName());
+            }
+        }
+    }
+
+    /**
+     * Builds a codec for every {@link EventType} class found under {@code basePackage}.
+     */
+    public static BinaryEventCodec scanning(SchemaRegistry registry, String basePackage) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(EventType.class));
+        List<Class<?>> types = new ArrayList<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+            types.add(ClassUtils.resolveClassName(candidate.getBeanClassName(), BinaryEventCodec.class.getClassLoader()));
+        }
+        return new BinaryEventCodec(registry, types);
+    }
+
+    public boolean supports(Class<?> type) {
+        return bindingsByType.containsKey(type);
+    }
+
+    public byte[] encode(Object event) {
+        EventBinding binding = bindingsByType.get(event.getClass());
+        if (binding == null) {
+            throw new IllegalArgumentException("No event schema bound to " + event.getClass().getName());
+        }
+        EventSchema schema = binding.schema();
+        BinaryWriter out = new BinaryWriter(128);
+        out.writeByte(MAGIC);
+        out.writeVarint(schema.id());
+        List<EventSchema.Field> fields = schema.fields();
+        for (int i = 0; i < fields.size(); i++) {
+            writeField(out, schema, fields.get(i), binding.get(event, i));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes into the class bound to the writer's schema name.
+     */
+    public Object decode(byte[] data) {
+        BinaryReader in = new BinaryReader(data);
+        EventSchema writerSchema = readHeader(in);
+        EventBinding binding = bindingsBySchemaName.get(writerSchema.name());
+        if (binding == null) {
+            throw new IllegalArgumentException("No class bound to event schema " + writerSchema.name());
+        }
+        return read(in, writerSchema, binding);
+    }
+
+    public <T> T decode(byte[] data, Class<T> type) {
+        EventBinding binding = bindingsByType.get(type);
+        if (binding == null) {
+            throw new IllegalArgumentException("No event schema bound to " + type.getName());
+        }
+        BinaryReader in = new BinaryReader(data);
+        EventSchema writerSchema = readHeader(in);
+        if (!writerSchema.name().equals(binding.schema().name())) {
+            throw new IllegalArgumentException("Payload is a " + writerSchema.name() + ", not a " + binding.schema().name());
+        }
+        return type.cast(read(in, writerSchema, binding));
+    }
+
+    private EventSchema readHeader(BinaryReader in) {
+        if (in.readByte() != MAGIC) {
+            throw new IllegalArgumentException("Not a binary event payload");
+        }
+        return registry.get((int) in.readVarint());
+    }
+
+    private Object read(BinaryReader in, EventSchema writerSchema, EventBinding binding) {
+        Object event = binding.newInstance();
+        boolean sameSchema = writerSchema.id() == binding.schema().id();
+        List<EventSchema.Field> fields = writerSchema.fields();
+        for (int i = 0; i < fields.size(); i++) {
+            EventSchema.Field field = fields.get(i);
+            Object value = readField(in, field);
+            int index = sameSchema ? i : binding.indexOf(field.name());
+            if (index >= 0) {
+                binding.set(event, index, value);
+            }
+        }
+        return event;
+    }
+
+    private void writeField(BinaryWriter out, EventSchema schema, EventSchema.Field field, Object value) {
+        if (field.nullable()) {
+            out.writeByte(value == null ? 0 : 1);
+            if (value == null) {
+                return;
+            }
+        } else if (value == null) {
+            throw new IllegalArgumentException("Field " + schema.name() + "." + field.name() + " is required");
+        }
+
+        switch (field.type()) {
+            case STRING -> out.writeString((String) value);
+            case INT, LONG -> out.writeLong(((Number) value).longValue());
+            case BOOLEAN -> out.writeByte((Boolean) value ? 1 : 0);
+            case DOUBLE -> out.writeDouble(((Number) value).doubleValue());
+            case DECIMAL -> {
+                BigDecimal decimal = (BigDecimal) value;
+                out.writeLong(decimal.scale());
+                out.writeBytes(decimal.unscaledValue().toByteArray());
+            }
+            case TIMESTAMP -> {
+                LocalDateTime timestamp = (LocalDateTime) value;
+                out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000);
+            }
+            case STRING_LIST -> {
+                Collection<?> items = (Collection<?>) value;
+                out.writeVarint(items.size());
+                for (Object item : items) {
+                    out.writeString((String) item);
+                }
+            }
+        }
+    }
+
+    private Object readField(BinaryReader in, EventSchema.Field field) {
+        if (field.nullable() && in.readByte() == 0) {
+            return null;
+        }
+
+        return switch (field.type()) {
+            case STRING -> in.readString();
+            case INT -> (int) in.readLong();
+            case LONG -> in.readLong();
+            case BOOLEAN -> in.readByte() != 0;
+            case DOUBLE -> in.readDouble();
+            case DECIMAL -> {
+                int scale = (int) in.readLong();
+                yield new BigDecimal(new BigInteger(in.readBytes()), scale);
+            }
+            case TIMESTAMP -> {
+                long micros = in.readLong();
+                yield LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                        (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+            }
+            case STRING_LIST -> {
+                int size = (int) in.readVarint();
+                List<String> items = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    items.add(in.readString());
+                }
+                yield items;
+            }
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package com.axisride.events;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Accessors of an {@link EventType} class resolved once against its schema, so encoding and
+ * decoding never go through bean introspection.
+ */
+final class EventBinding {
+
+    private final Class<?> type;
+    private final EventSchema schema;
+    private final MethodHandle constructor;
+    private final MethodHandle[] getters;
+    private final MethodHandle[] setters;
+    private final Class<?>[] propertyTypes;
+    private final Map<String, Integer> indexByName = new HashMap<>();
+
+    EventBinding(Class<?> type, EventSchema schema) {
+        this.type = type;
+        this.schema = schema;
+        int size = schema.fields().size();
+        this.getters = new MethodHandle[size];
+        this.setters = new MethodHandle[size];
+        this.propertyTypes = new Class<?>[size];
+
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        try {
+            this.constructor = lookup.unreflectConstructor(type.getConstructor());
+            Map<String, PropertyDescriptor> properties = new HashMap<>();
+            for (PropertyDescriptor property : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                properties.put(property.getName(), property);
+            }
+            for (int i = 0; i < size; i++) {
+                EventSchema.Field field = schema.fields().get(i);
+                PropertyDescriptor property = properties.get(field.name());
+                if (property == null || property.getReadMethod() == null || property.getWriteMethod() == null) {
+                    throw new IllegalStateException(type.getName() + " has no read/write property " + field.name());
+                }
+                checkType(field, property.getPropertyType());
+                getters[i] = lookup.unreflect(property.getReadMethod());
+                setters[i] = lookup.unreflect(property.getWriteMethod());
+                propertyTypes[i] = property.getPropertyType();
+                indexByName.put(field.name(), i);
+            }
+        } catch (NoSuchMethodException | IllegalAccessException | IntrospectionException e) {
+            throw new IllegalStateException("Cannot bind " + type.getName() + " to schema " + schema.name(), e);
+        }
+    }
+
+    Class<?> type() {
+        return type;
+    }
+
+    EventSchema schema() {
+        return schema;
+    }
+
+    int indexOf(String fieldName) {
+        return indexByName.getOrDefault(fieldName, -1);
+    }
+
+    Object newInstance() {
+        try {
+            return constructor.invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot instantiate " + type.getName(), e);
+        }
+    }
+
+    Object get(Object event, int index) {
+        try {
+            return getters[index].invoke(event);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot read " + schema.fields().get(index).name(), e);
+        }
+    }
+
+    void set(Object event, int index, Object value) {
+        Class<?> propertyType = propertyTypes[index];
+        if (value == null && propertyType.isPrimitive()) {
+            return;
+        }
+        if (value instanceof List<?> list && Set.class.isAssignableFrom(propertyType)) {
+            value = new LinkedHashSet<>(list);
+        }
+        try {
+            setters[index].invoke(event, value);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot write " + schema.fields().get(index).name(), e);
+        }
+    }
+
+    private void checkType(EventSchema.Field field, Class<?> propertyType) {
+        boolean compatible = switch (field.type()) {
+            case STRING -> propertyType == String.class;
+            case INT -> propertyType == int.class || propertyType == Integer.class;
+            case LONG -> propertyType == long.class || propertyType == Long.class;
+            case BOOLEAN -> propertyType == boolean.class || propertyType == Boolean.class;
+            case DOUBLE -> propertyType == double.class || propertyType == Double.class;
+            case DECIMAL -> propertyType == BigDecimal.class;
+            case TIMESTAMP -> propertyType == LocalDateTime.class;
+            case STRING_LIST -> propertyType == List.class || propertyType == Set.class
+                    || propertyType == Collection.class;
+        };
+        if (!compatible) {
+            throw new IllegalStateException("Property " + type.getName() + "." + field.name()
+                    + " of type " + propertyType.getSimpleName() + " cannot hold schema type " + field.type());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.axisride.events;
+
+import java.util.List;
+
+/**
+ * One version of an event schema. {@code id} is unique across all schemas and is what goes on
+ * the wire, so a reader can always find the exact schema a message was written with.
+ */
+public record EventSchema(String name, int version, int id, List<Field> fields) {
+
+    public record Field(String name, FieldType type, boolean nullable) {
+    }
+}
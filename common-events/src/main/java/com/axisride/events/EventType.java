@@ -0,0 +1,19 @@
+package com.axisride.events;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds an event class to a schema of the {@link SchemaRegistry}. Properties are matched to
+ * schema fields by name; the class needs a no-argument constructor and bean accessors.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface EventType {
+
+    String name();
+
+    int version();
+}
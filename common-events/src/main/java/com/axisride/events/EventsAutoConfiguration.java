@@ -0,0 +1,65 @@
+package com.axisride.events;
+
+import com.axisride.events.kafka.BinaryEventDeserializer;
+import com.axisride.events.kafka.BinaryEventSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exposes the schema registry, the codec and the Kafka serializer/deserializer. Extra schema
+ * files can be added with {@code events.schema-registry.locations}, e.g. a mounted directory.
+ */
+@AutoConfiguration
+public class EventsAutoConfiguration {
+
+    private static final String EVENT_BASE_PACKAGE = "com.axisride";
+
+    private static volatile BinaryEventCodec defaultCodec;
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SchemaRegistry schemaRegistry(@Value("${events.schema-registry.locations:}") List<String> locations) {
+        List<String> all = new ArrayList<>();
+        all.add(SchemaRegistry.DEFAULT_LOCATION);
+        locations.stream().map(String::trim).filter(location -> !location.isEmpty()).forEach(all::add);
+        return SchemaRegistry.load(all.toArray(String[]::new));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public BinaryEventCodec binaryEventCodec(SchemaRegistry schemaRegistry) {
+        return BinaryEventCodec.scanning(schemaRegistry, EVENT_BASE_PACKAGE);
+    }
+
+    @Bean
+    public BinaryEventSerializer binaryEventSerializer(BinaryEventCodec codec) {
+        return new BinaryEventSerializer(codec);
+    }
+
+    @Bean
+    public BinaryEventDeserializer binaryEventDeserializer(BinaryEventCodec codec) {
+        return new BinaryEventDeserializer(codec);
+    }
+
+    /**
+     * Codec over the bundled schemas, for serializers Kafka instantiates by class name.
+     */
+    public static BinaryEventCodec defaultCodec() {
+        BinaryEventCodec codec = defaultCodec;
+        if (codec == null) {
+            synchronized (EventsAutoConfiguration.class) {
+                codec = defaultCodec;
+                if (codec == null) {
+                    codec = BinaryEventCodec.scanning(SchemaRegistry.load(SchemaRegistry.DEFAULT_LOCATION), EVENT_BASE_PACKAGE);
+                    defaultCodec = codec;
+                }
+            }
+        }
+        return codec;
+    }
+}
@@ -0,0 +1,27 @@
+package com.axisride.events;
+
+import java.util.Arrays;
+
+public enum FieldType {
+    STRING("string"),
+    INT("int"),
+    LONG("long"),
+    BOOLEAN("boolean"),
+    DOUBLE("double"),
+    DECIMAL("decimal"),
+    TIMESTAMP("timestamp"),
+    STRING_LIST("string[]");
+
+    private final String schemaName;
+
+    FieldType(String schemaName) {
+        this.schemaName = schemaName;
+    }
+
+    public static FieldType fromSchemaName(String schemaName) {
+        return Arrays.stream(values())
+                .filter(type -> type.schemaName.equals(schemaName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown field type " + schemaName));
+    }
+}
@@ -0,0 +1,104 @@
+package com.axisride.events;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local, file-based schema registry.
+ * <p>
+ * Schemas are JSON files ({@code <Name>.v<version>.json}) bundled under {@code schemas/} in
+ * this module, optionally completed by files from other locations such as a mounted directory.
+ * Loading fails fast on duplicate ids and on a field whose type changes between two versions
+ * of the same schema, the only evolution the codec cannot resolve.
+ */
+public class SchemaRegistry {
+
+    public static final String DEFAULT_LOCATION = "classpath*:schemas/*.json";
+
+    private final Map<Integer, EventSchema> byId = new HashMap<>();
+    private final Map<String, EventSchema> byNameAndVersion = new HashMap<>();
+
+    public SchemaRegistry(List<EventSchema> schemas) {
+        for (EventSchema schema : schemas) {
+            EventSchema previous = byId.putIfAbsent(schema.id(), schema);
+            if (previous != null && !previous.equals(schema)) {
+                throw new IllegalStateException("Schema id " + schema.id() + " used by both "
+                        + key(previous.name(), previous.version()) + " and " + key(schema.name(), schema.version()));
+            }
+            byNameAndVersion.put(key(schema.name(), schema.version()), schema);
+        }
+        checkCompatibility();
+    }
+
+    public static SchemaRegistry load(String... locations) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        List<EventSchema> schemas = new ArrayList<>();
+        for (String location : locations) {
+            try {
+                for (Resource resource : resolver.getResources(location)) {
+                    try (InputStream in = resource.getInputStream()) {
+                        schemas.add(parse(objectMapper.readTree(in)));
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read event schemas from " + location, e);
+            }
+        }
+        return new SchemaRegistry(schemas);
+    }
+
+    public EventSchema get(int id) {
+        EventSchema schema = byId.get(id);
+        if (schema == null) {
+            throw new IllegalArgumentException("Unknown event schema id " + id);
+        }
+        return schema;
+    }
+
+    public EventSchema get(String name, int version) {
+        EventSchema schema = byNameAndVersion.get(key(name, version));
+        if (schema == null) {
+            throw new IllegalArgumentException("Unknown event schema " + key(name, version));
+        }
+        return schema;
+    }
+
+    private void checkCompatibility() {
+        Map<String, FieldType> typesByField = new HashMap<>();
+        for (EventSchema schema : byId.values()) {
+            for (EventSchema.Field field : schema.fields()) {
+                FieldType existing = typesByField.putIfAbsent(schema.name() + "." + field.name(), field.type());
+                if (existing != null && existing != field.type()) {
+                    throw new IllegalStateException("Field " + schema.name() + "." + field.name()
+                            + " changes type between versions (" + existing + " / " + field.type() + ")");
+                }
+            }
+        }
+    }
+
+    private static EventSchema parse(JsonNode node) {
+        List<EventSchema.Field> fields = new ArrayList<>();
+        for (JsonNode field : node.path("fields")) {
+            fields.add(new EventSchema.Field(
+                    field.path("name").asText(),
+                    FieldType.fromSchemaName(field.path("type").asText()),
+                    field.path("nullable").asBoolean(false)));
+        }
+        return new EventSchema(node.path("name").asText(), node.path("version").asInt(), node.path("id").asInt(),
+                List.copyOf(fields));
+    }
+
+    private static String key(String name, int version) {
+        return name + ".v" + version;
+    }
+}
@@ -0,0 +1,26 @@
+package com.axisride.events.kafka;
+
+import com.axisride.events.BinaryEventCodec;
+import com.axisride.events.EventsAutoConfiguration;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka deserializer returning an instance of the class bound to the writer's schema name.
+ */
+public class BinaryEventDeserializer implements Deserializer<Object> {
+
+    private final BinaryEventCodec codec;
+
+    public BinaryEventDeserializer() {
+        this(EventsAutoConfiguration.defaultCodec());
+    }
+
+    public BinaryEventDeserializer(BinaryEventCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return data == null ? null : codec.decode(data);
+    }
+}
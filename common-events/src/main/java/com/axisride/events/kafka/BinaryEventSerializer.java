@@ -0,0 +1,28 @@
+package com.axisride.events.kafka;
+
+import com.axisride.events.BinaryEventCodec;
+import com.axisride.events.EventsAutoConfiguration;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer for {@link com.axisride.events.EventType} classes. The no-argument
+ * constructor, used when the class is named in producer properties, falls back to the codec
+ * built from the bundled schemas.
+ */
+public class BinaryEventSerializer implements Serializer<Object> {
+
+    private final BinaryEventCodec codec;
+
+    public BinaryEventSerializer() {
+        this(EventsAutoConfiguration.defaultCodec());
+    }
+
+    public BinaryEventSerializer(BinaryEventCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return data == null ? null : codec.encode(data);
+    }
+}
@@ -0,0 +1,334 @@
+package com.axisride.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryEventCodecTest {
+
+    private static final SchemaRegistry REGISTRY = SchemaRegistry.load(SchemaRegistry.DEFAULT_LOCATION);
+
+    private final BinaryEventCodec v1 = new BinaryEventCodec(REGISTRY, List.of(BookingV1.class));
+    private final BinaryEventCodec v2 = new BinaryEventCodec(REGISTRY, List.of(BookingV2.class));
+
+    @Test
+    void roundTripsEveryFieldOfTheSameVersion() {
+        BookingV2 event = fill(new BookingV2());
+        event.setCancelledBy("passenger-1");
+        event.setCancellationReason("Plans changed, sorry — à bientôt");
+        event.setDepartureCity("Yaounde");
+        event.setArrivalCity("Douala");
+        event.setCurrency("XAF");
+
+        BookingV2 decoded = v2.decode(v2.encode(event), BookingV2.class);
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void keepsNullableFieldsNull() {
+        BookingV2 event = fill(new BookingV2());
+
+        BookingV2 decoded = v2.decode(v2.encode(event), BookingV2.class);
+
+        assertThat(decoded.getCancelledBy()).isNull();
+        assertThat(decoded.getCancellationReason()).isNull();
+        assertThat(decoded.getDepartureCity()).isNull();
+        assertThat(decoded.getCurrency()).isNull();
+        assertThat(decoded.getStatus()).isEqualTo("CONFIRMED");
+    }
+
+    @Test
+    void readsAnOlderWriterLeavingNewFieldsAtTheirDefault() {
+        BookingV1 event = fill(new BookingV1());
+        event.setCancelledBy("driver-1");
+
+        BookingV2 decoded = v2.decode(v1.encode(event), BookingV2.class);
+
+        assertThat(decoded).usingRecursiveComparison().comparingOnlyFields(
+                "bookingId", "tripId", "passengerId", "driverId", "seats", "totalPrice", "status",
+                "cancelledBy", "cancellationReason", "occurredAt").isEqualTo(event);
+        assertThat(decoded.getDepartureCity()).isNull();
+        assertThat(decoded.getArrivalCity()).isNull();
+        assertThat(decoded.getCurrency()).isNull();
+    }
+
+    @Test
+    void readsANewerWriterSkippingFieldsItDoesNotKnow() {
+        BookingV2 event = fill(new BookingV2());
+        event.setDepartureCity("Yaounde");
+        event.setArrivalCity("Douala");
+        event.setCurrency("XAF");
+        event.setCancellationReason("No show");
+
+        Object decoded = v1.decode(v2.encode(event));
+
+        assertThat(decoded).isExactlyInstanceOf(BookingV1.class);
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(copyV1(event));
+    }
+
+    @Test
+    void roundTripsScalarAndListTypes() {
+        SchemaRegistry registry = new SchemaRegistry(List.of(new EventSchema("Probe", 1, 900, List.of(
+                new EventSchema.Field("count", FieldType.LONG, false),
+                new EventSchema.Field("active", FieldType.BOOLEAN, false),
+                new EventSchema.Field("latitude", FieldType.DOUBLE, true),
+                new EventSchema.Field("amount", FieldType.DECIMAL, false),
+                new EventSchema.Field("at", FieldType.TIMESTAMP, false),
+                new EventSchema.Field("tags", FieldType.STRING_LIST, false)))));
+        BinaryEventCodec codec = new BinaryEventCodec(registry, List.of(Probe.class));
+        Probe probe = new Probe();
+        probe.setCount(Long.MIN_VALUE);
+        probe.setActive(true);
+        probe.setLatitude(-3.848);
+        probe.setAmount(new BigDecimal("-12345678901234567890.125"));
+        // Before the epoch, with sub-second precision
+        probe.setAt(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000));
+        probe.setTags(new LinkedHashSet<>(List.of("b", "a", "")));
+
+        Probe decoded = codec.decode(codec.encode(probe), Probe.class);
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(probe);
+        assertThat(decoded.getTags()).containsExactly("b", "a", "");
+    }
+
+    @Test
+    void rejectsAMissingRequiredField() {
+        BookingV1 event = fill(new BookingV1());
+        event.setTripId(null);
+
+        assertThatThrownBy(() -> v1.encode(event))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("BookingEvent.tripId");
+    }
+
+    @Test
+    void rejectsForeignPayloads() {
+        byte[] payload = v1.encode(fill(new BookingV1()));
+        payload[0] = '{';
+
+        assertThatThrownBy(() -> v1.decode(payload)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> v1.decode(new byte[]{(byte) BinaryEventCodec.MAGIC, 0x7f}))
+                .hasMessageContaining("Unknown event schema id");
+    }
+
+    private static <T extends BookingV1> T fill(T event) {
+        event.setBookingId("3f1c2a9e-6a4b-4c1e-9a51-2f0f3c7d8e11");
+        event.setTripId("9b7d4c21-0e5f-4a8b-b6c3-1d2e3f4a5b6c");
+        event.setPassengerId("a1b2c3d4-e5f6-4789-abcd-ef0123456789");
+        event.setDriverId("0f9e8d7c-6b5a-4321-9876-543210fedcba");
+        event.setSeats(2);
+        event.setTotalPrice(new BigDecimal("4500.00"));
+        event.setStatus("CONFIRMED");
+        event.setOccurredAt(LocalDateTime.of(2024, 3, 14, 8, 30, 15, 123_456_000));
+        return event;
+    }
+
+    private static BookingV1 copyV1(BookingV1 event) {
+        BookingV1 copy = new BookingV1();
+        copy.setBookingId(event.getBookingId());
+        copy.setTripId(event.getTripId());
+        copy.setPassengerId(event.getPassengerId());
+        copy.setDriverId(event.getDriverId());
+        copy.setSeats(event.getSeats());
+        copy.setTotalPrice(event.getTotalPrice());
+        copy.setStatus(event.getStatus());
+        copy.setCancelledBy(event.getCancelledBy());
+        copy.setCancellationReason(event.getCancellationReason());
+        copy.setOccurredAt(event.getOccurredAt());
+        return copy;
+    }
+
+    @EventType(name = "BookingEvent", version = 1)
+    public static class BookingV1 {
+
+        private String bookingId;
+        private String tripId;
+        private String passengerId;
+        private String driverId;
+        private int seats;
+        private BigDecimal totalPrice;
+        private String status;
+        private String cancelledBy;
+        private String cancellationReason;
+        private LocalDateTime occurredAt;
+
+        public String getBookingId() {
+            return bookingId;
+        }
+
+        public void setBookingId(String bookingId) {
+            this.bookingId = bookingId;
+        }
+
+        public String getTripId() {
+            return tripId;
+        }
+
+        public void setTripId(String tripId) {
+            this.tripId = tripId;
+        }
+
+        public String getPassengerId() {
+            return passengerId;
+        }
+
+        public void setPassengerId(String passengerId) {
+            this.passengerId = passengerId;
+        }
+
+        public String getDriverId() {
+            return driverId;
+        }
+
+        public void setDriverId(String driverId) {
+            this.driverId = driverId;
+        }
+
+        public int getSeats() {
+            return seats;
+        }
+
+        public void setSeats(int seats) {
+            this.seats = seats;
+        }
+
+        public BigDecimal getTotalPrice() {
+            return totalPrice;
+        }
+
+        public void setTotalPrice(BigDecimal totalPrice) {
+            this.totalPrice = totalPrice;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public String getCancelledBy() {
+            return cancelledBy;
+        }
+
+        public void setCancelledBy(String cancelledBy) {
+            this.cancelledBy = cancelledBy;
+        }
+
+        public String getCancellationReason() {
+            return cancellationReason;
+        }
+
+        public void setCancellationReason(String cancellationReason) {
+            this.cancellationReason = cancellationReason;
+        }
+
+        public LocalDateTime getOccurredAt() {
+            return occurredAt;
+        }
+
+        public void setOccurredAt(LocalDateTime occurredAt) {
+            this.occurredAt = occurredAt;
+        }
+    }
+
+    @EventType(name = "BookingEvent", version = 2)
+    public static class BookingV2 extends BookingV1 {
+
+        private String departureCity;
+        private String arrivalCity;
+        private String currency;
+
+        public String getDepartureCity() {
+            return departureCity;
+        }
+
+        public void setDepartureCity(String departureCity) {
+            this.departureCity = departureCity;
+        }
+
+        public String getArrivalCity() {
+            return arrivalCity;
+        }
+
+        public void setArrivalCity(String arrivalCity) {
+            this.arrivalCity = arrivalCity;
+        }
+
+        public String getCurrency() {
+            return currency;
+        }
+
+        public void setCurrency(String currency) {
+            this.currency = currency;
+        }
+    }
+
+    @EventType(name = "Probe", version = 1)
+    public static class Probe {
+
+        private long count;
+        private boolean active;
+        private Double latitude;
+        private BigDecimal amount;
+        private LocalDateTime at;
+        private Set<String> tags;
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+
+        public Double getLatitude() {
+            return latitude;
+        }
+
+        public void setLatitude(Double latitude) {
+            this.latitude = latitude;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public LocalDateTime getAt() {
+            return at;
+        }
+
+        public void setAt(LocalDateTime at) {
+            this.at = at;
+        }
+
+        public Set<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(Set<String> tags) {
+            this.tags = tags;
+        }
+    }
+}
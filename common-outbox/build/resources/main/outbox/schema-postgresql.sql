@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id          BIGSERIAL PRIMARY KEY,
+    topic       VARCHAR(200) NOT NULL,
+    message_key VARCHAR(200),
+    payload     BYTEA        NOT NULL,
+    created_at  TIMESTAMP    NOT NULL DEFAULT now()
+);
@@ -0,0 +1,80 @@
+package com.axisride.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.CompositeDatabasePopulator;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wires the outbox into any service that has this module on its classpath. The service must
+ * provide a {@code KafkaTemplate<String, byte[]>} bean named {@code outboxKafkaTemplate},
+ * usually tuned for throughput in its {@code KafkaProducerConfig}, and may provide an
+ * {@link OutboxSerializer} to replace the JSON default.
+ */
+@AutoConfiguration(afterName = {
+        "org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration",
+        "org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration"
+})
+public class OutboxAutoConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "outbox.initialize-schema", havingValue = "true", matchIfMissing = true)
+    public DataSourceInitializer outboxSchemaInitializer(DataSource dataSource) {
+        DataSourceInitializer initializer = new DataSourceInitializer();
+        initializer.setDataSource(dataSource);
+        ResourceDatabasePopulator migration =
+                new ResourceDatabasePopulator(new ClassPathResource("outbox/migrate-payload-bytea.sql"));
+        // One PL/pgSQL block, not to be split on its semicolons
+        migration.setSeparator(ScriptUtils.EOF_STATEMENT_SEPARATOR);
+        initializer.setDatabasePopulator(new CompositeDatabasePopulator(
+                new ResourceDatabasePopulator(new ClassPathResource("outbox/schema-postgresql.sql")), migration));
+        return initializer;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public OutboxSerializer outboxSerializer(ObjectMapper objectMapper) {
+        return payload -> {
+            try {
+                return objectMapper.writeValueAsBytes(payload);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Cannot serialise outbox payload " + payload.getClass().getName(), e);
+            }
+        };
+    }
+
+    @Bean
+    public OutboxPublisher outboxPublisher(JdbcTemplate jdbcTemplate, OutboxSerializer outboxSerializer) {
+        return new OutboxPublisher(jdbcTemplate, outboxSerializer);
+    }
+
+    @Bean(destroyMethod = "releasePartitions")
+    @ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+    public OutboxRelay outboxRelay(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Qualifier("outboxKafkaTemplate") KafkaTemplate<String, byte[]> kafkaTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${outbox.relay.batch-size:1000}") int batchSize,
+                                   @Value("${outbox.relay.send-timeout:PT30S}") Duration sendTimeout,
+                                   @Value("${outbox.relay.partitions:16}") int partitions) {
+        return new OutboxRelay(jdbcTemplate, new TransactionTemplate(transactionManager), kafkaTemplate,
+                meterRegistry, batchSize, sendTimeout, partitions);
+    }
+}
@@ -0,0 +1,7 @@
+package com.axisride.outbox;
+
+/**
+ * A message to be published to Kafka once the transaction that wrote it commits.
+ */
+public record OutboxMessage(String topic, String key, Object payload) {
+}
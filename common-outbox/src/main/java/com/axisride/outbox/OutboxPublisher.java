@@ -0,0 +1,47 @@
+package com.axisride.outbox;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes messages to the {@code outbox_events} table inside the caller's transaction.
+ * <p>
+ * Nothing is sent to Kafka here: the message becomes visible to {@link OutboxRelay} only
+ * if the business transaction commits, and is lost with it if it rolls back.
+ */
+public class OutboxPublisher {
+
+    private static final String INSERT_MESSAGE =
+            "INSERT INTO outbox_events (topic, message_key, payload) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxSerializer serializer;
+
+    public OutboxPublisher(JdbcTemplate jdbcTemplate, OutboxSerializer serializer) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.serializer = serializer;
+    }
+
+    public void publish(String topic, String key, Object payload) {
+        publishAll(List.of(new OutboxMessage(topic, key, payload)));
+    }
+
+    public void publishAll(Collection<OutboxMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox messages must be written inside a transaction");
+        }
+
+        List<Object[]> rows = new ArrayList<>(messages.size());
+        for (OutboxMessage message : messages) {
+            rows.add(new Object[]{message.topic(), message.key(), serializer.serialize(message.payload())});
+        }
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE, rows);
+    }
+}
@@ -0,0 +1,244 @@
+package com.axisride.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Drains {@code outbox_events} to Kafka in batches.
+ * <p>
+ * Rows are split into a fixed number of partitions by a hash of their message key, and each
+ * partition is leased to one relay instance at a time through {@code outbox_relay_partitions}.
+ * A relay only claims rows of the partitions it holds, in id order, so all events of a key are
+ * sent by one instance in the order they were written. Relays announce themselves in
+ * {@code outbox_relays} and share the partitions evenly: each one renews its leases, takes
+ * free ones up to its share and hands back any surplus when another relay joins.
+ * <p>
+ * A batch is claimed in a short transaction that sets {@code claimed_until}, sent outside of
+ * any transaction, and the acknowledged rows are deleted in a second short transaction, so no
+ * connection or row lock is held while waiting for Kafka. All records of a batch are handed to
+ * the producer at once, which lets it fill large compressed batches. After a failed send, that
+ * row and the later rows of the same key in the batch stay in the table and are retried first,
+ * so delivery is at least once and consumers must tolerate duplicates.
+ * <p>
+ * A lease outlives the claims made under it, so a partition only changes hands once the rows
+ * claimed by its previous holder are claimable again. The partition count must be the same on
+ * all relays of a database.
+ */
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String CREATE_PARTITIONS =
+            "INSERT INTO outbox_relay_partitions (partition_id) SELECT generate_series(0, ? - 1) " +
+            "ON CONFLICT (partition_id) DO NOTHING";
+
+    private static final String RENEW_LEASES =
+            "UPDATE outbox_relay_partitions SET lease_until = now() + make_interval(secs => ?) " +
+            "WHERE owner = ? AND partition_id < ? RETURNING partition_id";
+
+    private static final String HEARTBEAT =
+            "INSERT INTO outbox_relays (owner, alive_until) VALUES (?, now() + make_interval(secs => ?)) " +
+            "ON CONFLICT (owner) DO UPDATE SET alive_until = excluded.alive_until";
+
+    private static final String COUNT_LIVE_RELAYS = "SELECT count(*) FROM outbox_relays WHERE alive_until > now()";
+
+    private static final String DELETE_DEAD_RELAYS = "DELETE FROM outbox_relays WHERE alive_until < now() - interval '1 day'";
+
+    private static final String DELETE_RELAY = "DELETE FROM outbox_relays WHERE owner = ?";
+
+    private static final String TAKE_LEASES =
+            "UPDATE outbox_relay_partitions SET owner = ?, lease_until = now() + make_interval(secs => ?) " +
+            "WHERE partition_id IN (SELECT partition_id FROM outbox_relay_partitions " +
+            "WHERE partition_id < ? AND (lease_until IS NULL OR lease_until < now()) " +
+            "ORDER BY partition_id LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING partition_id";
+
+    private static final String RELEASE_LEASES =
+            "UPDATE outbox_relay_partitions SET owner = NULL, lease_until = NULL " +
+            "WHERE owner = ? AND partition_id = ANY (CAST(? AS INTEGER[]))";
+
+    private static final String RELEASE_ALL_LEASES =
+            "UPDATE outbox_relay_partitions SET owner = NULL, lease_until = NULL WHERE owner = ?";
+
+    // Same hash as the partition of the row; keyless rows spread by id
+    private static final String CLAIM_BATCH =
+            "UPDATE outbox_events SET claimed_until = now() + make_interval(secs => ?) " +
+            "WHERE id IN (SELECT id FROM outbox_events " +
+            "WHERE (hashtext(coalesce(message_key, CAST(id AS TEXT))) & 2147483647) % ? = ANY (CAST(? AS INTEGER[])) " +
+            "AND (claimed_until IS NULL OR claimed_until < now()) " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, topic, message_key, payload";
+
+    private static final String DELETE_MESSAGE = "DELETE FROM outbox_events WHERE id = ?";
+
+    private static final String UNCLAIM_MESSAGE = "UPDATE outbox_events SET claimed_until = NULL WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final int partitions;
+    private final String owner = UUID.randomUUID().toString();
+    // A claim covers the send and the delete; a lease covers a renewal and the claim made with it
+    private final long claimSeconds;
+    private final long leaseSeconds;
+
+    private boolean partitionsCreated;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                       KafkaTemplate<String, byte[]> kafkaTemplate, MeterRegistry meterRegistry,
+                       int batchSize, Duration sendTimeout, int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("outbox.relay.partitions must be at least 1, was " + partitions);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.partitions = partitions;
+        this.claimSeconds = Math.max(sendTimeout.multipliedBy(2).toSeconds(), 1);
+        this.leaseSeconds = 2 * claimSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public synchronized void relay() {
+        try {
+            if (!partitionsCreated) {
+                jdbcTemplate.update(CREATE_PARTITIONS, partitions);
+                jdbcTemplate.update(DELETE_DEAD_RELAYS);
+                partitionsCreated = true;
+            }
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            meterRegistry.counter("outbox.relay.failures").increment();
+            log.error("Outbox relay failed, the batch will be retried", e);
+        }
+    }
+
+    /**
+     * Hands this relay's partitions back on shutdown, so that another relay can take them
+     * without waiting for the leases to expire. Waits for a batch in flight.
+     */
+    public synchronized void releasePartitions() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(RELEASE_ALL_LEASES, owner);
+                jdbcTemplate.update(DELETE_RELAY, owner);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not release outbox relay partitions, they are taken over when their leases expire", e);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxRow> rows = transactionTemplate.execute(status -> claimBatch());
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<?>> sends = rows.stream()
+                .<CompletableFuture<?>>map(row -> kafkaTemplate.send(row.topic(), row.key(), row.payload()))
+                .toList();
+        kafkaTemplate.flush();
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Failed sends are sorted out row by row below
+        }
+
+        List<OutboxRow> sent = new ArrayList<>(rows.size());
+        List<OutboxRow> unsent = new ArrayList<>();
+        Set<String> failedKeys = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            OutboxRow row = rows.get(i);
+            CompletableFuture<?> send = sends.get(i);
+            boolean acknowledged = send.isDone() && !send.isCompletedExceptionally();
+            // Behind a failed send the rest of its key goes again, in order
+            if (acknowledged && (row.key() == null || !failedKeys.contains(row.key()))) {
+                sent.add(row);
+            } else {
+                unsent.add(row);
+                if (row.key() != null) {
+                    failedKeys.add(row.key());
+                }
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(DELETE_MESSAGE, sent.stream().map(row -> new Object[]{row.id()}).toList());
+            jdbcTemplate.batchUpdate(UNCLAIM_MESSAGE, unsent.stream().map(row -> new Object[]{row.id()}).toList());
+        });
+        meterRegistry.counter("outbox.relay.published").increment(sent.size());
+        log.debug("Relayed {} outbox messages", sent.size());
+        if (Thread.currentThread().isInterrupted()) {
+            throw new IllegalStateException("Interrupted while relaying outbox batch");
+        }
+        if (!unsent.isEmpty()) {
+            throw new IllegalStateException("Kafka did not acknowledge " + unsent.size() + " of an outbox batch of " + rows.size());
+        }
+        return rows.size();
+    }
+
+    // Runs in one transaction: the leases are renewed (or taken) together with the claim made under them
+    private List<OutboxRow> claimBatch() {
+        jdbcTemplate.update(HEARTBEAT, owner, leaseSeconds);
+        List<Integer> owned = new ArrayList<>(jdbcTemplate.queryForList(RENEW_LEASES, Integer.class,
+                leaseSeconds, owner, partitions));
+        Integer live = jdbcTemplate.queryForObject(COUNT_LIVE_RELAYS, Integer.class);
+        int relays = Math.max(live == null ? 1 : live, 1);
+        int share = (partitions + relays - 1) / relays;
+        if (owned.size() > share) {
+            owned.sort(Comparator.naturalOrder());
+            List<Integer> surplus = owned.subList(share, owned.size());
+            jdbcTemplate.update(RELEASE_LEASES, owner, toArray(surplus));
+            log.info("Handed {} outbox relay partitions over to other relays", surplus.size());
+            surplus.clear();
+        } else if (owned.size() < share) {
+            owned.addAll(jdbcTemplate.queryForList(TAKE_LEASES, Integer.class,
+                    owner, leaseSeconds, partitions, share - owned.size()));
+        }
+        if (owned.isEmpty()) {
+            return List.of();
+        }
+
+        List<OutboxRow> rows = new ArrayList<>(jdbcTemplate.query(CLAIM_BATCH,
+                (rs, rowNum) -> new OutboxRow(rs.getLong("id"), rs.getString("topic"),
+                        rs.getString("message_key"), rs.getBytes("payload")),
+                claimSeconds, partitions, toArray(owned), batchSize));
+        // RETURNING does not keep the order of the subquery
+        rows.sort(Comparator.comparingLong(OutboxRow::id));
+        return rows;
+    }
+
+    private static String toArray(List<Integer> partitionIds) {
+        return partitionIds.stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}"));
+    }
+
+    private record OutboxRow(long id, String topic, String key, byte[] payload) {
+    }
+}
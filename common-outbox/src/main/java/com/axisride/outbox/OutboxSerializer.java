@@ -0,0 +1,11 @@
+package com.axisride.outbox;
+
+/**
+ * Turns an outbox payload into the bytes stored in the table and sent to Kafka unchanged.
+ * Services provide one to override the JSON default.
+ */
+@FunctionalInterface
+public interface OutboxSerializer {
+
+    byte[] serialize(Object payload);
+}
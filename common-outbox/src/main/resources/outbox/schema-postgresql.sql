@@ -0,0 +1,21 @@
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id          BIGSERIAL PRIMARY KEY,
+    topic       VARCHAR(200) NOT NULL,
+    message_key VARCHAR(200),
+    payload     BYTEA        NOT NULL,
+    created_at  TIMESTAMP    NOT NULL DEFAULT now()
+);
+
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS claimed_until TIMESTAMP;
+
+-- Relay leases, one row per message key partition (see OutboxRelay)
+CREATE TABLE IF NOT EXISTS outbox_relay_partitions (
+    partition_id INTEGER PRIMARY KEY,
+    owner        VARCHAR(64),
+    lease_until  TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS outbox_relays (
+    owner       VARCHAR(64) PRIMARY KEY,
+    alive_until TIMESTAMP   NOT NULL
+);
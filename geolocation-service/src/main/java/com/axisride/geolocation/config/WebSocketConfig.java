@@ -0,0 +1,28 @@
+package com.axisride.geolocation.config;
+
+import com.axisride.geolocation.controller.LocationWebSocketHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+    
+    private final LocationWebSocketHandler locationWebSocketHandler;
+    
+    @Value("${geolocation.websocket.allowed-origins:*}")
+    private String[] allowedOrigins;
+    
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Under the path the gateway forwards /api/geolocation/** to
+        registry.addHandler(locationWebSocketHandler, "/geolocation/locations/stream")
+                .addInterceptors(locationWebSocketHandler)
+                .setAllowedOriginPatterns(allowedOrigins);
+    }
+}
@@ -0,0 +1,62 @@
+package com.axisride.geolocation.controller;
+
+import com.axisride.geolocation.dto.DriverPositionResponse;
+import com.axisride.geolocation.dto.LocationBatchRequest;
+import com.axisride.geolocation.dto.DriverStatusRequest;
+import com.axisride.geolocation.dto.LocationBatchResponse;
+import com.axisride.geolocation.dto.NearbyDriverResponse;
+import com.axisride.geolocation.service.DriverMatchingService;
+import com.axisride.geolocation.service.LocationIngestService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/geolocation/locations")
+@RequiredArgsConstructor
+public class LocationController {
+    
+    private final LocationIngestService ingestService;
+    private final DriverMatchingService matchingService;
+    
+    @PostMapping("/batch")
+    public ResponseEntity<LocationBatchResponse> ingest(
+            @RequestHeader("X-User-Id") String driverId,
+            @Valid @RequestBody LocationBatchRequest request) {
+        int accepted = ingestService.ingest(driverId, request.getPings());
+        LocationBatchResponse response = LocationBatchResponse.builder()
+                .accepted(accepted)
+                .rejected(request.getPings().size() - accepted)
+                .build();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+    
+    @PutMapping("/drivers/me/status")
+    public ResponseEntity<Void> updateStatus(
+            @RequestHeader("X-User-Id") String driverId,
+            @Valid @RequestBody DriverStatusRequest request) {
+        ingestService.updateStatus(driverId, request);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @GetMapping("/drivers/nearest")
+    public ResponseEntity<List<NearbyDriverResponse>> findNearest(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "5") double radiusKm,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String vehicleType) {
+        return ResponseEntity.ok(matchingService.findNearest(latitude, longitude, radiusKm, limit, vehicleType));
+    }
+    
+    @GetMapping("/drivers/{driverId}")
+    public ResponseEntity<DriverPositionResponse> getPosition(@PathVariable String driverId) {
+        return ingestService.getPosition(driverId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,84 @@
+package com.axisride.geolocation.controller;
+
+import com.axisride.geolocation.dto.LocationBatchRequest;
+import com.axisride.geolocation.service.LocationIngestService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming counterpart of {@code POST /geolocation/locations/batch}: a driver app keeps one socket open
+ * and sends frames with the same {@code {"pings": [...]}} body. The driver is identified once,
+ * from the {@code X-User-Id} header of the handshake set by the gateway. Frames are not
+ * acknowledged; a malformed frame is dropped without closing the stream.
+ * <p>
+ * Clients that pass their token as a {@code bearer.<token>} subprotocol also offer
+ * {@value #PROTOCOL}, which the handshake echoes: the gateway strips the token entry, and a
+ * browser drops a handshake that answers none of the subprotocols it offered.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LocationWebSocketHandler extends TextWebSocketHandler implements HandshakeInterceptor, SubProtocolCapable {
+    
+    public static final String PROTOCOL = "locations.v1";
+    
+    private static final String DRIVER_ID_ATTRIBUTE = "driverId";
+    
+    private final LocationIngestService ingestService;
+    private final ObjectMapper objectMapper;
+    
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(PROTOCOL);
+    }
+    
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String driverId = request.getHeaders().getFirst("X-User-Id");
+        if (driverId == null || driverId.isBlank()) {
+            return false;
+        }
+        attributes.put(DRIVER_ID_ATTRIBUTE, driverId);
+        return true;
+    }
+    
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+    
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        String driverId = (String) session.getAttributes().get(DRIVER_ID_ATTRIBUTE);
+        try {
+            LocationBatchRequest batch = objectMapper.readValue(message.getPayload(), LocationBatchRequest.class);
+            if (batch.getPings() != null && !batch.getPings().isEmpty()) {
+                ingestService.ingest(driverId, batch.getPings());
+            }
+        } catch (Exception e) {
+            log.debug("Dropping malformed location frame from driver {}: {}", driverId, e.getMessage());
+        }
+    }
+    
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        log.debug("Location stream error for driver {}: {}", session.getAttributes().get(DRIVER_ID_ATTRIBUTE),
+                exception.getMessage());
+        session.close(CloseStatus.SERVER_ERROR);
+    }
+}
@@ -0,0 +1,68 @@
+package com.axisride.geolocation.controller;
+
+import com.axisride.geolocation.dto.RouteBatchRequest;
+import com.axisride.geolocation.dto.RouteBatchResponse;
+import com.axisride.geolocation.dto.RouteRequest;
+import com.axisride.geolocation.dto.RouteResponse;
+import com.axisride.geolocation.service.RouteService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+@RestController
+@RequestMapping("/geolocation/routes")
+@RequiredArgsConstructor
+public class RouteController {
+    
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+    
+    private final RouteService routeService;
+    
+    @GetMapping
+    public ResponseEntity<RouteResponse> estimate(
+            @RequestParam double fromLat,
+            @RequestParam double fromLng,
+            @RequestParam double toLat,
+            @RequestParam double toLng) {
+        RouteRequest request = RouteRequest.builder()
+                .fromLatitude(fromLat)
+                .fromLongitude(fromLng)
+                .toLatitude(toLat)
+                .toLongitude(toLng)
+                .build();
+        return ResponseEntity.ok(estimate(request));
+    }
+    
+    @PostMapping("/batch")
+    public ResponseEntity<RouteBatchResponse> estimateBatch(@Valid @RequestBody RouteBatchRequest request) {
+        List<RouteResponse> routes = request.getRoutes().stream()
+                .map(this::estimate)
+                .toList();
+        return ResponseEntity.ok(RouteBatchResponse.builder().routes(routes).build());
+    }
+    
+    private RouteResponse estimate(RouteRequest request) {
+        Point from = point(request.getFromLatitude(), request.getFromLongitude());
+        Point to = point(request.getToLatitude(), request.getToLongitude());
+        RouteService.RouteEstimate estimate = routeService.estimate(from, to);
+        return RouteResponse.builder()
+                .id(request.getId())
+                .distanceKm(BigDecimal.valueOf(estimate.distanceKm()).setScale(2, RoundingMode.HALF_UP))
+                .durationMinutes((int) Math.ceil(estimate.durationMinutes()))
+                .source(estimate.source().name())
+                .build();
+    }
+    
+    private static Point point(double latitude, double longitude) {
+        return GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude));
+    }
+}
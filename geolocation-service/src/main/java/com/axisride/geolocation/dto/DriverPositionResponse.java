@@ -0,0 +1,20 @@
+package com.axisride.geolocation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DriverPositionResponse {
+    
+    private String driverId;
+    private double latitude;
+    private double longitude;
+    private float speedKmh;
+    private float heading;
+    private long recordedAt;
+}
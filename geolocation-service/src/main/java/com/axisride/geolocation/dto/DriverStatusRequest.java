@@ -0,0 +1,22 @@
+package com.axisride.geolocation.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DriverStatusRequest {
+    
+    @NotNull
+    private Boolean available;
+    
+    // Same free-form values as Trip.vehicleType, compared case-insensitively
+    @Size(max = 50)
+    private String vehicleType;
+}
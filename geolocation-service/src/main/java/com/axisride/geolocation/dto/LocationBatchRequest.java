@@ -0,0 +1,22 @@
+package com.axisride.geolocation.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LocationBatchRequest {
+    
+    @NotEmpty
+    @Size(max = 500)
+    private List<@Valid LocationPing> pings;
+}
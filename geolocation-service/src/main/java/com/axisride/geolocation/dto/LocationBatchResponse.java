@@ -0,0 +1,16 @@
+package com.axisride.geolocation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LocationBatchResponse {
+    
+    private int accepted;
+    private int rejected;
+}
@@ -0,0 +1,22 @@
+package com.axisride.geolocation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NearbyDriverResponse {
+    
+    private String driverId;
+    private double latitude;
+    private double longitude;
+    private double distanceMeters;
+    private String vehicleType;
+    private float speedKmh;
+    private float heading;
+    private long recordedAt;
+}
@@ -0,0 +1,18 @@
+package com.axisride.geolocation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RouteBatchResponse {
+    
+    // Same order as the request
+    private List<RouteResponse> routes;
+}
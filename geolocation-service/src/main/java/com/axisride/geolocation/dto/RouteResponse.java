@@ -0,0 +1,21 @@
+package com.axisride.geolocation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RouteResponse {
+    
+    private String id;
+    private BigDecimal distanceKm;
+    private Integer durationMinutes;
+    // ROAD_GRAPH or GREAT_CIRCLE
+    private String source;
+}
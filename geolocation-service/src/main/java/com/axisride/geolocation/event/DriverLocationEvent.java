@@ -0,0 +1,28 @@
+package com.axisride.geolocation.event;
+
+import com.axisride.events.EventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Downsampled point of a driver's track, published to {@code driver.location.history} keyed
+ * by driver id.
+ */
+@EventType(name = "DriverLocation", version = 1)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DriverLocationEvent {
+
+    public static final String TOPIC = "driver.location.history";
+
+    private String driverId;
+    private double latitude;
+    private double longitude;
+    private double speedKmh;
+    private double heading;
+    private long recordedAt;
+}
@@ -0,0 +1,370 @@
+package com.axisride.geolocation.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Latest known position of every driver, kept in primitive arrays.
+ * <p>
+ * Each driver is given an int slot on its first ping; positions live in fixed-size segments
+ * of parallel {@code double}/{@code float}/{@code long} arrays indexed by slot, so an update
+ * allocates nothing and a million drivers fit in a few tens of megabytes. Every slot is guarded
+ * by a sequence counter: writers take it odd for the duration of the write, readers retry when
+ * it was odd or moved while they read.
+ * <p>
+ * Available drivers are also bucketed into square lat/lon grid cells of
+ * {@code geolocation.matching.cell-size-degrees}; a driver changes bucket under its slot guard,
+ * so concurrent pings never leave it in two cells. The store also remembers the last point
+ * sent to the history stream per driver, so deciding whether a ping must be sampled happens
+ * under the same guard.
+ */
+@Component
+public class DriverLocationStore {
+
+    private static final int SEGMENT_BITS = 14;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int MAX_SEGMENTS = 1024;
+    private static final int MAX_VEHICLE_TYPES = 256;
+    private static final long NO_CELL = Long.MIN_VALUE;
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    public enum UpdateResult {
+        /** Older than the stored position, ignored */
+        STALE,
+        /** Stored as the latest position */
+        UPDATED,
+        /** Stored, and far or old enough from the last sampled point to go to history */
+        SAMPLED
+    }
+
+    private final Map<String, Integer> slotsByDriver = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final AtomicReferenceArray<Segment> segments = new AtomicReferenceArray<>(MAX_SEGMENTS);
+    private final Map<Long, Set<Integer>> cells = new ConcurrentHashMap<>();
+    private final Map<String, Integer> vehicleTypeCodes = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> vehicleTypeNames = new AtomicReferenceArray<>(MAX_VEHICLE_TYPES);
+    private final AtomicInteger nextVehicleTypeCode = new AtomicInteger(1);
+    private final double cellSizeDegrees;
+    private final long historyIntervalMillis;
+    private final double historyDistanceMeters;
+
+    public DriverLocationStore(MeterRegistry meterRegistry,
+                               @Value("${geolocation.matching.cell-size-degrees:0.01}") double cellSizeDegrees,
+                               @Value("${geolocation.history.min-interval-ms:15000}") long historyIntervalMillis,
+                               @Value("${geolocation.history.min-distance-meters:200}") double historyDistanceMeters) {
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.historyIntervalMillis = historyIntervalMillis;
+        this.historyDistanceMeters = historyDistanceMeters;
+        Gauge.builder("geolocation.drivers.tracked", nextSlot, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("geolocation.matching.cells", cells, Map::size).register(meterRegistry);
+    }
+
+    public UpdateResult update(String driverId, double latitude, double longitude, float speedKmh, float heading,
+                               long recordedAt) {
+        int slot = slotOf(driverId);
+        Segment segment = segments.get(slot >>> SEGMENT_BITS);
+        int i = slot & SEGMENT_MASK;
+
+        long version = segment.lock(i);
+        try {
+            if (recordedAt < segment.recordedAt[i]) {
+                return UpdateResult.STALE;
+            }
+            segment.latitudes[i] = latitude;
+            segment.longitudes[i] = longitude;
+            segment.speeds[i] = speedKmh;
+            segment.headings[i] = heading;
+            segment.recordedAt[i] = recordedAt;
+            if (segment.available[i]) {
+                moveToCell(segment, i, slot, cellKey(latitude, longitude));
+            }
+
+            if (recordedAt - segment.sampledAt[i] < historyIntervalMillis
+                    && distanceMeters(latitude, longitude, segment.sampledLatitudes[i], segment.sampledLongitudes[i])
+                    < historyDistanceMeters) {
+                return UpdateResult.UPDATED;
+            }
+            segment.sampledLatitudes[i] = latitude;
+            segment.sampledLongitudes[i] = longitude;
+            segment.sampledAt[i] = recordedAt;
+            return UpdateResult.SAMPLED;
+        } finally {
+            segment.unlock(i, version);
+        }
+    }
+
+    /**
+     * Marks a driver available or not for matching, optionally changing its vehicle type.
+     */
+    public void updateStatus(String driverId, boolean available, String vehicleType) {
+        int slot = slotOf(driverId);
+        Segment segment = segments.get(slot >>> SEGMENT_BITS);
+        int i = slot & SEGMENT_MASK;
+        int vehicleTypeCode = vehicleType != null ? vehicleTypeCode(vehicleType, true) : -1;
+
+        long version = segment.lock(i);
+        try {
+            segment.available[i] = available;
+            if (vehicleTypeCode > 0) {
+                segment.vehicleTypes[i] = (byte) vehicleTypeCode;
+            }
+            if (!available) {
+                moveToCell(segment, i, slot, NO_CELL);
+            } else if (segment.recordedAt[i] > 0) {
+                moveToCell(segment, i, slot, cellKey(segment.latitudes[i], segment.longitudes[i]));
+            }
+        } finally {
+            segment.unlock(i, version);
+        }
+    }
+
+    public Optional<DriverPosition> get(String driverId) {
+        Integer slot = slotsByDriver.get(driverId);
+        return slot == null ? Optional.empty() : Optional.ofNullable(read(slot));
+    }
+
+    /**
+     * Consistent snapshot of a slot, or {@code null} when the slot has no position yet.
+     */
+    DriverPosition read(int slot) {
+        Segment segment = segments.get(slot >>> SEGMENT_BITS);
+        if (segment == null) {
+            return null;
+        }
+        int i = slot & SEGMENT_MASK;
+        while (true) {
+            long before = segment.versions.get(i);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            DriverPosition position = new DriverPosition(segment.driverIds[i], segment.latitudes[i],
+                    segment.longitudes[i], segment.speeds[i], segment.headings[i], segment.recordedAt[i],
+                    segment.available[i], vehicleTypeNames.get(segment.vehicleTypes[i] & 0xFF));
+            VarHandle.loadLoadFence();
+            if (segment.versions.get(i) == before) {
+                return position.driverId() == null || position.recordedAt() == 0 ? null : position;
+            }
+        }
+    }
+
+    /**
+     * Great-circle distance in meters from the given point to an available driver with a fresh
+     * enough position and the requested vehicle type ({@code 0} for any), or {@code NaN} when
+     * the driver does not qualify. Allocation-free, for the matching hot loop.
+     */
+    double distanceIfMatches(int slot, double latitude, double longitude, int vehicleTypeCode, long minRecordedAt) {
+        Segment segment = segments.get(slot >>> SEGMENT_BITS);
+        int i = slot & SEGMENT_MASK;
+        while (true) {
+            long before = segment.versions.get(i);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            boolean qualifies = segment.available[i]
+                    && segment.recordedAt[i] >= minRecordedAt
+                    && (vehicleTypeCode == 0 || segment.vehicleTypes[i] == (byte) vehicleTypeCode);
+            double driverLatitude = segment.latitudes[i];
+            double driverLongitude = segment.longitudes[i];
+            VarHandle.loadLoadFence();
+            if (segment.versions.get(i) == before) {
+                return qualifies ? haversineMeters(latitude, longitude, driverLatitude, driverLongitude) : Double.NaN;
+            }
+        }
+    }
+
+    void forEachInCell(int latIndex, int lonIndex, IntConsumer action) {
+        Set<Integer> cell = cells.get(cellKey(latIndex, Math.floorMod(lonIndex, lonCellCount())));
+        if (cell != null) {
+            for (Integer slot : cell) {
+                action.accept(slot);
+            }
+        }
+    }
+
+    /**
+     * Code of a vehicle type, {@code 0} for unknown types when {@code create} is false.
+     */
+    int vehicleTypeCode(String vehicleType, boolean create) {
+        String name = vehicleType.trim().toUpperCase(Locale.ROOT);
+        Integer code = vehicleTypeCodes.get(name);
+        if (code != null || !create) {
+            return code != null ? code : 0;
+        }
+        return vehicleTypeCodes.computeIfAbsent(name, key -> {
+            int assigned = nextVehicleTypeCode.getAndIncrement();
+            if (assigned >= MAX_VEHICLE_TYPES) {
+                throw new IllegalArgumentException("Too many vehicle types");
+            }
+            vehicleTypeNames.set(assigned, key);
+            return assigned;
+        });
+    }
+
+    /**
+     * Drops drivers whose last ping is older than {@code cutoff} from the matching grid; their
+     * next ping puts them back.
+     */
+    int evictFromGrid(long cutoff) {
+        int evicted = 0;
+        int slots = nextSlot.get();
+        for (int slot = 0; slot < slots; slot++) {
+            Segment segment = segments.get(slot >>> SEGMENT_BITS);
+            int i = slot & SEGMENT_MASK;
+            if (segment == null || segment.cellKeys[i] == NO_CELL || segment.recordedAt[i] >= cutoff) {
+                continue;
+            }
+            long version = segment.lock(i);
+            try {
+                if (segment.cellKeys[i] != NO_CELL && segment.recordedAt[i] < cutoff) {
+                    moveToCell(segment, i, slot, NO_CELL);
+                    evicted++;
+                }
+            } finally {
+                segment.unlock(i, version);
+            }
+        }
+        return evicted;
+    }
+
+    double cellSizeDegrees() {
+        return cellSizeDegrees;
+    }
+
+    int latIndex(double latitude) {
+        return (int) Math.floor((latitude + 90.0) / cellSizeDegrees);
+    }
+
+    int lonIndex(double longitude) {
+        return (int) Math.floor((longitude + 180.0) / cellSizeDegrees);
+    }
+
+    int latCellCount() {
+        return (int) Math.ceil(180.0 / cellSizeDegrees);
+    }
+
+    int lonCellCount() {
+        return (int) Math.ceil(360.0 / cellSizeDegrees);
+    }
+
+    static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6_371_008.8 * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private void moveToCell(Segment segment, int i, int slot, long newCell) {
+        long oldCell = segment.cellKeys[i];
+        if (oldCell == newCell) {
+            return;
+        }
+        if (oldCell != NO_CELL) {
+            cells.computeIfPresent(oldCell, (key, members) -> {
+                members.remove(slot);
+                return members.isEmpty() ? null : members;
+            });
+        }
+        if (newCell != NO_CELL) {
+            cells.compute(newCell, (key, members) -> {
+                Set<Integer> target = members != null ? members : ConcurrentHashMap.newKeySet();
+                target.add(slot);
+                return target;
+            });
+        }
+        segment.cellKeys[i] = newCell;
+    }
+
+    private int slotOf(String driverId) {
+        Integer slot = slotsByDriver.get(driverId);
+        if (slot != null) {
+            return slot;
+        }
+        return slotsByDriver.computeIfAbsent(driverId, id -> {
+            int assigned = nextSlot.getAndIncrement();
+            int segmentIndex = assigned >>> SEGMENT_BITS;
+            if (segmentIndex >= MAX_SEGMENTS) {
+                throw new IllegalStateException("Driver location store is full");
+            }
+            Segment segment = segments.get(segmentIndex);
+            if (segment == null) {
+                segments.compareAndSet(segmentIndex, null, new Segment());
+                segment = segments.get(segmentIndex);
+            }
+            // Published to readers by the versioned writes that follow
+            segment.driverIds[assigned & SEGMENT_MASK] = id;
+            return assigned;
+        });
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return cellKey(latIndex(latitude), Math.floorMod(lonIndex(longitude), lonCellCount()));
+    }
+
+    private static long cellKey(int latIndex, int lonIndex) {
+        return ((long) latIndex << 32) | (lonIndex & 0xFFFFFFFFL);
+    }
+
+    private static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        // Equirectangular approximation, accurate enough at sampling distances
+        double x = (lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = lat2 - lat1;
+        return Math.sqrt(x * x + y * y) * METERS_PER_DEGREE;
+    }
+
+    public record DriverPosition(String driverId, double latitude, double longitude, float speedKmh, float heading,
+                                 long recordedAt, boolean available, String vehicleType) {
+    }
+
+    private static final class Segment {
+        final AtomicLongArray versions = new AtomicLongArray(SEGMENT_SIZE);
+        final String[] driverIds = new String[SEGMENT_SIZE];
+        final double[] latitudes = new double[SEGMENT_SIZE];
+        final double[] longitudes = new double[SEGMENT_SIZE];
+        final float[] speeds = new float[SEGMENT_SIZE];
+        final float[] headings = new float[SEGMENT_SIZE];
+        final long[] recordedAt = new long[SEGMENT_SIZE];
+        final boolean[] available = new boolean[SEGMENT_SIZE];
+        final byte[] vehicleTypes = new byte[SEGMENT_SIZE];
+        final long[] cellKeys = new long[SEGMENT_SIZE];
+        final double[] sampledLatitudes = new double[SEGMENT_SIZE];
+        final double[] sampledLongitudes = new double[SEGMENT_SIZE];
+        final long[] sampledAt = new long[SEGMENT_SIZE];
+
+        Segment() {
+            Arrays.fill(cellKeys, NO_CELL);
+        }
+
+        long lock(int i) {
+            while (true) {
+                long version = versions.get(i);
+                if ((version & 1) == 0 && versions.compareAndSet(i, version, version + 1)) {
+                    return version;
+                }
+                Thread.onSpinWait();
+            }
+        }
+
+        void unlock(int i, long version) {
+            versions.set(i, version + 2);
+        }
+    }
+}
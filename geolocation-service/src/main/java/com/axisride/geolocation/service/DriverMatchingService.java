@@ -0,0 +1,201 @@
+package com.axisride.geolocation.service;
+
+import com.axisride.geolocation.dto.NearbyDriverResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * k-nearest available drivers around a pickup point, for instant booking.
+ * <p>
+ * Searches the grid of {@link DriverLocationStore} ring by ring outwards from the pickup cell,
+ * keeping the k best candidates in a bounded max-heap. It stops as soon as the next ring cannot
+ * hold anything closer than the current k-th candidate, or lies wholly outside the radius, so a
+ * query reads a handful of cells however many drivers are tracked. Drivers whose last ping is
+ * older than {@code geolocation.matching.max-position-age-ms} are skipped, and a periodic sweep
+ * takes them out of the grid altogether.
+ */
+@Service
+@Slf4j
+public class DriverMatchingService {
+
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    private final DriverLocationStore store;
+    private final long maxPositionAgeMillis;
+    private final long gridRetentionMillis;
+    private final int maxResults;
+    private final double maxRadiusKm;
+    private final Timer queryTimer;
+
+    public DriverMatchingService(DriverLocationStore store,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${geolocation.matching.max-position-age-ms:60000}") long maxPositionAgeMillis,
+                                 @Value("${geolocation.matching.grid-retention-ms:600000}") long gridRetentionMillis,
+                                 @Value("${geolocation.matching.max-results:50}") int maxResults,
+                                 @Value("${geolocation.matching.max-radius-km:50}") double maxRadiusKm) {
+        this.store = store;
+        this.maxPositionAgeMillis = maxPositionAgeMillis;
+        this.gridRetentionMillis = gridRetentionMillis;
+        this.maxResults = maxResults;
+        this.maxRadiusKm = maxRadiusKm;
+        this.queryTimer = Timer.builder("geolocation.matching.query")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    public List<NearbyDriverResponse> findNearest(double latitude, double longitude, double radiusKm, int limit,
+                                                  String vehicleType) {
+        if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180 || !(radiusKm > 0)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid search point or radius");
+        }
+        // The rings scanned grow with the radius, so it is bounded like the result count
+        if (radiusKm > maxRadiusKm) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "radiusKm is limited to " + maxRadiusKm);
+        }
+        int k = Math.max(1, Math.min(limit, maxResults));
+        int vehicleTypeCode = 0;
+        if (vehicleType != null && !vehicleType.isBlank()) {
+            vehicleTypeCode = store.vehicleTypeCode(vehicleType, false);
+            if (vehicleTypeCode == 0) {
+                // No driver ever declared this type
+                return List.of();
+            }
+        }
+        long started = System.nanoTime();
+        try {
+            return search(latitude, longitude, radiusKm * 1000.0, k, vehicleTypeCode);
+        } finally {
+            queryTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${geolocation.matching.sweep-interval-ms:60000}")
+    public void sweep() {
+        int evicted = store.evictFromGrid(System.currentTimeMillis() - gridRetentionMillis);
+        if (evicted > 0) {
+            log.debug("Removed {} silent drivers from the matching grid", evicted);
+        }
+    }
+
+    private List<NearbyDriverResponse> search(double latitude, double longitude, double radiusMeters, int k,
+                                              int vehicleTypeCode) {
+        long minRecordedAt = System.currentTimeMillis() - maxPositionAgeMillis;
+        double cellSize = store.cellSizeDegrees();
+        int centerLat = store.latIndex(latitude);
+        int centerLon = store.lonIndex(longitude);
+        int latCells = store.latCellCount();
+
+        // Narrowest cell side within reach, used as a lower bound on the distance to ring r
+        double reachDegrees = radiusMeters / METERS_PER_DEGREE + cellSize;
+        double poleward = Math.min(90.0, Math.abs(latitude) + reachDegrees);
+        double cellHeight = cellSize * METERS_PER_DEGREE;
+        double cellWidth = Math.max(cellHeight * Math.cos(Math.toRadians(poleward)), 1.0);
+        double minSide = Math.min(cellHeight, cellWidth);
+        int maxRing = (int) Math.min(Math.ceil(radiusMeters / minSide) + 1, store.lonCellCount() / 2);
+
+        PriorityQueue<Candidate> best = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble(Candidate::distanceMeters).reversed());
+        CandidateCollector collector = new CandidateCollector(best, k, latitude, longitude, radiusMeters,
+                vehicleTypeCode, minRecordedAt);
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            double ringLowerBound = Math.max(0, ring - 1) * minSide;
+            if (ringLowerBound > radiusMeters
+                    || (best.size() == k && ringLowerBound > best.peek().distanceMeters())) {
+                break;
+            }
+            for (int dLat = -ring; dLat <= ring; dLat++) {
+                int latIndex = centerLat + dLat;
+                if (latIndex < 0 || latIndex >= latCells) {
+                    continue;
+                }
+                boolean edgeRow = Math.abs(dLat) == ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int dLon = -ring; dLon <= ring; dLon += step) {
+                    store.forEachInCell(latIndex, centerLon + dLon, collector);
+                }
+            }
+        }
+
+        List<Candidate> ordered = new ArrayList<>(best);
+        ordered.sort(Comparator.comparingDouble(Candidate::distanceMeters));
+        List<NearbyDriverResponse> result = new ArrayList<>(ordered.size());
+        for (Candidate candidate : ordered) {
+            DriverLocationStore.DriverPosition position = store.read(candidate.slot());
+            if (position == null) {
+                continue;
+            }
+            result.add(NearbyDriverResponse.builder()
+                    .driverId(position.driverId())
+                    .latitude(position.latitude())
+                    .longitude(position.longitude())
+                    .distanceMeters(Math.round(candidate.distanceMeters() * 10) / 10.0)
+                    .vehicleType(position.vehicleType())
+                    .speedKmh(position.speedKmh())
+                    .heading(position.heading())
+                    .recordedAt(position.recordedAt())
+                    .build());
+        }
+        return result;
+    }
+
+    private record Candidate(int slot, double distanceMeters) {
+    }
+
+    private final class CandidateCollector implements IntConsumer {
+
+        private final PriorityQueue<Candidate> best;
+        private final int k;
+        private final double latitude;
+        private final double longitude;
+        private final double radiusMeters;
+        private final int vehicleTypeCode;
+        private final long minRecordedAt;
+        private final Set<Integer> seen = new HashSet<>();
+
+        CandidateCollector(PriorityQueue<Candidate> best, int k, double latitude, double longitude,
+                           double radiusMeters, int vehicleTypeCode, long minRecordedAt) {
+            this.best = best;
+            this.k = k;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.radiusMeters = radiusMeters;
+            this.vehicleTypeCode = vehicleTypeCode;
+            this.minRecordedAt = minRecordedAt;
+        }
+
+        @Override
+        public void accept(int slot) {
+            double distance = store.distanceIfMatches(slot, latitude, longitude, vehicleTypeCode, minRecordedAt);
+            if (Double.isNaN(distance) || distance > radiusMeters) {
+                return;
+            }
+            if (best.size() == k && distance >= best.peek().distanceMeters()) {
+                return;
+            }
+            // A driver crossing cells during the scan may be seen in both
+            if (!seen.add(slot)) {
+                return;
+            }
+            best.add(new Candidate(slot, distance));
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+    }
+}
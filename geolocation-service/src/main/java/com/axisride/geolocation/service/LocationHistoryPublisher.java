@@ -0,0 +1,101 @@
+package com.axisride.geolocation.service;
+
+import com.axisride.geolocation.event.DriverLocationEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Sends sampled points to the history topic from a background flush, so ingestion threads
+ * never wait on Kafka. When the buffer is full the point is dropped and counted: history is
+ * already downsampled and the latest position is unaffected.
+ * <p>
+ * A flush sends at most {@code geolocation.history.max-per-flush} points and stops at the
+ * first send failure, leaving the rest buffered for a later flush, so a Kafka outage costs one
+ * failed batch per flush rather than the whole buffer.
+ */
+@Component
+@Slf4j
+public class LocationHistoryPublisher {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final BlockingQueue<DriverLocationEvent> buffer;
+    private final int batchSize;
+    private final int maxPerFlush;
+    private final Counter dropped;
+    // Set by a failed send, ends the flush in progress
+    private volatile boolean sendFailed;
+
+    public LocationHistoryPublisher(KafkaTemplate<String, Object> kafkaTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${geolocation.history.buffer-capacity:100000}") int capacity,
+                                    @Value("${geolocation.history.batch-size:5000}") int batchSize,
+                                    @Value("${geolocation.history.max-per-flush:20000}") int maxPerFlush) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxPerFlush = maxPerFlush;
+        this.dropped = meterRegistry.counter("geolocation.history.dropped");
+    }
+
+    public void offer(DriverLocationEvent event) {
+        if (!buffer.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${geolocation.history.flush-interval-ms:100}")
+    public void flush() {
+        sendFailed = false;
+        List<DriverLocationEvent> batch = new ArrayList<>(batchSize);
+        int sent = 0;
+        while (sent < maxPerFlush && !sendFailed
+                && buffer.drainTo(batch, Math.min(batchSize, maxPerFlush - sent)) > 0) {
+            for (int i = 0; i < batch.size(); i++) {
+                DriverLocationEvent event = batch.get(i);
+                try {
+                    kafkaTemplate.send(DriverLocationEvent.TOPIC, event.getDriverId(), event)
+                            .whenComplete((result, e) -> {
+                                if (e != null) {
+                                    sendFailed = true;
+                                    dropped.increment();
+                                    log.debug("History point for driver {} not sent: {}", event.getDriverId(), e.getMessage());
+                                }
+                            });
+                } catch (RuntimeException e) {
+                    // The producer could not even take it (buffer full, no metadata): keep the
+                    // rest of the batch for the next flush
+                    requeue(batch.subList(i, batch.size()));
+                    log.warn("History publishing paused: {}", e.getMessage());
+                    return;
+                }
+            }
+            sent += batch.size();
+            batch.clear();
+        }
+    }
+
+    private void requeue(List<DriverLocationEvent> events) {
+        for (DriverLocationEvent event : events) {
+            if (!buffer.offer(event)) {
+                dropped.increment();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        kafkaTemplate.flush();
+    }
+}
@@ -0,0 +1,106 @@
+package com.axisride.geolocation.service;
+
+import com.axisride.geolocation.dto.DriverPositionResponse;
+import com.axisride.geolocation.dto.DriverStatusRequest;
+import com.axisride.geolocation.dto.LocationPing;
+import com.axisride.geolocation.event.DriverLocationEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Entry point for driver pings from both HTTP batches and the WebSocket stream. A ping only
+ * touches the in-memory {@link DriverLocationStore}; sampled points are handed to
+ * {@link LocationHistoryPublisher}, and the store keeps the matching grid of
+ * {@link DriverMatchingService} current as it goes. Nothing is written to Postgres.
+ */
+@Service
+public class LocationIngestService {
+
+    private final DriverLocationStore store;
+    private final LocationHistoryPublisher historyPublisher;
+    private final long maxClockSkewMillis;
+    private final Counter accepted;
+    private final Counter stale;
+    private final Counter invalid;
+
+    public LocationIngestService(DriverLocationStore store,
+                                 LocationHistoryPublisher historyPublisher,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${geolocation.ingest.max-clock-skew-ms:30000}") long maxClockSkewMillis) {
+        this.store = store;
+        this.historyPublisher = historyPublisher;
+        this.maxClockSkewMillis = maxClockSkewMillis;
+        this.accepted = meterRegistry.counter("geolocation.pings", "result", "accepted");
+        this.stale = meterRegistry.counter("geolocation.pings", "result", "stale");
+        this.invalid = meterRegistry.counter("geolocation.pings", "result", "invalid");
+    }
+
+    /**
+     * Applies a batch of pings from one driver and returns how many were accepted.
+     */
+    public int ingest(String driverId, List<LocationPing> pings) {
+        long latestAllowed = System.currentTimeMillis() + maxClockSkewMillis;
+        int acceptedCount = 0;
+        // Oldest first, so every sampled point of the batch reaches history in order
+        List<LocationPing> ordered = pings.stream()
+                .sorted(Comparator.comparing(LocationPing::getRecordedAt, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+        for (LocationPing ping : ordered) {
+            if (!isValid(ping, latestAllowed)) {
+                invalid.increment();
+                continue;
+            }
+            float speed = ping.getSpeedKmh() != null ? ping.getSpeedKmh() : 0f;
+            float heading = ping.getHeading() != null ? ping.getHeading() : 0f;
+            DriverLocationStore.UpdateResult result = store.update(driverId, ping.getLatitude(), ping.getLongitude(),
+                    speed, heading, ping.getRecordedAt());
+            if (result == DriverLocationStore.UpdateResult.STALE) {
+                stale.increment();
+                continue;
+            }
+            accepted.increment();
+            acceptedCount++;
+            if (result == DriverLocationStore.UpdateResult.SAMPLED) {
+                historyPublisher.offer(DriverLocationEvent.builder()
+                        .driverId(driverId)
+                        .latitude(ping.getLatitude())
+                        .longitude(ping.getLongitude())
+                        .speedKmh(speed)
+                        .heading(heading)
+                        .recordedAt(ping.getRecordedAt())
+                        .build());
+            }
+        }
+        return acceptedCount;
+    }
+
+    /**
+     * Driver going on or off duty; only available drivers are offered to instant booking.
+     */
+    public void updateStatus(String driverId, DriverStatusRequest request) {
+        store.updateStatus(driverId, request.getAvailable(), request.getVehicleType());
+    }
+
+    public Optional<DriverPositionResponse> getPosition(String driverId) {
+        return store.get(driverId).map(position -> DriverPositionResponse.builder()
+                .driverId(position.driverId())
+                .latitude(position.latitude())
+                .longitude(position.longitude())
+                .speedKmh(position.speedKmh())
+                .heading(position.heading())
+                .recordedAt(position.recordedAt())
+                .build());
+    }
+
+    private boolean isValid(LocationPing ping, long latestAllowed) {
+        return ping.getLatitude() != null && ping.getLongitude() != null && ping.getRecordedAt() != null
+                && Math.abs(ping.getLatitude()) <= 90 && Math.abs(ping.getLongitude()) <= 180
+                && ping.getRecordedAt() > 0 && ping.getRecordedAt() <= latestAllowed;
+    }
+}
@@ -0,0 +1,385 @@
+package com.axisride.geolocation.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable directed road graph in compressed sparse row form, with A* on travel time.
+ * <p>
+ * Loaded from a CSV extract (for instance produced from OpenStreetMap) with two kinds of lines:
+ * <pre>
+ * N,&lt;nodeId&gt;,&lt;latitude&gt;,&lt;longitude&gt;
+ * E,&lt;fromNodeId&gt;,&lt;toNodeId&gt;,&lt;lengthMeters&gt;,&lt;speedKmh&gt;,&lt;oneway 0|1&gt;
+ * </pre>
+ * Lines starting with {@code #} are ignored. Nodes are kept in primitive arrays and bucketed in
+ * a coarse grid to snap arbitrary points to the nearest node. Search state lives in per-thread
+ * arrays stamped with a query generation, so a query never clears or allocates node-sized arrays.
+ */
+public final class RoadGraph {
+
+    private static final double SNAP_CELL_DEGREES = 0.05;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] firstEdge;
+    private final int[] edgeTargets;
+    private final float[] edgeMeters;
+    private final float[] edgeSeconds;
+    private final double maxSpeedMetersPerSecond;
+    private final Map<Long, int[]> snapCells;
+    private final ThreadLocal<SearchState> searchState;
+
+    private RoadGraph(double[] latitudes, double[] longitudes, int[] firstEdge, int[] edgeTargets,
+                      float[] edgeMeters, float[] edgeSeconds, double maxSpeedMetersPerSecond) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.firstEdge = firstEdge;
+        this.edgeTargets = edgeTargets;
+        this.edgeMeters = edgeMeters;
+        this.edgeSeconds = edgeSeconds;
+        this.maxSpeedMetersPerSecond = maxSpeedMetersPerSecond;
+        this.snapCells = buildSnapCells(latitudes, longitudes);
+        this.searchState = ThreadLocal.withInitial(() -> new SearchState(latitudes.length));
+    }
+
+    public static RoadGraph load(Path path) throws IOException {
+        Map<Long, Integer> nodeIndex = new HashMap<>();
+        DoubleList lats = new DoubleList();
+        DoubleList lons = new DoubleList();
+        IntList from = new IntList();
+        IntList to = new IntList();
+        FloatList meters = new FloatList();
+        FloatList seconds = new FloatList();
+        double maxSpeed = 1.0;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.charAt(0) == '#') {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                try {
+                    if (parts[0].equals("N")) {
+                        nodeIndex.put(Long.parseLong(parts[1]), lats.size());
+                        lats.add(Double.parseDouble(parts[2]));
+                        lons.add(Double.parseDouble(parts[3]));
+                    } else if (parts[0].equals("E")) {
+                        Integer source = nodeIndex.get(Long.parseLong(parts[1]));
+                        Integer target = nodeIndex.get(Long.parseLong(parts[2]));
+                        if (source == null || target == null) {
+                            throw new IllegalArgumentException("edge references an unknown node");
+                        }
+                        float length = Float.parseFloat(parts[3]);
+                        double speed = Math.max(Double.parseDouble(parts[4]), 1.0) / 3.6;
+                        float travelSeconds = (float) (length / speed);
+                        maxSpeed = Math.max(maxSpeed, speed);
+                        from.add(source);
+                        to.add(target);
+                        meters.add(length);
+                        seconds.add(travelSeconds);
+                        if (parts.length < 6 || !parts[5].trim().equals("1")) {
+                            from.add(target);
+                            to.add(source);
+                            meters.add(length);
+                            seconds.add(travelSeconds);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    throw new IOException("Invalid road graph line " + lineNumber + " in " + path + ": " + e.getMessage(), e);
+                }
+            }
+        }
+
+        int nodeCount = lats.size();
+        int edgeCount = from.size();
+        int[] firstEdge = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            firstEdge[from.get(e) + 1]++;
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            firstEdge[n + 1] += firstEdge[n];
+        }
+        int[] cursor = Arrays.copyOf(firstEdge, nodeCount);
+        int[] edgeTargets = new int[edgeCount];
+        float[] edgeMeters = new float[edgeCount];
+        float[] edgeSeconds = new float[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            int position = cursor[from.get(e)]++;
+            edgeTargets[position] = to.get(e);
+            edgeMeters[position] = meters.get(e);
+            edgeSeconds[position] = seconds.get(e);
+        }
+        return new RoadGraph(lats.toArray(), lons.toArray(), firstEdge, edgeTargets, edgeMeters, edgeSeconds, maxSpeed);
+    }
+
+    public int nodeCount() {
+        return latitudes.length;
+    }
+
+    public int edgeCount() {
+        return edgeTargets.length;
+    }
+
+    /**
+     * Nearest node within {@code maxMeters} of the point, or {@code -1}. Only the surrounding
+     * snap cells are searched, so radii beyond about 5 km are effectively capped.
+     */
+    public int snap(double latitude, double longitude, double maxMeters) {
+        int latCell = (int) Math.floor(latitude / SNAP_CELL_DEGREES);
+        int lonCell = (int) Math.floor(longitude / SNAP_CELL_DEGREES);
+        int best = -1;
+        double bestMeters = maxMeters;
+        for (int dLat = -1; dLat <= 1; dLat++) {
+            for (int dLon = -1; dLon <= 1; dLon++) {
+                int[] nodes = snapCells.get(cellKey(latCell + dLat, lonCell + dLon));
+                if (nodes == null) {
+                    continue;
+                }
+                for (int node : nodes) {
+                    double meters = DriverLocationStore.haversineMeters(latitude, longitude,
+                            latitudes[node], longitudes[node]);
+                    if (meters <= bestMeters) {
+                        bestMeters = meters;
+                        best = node;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    public double latitude(int node) {
+        return latitudes[node];
+    }
+
+    public double longitude(int node) {
+        return longitudes[node];
+    }
+
+    /**
+     * Fastest path between two nodes, or {@code null} when the target cannot be reached.
+     */
+    public Leg shortestPath(int source, int target) {
+        if (source == target) {
+            return new Leg(0, 0);
+        }
+        SearchState state = searchState.get();
+        int generation = state.nextGeneration();
+        double targetLat = latitudes[target];
+        double targetLon = longitudes[target];
+
+        state.reach(source, generation, 0, 0);
+        state.heap.push(source, heuristic(source, targetLat, targetLon));
+        while (!state.heap.isEmpty()) {
+            int node = state.heap.peekNode();
+            double priority = state.heap.peekPriority();
+            state.heap.pop();
+            double seconds = state.seconds[node];
+            if (priority > seconds + heuristic(node, targetLat, targetLon) + 1e-6) {
+                // Outdated heap entry, the node was reached faster since
+                continue;
+            }
+            if (node == target) {
+                return new Leg(state.meters[node], seconds);
+            }
+            for (int e = firstEdge[node]; e < firstEdge[node + 1]; e++) {
+                int next = edgeTargets[e];
+                double nextSeconds = seconds + edgeSeconds[e];
+                if (state.generations[next] != generation || nextSeconds < state.seconds[next]) {
+                    state.reach(next, generation, nextSeconds, state.meters[node] + edgeMeters[e]);
+                    state.heap.push(next, nextSeconds + heuristic(next, targetLat, targetLon));
+                }
+            }
+        }
+        return null;
+    }
+
+    private double heuristic(int node, double targetLat, double targetLon) {
+        return DriverLocationStore.haversineMeters(latitudes[node], longitudes[node], targetLat, targetLon)
+                / maxSpeedMetersPerSecond;
+    }
+
+    private static Map<Long, int[]> buildSnapCells(double[] latitudes, double[] longitudes) {
+        Map<Long, IntList> cells = new HashMap<>();
+        for (int node = 0; node < latitudes.length; node++) {
+            long key = cellKey((int) Math.floor(latitudes[node] / SNAP_CELL_DEGREES),
+                    (int) Math.floor(longitudes[node] / SNAP_CELL_DEGREES));
+            cells.computeIfAbsent(key, k -> new IntList()).add(node);
+        }
+        Map<Long, int[]> frozen = new HashMap<>(cells.size() * 2);
+        cells.forEach((key, nodes) -> frozen.put(key, nodes.toArray()));
+        return frozen;
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xFFFFFFFFL);
+    }
+
+    public record Leg(double meters, double seconds) {
+    }
+
+    private static final class SearchState {
+        final int[] generations;
+        final double[] seconds;
+        final double[] meters;
+        final NodeHeap heap = new NodeHeap();
+        int generation;
+
+        SearchState(int nodeCount) {
+            generations = new int[nodeCount];
+            seconds = new double[nodeCount];
+            meters = new double[nodeCount];
+        }
+
+        int nextGeneration() {
+            heap.clear();
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(generations, 0);
+                generation = 1;
+            }
+            return generation;
+        }
+
+        void reach(int node, int generation, double nodeSeconds, double nodeMeters) {
+            generations[node] = generation;
+            seconds[node] = nodeSeconds;
+            meters[node] = nodeMeters;
+        }
+    }
+
+    /**
+     * Binary min-heap of (node, priority) with lazy deletion.
+     */
+    private static final class NodeHeap {
+        int[] nodes = new int[1024];
+        double[] priorities = new double[1024];
+        int size;
+
+        void push(int node, double priority) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                priorities = Arrays.copyOf(priorities, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (priorities[parent] <= priority) {
+                    break;
+                }
+                nodes[i] = nodes[parent];
+                priorities[i] = priorities[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            priorities[i] = priority;
+        }
+
+        int peekNode() {
+            return nodes[0];
+        }
+
+        double peekPriority() {
+            return priorities[0];
+        }
+
+        void pop() {
+            int lastNode = nodes[--size];
+            double last = priorities[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && priorities[child + 1] < priorities[child]) {
+                    child++;
+                }
+                if (priorities[child] >= last) {
+                    break;
+                }
+                nodes[i] = nodes[child];
+                priorities[i] = priorities[child];
+                i = child;
+            }
+            nodes[i] = lastNode;
+            priorities[i] = last;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int i) {
+            return values[i];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class FloatList {
+        float[] values = new float[16];
+        int size;
+
+        void add(float value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        float get(int i) {
+            return values[i];
+        }
+    }
+
+    private static final class DoubleList {
+        double[] values = new double[16];
+        int size;
+
+        void add(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        double[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
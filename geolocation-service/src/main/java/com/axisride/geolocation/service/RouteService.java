@@ -0,0 +1,134 @@
+package com.axisride.geolocation.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Point;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Road distance and driving time between two points.
+ * <p>
+ * Routes come from a {@link RoadGraph} loaded at startup from
+ * {@code geolocation.routing.graph-path}. When no graph is configured, or an endpoint is too
+ * far from any road node, or the nodes are not connected, the estimate falls back to the
+ * great-circle distance stretched by a detour factor at a flat average speed.
+ * <p>
+ * Endpoints are quantized to {@code geolocation.routing.cache.precision-degrees} and routes are
+ * computed between the quantized points, so every request in the same pair of cells gets the
+ * same answer from a bounded Caffeine cache. City-to-city pairs repeat constantly and are
+ * served from memory after the first request.
+ */
+@Service
+@Slf4j
+public class RouteService {
+
+    public enum Source {
+        ROAD_GRAPH,
+        GREAT_CIRCLE
+    }
+
+    private final RoadGraph roadGraph;
+    private final Cache<RouteKey, RouteEstimate> cache;
+    private final double precisionDegrees;
+    private final double maxSnapMeters;
+    private final double detourFactor;
+    private final double fallbackSpeedKmh;
+    private final Counter roadGraphRoutes;
+    private final Counter greatCircleRoutes;
+
+    public RouteService(MeterRegistry meterRegistry,
+                        @Value("${geolocation.routing.graph-path:}") String graphPath,
+                        @Value("${geolocation.routing.max-snap-meters:2000}") double maxSnapMeters,
+                        @Value("${geolocation.routing.cache.max-size:200000}") long cacheMaxSize,
+                        @Value("${geolocation.routing.cache.precision-degrees:0.001}") double precisionDegrees,
+                        @Value("${geolocation.routing.fallback.detour-factor:1.3}") double detourFactor,
+                        @Value("${geolocation.routing.fallback.speed-kmh:60}") double fallbackSpeedKmh) throws IOException {
+        this.roadGraph = loadGraph(graphPath);
+        this.precisionDegrees = precisionDegrees;
+        this.maxSnapMeters = maxSnapMeters;
+        this.detourFactor = detourFactor;
+        this.fallbackSpeedKmh = fallbackSpeedKmh;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "geolocation.routes.cache");
+        this.roadGraphRoutes = meterRegistry.counter("geolocation.routes", "source", "road_graph");
+        this.greatCircleRoutes = meterRegistry.counter("geolocation.routes", "source", "great_circle");
+    }
+
+    /**
+     * Route between two WGS84 points (x = longitude, y = latitude).
+     */
+    public RouteEstimate estimate(Point from, Point to) {
+        RouteKey key = new RouteKey(quantize(from.getY()), quantize(from.getX()),
+                quantize(to.getY()), quantize(to.getX()));
+        return cache.get(key, this::compute);
+    }
+
+    private RouteEstimate compute(RouteKey key) {
+        double fromLat = key.fromLat() * precisionDegrees;
+        double fromLon = key.fromLon() * precisionDegrees;
+        double toLat = key.toLat() * precisionDegrees;
+        double toLon = key.toLon() * precisionDegrees;
+
+        if (roadGraph != null) {
+            int source = roadGraph.snap(fromLat, fromLon, maxSnapMeters);
+            int target = roadGraph.snap(toLat, toLon, maxSnapMeters);
+            if (source >= 0 && target >= 0) {
+                RoadGraph.Leg leg = roadGraph.shortestPath(source, target);
+                if (leg != null) {
+                    // Off-road approach to the snapped nodes at the fallback speed
+                    double accessMeters = DriverLocationStore.haversineMeters(fromLat, fromLon,
+                            roadGraph.latitude(source), roadGraph.longitude(source))
+                            + DriverLocationStore.haversineMeters(toLat, toLon,
+                            roadGraph.latitude(target), roadGraph.longitude(target));
+                    double meters = leg.meters() + accessMeters;
+                    double seconds = leg.seconds() + accessMeters / (fallbackSpeedKmh / 3.6);
+                    roadGraphRoutes.increment();
+                    return new RouteEstimate(meters / 1000.0, seconds / 60.0, Source.ROAD_GRAPH);
+                }
+            }
+        }
+
+        double kilometers = DriverLocationStore.haversineMeters(fromLat, fromLon, toLat, toLon) / 1000.0 * detourFactor;
+        greatCircleRoutes.increment();
+        return new RouteEstimate(kilometers, kilometers / fallbackSpeedKmh * 60.0, Source.GREAT_CIRCLE);
+    }
+
+    private int quantize(double degrees) {
+        return (int) Math.round(degrees / precisionDegrees);
+    }
+
+    private static RoadGraph loadGraph(String graphPath) throws IOException {
+        if (graphPath == null || graphPath.isBlank()) {
+            log.info("No road graph configured, routes use the great-circle estimate");
+            return null;
+        }
+        Path path = Path.of(graphPath);
+        if (!Files.isReadable(path)) {
+            log.warn("Road graph {} is not readable, routes use the great-circle estimate", path);
+            return null;
+        }
+        long started = System.currentTimeMillis();
+        RoadGraph graph = RoadGraph.load(path);
+        log.info("Loaded road graph {} with {} nodes and {} edges in {} ms", path, graph.nodeCount(),
+                graph.edgeCount(), System.currentTimeMillis() - started);
+        return graph;
+    }
+
+    public record RouteEstimate(double distanceKm, double durationMinutes, Source source) {
+    }
+
+    private record RouteKey(int fromLat, int fromLon, int toLat, int toLon) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.axisride.notification.config;
+
+import com.axisride.notification.service.NotificationBackpressureException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+import org.springframework.util.backoff.FixedBackOff;
+
+/**
+ * A listener that finds its lane full is retried, with growing pauses, until there is room
+ * again: the partition stops being consumed meanwhile, which is how backpressure reaches
+ * Kafka. Any other failure is retried twice and then skipped.
+ * <p>
+ * {@code batchKafkaListenerContainerFactory} hands listeners a whole poll at once, for topics
+ * where only the latest record per key matters.
+ */
+@Configuration
+public class KafkaConfig {
+
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler(
+            @Value("${notification.backpressure.max-pause-ms:5000}") long maxPauseMs) {
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(new FixedBackOff(1000L, 2L));
+        errorHandler.setBackOffFunction((record, exception) -> {
+            if (!isBackpressure(exception)) {
+                return null;
+            }
+            ExponentialBackOff backOff = new ExponentialBackOff(100L, 2.0);
+            backOff.setMaxInterval(maxPauseMs);
+            return backOff;
+        });
+        return errorHandler;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        return factory;
+    }
+
+    private static boolean isBackpressure(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof NotificationBackpressureException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,39 @@
+package com.axisride.notification.config;
+
+import com.axisride.notification.dto.Notification;
+import com.axisride.notification.provider.NotificationProvider;
+import com.axisride.notification.provider.StubNotificationProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Stub providers for every channel, on unless {@code notification.providers.stub.enabled} is
+ * false. Real adapters are {@link NotificationProvider} beans for the same channels.
+ */
+@Configuration
+@ConditionalOnProperty(name = "notification.providers.stub.enabled", havingValue = "true", matchIfMissing = true)
+public class StubProviderConfig {
+
+    @Value("${notification.providers.stub.latency-ms:0}")
+    private long latencyMs;
+
+    @Value("${notification.providers.stub.failure-rate:0}")
+    private double failureRate;
+
+    @Bean
+    public NotificationProvider stubPushProvider() {
+        return new StubNotificationProvider(Notification.Channel.PUSH, latencyMs, failureRate);
+    }
+
+    @Bean
+    public NotificationProvider stubSmsProvider() {
+        return new StubNotificationProvider(Notification.Channel.SMS, latencyMs, failureRate);
+    }
+
+    @Bean
+    public NotificationProvider stubEmailProvider() {
+        return new StubNotificationProvider(Notification.Channel.EMAIL, latencyMs, failureRate);
+    }
+}
@@ -0,0 +1,54 @@
+package com.axisride.notification.controller;
+
+import com.axisride.notification.dto.Notification;
+import com.axisride.notification.dto.NotificationRequest;
+import com.axisride.notification.dto.NotificationResponse;
+import com.axisride.notification.service.NotificationBackpressureException;
+import com.axisride.notification.service.NotificationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Direct submission for notifications that no event carries, such as one-time codes and
+ * marketing campaigns, restricted to ROLE_ADMIN. Accepted notifications are sent asynchronously.
+ */
+@RestController
+@RequestMapping("/notifications")
+@RequiredArgsConstructor
+public class NotificationController {
+
+    private final NotificationService notificationService;
+
+    @PostMapping
+    public ResponseEntity<NotificationResponse> submit(@Valid @RequestBody NotificationRequest request) {
+        Notification notification = Notification.builder()
+                .recipientId(request.getRecipientId())
+                .category(request.getCategory())
+                .channel(request.getChannel())
+                .title(request.getTitle())
+                .body(request.getBody())
+                .collapseKey(request.getCollapseKey())
+                .build();
+        boolean accepted;
+        try {
+            accepted = notificationService.submit(notification, request.getDedupeKey());
+        } catch (NotificationBackpressureException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+        NotificationResponse response = NotificationResponse.builder()
+                .status(accepted ? "ACCEPTED" : "NOT_SENT")
+                .channel(notification.getChannel())
+                .lane(notification.lane())
+                .build();
+        return accepted
+                ? ResponseEntity.status(HttpStatus.ACCEPTED).body(response)
+                : ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,84 @@
+package com.axisride.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A message on its way to one recipient over one channel. Updates with the same recipient,
+ * channel and {@code collapseKey} waiting in the same lane are merged into one: the latest
+ * title and body win and {@code count} says how many were folded in.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class Notification {
+
+    private String recipientId;
+    private Channel channel;
+    private Category category;
+    private String title;
+    private String body;
+    private String collapseKey;
+    @Builder.Default
+    private int count = 1;
+    @Builder.Default
+    private int attempts = 0;
+    // When the first of the merged updates was accepted, the lag is measured from here
+    private Instant acceptedAt;
+
+    public Lane lane() {
+        return category.getLane();
+    }
+
+    public Notification mergedWith(Notification later) {
+        return toBuilder()
+                .title(later.getTitle())
+                .body(later.getBody())
+                .count(count + later.getCount())
+                .build();
+    }
+
+    public enum Channel {
+        PUSH, SMS, EMAIL
+    }
+
+    /**
+     * Dispatch priority, highest first: a worker always serves the highest non-empty lane.
+     */
+    public enum Lane {
+        CRITICAL, TRANSACTIONAL, BULK
+    }
+
+    public enum Category {
+        OTP(Lane.CRITICAL, Channel.SMS),
+        DEPARTURE_ALERT(Lane.CRITICAL, Channel.PUSH),
+        TRIP_CANCELLED(Lane.CRITICAL, Channel.PUSH),
+        BOOKING_UPDATE(Lane.TRANSACTIONAL, Channel.PUSH),
+        TRIP_UPDATE(Lane.TRANSACTIONAL, Channel.PUSH),
+        // Due in bursts at popular departure times, so kept out of the critical lane
+        DEPARTURE_REMINDER(Lane.TRANSACTIONAL, Channel.PUSH),
+        ACCOUNT(Lane.TRANSACTIONAL, Channel.EMAIL),
+        MARKETING(Lane.BULK, Channel.EMAIL);
+
+        private final Lane lane;
+        private final Channel defaultChannel;
+
+        Category(Lane lane, Channel defaultChannel) {
+            this.lane = lane;
+            this.defaultChannel = defaultChannel;
+        }
+
+        public Lane getLane() {
+            return lane;
+        }
+
+        public Channel getDefaultChannel() {
+            return defaultChannel;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.axisride.notification.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationRequest {
+
+    @NotBlank(message = "Recipient is required")
+    private String recipientId;
+
+    @NotNull(message = "Category is required")
+    private Notification.Category category;
+
+    // Defaults to the category's channel
+    private Notification.Channel channel;
+
+    @NotBlank(message = "Title is required")
+    @Size(max = 200, message = "Title must be at most 200 characters")
+    private String title;
+
+    @NotBlank(message = "Body is required")
+    @Size(max = 2000, message = "Body must be at most 2000 characters")
+    private String body;
+
+    @Size(max = 200, message = "Collapse key must be at most 200 characters")
+    private String collapseKey;
+
+    // Retries with the same key are accepted once
+    @Size(max = 200, message = "Dedupe key must be at most 200 characters")
+    private String dedupeKey;
+}
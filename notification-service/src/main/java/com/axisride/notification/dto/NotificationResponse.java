@@ -0,0 +1,17 @@
+package com.axisride.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationResponse {
+
+    private String status;
+    private Notification.Channel channel;
+    private Notification.Lane lane;
+}
@@ -0,0 +1,37 @@
+package com.axisride.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Where to reach a user, kept from {@code user.created} so SMS and email deliveries do not
+ * call auth-service.
+ */
+@Entity
+@Table(name = "recipient_contacts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecipientContact {
+    
+    @Id
+    @Column(name = "user_id")
+    private String userId;
+    
+    private String email;
+    
+    @Column(name = "phone_number")
+    private String phoneNumber;
+    
+    @Column(name = "first_name")
+    private String firstName;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
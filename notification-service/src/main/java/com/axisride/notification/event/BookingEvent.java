@@ -0,0 +1,35 @@
+package com.axisride.notification.event;
+
+import com.axisride.events.EventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Consumer-side binding of the {@code BookingEvent} schema published by trip-service on the
+ * {@code booking.*} topics.
+ */
+@EventType(name = "BookingEvent", version = 1)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingEvent {
+
+    public static final String CREATED_TOPIC = "booking.created";
+    public static final String CONFIRMED_TOPIC = "booking.confirmed";
+    public static final String CANCELLED_TOPIC = "booking.cancelled";
+
+    private String bookingId;
+    private String tripId;
+    private String passengerId;
+    private String driverId;
+    private int seats;
+    private BigDecimal totalPrice;
+    private String status;
+    private String cancelledBy;
+    private String cancellationReason;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,26 @@
+package com.axisride.notification.event;
+
+import com.axisride.events.EventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Consumer-side binding of the {@code DriverLocation} schema published by geolocation-service
+ * on {@code driver.location.history}, one sampled position per driver every few hundred meters.
+ */
+@EventType(name = "DriverLocation", version = 1)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DriverLocationEvent {
+
+    public static final String TOPIC = "driver.location.history";
+
+    private String driverId;
+    private double latitude;
+    private double longitude;
+    private double speedKmh;
+    private double heading;
+    private long recordedAt;
+}
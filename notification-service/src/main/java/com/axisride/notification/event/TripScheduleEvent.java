@@ -0,0 +1,29 @@
+package com.axisride.notification.event;
+
+import com.axisride.events.EventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Consumer-side binding of the {@code TripSchedule} schema published by trip-service on
+ * {@code trip.scheduled}.
+ */
+@EventType(name = "TripSchedule", version = 1)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TripScheduleEvent {
+
+    public static final String TOPIC = "trip.scheduled";
+
+    private String tripId;
+    private String driverId;
+    private String tripStatus;
+    private LocalDateTime departureTime;
+    private Double departureLatitude;
+    private Double departureLongitude;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,10 @@
+package com.axisride.notification.provider;
+
+import com.axisride.notification.dto.Notification;
+
+/**
+ * A notification with the address resolved for its channel: the phone number for SMS, the
+ * email address for EMAIL and the user id for PUSH, whose device tokens the provider owns.
+ */
+public record Delivery(Notification notification, String address) {
+}
@@ -0,0 +1,18 @@
+package com.axisride.notification.provider;
+
+import com.axisride.notification.dto.Notification;
+
+import java.util.List;
+
+/**
+ * Adapter to an external delivery service for one channel. Called from the channel's worker
+ * pool with up to {@code notification.channels.<channel>.batch-size} deliveries of one lane;
+ * an exception fails the whole batch, which is retried up to
+ * {@code notification.delivery.max-attempts} times.
+ */
+public interface NotificationProvider {
+
+    Notification.Channel channel();
+
+    void send(List<Delivery> deliveries);
+}
@@ -0,0 +1,51 @@
+package com.axisride.notification.provider;
+
+import com.axisride.notification.dto.Notification;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for a real provider: logs the deliveries, and can add latency and random
+ * failures to exercise the worker pools and retries without an external account.
+ */
+@Slf4j
+public class StubNotificationProvider implements NotificationProvider {
+
+    private final Notification.Channel channel;
+    private final long latencyMs;
+    private final double failureRate;
+
+    public StubNotificationProvider(Notification.Channel channel, long latencyMs, double failureRate) {
+        this.channel = channel;
+        this.latencyMs = latencyMs;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public Notification.Channel channel() {
+        return channel;
+    }
+
+    @Override
+    public void send(List<Delivery> deliveries) {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sending", e);
+            }
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IllegalStateException("Simulated " + channel + " provider failure");
+        }
+        for (Delivery delivery : deliveries) {
+            Notification notification = delivery.notification();
+            log.debug("[{} stub] to {} ({}): {} - {}{}", channel, delivery.address(), notification.getCategory(),
+                    notification.getTitle(), notification.getBody(),
+                    notification.getCount() > 1 ? " [" + notification.getCount() + " updates]" : "");
+        }
+    }
+}
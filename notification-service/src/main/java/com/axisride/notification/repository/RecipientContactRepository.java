@@ -0,0 +1,9 @@
+package com.axisride.notification.repository;
+
+import com.axisride.notification.entity.RecipientContact;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RecipientContactRepository extends JpaRepository<RecipientContact, String> {
+}
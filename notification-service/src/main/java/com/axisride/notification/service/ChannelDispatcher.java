@@ -0,0 +1,246 @@
+package com.axisride.notification.service;
+
+import com.axisride.notification.dto.Notification;
+import com.axisride.notification.provider.Delivery;
+import com.axisride.notification.provider.NotificationProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The worker pool of one channel. Each lane has its own bounded queue and every worker takes
+ * a batch from the highest non-empty lane, so an OTP queued behind thousands of marketing
+ * emails is the next one sent. A full lane refuses new notifications instead of growing;
+ * the caller decides whether to wait or give up. A failed batch goes back to its lane after
+ * an exponential backoff from {@code notification.delivery.retry-delay}, so the attempts
+ * span a provider hiccup instead of being spent within milliseconds.
+ */
+@Slf4j
+class ChannelDispatcher {
+
+    private static final Notification.Lane[] LANES = Notification.Lane.values();
+
+    private final Notification.Channel channel;
+    private final NotificationProvider provider;
+    private final Function<List<Notification>, List<Delivery>> addressing;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final List<BlockingQueue<Notification>> queues;
+    // About one permit per queued notification, across lanes
+    private final Semaphore queued = new Semaphore(0);
+    private final ExecutorService workers;
+    private final ScheduledExecutorService retries;
+    private final AtomicInteger retrying = new AtomicInteger();
+    private final int workerCount;
+    private volatile boolean running = true;
+
+    private final Counter[] dispatched = new Counter[LANES.length];
+    private final Counter[] failed = new Counter[LANES.length];
+    private final Counter[] dropped = new Counter[LANES.length];
+    private final Timer[] lag = new Timer[LANES.length];
+
+    ChannelDispatcher(Notification.Channel channel, NotificationProvider provider,
+                      Function<List<Notification>, List<Delivery>> addressing,
+                      int workerCount, int queueCapacity, int batchSize, int maxAttempts,
+                      Duration retryDelay, MeterRegistry meterRegistry) {
+        this.channel = channel;
+        this.provider = provider;
+        this.addressing = addressing;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = retryDelay;
+        this.workerCount = workerCount;
+        this.queues = new ArrayList<>(LANES.length);
+        for (int i = 0; i < LANES.length; i++) {
+            queues.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+        String channelTag = channel.name().toLowerCase();
+        for (Notification.Lane lane : LANES) {
+            int i = lane.ordinal();
+            String laneTag = lane.name().toLowerCase();
+            meterRegistry.gauge("notification.queued", Tags.of("channel", channelTag, "lane", laneTag),
+                    queues.get(i), BlockingQueue::size);
+            dispatched[i] = meterRegistry.counter("notification.dispatched", "channel", channelTag, "lane", laneTag);
+            failed[i] = meterRegistry.counter("notification.failed", "channel", channelTag, "lane", laneTag);
+            dropped[i] = meterRegistry.counter("notification.dropped", "channel", channelTag, "lane", laneTag);
+            lag[i] = Timer.builder("notification.lag")
+                    .description("From acceptance to handover to the provider")
+                    .tags("channel", channelTag, "lane", laneTag)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+        }
+        meterRegistry.gauge("notification.retrying", Tags.of("channel", channelTag), retrying);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "notify-" + channelTag + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::work);
+        }
+        this.retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notify-" + channelTag + "-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues the notification in its lane. Returns {@code false} if the lane is full.
+     */
+    boolean offer(Notification notification) {
+        if (!running || !queues.get(notification.lane().ordinal()).offer(notification)) {
+            return false;
+        }
+        queued.release();
+        return true;
+    }
+
+    /**
+     * Stops accepting notifications and gives the workers {@code timeout} to send what is
+     * queued.
+     */
+    void shutdown(Duration timeout) {
+        running = false;
+        retries.shutdownNow();
+        if (retrying.get() > 0) {
+            log.warn("Dropping {} {} notifications waiting for a retry at shutdown", retrying.get(), channel);
+        }
+        // Wake idle workers so they see the flag once the queues are empty
+        queued.release(workerCount);
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("{} notifications still queued for {} at shutdown", queued.availablePermits(), channel);
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+    }
+
+    private void work() {
+        List<Notification> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                // Permits only wake workers up; the timeout doubles as a periodic look at the lanes
+                queued.tryAcquire(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            Notification.Lane lane = take(batch);
+            if (lane == null) {
+                if (!running) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                deliver(lane, batch);
+            } catch (RuntimeException e) {
+                log.error("Unexpected error dispatching {} {} notifications", batch.size(), channel, e);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Moves up to a batch from the highest non-empty lane into {@code batch}. Returns the
+     * lane, or {@code null} if every lane was empty.
+     */
+    private Notification.Lane take(List<Notification> batch) {
+        for (Notification.Lane lane : LANES) {
+            BlockingQueue<Notification> queue = queues.get(lane.ordinal());
+            Notification first = queue.poll();
+            if (first != null) {
+                batch.add(first);
+                // Take the permits of the extra ones if still there; a worker that woke for one
+                // of them finds the lanes empty and goes back to waiting
+                int more = queue.drainTo(batch, batchSize - 1);
+                while (more > 0 && queued.tryAcquire()) {
+                    more--;
+                }
+                return lane;
+            }
+        }
+        return null;
+    }
+
+    private void deliver(Notification.Lane lane, List<Notification> batch) {
+        int i = lane.ordinal();
+        List<Delivery> deliveries = addressing.apply(batch);
+        if (deliveries.size() < batch.size()) {
+            dropped[i].increment(batch.size() - deliveries.size());
+        }
+        if (deliveries.isEmpty()) {
+            return;
+        }
+        try {
+            provider.send(deliveries);
+        } catch (RuntimeException e) {
+            failed[i].increment(deliveries.size());
+            log.warn("{} provider failed for {} {} notifications: {}", channel, deliveries.size(), lane, e.getMessage());
+            retry(deliveries);
+            return;
+        }
+        dispatched[i].increment(deliveries.size());
+        Instant now = Instant.now();
+        for (Delivery delivery : deliveries) {
+            Instant acceptedAt = delivery.notification().getAcceptedAt();
+            if (acceptedAt != null) {
+                lag[i].record(Duration.between(acceptedAt, now));
+            }
+        }
+    }
+
+    private void retry(List<Delivery> deliveries) {
+        for (Delivery delivery : deliveries) {
+            Notification notification = delivery.notification();
+            notification.setAttempts(notification.getAttempts() + 1);
+            if (notification.getAttempts() >= maxAttempts) {
+                giveUp(notification);
+                continue;
+            }
+            // retry-delay, then twice as long after each further failure
+            long delayMs = retryDelay.toMillis() << Math.min(notification.getAttempts() - 1, 16);
+            retrying.incrementAndGet();
+            try {
+                retries.schedule(() -> {
+                    retrying.decrementAndGet();
+                    if (!offer(notification)) {
+                        giveUp(notification);
+                    }
+                }, delayMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                retrying.decrementAndGet();
+                giveUp(notification);
+            }
+        }
+    }
+
+    private void giveUp(Notification notification) {
+        dropped[notification.lane().ordinal()].increment();
+        log.error("Giving up on {} {} notification for {} after {} attempts", channel,
+                notification.getCategory(), notification.getRecipientId(), notification.getAttempts());
+    }
+}
@@ -0,0 +1,117 @@
+package com.axisride.notification.service;
+
+import com.axisride.notification.event.BookingEvent;
+import com.axisride.notification.event.DriverLocationEvent;
+import com.axisride.notification.event.TripBookingsChangedEvent;
+import com.axisride.notification.event.TripScheduleEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps {@link DepartureReminderStore} in step with trip-service: departures from
+ * {@code trip.scheduled}, passengers from the booking topics, removal once the trip starts or
+ * ends. Also watches driver positions for drivers whose passengers were reminded and alerts
+ * those passengers when the driver comes within {@code notification.reminders.nearby-meters}
+ * of the departure point.
+ * <p>
+ * Consumes in its own group, so reminders have their own offsets and backoff apart from the
+ * event notifications.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.reminders.enabled", havingValue = "true", matchIfMissing = true)
+public class DepartureReminderListener {
+
+    private static final String GROUP_ID = "${notification.reminders.group-id:notification-reminders}";
+
+    private final DepartureReminderStore store;
+    private final DepartureReminderService reminderService;
+    private final double nearbyMeters;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    public DepartureReminderListener(DepartureReminderStore store,
+                                     DepartureReminderService reminderService,
+                                     @Value("${notification.reminders.nearby-meters:500}") double nearbyMeters) {
+        this.store = store;
+        this.reminderService = reminderService;
+        this.nearbyMeters = nearbyMeters;
+    }
+
+    @KafkaListener(topics = TripScheduleEvent.TOPIC, groupId = GROUP_ID)
+    public void onTripScheduled(TripScheduleEvent event) {
+        if (!"PLANNED".equals(event.getTripStatus())) {
+            store.cancel(event.getTripId());
+            return;
+        }
+        store.schedule(event.getTripId(), event.getDriverId(),
+                event.getDepartureTime().atZone(zone).toInstant().toEpochMilli(),
+                event.getDepartureLatitude(), event.getDepartureLongitude());
+    }
+
+    @KafkaListener(topics = {BookingEvent.CREATED_TOPIC, BookingEvent.CONFIRMED_TOPIC, BookingEvent.CANCELLED_TOPIC},
+            groupId = GROUP_ID)
+    public void onBooking(BookingEvent event) {
+        if ("CONFIRMED".equals(event.getStatus())) {
+            DepartureReminderStore.ScheduledTrip reminded =
+                    store.addPassenger(event.getTripId(), event.getBookingId(), event.getPassengerId());
+            if (reminded != null) {
+                // Booked after the others were reminded
+                reminderService.remind(reminded, event.getBookingId(), event.getPassengerId());
+            }
+        } else if ("CANCELLED".equals(event.getStatus())) {
+            store.removePassenger(event.getTripId(), event.getBookingId());
+        }
+    }
+
+    @KafkaListener(topics = {TripBookingsChangedEvent.STARTED_TOPIC, TripBookingsChangedEvent.CANCELLED_TOPIC,
+            TripBookingsChangedEvent.COMPLETED_TOPIC}, groupId = GROUP_ID)
+    public void onTripChanged(TripBookingsChangedEvent event) {
+        store.cancel(event.getTripId());
+    }
+
+    @KafkaListener(topics = DriverLocationEvent.TOPIC, groupId = GROUP_ID,
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void onDriverLocations(List<DriverLocationEvent> events) {
+        Map<String, DriverLocationEvent> latest = new LinkedHashMap<>();
+        for (DriverLocationEvent event : events) {
+            latest.merge(event.getDriverId(), event,
+                    (previous, next) -> next.getRecordedAt() >= previous.getRecordedAt() ? next : previous);
+        }
+        List<String> driverIds = new ArrayList<>(latest.keySet());
+        List<DepartureReminderStore.Approach> approaches = store.approaches(driverIds);
+        for (int i = 0; i < driverIds.size(); i++) {
+            DepartureReminderStore.Approach approach = approaches.get(i);
+            if (approach == null) {
+                continue;
+            }
+            DriverLocationEvent location = latest.get(driverIds.get(i));
+            if (haversineMeters(location.getLatitude(), location.getLongitude(),
+                    approach.latitude(), approach.longitude()) > nearbyMeters
+                    || !store.claimApproach(approach)) {
+                continue;
+            }
+            try {
+                reminderService.alertDriverNearby(approach.tripId(), store.passengers(approach.tripId()));
+            } catch (NotificationBackpressureException e) {
+                store.rearmApproach(approach);
+                throw e;
+            }
+        }
+    }
+
+    private static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6_371_008.8 * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
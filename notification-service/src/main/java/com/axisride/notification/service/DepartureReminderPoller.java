@@ -0,0 +1,143 @@
+package com.axisride.notification.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Sends departure reminders as their bucket in {@link DepartureReminderStore} comes due.
+ * <p>
+ * Every instance polls every {@code poll-interval-ms}, taking each shard it can lock for the
+ * round, so shards are spread over instances and a dead one is replaced once its locks expire.
+ * A shard is drained from its stored position up to the current bucket, popping
+ * {@code batch-size} trips at a time and at most {@code max-per-shard} per round. The bucket
+ * before the current one is kept open, for writers whose clock is a little behind.
+ * <p>
+ * When the notification lanes are full the unsent trips go back to their bucket and the
+ * round ends, so reminders queue up in Redis rather than in memory. A trip popped by an
+ * instance that dies before sending is not reminded.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.reminders.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class DepartureReminderPoller {
+
+    private final DepartureReminderStore store;
+    private final DepartureReminderService reminderService;
+    private final int batchSize;
+    private final int maxPerShard;
+    private final Duration lockTtl;
+    private final Counter sent;
+    private final Counter stale;
+    private final Timer lateness;
+    // Where the next round starts, so instances do not all contend for shard 0 first
+    private int nextShard;
+
+    public DepartureReminderPoller(DepartureReminderStore store,
+                                   DepartureReminderService reminderService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${notification.reminders.batch-size:200}") int batchSize,
+                                   @Value("${notification.reminders.max-per-shard:5000}") int maxPerShard,
+                                   @Value("${notification.reminders.lock-ttl:PT30S}") Duration lockTtl) {
+        this.store = store;
+        this.reminderService = reminderService;
+        this.batchSize = batchSize;
+        this.maxPerShard = maxPerShard;
+        this.lockTtl = lockTtl;
+        this.nextShard = (int) (Math.random() * store.shards());
+        this.sent = meterRegistry.counter("notification.reminders.sent");
+        this.stale = meterRegistry.counter("notification.reminders.stale");
+        this.lateness = Timer.builder("notification.reminders.lateness")
+                .description("From the start of a reminder's bucket to it being handed to the pipeline")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.reminders.poll-interval-ms:1000}")
+    public void poll() {
+        long currentBucket = store.bucketOf(System.currentTimeMillis());
+        int shards = store.shards();
+        int first = nextShard;
+        nextShard = (nextShard + 1) % shards;
+        for (int i = 0; i < shards; i++) {
+            int shard = (first + i) % shards;
+            try {
+                if (!store.tryLock(shard, lockTtl)) {
+                    continue;
+                }
+                try {
+                    if (!drain(shard, currentBucket)) {
+                        return;
+                    }
+                } finally {
+                    store.unlock(shard);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Departure reminder poll failed on shard {}, will retry: {}", shard, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns {@code false} if the notification lanes are full.
+     */
+    private boolean drain(int shard, long currentBucket) {
+        Long stored = store.position(shard);
+        long position = stored != null ? stored : currentBucket - 1;
+        if (stored == null) {
+            store.setPosition(shard, position);
+        }
+        int budget = maxPerShard;
+        long bucket = position;
+        while (bucket <= currentBucket && budget > 0) {
+            List<String> tripIds = store.claim(shard, bucket, Math.min(batchSize, budget));
+            if (tripIds.isEmpty()) {
+                // Buckets before the last one are closed: once empty, later rounds start past them
+                if (bucket == position && bucket < currentBucket - 1) {
+                    position++;
+                    store.setPosition(shard, position);
+                }
+                bucket++;
+                continue;
+            }
+            budget -= tripIds.size();
+            if (!remind(shard, bucket, tripIds)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean remind(int shard, long bucket, List<String> tripIds) {
+        List<DepartureReminderStore.DueTrip> due = store.load(shard, bucket, tripIds);
+        stale.increment(tripIds.size() - due.size());
+        for (int i = 0; i < due.size(); i++) {
+            DepartureReminderStore.DueTrip trip = due.get(i);
+            try {
+                reminderService.remind(trip.trip(), trip.passengers());
+            } catch (NotificationBackpressureException e) {
+                store.requeue(shard, bucket, due.subList(i, due.size()).stream()
+                        .map(d -> d.trip().tripId())
+                        .toList());
+                log.debug("Notification lanes full, {} departure reminders back in shard {}", due.size() - i, shard);
+                return false;
+            }
+            if (!store.markReminded(shard, bucket, trip.trip())) {
+                // Rescheduled while it was sent, the new departure time gets its own reminder
+                log.debug("Trip {} moved while its departure reminder was sent", trip.trip().tripId());
+            }
+            sent.increment(trip.passengers().size());
+            lateness.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - store.bucketStart(bucket))));
+        }
+        return true;
+    }
+}
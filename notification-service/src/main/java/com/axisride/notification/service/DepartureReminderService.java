@@ -0,0 +1,60 @@
+package com.axisride.notification.service;
+
+import com.axisride.notification.dto.Notification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+/**
+ * The notifications sent for upcoming departures. Dedupe keys include the departure time, so
+ * a passenger is reminded once per departure time however often the reminder is retried.
+ */
+@Service
+@RequiredArgsConstructor
+public class DepartureReminderService {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final NotificationService notificationService;
+    // trip-service writes departure times in its system zone
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    /**
+     * @throws NotificationBackpressureException if the reminders cannot be accepted now
+     */
+    public void remind(DepartureReminderStore.ScheduledTrip trip, Map<String, String> passengers) {
+        passengers.forEach((bookingId, passengerId) -> remind(trip, bookingId, passengerId));
+    }
+
+    public void remind(DepartureReminderStore.ScheduledTrip trip, String bookingId, String passengerId) {
+        long minutesLeft = (trip.departureAt() - System.currentTimeMillis() + 59_999) / 60_000;
+        if (minutesLeft <= 0) {
+            return;
+        }
+        String departure = TIME.format(Instant.ofEpochMilli(trip.departureAt()).atZone(zone));
+        notificationService.submit(Notification.builder()
+                .recipientId(passengerId)
+                .category(Notification.Category.DEPARTURE_REMINDER)
+                .collapseKey("trip:" + trip.tripId())
+                .title("Your trip leaves soon")
+                .body("Departure at " + departure + ", in " + minutesLeft + " min.")
+                .build(), "reminder:departure:" + trip.tripId() + ":" + bookingId + ":" + trip.departureAt());
+    }
+
+    /**
+     * @throws NotificationBackpressureException if the alerts cannot be accepted now
+     */
+    public void alertDriverNearby(String tripId, Map<String, String> passengers) {
+        passengers.forEach((bookingId, passengerId) -> notificationService.submit(Notification.builder()
+                .recipientId(passengerId)
+                .category(Notification.Category.DEPARTURE_ALERT)
+                .collapseKey("trip:" + tripId)
+                .title("Your driver is nearby")
+                .body("Your driver is almost at the departure point.")
+                .build(), "reminder:nearby:" + tripId + ":" + bookingId));
+    }
+}
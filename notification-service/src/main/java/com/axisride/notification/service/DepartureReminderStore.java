@@ -0,0 +1,337 @@
+package com.axisride.notification.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Departure reminders kept in Redis, one entry per trip rather than per booking:
+ * <ul>
+ *     <li>{@code trip:<id>} hash: departure time and place, driver, the due bucket it sits in
+ *     and {@code remindedAt} once sent;</li>
+ *     <li>{@code trip:<id>:passengers} hash: booking id to passenger id, confirmed bookings
+ *     only;</li>
+ *     <li>{@code due:<shard>:<bucket>} set of trip ids whose reminder falls in that bucket of
+ *     {@code notification.reminders.bucket} (a minute by default), trips spread over
+ *     {@code notification.reminders.shards} by id;</li>
+ *     <li>{@code approach:<driverId>}: the trip a driver is heading to the departure point of,
+ *     armed when the reminder is sent.</li>
+ * </ul>
+ * Moving a departure, cancelling a trip or a booking touches a fixed number of keys however
+ * many reminders are pending, and finding what is due never scans: a poller pops the current
+ * bucket of a shard. A trip id left in a bucket it was moved out of is recognised as stale by
+ * comparing with the trip's {@code due} field. Scheduling, cancelling and marking a trip
+ * reminded each run as one Lua script, so they cannot interleave. Everything expires a while after departure.
+ */
+@Component
+public class DepartureReminderStore {
+
+    private static final String KEY_PREFIX = "notification:reminder:";
+
+    private static final RedisScript<Long> SCHEDULE =
+            RedisScript.of(new ClassPathResource("scripts/reminder_schedule.lua"), Long.class);
+
+    private static final RedisScript<Long> CANCEL =
+            RedisScript.of(new ClassPathResource("scripts/reminder_cancel.lua"), Long.class);
+
+    private static final RedisScript<Long> MARK =
+            RedisScript.of(new ClassPathResource("scripts/reminder_mark.lua"), Long.class);
+
+    private static final RedisScript<Long> UNLOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final long leadMillis;
+    private final long bucketMillis;
+    private final int shards;
+    private final Duration retention;
+    private final Duration approachWindow;
+    private final Duration unscheduledTtl;
+    private final String owner = UUID.randomUUID().toString();
+
+    public DepartureReminderStore(StringRedisTemplate redisTemplate,
+                                  @Value("${notification.reminders.lead:PT30M}") Duration lead,
+                                  @Value("${notification.reminders.bucket:PT1M}") Duration bucket,
+                                  @Value("${notification.reminders.shards:16}") int shards,
+                                  @Value("${notification.reminders.retention:PT2H}") Duration retention,
+                                  @Value("${notification.reminders.approach-window:PT30M}") Duration approachWindow,
+                                  @Value("${notification.reminders.unscheduled-ttl:P7D}") Duration unscheduledTtl) {
+        this.redisTemplate = redisTemplate;
+        this.leadMillis = lead.toMillis();
+        this.bucketMillis = bucket.toMillis();
+        this.shards = shards;
+        this.retention = retention;
+        this.approachWindow = approachWindow;
+        this.unscheduledTtl = unscheduledTtl;
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    public long bucketOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, bucketMillis);
+    }
+
+    public long bucketStart(long bucket) {
+        return bucket * bucketMillis;
+    }
+
+    /**
+     * Schedules the trip's reminder {@code lead} before departure, or right away if that is
+     * already past, moving it out of the bucket it was in. A reminder already sent for another
+     * departure time is sent again for the new one.
+     */
+    public void schedule(String tripId, String driverId, long departureAt, Double latitude, Double longitude) {
+        long now = System.currentTimeMillis();
+        if (departureAt <= now) {
+            cancel(tripId);
+            return;
+        }
+        String dueKey = dueKey(shardOf(tripId), bucketOf(Math.max(departureAt - leadMillis, now)));
+        boolean located = latitude != null && longitude != null;
+        redisTemplate.execute(SCHEDULE, List.of(tripKey(tripId), passengersKey(tripId), dueKey),
+                tripId, String.valueOf(departureAt), driverId,
+                String.valueOf(Instant.ofEpochMilli(departureAt).plus(retention).toEpochMilli()), approachKey(""),
+                located ? String.valueOf(latitude) : "", located ? String.valueOf(longitude) : "");
+    }
+
+    /**
+     * Forgets the trip: its reminder, passengers and proximity watch.
+     */
+    public void cancel(String tripId) {
+        redisTemplate.execute(CANCEL, List.of(tripKey(tripId), passengersKey(tripId)), tripId, approachKey(""));
+    }
+
+    /**
+     * Adds a confirmed booking to the trip's reminder. Returns the trip if its reminder has
+     * already gone out and departure is still ahead, so the passenger can be reminded now.
+     */
+    public ScheduledTrip addPassenger(String tripId, String bookingId, String passengerId) {
+        String passengersKey = passengersKey(tripId);
+        redisTemplate.opsForHash().put(passengersKey, bookingId, passengerId);
+        Map<Object, Object> current = redisTemplate.opsForHash().entries(tripKey(tripId));
+        if (!current.containsKey("departureAt")) {
+            // trip.scheduled not seen yet, it sets the expiry when it comes
+            redisTemplate.expire(passengersKey, unscheduledTtl);
+            return null;
+        }
+        ScheduledTrip trip = ScheduledTrip.of(tripId, current);
+        redisTemplate.expireAt(passengersKey, Instant.ofEpochMilli(trip.departureAt()).plus(retention));
+        return trip.reminded() && trip.departureAt() > System.currentTimeMillis() ? trip : null;
+    }
+
+    public void removePassenger(String tripId, String bookingId) {
+        redisTemplate.opsForHash().delete(passengersKey(tripId), bookingId);
+    }
+
+    public Map<String, String> passengers(String tripId) {
+        Map<String, String> passengers = new HashMap<>();
+        redisTemplate.<String, String>opsForHash().entries(passengersKey(tripId)).forEach(passengers::put);
+        return passengers;
+    }
+
+    /**
+     * Takes a shard for one polling round. The lock expires by itself if the poller dies.
+     */
+    public boolean tryLock(int shard, Duration ttl) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey(shard), owner, ttl));
+    }
+
+    public void unlock(int shard) {
+        redisTemplate.execute(UNLOCK, List.of(lockKey(shard)), owner);
+    }
+
+    /**
+     * The oldest bucket of the shard that may still hold trips, or {@code null} if the shard
+     * was never polled.
+     */
+    public Long position(int shard) {
+        String position = redisTemplate.opsForValue().get(positionKey(shard));
+        return position != null ? Long.valueOf(position) : null;
+    }
+
+    public void setPosition(int shard, long bucket) {
+        redisTemplate.opsForValue().set(positionKey(shard), String.valueOf(bucket));
+    }
+
+    /**
+     * Removes and returns up to {@code count} trip ids from the bucket. Each id goes to one
+     * caller only.
+     */
+    public List<String> claim(int shard, long bucket, int count) {
+        List<String> tripIds = redisTemplate.opsForSet().pop(dueKey(shard, bucket), count);
+        return tripIds != null ? tripIds : List.of();
+    }
+
+    public void requeue(int shard, long bucket, List<String> tripIds) {
+        if (!tripIds.isEmpty()) {
+            redisTemplate.opsForSet().add(dueKey(shard, bucket), tripIds.toArray(String[]::new));
+        }
+    }
+
+    /**
+     * Loads claimed trips and their passengers in one round trip. Trips that are gone or were
+     * moved to another bucket since are left out.
+     */
+    public List<DueTrip> load(int shard, long bucket, List<String> tripIds) {
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                // The template's own operations, whose keys are strings
+                for (String tripId : tripIds) {
+                    operations.opsForHash().entries((K) tripKey(tripId));
+                    operations.opsForHash().entries((K) passengersKey(tripId));
+                }
+                return null;
+            }
+        });
+        String dueKey = dueKey(shard, bucket);
+        List<DueTrip> due = new ArrayList<>(tripIds.size());
+        for (int i = 0; i < tripIds.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Map<Object, Object> trip = (Map<Object, Object>) results.get(2 * i);
+            @SuppressWarnings("unchecked")
+            Map<String, String> passengers = (Map<String, String>) results.get(2 * i + 1);
+            if (trip == null || !dueKey.equals(trip.get("due"))) {
+                continue;
+            }
+            due.add(new DueTrip(ScheduledTrip.of(tripIds.get(i), trip), passengers));
+        }
+        return due;
+    }
+
+    /**
+     * Records that the trip's reminder went out and, when the departure point is known,
+     * watches for its driver getting close until {@code approach-window} after departure.
+     * Returns {@code false}, and changes nothing, if the trip was moved out of the bucket or
+     * cancelled since it was loaded.
+     */
+    public boolean markReminded(int shard, long bucket, ScheduledTrip trip) {
+        long now = System.currentTimeMillis();
+        boolean located = trip.latitude() != null && trip.longitude() != null;
+        String approach = located
+                ? new Approach(trip.driverId(), trip.tripId(), trip.latitude(), trip.longitude(), trip.departureAt()).encode()
+                : "";
+        Long marked = redisTemplate.execute(MARK, List.of(tripKey(trip.tripId()), dueKey(shard, bucket),
+                        approachKey(trip.driverId())),
+                String.valueOf(trip.departureAt()), String.valueOf(now),
+                String.valueOf(Instant.ofEpochMilli(trip.departureAt()).plus(retention).toEpochMilli()),
+                approach, String.valueOf(trip.departureAt() + approachWindow.toMillis()));
+        return marked != null && marked == 1;
+    }
+
+    /**
+     * The trips the given drivers are heading to, in the same order, {@code null} for a
+     * driver nobody is waiting for. One round trip for the whole list.
+     */
+    public List<Approach> approaches(List<String> driverIds) {
+        List<String> values = redisTemplate.opsForValue().multiGet(driverIds.stream().map(this::approachKey).toList());
+        List<Approach> approaches = new ArrayList<>(driverIds.size());
+        for (int i = 0; i < driverIds.size(); i++) {
+            String value = values != null ? values.get(i) : null;
+            if (value == null) {
+                approaches.add(null);
+                continue;
+            }
+            approaches.add(Approach.decode(driverIds.get(i), value));
+        }
+        return approaches;
+    }
+
+    /**
+     * Stops watching the driver. Returns {@code true} for the one caller that did, who then
+     * sends the alert.
+     */
+    public boolean claimApproach(Approach approach) {
+        return Boolean.TRUE.equals(redisTemplate.delete(approachKey(approach.driverId())));
+    }
+
+    /**
+     * Watches the driver again after an alert could not be sent.
+     */
+    public void rearmApproach(Approach approach) {
+        long ttl = approachTtlMillis(approach);
+        if (ttl > 0) {
+            redisTemplate.opsForValue().setIfAbsent(approachKey(approach.driverId()), approach.encode(),
+                    Duration.ofMillis(ttl));
+        }
+    }
+
+    private long approachTtlMillis(Approach approach) {
+        return approach.departureAt() + approachWindow.toMillis() - System.currentTimeMillis();
+    }
+
+    private int shardOf(String tripId) {
+        return Math.floorMod(tripId.hashCode(), shards);
+    }
+
+    private String tripKey(String tripId) {
+        return KEY_PREFIX + "trip:" + tripId;
+    }
+
+    private String passengersKey(String tripId) {
+        return KEY_PREFIX + "trip:" + tripId + ":passengers";
+    }
+
+    private String dueKey(int shard, long bucket) {
+        return KEY_PREFIX + "due:" + shard + ":" + bucket;
+    }
+
+    private String positionKey(int shard) {
+        return KEY_PREFIX + "position:" + shard;
+    }
+
+    private String lockKey(int shard) {
+        return KEY_PREFIX + "lock:" + shard;
+    }
+
+    private String approachKey(String driverId) {
+        return KEY_PREFIX + "approach:" + driverId;
+    }
+
+    public record ScheduledTrip(String tripId, String driverId, long departureAt, Double latitude, Double longitude,
+                                boolean reminded) {
+
+        static ScheduledTrip of(String tripId, Map<Object, Object> fields) {
+            Object latitude = fields.get("latitude");
+            Object longitude = fields.get("longitude");
+            return new ScheduledTrip(tripId, (String) fields.get("driverId"),
+                    Long.parseLong((String) fields.get("departureAt")),
+                    latitude != null ? Double.valueOf((String) latitude) : null,
+                    longitude != null ? Double.valueOf((String) longitude) : null,
+                    fields.containsKey("remindedAt"));
+        }
+    }
+
+    public record DueTrip(ScheduledTrip trip, Map<String, String> passengers) {
+    }
+
+    public record Approach(String driverId, String tripId, double latitude, double longitude, long departureAt) {
+
+        String encode() {
+            return tripId + "|" + latitude + "|" + longitude + "|" + departureAt;
+        }
+
+        static Approach decode(String driverId, String value) {
+            String[] parts = value.split("\\|");
+            return new Approach(driverId, parts[0], Double.parseDouble(parts[1]), Double.parseDouble(parts[2]),
+                    Long.parseLong(parts[3]));
+        }
+    }
+}
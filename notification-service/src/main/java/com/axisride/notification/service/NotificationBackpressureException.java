@@ -0,0 +1,14 @@
+package com.axisride.notification.service;
+
+import com.axisride.notification.dto.Notification;
+
+/**
+ * A lane or the coalescing window is full. Kafka listeners let it propagate so the record is
+ * redelivered after a back-off, which slows consumption down to what the providers absorb.
+ */
+public class NotificationBackpressureException extends RuntimeException {
+
+    public NotificationBackpressureException(Notification.Lane lane, Notification.Channel channel) {
+        super("No room for " + lane + " " + channel + " notifications");
+    }
+}
@@ -0,0 +1,108 @@
+package com.axisride.notification.service;
+
+import com.axisride.notification.dto.Notification;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds transactional and bulk notifications for a short window so that updates about the
+ * same thing reach a recipient as one message: five booking changes on a driver's trip within
+ * the window are a single push saying there were five. Critical notifications never wait here.
+ * <p>
+ * The window starts with the first update of a key. When it ends the merged notification goes
+ * to the dispatcher; if the lane is full it stays here, keeps absorbing updates and is retried
+ * shortly, so a backlog makes coalescing more aggressive instead of growing the queues.
+ */
+@Component
+@Slf4j
+public class NotificationCoalescer {
+
+    private static final long RETRY_DELAY_MS = 200;
+
+    private final NotificationDispatcher dispatcher;
+    private final MeterRegistry meterRegistry;
+    private final long transactionalWindowMs;
+    private final long bulkWindowMs;
+    private final int maxPending;
+    private final Map<Key, Notification> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public NotificationCoalescer(NotificationDispatcher dispatcher,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${notification.coalesce.transactional-window-ms:2000}") long transactionalWindowMs,
+                                 @Value("${notification.coalesce.bulk-window-ms:30000}") long bulkWindowMs,
+                                 @Value("${notification.coalesce.max-pending:100000}") int maxPending) {
+        this.dispatcher = dispatcher;
+        this.meterRegistry = meterRegistry;
+        this.transactionalWindowMs = transactionalWindowMs;
+        this.bulkWindowMs = bulkWindowMs;
+        this.maxPending = maxPending;
+        meterRegistry.gauge("notification.coalescing", pending, Map::size);
+    }
+
+    /**
+     * Adds the notification to its key's window. Returns {@code false} when too many keys
+     * are already waiting.
+     */
+    public boolean add(Notification notification) {
+        Key key = new Key(notification.getRecipientId(), notification.getChannel(),
+                notification.getCollapseKey() != null ? notification.getCollapseKey() : notification.getCategory().name());
+        if (pending.size() >= maxPending && !pending.containsKey(key)) {
+            return false;
+        }
+        boolean[] opened = {false};
+        pending.compute(key, (k, waiting) -> {
+            if (waiting == null) {
+                opened[0] = true;
+                return notification;
+            }
+            return waiting.mergedWith(notification);
+        });
+        if (opened[0]) {
+            long window = notification.lane() == Notification.Lane.BULK ? bulkWindowMs : transactionalWindowMs;
+            timer.schedule(() -> release(key), window, TimeUnit.MILLISECONDS);
+        } else {
+            meterRegistry.counter("notification.coalesced", "lane", notification.lane().name().toLowerCase()).increment();
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        int left = 0;
+        for (Key key : pending.keySet()) {
+            Notification notification = pending.remove(key);
+            if (notification != null && !dispatcher.offer(notification)) {
+                left++;
+            }
+        }
+        if (left > 0) {
+            log.warn("Dropped {} coalesced notifications at shutdown, their lanes were full", left);
+        }
+    }
+
+    private void release(Key key) {
+        Notification held = pending.computeIfPresent(key, (k, notification) ->
+                dispatcher.offer(notification) ? null : notification);
+        if (held != null) {
+            timer.schedule(() -> release(key), RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private record Key(String recipientId, Notification.Channel channel, String subject) {
+    }
+}
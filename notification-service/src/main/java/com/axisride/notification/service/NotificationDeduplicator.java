@@ -0,0 +1,59 @@
+package com.axisride.notification.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Remembers which notifications were already accepted, across instances, so a redelivered
+ * event or a retried request does not notify twice. Keys are natural ones such as
+ * {@code booking.confirmed:<bookingId>}. If Redis is unavailable duplicates are let through.
+ */
+@Component
+@Slf4j
+public class NotificationDeduplicator {
+
+    private static final String KEY_PREFIX = "notification:dedupe:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+
+    public NotificationDeduplicator(StringRedisTemplate redisTemplate,
+                                    @Value("${notification.dedupe.ttl:PT24H}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Claims the key; {@code false} if it was claimed before within the TTL.
+     */
+    public boolean claim(String dedupeKey) {
+        if (dedupeKey == null) {
+            return true;
+        }
+        try {
+            return !Boolean.FALSE.equals(redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + dedupeKey, "1", ttl));
+        } catch (RuntimeException e) {
+            log.warn("Notification dedupe unavailable, accepting {}: {}", dedupeKey, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Gives the key back when the notification could not be accepted after all, so the retry
+     * is not mistaken for a duplicate.
+     */
+    public void release(String dedupeKey) {
+        if (dedupeKey == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(KEY_PREFIX + dedupeKey);
+        } catch (RuntimeException e) {
+            log.warn("Could not release notification dedupe key {}: {}", dedupeKey, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.axisride.notification.service;
+
+import com.axisride.notification.dto.Notification;
+import com.axisride.notification.entity.RecipientContact;
+import com.axisride.notification.provider.Delivery;
+import com.axisride.notification.provider.NotificationProvider;
+import com.axisride.notification.repository.RecipientContactRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One {@link ChannelDispatcher} per channel that has a {@link NotificationProvider}, sized by
+ * {@code notification.channels.<channel>.workers}, {@code .queue-capacity} (per lane) and
+ * {@code .batch-size}. Addresses are looked up once per batch.
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    private final RecipientContactRepository contactRepository;
+    private final Map<Notification.Channel, ChannelDispatcher> dispatchers = new EnumMap<>(Notification.Channel.class);
+    private final Duration shutdownTimeout;
+
+    public NotificationDispatcher(List<NotificationProvider> providers,
+                                  RecipientContactRepository contactRepository,
+                                  Environment environment,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notification.delivery.max-attempts:3}") int maxAttempts,
+                                  @Value("${notification.delivery.retry-delay:PT2S}") Duration retryDelay,
+                                  @Value("${notification.delivery.shutdown-timeout:PT10S}") Duration shutdownTimeout) {
+        this.contactRepository = contactRepository;
+        this.shutdownTimeout = shutdownTimeout;
+        for (NotificationProvider provider : providers) {
+            Notification.Channel channel = provider.channel();
+            if (dispatchers.containsKey(channel)) {
+                throw new IllegalStateException("More than one notification provider for " + channel);
+            }
+            String prefix = "notification.channels." + channel.name().toLowerCase() + ".";
+            int workers = environment.getProperty(prefix + "workers", Integer.class, 4);
+            int queueCapacity = environment.getProperty(prefix + "queue-capacity", Integer.class, 10000);
+            int batchSize = environment.getProperty(prefix + "batch-size", Integer.class, 50);
+            dispatchers.put(channel, new ChannelDispatcher(channel, provider, batch -> address(channel, batch),
+                    workers, queueCapacity, batchSize, maxAttempts, retryDelay, meterRegistry));
+            log.info("{} notifications: {} ({} workers, {} per lane, batches of {})", channel,
+                    provider.getClass().getSimpleName(), workers, queueCapacity, batchSize);
+        }
+    }
+
+    public boolean supports(Notification.Channel channel) {
+        return dispatchers.containsKey(channel);
+    }
+
+    /**
+     * Hands the notification to its channel's lane. Returns {@code false} if the lane is full.
+     */
+    public boolean offer(Notification notification) {
+        ChannelDispatcher dispatcher = dispatchers.get(notification.getChannel());
+        return dispatcher != null && dispatcher.offer(notification);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatchers.values().forEach(dispatcher -> dispatcher.shutdown(shutdownTimeout));
+    }
+
+    private List<Delivery> address(Notification.Channel channel, List<Notification> batch) {
+        if (channel == Notification.Channel.PUSH) {
+            return batch.stream().map(n -> new Delivery(n, n.getRecipientId())).toList();
+        }
+        Set<String> recipientIds = batch.stream().map(Notification::getRecipientId).collect(Collectors.toSet());
+        Map<String, RecipientContact> contacts = contactRepository.findAllById(recipientIds).stream()
+                .collect(Collectors.toMap(RecipientContact::getUserId, Function.identity()));
+        List<Delivery> deliveries = new ArrayList<>(batch.size());
+        for (Notification notification : batch) {
+            RecipientContact contact = contacts.get(notification.getRecipientId());
+            String address = contact == null ? null
+                    : channel == Notification.Channel.SMS ? contact.getPhoneNumber() : contact.getEmail();
+            if (address == null || address.isBlank()) {
+                log.debug("No {} address for {}, skipping {} notification", channel,
+                        notification.getRecipientId(), notification.getCategory());
+                continue;
+            }
+            deliveries.add(new Delivery(notification, address));
+        }
+        return deliveries;
+    }
+}
@@ -0,0 +1,129 @@
+package com.axisride.notification.service;
+
+import com.axisride.notification.dto.Notification;
+import com.axisride.notification.entity.RecipientContact;
+import com.axisride.notification.event.BookingEvent;
+import com.axisride.notification.event.TripBookingsChangedEvent;
+import com.axisride.notification.event.UserCreatedEvent;
+import com.axisride.notification.repository.RecipientContactRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Turns the domain events of auth-service and trip-service into notifications. Booking and
+ * trip updates are collapsed per trip for drivers and per booking for passengers; departure
+ * and trip cancellation alerts go to the critical lane.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationEventListener {
+
+    private final NotificationService notificationService;
+    private final RecipientContactRepository contactRepository;
+
+    @KafkaListener(topics = UserCreatedEvent.TOPIC)
+    public void onUserCreated(UserCreatedEvent event) {
+        contactRepository.save(RecipientContact.builder()
+                .userId(event.getUserId())
+                .email(event.getEmail())
+                .phoneNumber(event.getPhoneNumber())
+                .firstName(event.getFirstName())
+                .updatedAt(LocalDateTime.now())
+                .build());
+        notificationService.submit(Notification.builder()
+                .recipientId(event.getUserId())
+                .category(Notification.Category.ACCOUNT)
+                .title("Welcome to AxisRide")
+                .body("Hi " + event.getFirstName() + ", your account is ready.")
+                .build(), UserCreatedEvent.TOPIC + ":" + event.getUserId());
+    }
+
+    @KafkaListener(topics = {BookingEvent.CREATED_TOPIC, BookingEvent.CONFIRMED_TOPIC, BookingEvent.CANCELLED_TOPIC})
+    public void onBooking(@Payload BookingEvent event, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+        String dedupeKey = topic + ":" + event.getBookingId();
+        switch (topic) {
+            case BookingEvent.CREATED_TOPIC -> {
+                if ("CANCELLED".equals(event.getStatus())) {
+                    // Accepted, then refused when the seats were written: no seats left
+                    notifyPassenger(event, "Booking not possible", "The trip filled up before your booking went through.", dedupeKey);
+                } else {
+                    notificationService.submit(Notification.builder()
+                            .recipientId(event.getDriverId())
+                            .category(Notification.Category.BOOKING_UPDATE)
+                            .collapseKey("trip:" + event.getTripId())
+                            .title("New booking request")
+                            .body(event.getSeats() + " seat(s) requested on your trip.")
+                            .build(), dedupeKey);
+                }
+            }
+            case BookingEvent.CONFIRMED_TOPIC ->
+                    notifyPassenger(event, "Booking confirmed", "Your driver confirmed your booking.", dedupeKey);
+            default -> {
+                if (event.getPassengerId().equals(event.getCancelledBy())) {
+                    notificationService.submit(Notification.builder()
+                            .recipientId(event.getDriverId())
+                            .category(Notification.Category.BOOKING_UPDATE)
+                            .collapseKey("trip:" + event.getTripId())
+                            .title("Booking cancelled")
+                            .body("A passenger cancelled " + event.getSeats() + " seat(s) on your trip.")
+                            .build(), dedupeKey);
+                } else {
+                    notifyPassenger(event, "Booking cancelled", reasonOr(event.getCancellationReason(),
+                            "Your booking was cancelled."), dedupeKey);
+                }
+            }
+        }
+    }
+
+    @KafkaListener(topics = {TripBookingsChangedEvent.STARTED_TOPIC, TripBookingsChangedEvent.COMPLETED_TOPIC,
+            TripBookingsChangedEvent.CANCELLED_TOPIC})
+    public void onTripChanged(@Payload TripBookingsChangedEvent event, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+        for (int i = 0; i < event.getBookingIds().size(); i++) {
+            String bookingId = event.getBookingIds().get(i);
+            String status = event.getBookingStatuses().get(i);
+            Notification.NotificationBuilder notification = Notification.builder()
+                    .recipientId(event.getPassengerIds().get(i))
+                    .collapseKey("booking:" + bookingId);
+            if (TripBookingsChangedEvent.CANCELLED_TOPIC.equals(topic)) {
+                notification.category(Notification.Category.TRIP_CANCELLED)
+                        .title("Trip cancelled")
+                        .body(reasonOr(event.getReason(), "Your driver cancelled the trip."));
+            } else if ("IN_PROGRESS".equals(status)) {
+                notification.category(Notification.Category.DEPARTURE_ALERT)
+                        .title("Your trip is departing")
+                        .body("Your driver is on the way, be at the pickup point.");
+            } else if ("COMPLETED".equals(status)) {
+                notification.category(Notification.Category.TRIP_UPDATE)
+                        .title("How was your trip?")
+                        .body("Rate your driver and tell us about your trip.");
+            } else {
+                notification.category(Notification.Category.BOOKING_UPDATE)
+                        .title("Booking cancelled")
+                        .body("Your booking was not confirmed before departure.");
+            }
+            notificationService.submit(notification.build(), topic + ":" + bookingId);
+        }
+    }
+
+    private void notifyPassenger(BookingEvent event, String title, String body, String dedupeKey) {
+        notificationService.submit(Notification.builder()
+                .recipientId(event.getPassengerId())
+                .category(Notification.Category.BOOKING_UPDATE)
+                .collapseKey("booking:" + event.getBookingId())
+                .title(title)
+                .body(body)
+                .build(), dedupeKey);
+    }
+
+    private static String reasonOr(String reason, String fallback) {
+        return reason != null && !reason.isBlank() ? reason : fallback;
+    }
+}
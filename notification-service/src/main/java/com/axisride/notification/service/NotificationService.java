@@ -0,0 +1,58 @@
+package com.axisride.notification.service;
+
+import com.axisride.notification.dto.Notification;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Entry point of the dispatch pipeline: dedupe, then straight to the lane for critical
+ * notifications or through the {@link NotificationCoalescer} for the others.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationService {
+
+    private final NotificationDeduplicator deduplicator;
+    private final NotificationCoalescer coalescer;
+    private final NotificationDispatcher dispatcher;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Accepts the notification unless {@code dedupeKey} was seen before. Returns {@code false}
+     * for a duplicate.
+     *
+     * @throws NotificationBackpressureException if its lane has no room
+     */
+    public boolean submit(Notification notification, String dedupeKey) {
+        if (notification.getChannel() == null) {
+            notification.setChannel(notification.getCategory().getDefaultChannel());
+        }
+        if (!dispatcher.supports(notification.getChannel())) {
+            meterRegistry.counter("notification.unsupported", "channel", notification.getChannel().name().toLowerCase()).increment();
+            log.warn("No provider for {}, dropping {} notification", notification.getChannel(), notification.getCategory());
+            return false;
+        }
+        if (!deduplicator.claim(dedupeKey)) {
+            meterRegistry.counter("notification.deduplicated").increment();
+            return false;
+        }
+
+        Notification.Lane lane = notification.lane();
+        notification.setAcceptedAt(Instant.now());
+        boolean accepted = lane == Notification.Lane.CRITICAL
+                ? dispatcher.offer(notification)
+                : coalescer.add(notification);
+        if (!accepted) {
+            deduplicator.release(dedupeKey);
+            meterRegistry.counter("notification.rejected", "lane", lane.name().toLowerCase()).increment();
+            throw new NotificationBackpressureException(lane, notification.getChannel());
+        }
+        meterRegistry.counter("notification.accepted", "lane", lane.name().toLowerCase()).increment();
+        return true;
+    }
+}
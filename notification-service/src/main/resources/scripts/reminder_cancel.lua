@@ -0,0 +1,18 @@
+-- Forgets a trip's reminder atomically: its due entry, passengers and proximity watch.
+-- KEYS[1]  trip hash
+-- KEYS[2]  trip passengers hash
+-- ARGV[1]  trip id
+-- ARGV[2]  approach key prefix, followed by the driver id
+-- Returns 1 if the trip was known, 0 otherwise
+local current = redis.call('HMGET', KEYS[1], 'due', 'remindedAt', 'driverId')
+if current[1] then
+  redis.call('SREM', current[1], ARGV[1])
+end
+if current[2] and current[3] then
+  local approachKey = ARGV[2] .. current[3]
+  local approach = redis.call('GET', approachKey)
+  if approach and string.sub(approach, 1, #ARGV[1] + 1) == ARGV[1] .. '|' then
+    redis.call('DEL', approachKey)
+  end
+end
+return redis.call('DEL', KEYS[1], KEYS[2]) > 0 and 1 or 0
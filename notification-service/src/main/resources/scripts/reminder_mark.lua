@@ -0,0 +1,23 @@
+-- Marks a trip reminded atomically, unless it was rescheduled or cancelled since it was
+-- loaded: a reschedule in between keeps its new due entry and is reminded again.
+-- KEYS[1]  trip hash
+-- KEYS[2]  due set the reminder was claimed from
+-- KEYS[3]  approach key of the trip's driver
+-- ARGV[1]  departure time the reminder was sent for, epoch millis
+-- ARGV[2]  reminder time, epoch millis
+-- ARGV[3]  expiry of the trip hash, epoch millis
+-- ARGV[4]  approach to watch for, empty if the departure point is unknown
+-- ARGV[5]  expiry of the approach, epoch millis
+-- Returns 1 when the trip was marked, 0 when it had moved
+local current = redis.call('HMGET', KEYS[1], 'due', 'departureAt')
+if current[1] ~= KEYS[2] or current[2] ~= ARGV[1] then
+  return 0
+end
+
+redis.call('HSET', KEYS[1], 'remindedAt', ARGV[2])
+redis.call('HDEL', KEYS[1], 'due')
+redis.call('PEXPIREAT', KEYS[1], ARGV[3])
+if ARGV[4] ~= '' and tonumber(ARGV[5]) > tonumber(ARGV[2]) then
+  redis.call('SET', KEYS[3], ARGV[4], 'PXAT', ARGV[5])
+end
+return 1
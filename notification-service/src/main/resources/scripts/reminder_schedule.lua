@@ -0,0 +1,41 @@
+-- Moves a trip's reminder to a due bucket atomically, so a concurrent cancel or schedule of
+-- the same trip cannot leave it in a bucket it no longer belongs to.
+-- KEYS[1]  trip hash
+-- KEYS[2]  trip passengers hash
+-- KEYS[3]  due set the reminder belongs in
+-- ARGV[1]  trip id
+-- ARGV[2]  departure time, epoch millis
+-- ARGV[3]  driver id
+-- ARGV[4]  expiry of the trip's keys, epoch millis
+-- ARGV[5]  approach key prefix, followed by the driver id
+-- ARGV[6]  departure latitude, empty if unknown
+-- ARGV[7]  departure longitude, empty if unknown
+-- Returns 1 when the reminder was (re)scheduled, 0 when it already was
+local current = redis.call('HMGET', KEYS[1], 'departureAt', 'due', 'remindedAt', 'driverId')
+if current[1] == ARGV[2] and (current[2] == KEYS[3] or current[3]) then
+  return 0
+end
+
+if current[2] and current[2] ~= KEYS[3] then
+  redis.call('SREM', current[2], ARGV[1])
+end
+if current[3] then
+  -- Sent for the previous departure time: send again, and stop watching the driver
+  redis.call('HDEL', KEYS[1], 'remindedAt')
+  if current[4] then
+    local approachKey = ARGV[5] .. current[4]
+    local approach = redis.call('GET', approachKey)
+    if approach and string.sub(approach, 1, #ARGV[1] + 1) == ARGV[1] .. '|' then
+      redis.call('DEL', approachKey)
+    end
+  end
+end
+
+redis.call('HSET', KEYS[1], 'departureAt', ARGV[2], 'driverId', ARGV[3], 'due', KEYS[3])
+if ARGV[6] ~= '' and ARGV[7] ~= '' then
+  redis.call('HSET', KEYS[1], 'latitude', ARGV[6], 'longitude', ARGV[7])
+end
+redis.call('SADD', KEYS[3], ARGV[1])
+redis.call('PEXPIREAT', KEYS[1], ARGV[4])
+redis.call('PEXPIREAT', KEYS[2], ARGV[4])
+return 1
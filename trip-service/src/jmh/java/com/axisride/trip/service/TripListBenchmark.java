@@ -0,0 +1,137 @@
+package com.axisride.trip.service;
+
+import com.axisride.trip.TripServiceApplication;
+import com.axisride.trip.dto.TripResponse;
+import com.axisride.trip.dto.TripSummaryResponse;
+import com.axisride.trip.entity.Trip;
+import com.axisride.trip.repository.TripRepository;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares one page of a driver's trips read as entities and mapped to {@link TripResponse}
+ * (the path list endpoints would take through {@code findByDriverId}) with the
+ * {@link TripSummaryResponse} projection, all in the same {@code departureTime, id} order.
+ * {@code entityPage} and {@code projectionPageWithCount} both run the count query a
+ * {@code Page} needs, {@code projectionPage} is the count-free slice the endpoint serves, so
+ * each pair differs in one thing only. Needs a Postgres with PostGIS, by default the service's
+ * own database; override with {@code -Dbenchmark.db.url=...}. The relays, the lifecycle
+ * scheduler and the Kafka auto-configuration are switched off, nothing is sent.
+ * <p>
+ * Run with {@code ./gradlew :trip-service:jmh -Pjmh.profilers=gc} to get
+ * {@code gc.alloc.rate.norm}, the bytes allocated per page, next to the latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TripListBenchmark {
+
+    // The order of TripRepository.findSummariesByDriverId
+    private static final Sort DRIVER_ORDER = Sort.by(Sort.Direction.DESC, "departureTime", "id");
+
+    @Param({"20", "50"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private TripRepository tripRepository;
+    private TripService tripService;
+    private String driverId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(TripServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + System.getProperty("benchmark.db.url",
+                                "jdbc:postgresql://localhost:5432/axisride_trip"),
+                        "spring.cloud.config.enabled=false",
+                        "eureka.client.enabled=false",
+                        "spring.autoconfigure.exclude="
+                                + "org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+                        "outbox.relay.enabled=false",
+                        "trip.schedule-relay.enabled=false",
+                        "trip.lifecycle.enabled=false",
+                        "spring.task.scheduling.pool.size=1",
+                        "trip.route.enrich-interval-ms=3600000",
+                        "trip.search.nearby.resync-interval-ms=3600000",
+                        "trip.booking.summary.reconcile-interval-ms=3600000",
+                        "logging.level.com.axisride=WARN")
+                .run();
+        tripRepository = context.getBean(TripRepository.class);
+        tripService = context.getBean(TripService.class);
+
+        driverId = "bench-" + UUID.randomUUID();
+        GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
+        List<Trip> trips = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            trips.add(Trip.builder()
+                    .driverId(driverId)
+                    .departureAddress("Carrefour Warda, Yaounde, bench " + i)
+                    .departureCity("Yaounde")
+                    .departureLocation(geometryFactory.createPoint(new Coordinate(11.5021, 3.8480)))
+                    .arrivalAddress("Akwa, Douala, bench " + i)
+                    .arrivalCity("Douala")
+                    .arrivalLocation(geometryFactory.createPoint(new Coordinate(9.7043, 4.0511)))
+                    .departureTime(LocalDateTime.now().plusDays(1).plusMinutes(i))
+                    .availableSeats(3)
+                    .totalSeats(4)
+                    .pricePerSeat(new BigDecimal("5000.00"))
+                    .currency("XOF")
+                    .description("Comfortable ride with air conditioning, one stop at Edea. ".repeat(8))
+                    .vehicleType("SEDAN")
+                    .vehicleModel("Toyota Corolla")
+                    .vehicleColor("Grey")
+                    .licensePlate("CE-123-AB")
+                    .build());
+        }
+        tripRepository.saveAll(trips);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        tripRepository.deleteAll(tripRepository.findByDriverId(driverId));
+        context.close();
+    }
+
+    @Benchmark
+    public List<TripResponse> entityPage() {
+        return tripRepository.findByDriverId(driverId, PageRequest.of(0, pageSize, DRIVER_ORDER))
+                .map(tripService::toResponse)
+                .getContent();
+    }
+
+    @Benchmark
+    public void projectionPageWithCount(Blackhole blackhole) {
+        blackhole.consume(tripService.getDriverTrips(driverId, 0, pageSize).getContent());
+        blackhole.consume(tripRepository.countByDriverId(driverId));
+    }
+
+    @Benchmark
+    public List<TripSummaryResponse> projectionPage() {
+        return tripService.getDriverTrips(driverId, 0, pageSize).getContent();
+    }
+}
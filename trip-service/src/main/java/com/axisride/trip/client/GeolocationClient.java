@@ -0,0 +1,14 @@
+package com.axisride.trip.client;
+
+import com.axisride.trip.dto.RouteBatchRequest;
+import com.axisride.trip.dto.RouteBatchResponse;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+@FeignClient(name = "geolocation-service")
+public interface GeolocationClient {
+    
+    @PostMapping("/geolocation/routes/batch")
+    RouteBatchResponse estimateRoutes(@RequestBody RouteBatchRequest request);
+}
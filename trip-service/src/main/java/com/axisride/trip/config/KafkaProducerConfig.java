@@ -0,0 +1,76 @@
+package com.axisride.trip.config;
+
+import com.axisride.events.BinaryEventCodec;
+import com.axisride.events.kafka.BinaryEventSerializer;
+import com.axisride.outbox.OutboxSerializer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaProducerConfig {
+    
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+    
+    @Value("${spring.kafka.producer.compression-type:lz4}")
+    private String compressionType;
+    
+    @Value("${spring.kafka.producer.batch-size:65536}")
+    private Integer batchSize;
+    
+    @Value("${spring.kafka.producer.properties.linger.ms:20}")
+    private Integer lingerMs;
+    
+    @Bean
+    public ProducerFactory<String, Object> producerFactory(BinaryEventSerializer binaryEventSerializer) {
+        return new DefaultKafkaProducerFactory<>(baseConfig(), new StringSerializer(), binaryEventSerializer);
+    }
+    
+    @Bean
+    public KafkaTemplate<String, Object> kafkaTemplate(ProducerFactory<String, Object> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+    
+    // Outbox payloads are encoded with the binary event codec when they are written to the table
+    @Bean
+    public OutboxSerializer outboxSerializer(BinaryEventCodec binaryEventCodec) {
+        return binaryEventCodec::encode;
+    }
+    
+    @Bean
+    public ProducerFactory<String, byte[]> outboxProducerFactory() {
+        Map<String, Object> config = baseConfig();
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        return new DefaultKafkaProducerFactory<>(config);
+    }
+    
+    @Bean
+    public KafkaTemplate<String, byte[]> outboxKafkaTemplate() {
+        return new KafkaTemplate<>(outboxProducerFactory());
+    }
+    
+    private Map<String, Object> baseConfig() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        // Idempotence keeps per-partition order and drops broker-side duplicates on retry
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.RETRIES_CONFIG, Integer.MAX_VALUE);
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        return config;
+    }
+}
@@ -0,0 +1,62 @@
+package com.axisride.trip.controller;
+
+import com.axisride.trip.dto.BookingResponse;
+import com.axisride.trip.dto.BookingSummaryResponse;
+import com.axisride.trip.dto.CancelBookingRequest;
+import com.axisride.trip.dto.CreateBookingRequest;
+import com.axisride.trip.dto.TripParticipantResponse;
+import com.axisride.trip.service.BookingService;
+import com.axisride.trip.service.TripBookingSummaryService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/trips/{tripId}/bookings")
+@RequiredArgsConstructor
+public class BookingController {
+    
+    private final BookingService bookingService;
+    private final TripBookingSummaryService summaryService;
+    
+    @PostMapping
+    public ResponseEntity<BookingResponse> createBooking(
+            @PathVariable String tripId,
+            @RequestHeader("X-User-Id") String passengerId,
+            @Valid @RequestBody CreateBookingRequest request) {
+        BookingResponse response = bookingService.createBooking(tripId, passengerId, request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+    
+    @PostMapping("/{bookingId}/confirm")
+    public ResponseEntity<BookingResponse> confirmBooking(
+            @PathVariable String tripId,
+            @PathVariable String bookingId,
+            @RequestHeader("X-User-Id") String driverId) {
+        return ResponseEntity.ok(bookingService.confirmBooking(tripId, bookingId, driverId));
+    }
+    
+    @PostMapping("/{bookingId}/cancel")
+    public ResponseEntity<BookingResponse> cancelBooking(
+            @PathVariable String tripId,
+            @PathVariable String bookingId,
+            @RequestHeader("X-User-Id") String userId,
+            @Valid @RequestBody(required = false) CancelBookingRequest request) {
+        String reason = request != null ? request.getReason() : null;
+        return ResponseEntity.ok(bookingService.cancelBooking(tripId, bookingId, userId, reason));
+    }
+    
+    @GetMapping("/participant")
+    public ResponseEntity<TripParticipantResponse> getParticipant(
+            @PathVariable String tripId,
+            @RequestHeader("X-User-Id") String passengerId) {
+        return ResponseEntity.ok(bookingService.getParticipant(tripId, passengerId));
+    }
+    
+    @GetMapping("/summary")
+    public ResponseEntity<BookingSummaryResponse> getSummary(@PathVariable String tripId) {
+        return ResponseEntity.ok(summaryService.getSummary(tripId));
+    }
+}
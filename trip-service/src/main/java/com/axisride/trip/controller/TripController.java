@@ -0,0 +1,182 @@
+package com.axisride.trip.controller;
+
+import com.axisride.trip.dto.CancelTripRequest;
+import com.axisride.trip.dto.NearbyTripResponse;
+import com.axisride.trip.dto.TripCursorPageResponse;
+import com.axisride.trip.dto.TripPageResponse;
+import com.axisride.trip.dto.TripResponse;
+import com.axisride.trip.dto.TripSummaryPageResponse;
+import com.axisride.trip.dto.TripSummaryResponse;
+import com.axisride.trip.dto.TripTransitionResponse;
+import com.axisride.trip.entity.Trip;
+import com.axisride.trip.service.TripLifecycleService;
+import com.axisride.trip.service.TripService;
+import com.axisride.trip.service.TripSpatialIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/trips")
+@RequiredArgsConstructor
+public class TripController {
+    
+    private static final int STREAM_FLUSH_EVERY = 50;
+    
+    private final TripService tripService;
+    private final TripSpatialIndex tripSpatialIndex;
+    private final TripLifecycleService tripLifecycleService;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${trip.search.stream.max-results:5000}")
+    private int maxStreamResults;
+    
+    @GetMapping("/search")
+    public ResponseEntity<TripPageResponse> searchTrips(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "1") int seats,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "20") @Min(1) int size) {
+        TripPageResponse trips = tripService.searchTrips(from, to, date, seats, page, Math.min(size, 50));
+        return ResponseEntity.ok(trips);
+    }
+    
+    @GetMapping("/search/cursor")
+    public ResponseEntity<TripCursorPageResponse> searchTripsAfter(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "1") int seats,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        TripCursorPageResponse trips = tripService.searchTripsAfter(from, to, date, seats, cursor,
+                Math.max(1, Math.min(size, 50)));
+        return ResponseEntity.ok(trips);
+    }
+    
+    /**
+     * Same search streamed while the database cursor is read: NDJSON by default, server-sent
+     * events when the client accepts {@code text/event-stream}. Each SSE event id is a cursor,
+     * so a reconnecting client resumes through {@code Last-Event-ID}.
+     */
+    @GetMapping(value = "/search/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamTrips(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "1") int seats,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        boolean sse = accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+        String resumeFrom = cursor != null ? cursor : lastEventId;
+        int maxRows = Math.max(1, Math.min(limit, maxStreamResults));
+        
+        StreamingResponseBody body = output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            int[] pending = {0};
+            int sent = tripService.streamTrips(from, to, date, seats, resumeFrom, maxRows, (trip, next) -> {
+                try {
+                    String json = objectMapper.writeValueAsString(trip);
+                    if (sse) {
+                        writer.write("id: " + next + "\ndata: " + json + "\n\n");
+                    } else {
+                        writer.write(json + "\n");
+                    }
+                    // Push rows out in small groups rather than once per row
+                    if (++pending[0] == STREAM_FLUSH_EVERY) {
+                        writer.flush();
+                        pending[0] = 0;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (sse) {
+                writer.write("event: end\ndata: {\"count\":" + sent + "}\n\n");
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(sse ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyTripResponse>> findNearby(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "10") double radiusKm,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "1") int minSeats,
+            @RequestParam(defaultValue = "50") int limit) {
+        LocalDateTime windowStart = from != null ? from : LocalDateTime.now();
+        List<NearbyTripResponse> trips = tripSpatialIndex.findNearby(
+                lat, lng, radiusKm, windowStart, to, minSeats, Math.min(limit, 200));
+        return ResponseEntity.ok(trips);
+    }
+    
+    @GetMapping
+    public ResponseEntity<TripSummaryPageResponse> getTripsByStatus(
+            @RequestParam(defaultValue = "PLANNED") Trip.TripStatus status,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "20") @Min(1) int size) {
+        return ResponseEntity.ok(tripService.getTripsByStatus(status, page, Math.min(size, 50)));
+    }
+    
+    @GetMapping("/driver/me")
+    public ResponseEntity<TripSummaryPageResponse> getMyTrips(
+            @RequestHeader("X-User-Id") String driverId,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "20") @Min(1) int size) {
+        return ResponseEntity.ok(tripService.getDriverTrips(driverId, page, Math.min(size, 50)));
+    }
+    
+    @GetMapping("/driver/me/upcoming")
+    public ResponseEntity<List<TripSummaryResponse>> getMyUpcomingTrips(@RequestHeader("X-User-Id") String driverId) {
+        return ResponseEntity.ok(tripService.getUpcomingDriverTrips(driverId));
+    }
+    
+    @PostMapping("/{tripId}/cancel")
+    public ResponseEntity<TripTransitionResponse> cancelTrip(
+            @PathVariable String tripId,
+            @RequestHeader("X-User-Id") String driverId,
+            @Valid @RequestBody(required = false) CancelTripRequest request) {
+        String reason = request != null ? request.getReason() : null;
+        return ResponseEntity.ok(tripLifecycleService.cancelTrip(tripId, driverId, reason));
+    }
+    
+    @PostMapping("/{tripId}/complete")
+    public ResponseEntity<TripTransitionResponse> completeTrip(
+            @PathVariable String tripId,
+            @RequestHeader("X-User-Id") String driverId) {
+        return ResponseEntity.ok(tripLifecycleService.completeTrip(tripId, driverId));
+    }
+    
+    @GetMapping("/{tripId}")
+    public ResponseEntity<TripResponse> getTrip(@PathVariable String tripId) {
+        return ResponseEntity.ok(tripService.getTrip(tripId));
+    }
+}
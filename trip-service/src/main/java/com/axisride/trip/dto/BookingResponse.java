@@ -0,0 +1,24 @@
+package com.axisride.trip.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingResponse {
+    private String id;
+    private String tripId;
+    private String passengerId;
+    private Integer seatsBooked;
+    private BigDecimal totalPrice;
+    private String currency;
+    private String status;
+    private LocalDateTime createdAt;
+}
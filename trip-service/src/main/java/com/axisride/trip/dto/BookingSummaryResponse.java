@@ -0,0 +1,20 @@
+package com.axisride.trip.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingSummaryResponse {
+    private String tripId;
+    private Integer confirmedSeats;
+    private Integer pendingSeats;
+    private Integer confirmedBookings;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,17 @@
+package com.axisride.trip.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CancelTripRequest {
+    
+    @Size(max = 1000, message = "Reason must be at most 1000 characters")
+    private String reason;
+}
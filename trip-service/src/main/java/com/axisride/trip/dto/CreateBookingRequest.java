@@ -0,0 +1,31 @@
+package com.axisride.trip.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreateBookingRequest {
+    
+    @NotNull(message = "Number of seats is required")
+    @Min(value = 1, message = "At least one seat must be booked")
+    @Max(value = 8, message = "At most 8 seats can be booked at once")
+    private Integer seats;
+    
+    @Size(max = 500, message = "Pickup address must be at most 500 characters")
+    private String pickupAddress;
+    
+    @Size(max = 500, message = "Dropoff address must be at most 500 characters")
+    private String dropoffAddress;
+    
+    @Size(max = 1000, message = "Notes must be at most 1000 characters")
+    private String passengerNotes;
+}
@@ -0,0 +1,27 @@
+package com.axisride.trip.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NearbyTripResponse {
+    private String id;
+    private String driverId;
+    private String departureCity;
+    private String arrivalCity;
+    private Double departureLatitude;
+    private Double departureLongitude;
+    private Double distanceKm;
+    private LocalDateTime departureTime;
+    private Integer availableSeats;
+    private BigDecimal pricePerSeat;
+    private String currency;
+}
@@ -0,0 +1,19 @@
+package com.axisride.trip.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RouteResponse {
+    private String id;
+    private BigDecimal distanceKm;
+    private Integer durationMinutes;
+    private String source;
+}
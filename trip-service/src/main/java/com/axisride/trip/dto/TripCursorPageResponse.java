@@ -0,0 +1,20 @@
+package com.axisride.trip.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripCursorPageResponse {
+    private List<TripResponse> content;
+    private Integer size;
+    // Pass back as "cursor" to get the following page; null on the last page
+    private String nextCursor;
+    private Boolean hasMore;
+}
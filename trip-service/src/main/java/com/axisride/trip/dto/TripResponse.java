@@ -0,0 +1,45 @@
+package com.axisride.trip.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripResponse {
+    private String id;
+    private String driverId;
+    private String departureAddress;
+    private String departureCity;
+    private Double departureLatitude;
+    private Double departureLongitude;
+    private String arrivalAddress;
+    private String arrivalCity;
+    private Double arrivalLatitude;
+    private Double arrivalLongitude;
+    private LocalDateTime departureTime;
+    private LocalDateTime arrivalTime;
+    private Integer availableSeats;
+    private Integer totalSeats;
+    private BigDecimal pricePerSeat;
+    private String currency;
+    private String status;
+    private String description;
+    private Boolean luggageAllowed;
+    private Boolean petsAllowed;
+    private Boolean smokingAllowed;
+    private Boolean musicAllowed;
+    private Boolean instantBooking;
+    private String vehicleType;
+    private String vehicleModel;
+    private String vehicleColor;
+    private String licensePlate;
+    private BigDecimal distanceKm;
+    private Integer durationMinutes;
+}
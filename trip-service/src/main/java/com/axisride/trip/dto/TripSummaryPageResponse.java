@@ -0,0 +1,19 @@
+package com.axisride.trip.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripSummaryPageResponse {
+    private List<TripSummaryResponse> content;
+    private Integer page;
+    private Integer size;
+    private Boolean hasNext;
+}
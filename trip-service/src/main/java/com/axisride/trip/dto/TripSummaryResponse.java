@@ -0,0 +1,36 @@
+package com.axisride.trip.dto;
+
+import com.axisride.trip.entity.Trip;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Card-sized view of a trip for list screens, read straight from the query by a JPQL
+ * constructor expression: no entity, no geometry, no description, no bookings. The field
+ * order is the constructor order used by {@code TripRepository.SUMMARY_SELECT}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripSummaryResponse {
+    private String id;
+    private String driverId;
+    private String departureCity;
+    private String arrivalCity;
+    private LocalDateTime departureTime;
+    private LocalDateTime arrivalTime;
+    private Integer availableSeats;
+    private Integer totalSeats;
+    private BigDecimal pricePerSeat;
+    private String currency;
+    private Trip.TripStatus status;
+    private Boolean instantBooking;
+    private String vehicleType;
+    private Integer durationMinutes;
+}
@@ -0,0 +1,21 @@
+package com.axisride.trip.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripTransitionResponse {
+    
+    private String tripId;
+    private String status;
+    private int updatedBookings;
+    // New booking status -> number of bookings moved to it
+    private Map<String, Integer> bookingsByStatus;
+}
@@ -10,15 +10,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings", indexes = {
-    @Index(name = "idx_trip_id", columnList = "trip_id"),
-    @Index(name = "idx_passenger_id", columnList = "passenger_id"),
-    @Index(name = "idx_status", columnList = "status")
-})
+// Indexes are managed by the Flyway migrations in db/migration
+@Table(name = "bookings")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Booking {
     
     @Id
@@ -1,5 +1,6 @@
 package com.axisride.trip.entity;
 
+import com.axisride.trip.event.TripEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,11 +14,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "trips", indexes = {
-    @Index(name = "idx_driver_id", columnList = "driver_id"),
-    @Index(name = "idx_status", columnList = "status"),
-    @Index(name = "idx_departure_time", columnList = "departure_time")
-})
+// Indexes are managed by the Flyway migrations in db/migration
+@Table(name = "trips")
+@EntityListeners(TripEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
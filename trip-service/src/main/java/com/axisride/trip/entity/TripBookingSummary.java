@@ -0,0 +1,42 @@
+package com.axisride.trip.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running seat and booking counters for one trip, maintained incrementally on every
+ * booking status transition so that dashboards never aggregate the bookings table.
+ * Seats in CONFIRMED or IN_PROGRESS bookings count as confirmed.
+ */
+@Entity
+@Table(name = "trip_booking_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripBookingSummary {
+    
+    @Id
+    @Column(name = "trip_id")
+    private String tripId;
+    
+    @Column(name = "confirmed_seats", nullable = false)
+    @Builder.Default
+    private Integer confirmedSeats = 0;
+    
+    @Column(name = "pending_seats", nullable = false)
+    @Builder.Default
+    private Integer pendingSeats = 0;
+    
+    @Column(name = "confirmed_bookings", nullable = false)
+    @Builder.Default
+    private Integer confirmedBookings = 0;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,41 @@
+package com.axisride.trip.event;
+
+import com.axisride.events.EventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Payload of the {@code booking.*} topics, keyed by booking id. Written through the outbox in
+ * the transaction that changes the booking. Version 2 adds the trip's corridor and currency so
+ * consumers can aggregate without reading the trip.
+ */
+@EventType(name = "BookingEvent", version = 2)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingEvent {
+
+    public static final String CREATED_TOPIC = "booking.created";
+    public static final String CONFIRMED_TOPIC = "booking.confirmed";
+    public static final String CANCELLED_TOPIC = "booking.cancelled";
+
+    private String bookingId;
+    private String tripId;
+    private String passengerId;
+    private String driverId;
+    private int seats;
+    private BigDecimal totalPrice;
+    private String status;
+    private String cancelledBy;
+    private String cancellationReason;
+    private LocalDateTime occurredAt;
+    private String departureCity;
+    private String arrivalCity;
+    private String currency;
+}
@@ -0,0 +1,47 @@
+package com.axisride.trip.event;
+
+import com.axisride.events.EventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Payload of the {@code trip.*} topics, keyed by trip id: one message for all the bookings a
+ * trip status change moved, instead of one {@link BookingEvent} per booking. The three lists
+ * are parallel, {@code bookingStatuses} holding each booking's new status. Version 2 adds the
+ * corridor, the trip's capacity, and {@code seatsBooked} and {@code bookedAmount}, the seats
+ * and total price of the moved bookings that are not cancelled after the change. The lists may
+ * be empty, e.g. for a trip departing with no booking.
+ */
+@EventType(name = "TripBookingsChanged", version = 2)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripBookingsChangedEvent {
+
+    public static final String CANCELLED_TOPIC = "trip.cancelled";
+    public static final String STARTED_TOPIC = "trip.started";
+    public static final String COMPLETED_TOPIC = "trip.completed";
+
+    private String tripId;
+    private String driverId;
+    private String tripStatus;
+    private List<String> bookingIds;
+    private List<String> passengerIds;
+    private List<String> bookingStatuses;
+    private String changedBy;
+    private String reason;
+    private LocalDateTime occurredAt;
+    private String departureCity;
+    private String arrivalCity;
+    private String currency;
+    private Integer totalSeats;
+    private Integer seatsBooked;
+    private BigDecimal bookedAmount;
+}
@@ -0,0 +1,23 @@
+package com.axisride.trip.event;
+
+import com.axisride.trip.entity.Trip;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published whenever a {@link Trip} row is inserted, updated or deleted, so that
+ * in-memory views of trips (spatial index, caches, schedulers) can follow the database.
+ */
+@Getter
+@AllArgsConstructor
+public class TripChangedEvent {
+
+    private final Trip trip;
+    private final ChangeType changeType;
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,35 @@
+package com.axisride.trip.event;
+
+import com.axisride.trip.entity.Trip;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA callbacks for {@link Trip}. Every code path that persists a trip goes through here,
+ * which keeps listeners independent of the service that made the change.
+ */
+@Component
+@RequiredArgsConstructor
+public class TripEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void onPersist(Trip trip) {
+        eventPublisher.publishEvent(new TripChangedEvent(trip, TripChangedEvent.ChangeType.CREATED));
+    }
+
+    @PostUpdate
+    public void onUpdate(Trip trip) {
+        eventPublisher.publishEvent(new TripChangedEvent(trip, TripChangedEvent.ChangeType.UPDATED));
+    }
+
+    @PostRemove
+    public void onRemove(Trip trip) {
+        eventPublisher.publishEvent(new TripChangedEvent(trip, TripChangedEvent.ChangeType.DELETED));
+    }
+}
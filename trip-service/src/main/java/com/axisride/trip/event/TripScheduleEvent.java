@@ -0,0 +1,32 @@
+package com.axisride.trip.event;
+
+import com.axisride.events.EventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Payload of {@code trip.scheduled}, keyed by trip id: when and where a planned trip departs.
+ * Sent when the trip is first seen and again whenever its departure time changes, so
+ * consumers can keep their own timers in step.
+ */
+@EventType(name = "TripSchedule", version = 1)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripScheduleEvent {
+
+    public static final String TOPIC = "trip.scheduled";
+
+    private String tripId;
+    private String driverId;
+    private String tripStatus;
+    private LocalDateTime departureTime;
+    private Double departureLatitude;
+    private Double departureLongitude;
+    private LocalDateTime occurredAt;
+}
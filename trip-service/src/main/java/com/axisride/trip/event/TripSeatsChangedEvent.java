@@ -0,0 +1,18 @@
+package com.axisride.trip.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a trip's {@code available_seats} column is changed outside of JPA
+ * (batched SQL updates), where {@link TripEntityListener} does not fire.
+ */
+@Getter
+@AllArgsConstructor
+public class TripSeatsChangedEvent {
+
+    private final String tripId;
+    private final String departureCity;
+    private final String arrivalCity;
+    private final int availableSeats;
+}
@@ -8,6 +8,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,12 +24,46 @@ public interface BookingRepository extends JpaRepository<Booking, String> {
     
     Optional<Booking> findByIdAndPassengerId(String id, String passengerId);
     
+    boolean existsByTripIdAndPassengerIdAndStatusIn(String tripId, String passengerId,
+                                                    Collection<Booking.BookingStatus> statuses);
+    
     @Query("SELECT b FROM Booking b WHERE b.trip.id = :tripId AND b.status IN ('PENDING', 'CONFIRMED')")
     List<Booking> findActivebookingsByTrip(@Param("tripId") String tripId);
     
+    List<Booking> findByIdInAndStatus(Collection<String> ids, Booking.BookingStatus status);
+    
+    // By write time: BookingBatchWriter stamps updated_at when it inserts, however long the
+    // booking waited in its queue since createdAt
+    @Query("SELECT b.id AS id, b.createdAt AS createdAt FROM Booking b " +
+           "WHERE b.status = 'PENDING' AND b.updatedAt > :since")
+    List<PendingBooking> findPendingUpdatedSince(@Param("since") LocalDateTime since);
+    
     @Query("SELECT COUNT(b) FROM Booking b WHERE b.trip.id = :tripId AND b.status IN ('CONFIRMED', 'IN_PROGRESS')")
     Long countConfirmedBookingsByTrip(@Param("tripId") String tripId);
     
     @Query("SELECT SUM(b.seatsBooked) FROM Booking b WHERE b.trip.id = :tripId AND b.status IN ('CONFIRMED', 'IN_PROGRESS')")
     Integer sumBookedSeatsByTrip(@Param("tripId") String tripId);
+    
+    @Query("SELECT SUM(b.seatsBooked) FROM Booking b WHERE b.trip.id = :tripId AND b.status = 'PENDING'")
+    Integer sumPendingSeatsByTrip(@Param("tripId") String tripId);
+    
+    @Query("SELECT b.trip.id AS tripId, " +
+           "SUM(CASE WHEN b.status IN ('CONFIRMED', 'IN_PROGRESS') THEN b.seatsBooked ELSE 0 END) AS confirmedSeats, " +
+           "SUM(CASE WHEN b.status = 'PENDING' THEN b.seatsBooked ELSE 0 END) AS pendingSeats, " +
+           "SUM(CASE WHEN b.status IN ('CONFIRMED', 'IN_PROGRESS') THEN 1 ELSE 0 END) AS confirmedBookings " +
+           "FROM Booking b WHERE b.trip.status IN ('PLANNED', 'ACTIVE') " +
+           "GROUP BY b.trip.id")
+    List<BookingAggregate> aggregateOpenTrips();
+    
+    interface PendingBooking {
+        String getId();
+        LocalDateTime getCreatedAt();
+    }
+    
+    interface BookingAggregate {
+        String getTripId();
+        Long getConfirmedSeats();
+        Long getPendingSeats();
+        Long getConfirmedBookings();
+    }
 }
@@ -0,0 +1,41 @@
+package com.axisride.trip.repository;
+
+import com.axisride.trip.entity.TripBookingSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TripBookingSummaryRepository extends JpaRepository<TripBookingSummary, String> {
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<TripBookingSummary> findWithLockByTripId(String tripId);
+    
+    @Query("SELECT s FROM TripBookingSummary s WHERE s.tripId IN " +
+           "(SELECT t.id FROM Trip t WHERE t.status IN ('PLANNED', 'ACTIVE'))")
+    List<TripBookingSummary> findForOpenTrips();
+    
+    @Modifying
+    @Query(value = "INSERT INTO trip_booking_summaries " +
+                   "(trip_id, confirmed_seats, pending_seats, confirmed_bookings, updated_at) " +
+                   "VALUES (:tripId, :confirmedSeats, :pendingSeats, :confirmedBookings, now()) " +
+                   "ON CONFLICT (trip_id) DO UPDATE SET " +
+                   "confirmed_seats = trip_booking_summaries.confirmed_seats + EXCLUDED.confirmed_seats, " +
+                   "pending_seats = trip_booking_summaries.pending_seats + EXCLUDED.pending_seats, " +
+                   "confirmed_bookings = trip_booking_summaries.confirmed_bookings + EXCLUDED.confirmed_bookings, " +
+                   "updated_at = now()",
+           nativeQuery = true)
+    int applyDelta(
+        @Param("tripId") String tripId,
+        @Param("confirmedSeats") int confirmedSeats,
+        @Param("pendingSeats") int pendingSeats,
+        @Param("confirmedBookings") int confirmedBookings
+    );
+}
@@ -1,27 +1,69 @@
 package com.axisride.trip.repository;
 
+import com.axisride.trip.dto.TripSummaryResponse;
 import com.axisride.trip.entity.Trip;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.locationtech.jts.geom.Point;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TripRepository extends JpaRepository<Trip, String> {
     
+    String KEYSET_SEARCH = "SELECT t FROM Trip t WHERE t.departureCity = :departureCity " +
+           "AND t.arrivalCity = :arrivalCity " +
+           // The redundant lower bound gives the planner a range on the index
+           "AND t.departureTime >= :afterTime " +
+           "AND (t.departureTime > :afterTime OR (t.departureTime = :afterTime AND t.id > :afterId)) " +
+           "AND t.status = 'PLANNED' " +
+           "AND t.availableSeats >= :minSeats " +
+           "ORDER BY t.departureTime ASC, t.id ASC";
+    
+    String SUMMARY_SELECT = "SELECT new com.axisride.trip.dto.TripSummaryResponse(" +
+           "t.id, t.driverId, t.departureCity, t.arrivalCity, t.departureTime, t.arrivalTime, " +
+           "t.availableSeats, t.totalSeats, t.pricePerSeat, t.currency, t.status, t.instantBooking, " +
+           "t.vehicleType, t.durationMinutes) FROM Trip t ";
+    
+    String DEADLINE_SELECT = "SELECT t.id AS id, t.status AS status, t.departureTime AS departureTime, " +
+           "t.arrivalTime AS arrivalTime, t.durationMinutes AS durationMinutes FROM Trip t ";
+    
     List<Trip> findByDriverId(String driverId);
     
+    // Status transitions lock the trip rows they change, in id order across a batch
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Trip> findWithLockById(String id);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Trip t WHERE t.id IN :ids ORDER BY t.id")
+    List<Trip> findAllWithLockByIdIn(@Param("ids") Collection<String> ids);
+    
     Page<Trip> findByDriverId(String driverId, Pageable pageable);
     
+    long countByDriverId(String driverId);
+    
     List<Trip> findByStatus(Trip.TripStatus status);
     
     Page<Trip> findByStatus(Trip.TripStatus status, Pageable pageable);
     
+    List<Trip> findByStatusAndDepartureTimeAfter(Trip.TripStatus status, LocalDateTime departureTime);
+    
     @Query("SELECT t FROM Trip t WHERE t.departureCity = :departureCity " +
            "AND t.arrivalCity = :arrivalCity " +
            "AND t.departureTime >= :fromDate " +
@@ -36,8 +78,104 @@ public interface TripRepository extends JpaRepository<Trip, String> {
         Pageable pageable
     );
     
+    /**
+     * Keyset page of {@link #searchTrips}: trips strictly after {@code (afterTime, afterId)} in
+     * {@code (departureTime, id)} order. No count query, and the cost does not grow with depth.
+     */
+    @Query(KEYSET_SEARCH)
+    List<Trip> searchTripsAfter(
+        @Param("departureCity") String departureCity,
+        @Param("arrivalCity") String arrivalCity,
+        @Param("afterTime") LocalDateTime afterTime,
+        @Param("afterId") String afterId,
+        @Param("minSeats") Integer minSeats,
+        Limit limit
+    );
+    
+    /**
+     * Same as {@link #searchTripsAfter} read through a server-side cursor; must be consumed
+     * inside a transaction and closed.
+     */
+    @Query(KEYSET_SEARCH)
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "200"),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Trip> streamTripsAfter(
+        @Param("departureCity") String departureCity,
+        @Param("arrivalCity") String arrivalCity,
+        @Param("afterTime") LocalDateTime afterTime,
+        @Param("afterId") String afterId,
+        @Param("minSeats") Integer minSeats,
+        Limit limit
+    );
+    
     @Query("SELECT t FROM Trip t WHERE t.driverId = :driverId " +
            "AND t.status IN ('PLANNED', 'ACTIVE') " +
            "ORDER BY t.departureTime ASC")
     List<Trip> findUpcomingTripsByDriver(@Param("driverId") String driverId);
+    
+    @Query("SELECT t FROM Trip t WHERE t.distanceKm IS NULL " +
+           "AND t.departureLocation IS NOT NULL AND t.arrivalLocation IS NOT NULL " +
+           "AND t.status = 'PLANNED' " +
+           "ORDER BY t.departureTime ASC")
+    List<Trip> findPlannedTripsWithoutRoute(Pageable pageable);
+    
+    // List views read projections; slices skip the count query
+    @Query(SUMMARY_SELECT + "WHERE t.driverId = :driverId ORDER BY t.departureTime DESC, t.id DESC")
+    Slice<TripSummaryResponse> findSummariesByDriverId(@Param("driverId") String driverId, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE t.status = :status ORDER BY t.departureTime ASC, t.id ASC")
+    Slice<TripSummaryResponse> findSummariesByStatus(@Param("status") Trip.TripStatus status, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE t.driverId = :driverId " +
+           "AND t.status IN ('PLANNED', 'ACTIVE') " +
+           "ORDER BY t.departureTime ASC")
+    List<TripSummaryResponse> findUpcomingSummariesByDriver(@Param("driverId") String driverId);
+    
+    // Deadline loading for the lifecycle scheduler, all index range scans (see V3 migration)
+    @Query(DEADLINE_SELECT + "WHERE t.status = 'PLANNED' AND t.departureTime < :until")
+    List<TripDeadline> findPlannedDeparturesBefore(@Param("until") LocalDateTime until);
+    
+    @Query(DEADLINE_SELECT + "WHERE t.status = 'PLANNED' AND t.departureTime >= :from AND t.departureTime < :until")
+    List<TripDeadline> findPlannedDeparturesBetween(@Param("from") LocalDateTime from, @Param("until") LocalDateTime until);
+    
+    @Query(DEADLINE_SELECT + "WHERE t.status = 'ACTIVE'")
+    List<TripDeadline> findActiveTripDeadlines();
+    
+    @Query(DEADLINE_SELECT + "WHERE t.status IN ('PLANNED', 'ACTIVE') AND t.updatedAt > :since")
+    List<TripDeadline> findOpenTripsUpdatedSince(@Param("since") LocalDateTime since);
+    
+    // Departure schedule changes for TripScheduleRelay, on idx_trips_open_updated
+    @Query("SELECT t.id AS id, t.driverId AS driverId, t.departureTime AS departureTime, " +
+           "t.departureLocation AS departureLocation, t.updatedAt AS updatedAt FROM Trip t " +
+           "WHERE t.status = 'PLANNED' " +
+           "AND (t.updatedAt > :afterTime OR (t.updatedAt = :afterTime AND t.id > :afterId)) " +
+           "ORDER BY t.updatedAt ASC, t.id ASC")
+    List<TripSchedule> findPlannedTripsUpdatedAfter(@Param("afterTime") LocalDateTime afterTime,
+                                                    @Param("afterId") String afterId, Limit limit);
+    
+    @Query("SELECT t.availableSeats FROM Trip t WHERE t.id = :tripId")
+    Integer findAvailableSeatsById(@Param("tripId") String tripId);
+    
+    @Modifying
+    @Query("UPDATE Trip t SET t.availableSeats = t.availableSeats + :seats, t.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE t.id = :tripId")
+    int releaseSeats(@Param("tripId") String tripId, @Param("seats") int seats);
+    
+    interface TripDeadline {
+        String getId();
+        Trip.TripStatus getStatus();
+        LocalDateTime getDepartureTime();
+        LocalDateTime getArrivalTime();
+        Integer getDurationMinutes();
+    }
+    
+    interface TripSchedule {
+        String getId();
+        String getDriverId();
+        LocalDateTime getDepartureTime();
+        Point getDepartureLocation();
+        LocalDateTime getUpdatedAt();
+    }
 }
@@ -0,0 +1,304 @@
+package com.axisride.trip.service;
+
+import com.axisride.outbox.OutboxMessage;
+import com.axisride.outbox.OutboxPublisher;
+import com.axisride.trip.entity.Booking;
+import com.axisride.trip.entity.Trip;
+import com.axisride.trip.event.BookingEvent;
+import com.axisride.trip.event.TripSeatsChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind queue for bookings accepted by {@link SeatInventory}.
+ * <p>
+ * Each flush inserts the queued {@code bookings} rows with one JDBC batch and applies one
+ * guarded {@code available_seats} decrement per trip, all in a single transaction. When the
+ * guard fails (another instance sold the seats first) the trip's bookings are replayed one
+ * by one and those that no longer fit are stored as CANCELLED; so are all of them when the
+ * trip departed or was cancelled after the seats were reserved. The trip's booking summary
+ * and the {@code booking.created} / {@code booking.cancelled} outbox messages are written in
+ * the same transaction.
+ * <p>
+ * Rejections are written from copies, so the queued bookings stay PENDING until their batch
+ * commits. A batch that fails because the database is unreachable ends the flush and is
+ * retried first, after a backoff that doubles up to
+ * {@code trip.booking.write-behind.max-backoff-ms}; meanwhile new bookings wait in the queue,
+ * and are refused once it is full. A batch that fails for any other reason is written again
+ * one booking at a time, so that a single bad row cannot block the queue: a booking that
+ * fails on its own is dropped, logged with its details, and its seats are released.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingBatchWriter {
+
+    private static final String INSERT_BOOKING =
+            "INSERT INTO bookings (id, trip_id, passenger_id, seats_booked, total_price, status, " +
+            "pickup_address, dropoff_address, passenger_notes, cancelled_by, cancellation_reason, " +
+            "cancelled_at, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String DECREMENT_SEATS =
+            "UPDATE trips SET available_seats = available_seats - ?, updated_at = ? " +
+            "WHERE id = ? AND status = 'PLANNED' AND available_seats >= ? RETURNING available_seats";
+
+    private static final String TRIP_STATUS = "SELECT status FROM trips WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SeatInventory seatInventory;
+    private final TripBookingSummaryService summaryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxPublisher outboxPublisher;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private BlockingQueue<Booking> queue;
+    // Guarded by flushLock: the last failed batch and when to try it again
+    private final List<Booking> failedBatch = new ArrayList<>();
+    private int failures;
+    private long retryAt;
+
+    @Value("${trip.booking.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${trip.booking.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${trip.booking.write-behind.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    @Value("${trip.booking.write-behind.max-backoff-ms:10000}")
+    private long maxBackoffMs;
+
+    @PostConstruct
+    void init() {
+        queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Queues a booking whose seats are already reserved. Returns {@code false} when the queue
+     * is full, in which case the caller must release the seats.
+     */
+    public boolean enqueue(Booking booking) {
+        return queue.offer(booking);
+    }
+
+    @Scheduled(fixedDelayString = "${trip.booking.write-behind.flush-interval-ms:50}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Booking> batch = new ArrayList<>(batchSize);
+            if (!failedBatch.isEmpty()) {
+                if (System.nanoTime() - retryAt < 0) {
+                    return;
+                }
+                batch.addAll(failedBatch);
+                failedBatch.clear();
+            } else {
+                queue.drainTo(batch, batchSize);
+            }
+            while (!batch.isEmpty() && writeBatch(batch)) {
+                batch.clear();
+                queue.drainTo(batch, batchSize);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushLock.lock();
+        try {
+            List<Booking> remaining = new ArrayList<>(failedBatch);
+            failedBatch.clear();
+            queue.drainTo(remaining);
+            if (!remaining.isEmpty()) {
+                log.info("Flushing {} queued bookings before shutdown", remaining.size());
+                if (!writeBatch(remaining)) {
+                    log.error("Lost {} queued bookings at shutdown", remaining.size());
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the batch in one transaction. When the database is unreachable keeps the batch for
+     * the next flush, after the backoff, and returns {@code false}; other failures split the
+     * batch down to the bookings that cannot be written, which are dropped.
+     */
+    private boolean writeBatch(List<Booking> batch) {
+        Map<String, List<Booking>> byTrip = new LinkedHashMap<>();
+        for (Booking booking : batch) {
+            byTrip.computeIfAbsent(booking.getTrip().getId(), id -> new ArrayList<>()).add(booking);
+        }
+
+        Map<String, Integer> seatsAfterFlush;
+        try {
+            seatsAfterFlush = transactionTemplate.execute(status -> applyBatch(byTrip));
+        } catch (RuntimeException e) {
+            if (!isTransient(e)) {
+                if (batch.size() > 1) {
+                    log.warn("Failed to write {} bookings, writing them one by one: {}", batch.size(), e.getMessage());
+                    return writeOneByOne(batch);
+                }
+                deadLetter(batch.get(0), e);
+                return true;
+            }
+            long backoffMs = Math.min(retryBackoffMs << Math.min(failures, 20), maxBackoffMs);
+            failures++;
+            retryAt = System.nanoTime() + backoffMs * 1_000_000;
+            failedBatch.clear();
+            failedBatch.addAll(batch);
+            log.error("Failed to write {} bookings, retrying in {} ms", batch.size(), backoffMs, e);
+            return false;
+        }
+        failures = 0;
+
+        seatsAfterFlush.forEach((tripId, seats) -> {
+            Trip trip = byTrip.get(tripId).get(0).getTrip();
+            eventPublisher.publishEvent(new TripSeatsChangedEvent(
+                    tripId, trip.getDepartureCity(), trip.getArrivalCity(), seats));
+        });
+        log.debug("Flushed {} bookings for {} trips", batch.size(), byTrip.size());
+        return true;
+    }
+
+    // Stops at the first booking that fails transiently, keeping it and the rest for the retry
+    private boolean writeOneByOne(List<Booking> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            if (!writeBatch(List.of(batch.get(i)))) {
+                failedBatch.addAll(batch.subList(i + 1, batch.size()));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void deadLetter(Booking booking, RuntimeException e) {
+        log.error("Dropping booking {} of passenger {} for {} seats on trip {} ({} {}, created at {}), it cannot be written",
+                booking.getId(), booking.getPassengerId(), booking.getSeatsBooked(), booking.getTrip().getId(),
+                booking.getTotalPrice(), booking.getStatus(), booking.getCreatedAt(), e);
+        seatInventory.release(booking.getTrip().getId(), booking.getSeatsBooked());
+    }
+
+    // Failures of the database rather than of the rows, which no split can get past
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private Map<String, Integer> applyBatch(Map<String, List<Booking>> byTrip) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Booking> rows = new ArrayList<>();
+        Map<String, Integer> seatsAfterFlush = new LinkedHashMap<>();
+
+        for (Map.Entry<String, List<Booking>> entry : byTrip.entrySet()) {
+            String tripId = entry.getKey();
+            List<Booking> bookings = entry.getValue();
+            int requested = bookings.stream()
+                    .filter(booking -> booking.getStatus() == Booking.BookingStatus.PENDING)
+                    .mapToInt(Booking::getSeatsBooked)
+                    .sum();
+
+            List<Integer> remaining = decrementSeats(tripId, requested, now);
+            if (remaining.isEmpty()) {
+                boolean open = jdbcTemplate.queryForList(TRIP_STATUS, String.class, tripId)
+                        .contains(Trip.TripStatus.PLANNED.name());
+                List<Booking> replayed = new ArrayList<>(bookings.size());
+                for (Booking booking : bookings) {
+                    List<Integer> afterBooking = open ? decrementSeats(tripId, booking.getSeatsBooked(), now) : List.of();
+                    if (afterBooking.isEmpty()) {
+                        replayed.add(rejected(booking, open ? "Seats no longer available" : "Trip is no longer open for booking"));
+                    } else {
+                        replayed.add(booking);
+                        remaining = afterBooking;
+                    }
+                }
+                bookings = replayed;
+                seatInventory.evict(tripId);
+            }
+            rows.addAll(bookings);
+
+            List<Booking> accepted = bookings.stream()
+                    .filter(booking -> booking.getStatus() == Booking.BookingStatus.PENDING)
+                    .toList();
+            int acceptedSeats = accepted.stream().mapToInt(Booking::getSeatsBooked).sum();
+            summaryService.applyTransitions(tripId, acceptedSeats, null, Booking.BookingStatus.PENDING,
+                    accepted.size());
+
+            if (!remaining.isEmpty()) {
+                seatsAfterFlush.put(tripId, remaining.get(0));
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_BOOKING, rows, rows.size(), (ps, booking) -> {
+            ps.setString(1, booking.getId());
+            ps.setString(2, booking.getTrip().getId());
+            ps.setString(3, booking.getPassengerId());
+            ps.setInt(4, booking.getSeatsBooked());
+            ps.setBigDecimal(5, booking.getTotalPrice());
+            ps.setString(6, booking.getStatus().name());
+            ps.setString(7, booking.getPickupAddress());
+            ps.setString(8, booking.getDropoffAddress());
+            ps.setString(9, booking.getPassengerNotes());
+            ps.setString(10, booking.getCancelledBy());
+            ps.setString(11, booking.getCancellationReason());
+            ps.setTimestamp(12, booking.getCancelledAt() != null ? Timestamp.valueOf(booking.getCancelledAt()) : null);
+            ps.setTimestamp(13, Timestamp.valueOf(booking.getCreatedAt()));
+            // The write time, which the lifecycle refill reads pending bookings by
+            ps.setTimestamp(14, now);
+        });
+        outboxPublisher.publishAll(rows.stream()
+                .map(booking -> new OutboxMessage(
+                        booking.getStatus() == Booking.BookingStatus.CANCELLED
+                                ? BookingEvent.CANCELLED_TOPIC : BookingEvent.CREATED_TOPIC,
+                        booking.getId(), BookingService.toEvent(booking)))
+                .toList());
+        return seatsAfterFlush;
+    }
+
+    private List<Integer> decrementSeats(String tripId, int seats, Timestamp now) {
+        return jdbcTemplate.queryForList(DECREMENT_SEATS, Integer.class, seats, now, tripId, seats);
+    }
+
+    // A cancelled copy, leaving the queued booking as it was should the transaction roll back
+    private static Booking rejected(Booking booking, String reason) {
+        log.warn("Cancelling booking {} for trip {}: {}", booking.getId(), booking.getTrip().getId(), reason);
+        return booking.toBuilder()
+                .status(Booking.BookingStatus.CANCELLED)
+                .cancelledBy(BookingService.SYSTEM_USER)
+                .cancellationReason(reason)
+                .cancelledAt(LocalDateTime.now())
+                .build();
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.axisride.trip.service;
+
+import com.axisride.outbox.OutboxPublisher;
+import com.axisride.trip.entity.Booking;
+import com.axisride.trip.entity.Trip;
+import com.axisride.trip.event.TripBookingsChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves all the bookings of a trip in one statement when the trip itself changes status.
+ * <p>
+ * The {@code bookings} collection of {@link Trip} would load and dirty-check every booking and
+ * flush one UPDATE each. Here the rows are locked, updated and returned by a single
+ * {@code UPDATE ... RETURNING}; the booking summary gets one delta per kind of move and the
+ * passengers are told with one {@link TripBookingsChangedEvent} through the outbox. Bookings
+ * already in the persistence context are not refreshed, callers must not rely on them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingBulkUpdater {
+
+    // Previous status comes from the locking CTE, RETURNING only sees the new row
+    private static final String UPDATE_BOOKINGS =
+            "WITH target AS (" +
+            "  SELECT b.id, b.status AS previous_status, m.next_status FROM bookings b " +
+            "  JOIN (VALUES %s) AS m (from_status, next_status) ON b.status = m.from_status " +
+            "  WHERE b.trip_id = ? FOR UPDATE OF b) " +
+            "UPDATE bookings b SET status = t.next_status, " +
+            "  cancelled_by = CASE WHEN t.next_status = 'CANCELLED' THEN ? ELSE b.cancelled_by END, " +
+            "  cancellation_reason = CASE WHEN t.next_status = 'CANCELLED' THEN ? ELSE b.cancellation_reason END, " +
+            "  cancelled_at = CASE WHEN t.next_status = 'CANCELLED' THEN ? ELSE b.cancelled_at END, " +
+            "  updated_at = ? " +
+            "FROM target t WHERE b.id = t.id " +
+            "RETURNING b.id, b.passenger_id, b.seats_booked, b.total_price, t.previous_status, b.status";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TripBookingSummaryService summaryService;
+    private final OutboxPublisher outboxPublisher;
+
+    /**
+     * Applies {@code moves} (current status to new status) to every booking of the trip and
+     * publishes one event on {@code topic}, also when no booking moved so that every trip
+     * transition is seen downstream. {@code changedBy} and {@code reason} are recorded on the
+     * bookings that end up CANCELLED.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Result apply(Trip trip, Map<Booking.BookingStatus, Booking.BookingStatus> moves,
+                        String changedBy, String reason, String topic) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object> params = new ArrayList<>();
+        moves.forEach((from, to) -> {
+            params.add(from.name());
+            params.add(to.name());
+        });
+        params.add(trip.getId());
+        params.add(changedBy);
+        params.add(reason);
+        params.add(timestamp);
+        params.add(timestamp);
+
+        String values = String.join(", ", Collections.nCopies(moves.size(), "(?, ?)"));
+        List<MovedBooking> moved = jdbcTemplate.query(UPDATE_BOOKINGS.formatted(values),
+                (rs, rowNum) -> new MovedBooking(
+                        rs.getString(1),
+                        rs.getString(2),
+                        rs.getInt(3),
+                        rs.getBigDecimal(4),
+                        Booking.BookingStatus.valueOf(rs.getString(5)),
+                        Booking.BookingStatus.valueOf(rs.getString(6))),
+                params.toArray());
+        Map<Move, int[]> seatsAndCounts = new LinkedHashMap<>();
+        Map<Booking.BookingStatus, Integer> byStatus = new EnumMap<>(Booking.BookingStatus.class);
+        List<String> bookingIds = new ArrayList<>(moved.size());
+        List<String> passengerIds = new ArrayList<>(moved.size());
+        List<String> bookingStatuses = new ArrayList<>(moved.size());
+        int seatsBooked = 0;
+        BigDecimal bookedAmount = BigDecimal.ZERO;
+        for (MovedBooking booking : moved) {
+            int[] totals = seatsAndCounts.computeIfAbsent(new Move(booking.previous(), booking.status()), k -> new int[2]);
+            totals[0] += booking.seats();
+            totals[1]++;
+            byStatus.merge(booking.status(), 1, Integer::sum);
+            bookingIds.add(booking.id());
+            passengerIds.add(booking.passengerId());
+            bookingStatuses.add(booking.status().name());
+            if (booking.status() != Booking.BookingStatus.CANCELLED) {
+                seatsBooked += booking.seats();
+                bookedAmount = bookedAmount.add(booking.totalPrice());
+            }
+        }
+        seatsAndCounts.forEach((move, totals) ->
+                summaryService.applyTransitions(trip.getId(), totals[0], move.from(), move.to(), totals[1]));
+
+        outboxPublisher.publish(topic, trip.getId(), TripBookingsChangedEvent.builder()
+                .tripId(trip.getId())
+                .driverId(trip.getDriverId())
+                .tripStatus(trip.getStatus().name())
+                .bookingIds(bookingIds)
+                .passengerIds(passengerIds)
+                .bookingStatuses(bookingStatuses)
+                .changedBy(changedBy)
+                .reason(reason)
+                .occurredAt(now)
+                .departureCity(trip.getDepartureCity())
+                .arrivalCity(trip.getArrivalCity())
+                .currency(trip.getCurrency())
+                .totalSeats(trip.getTotalSeats())
+                .seatsBooked(seatsBooked)
+                .bookedAmount(bookedAmount)
+                .build());
+        log.info("Trip {} moved to {}: {} bookings updated {}", trip.getId(), trip.getStatus(), moved.size(), byStatus);
+        return new Result(moved.size(), byStatus);
+    }
+
+    /**
+     * Number of bookings moved, and how many ended up in each status.
+     */
+    public record Result(int updated, Map<Booking.BookingStatus, Integer> byStatus) {
+    }
+
+    private record Move(Booking.BookingStatus from, Booking.BookingStatus to) {
+    }
+
+    private record MovedBooking(String id, String passengerId, int seats, BigDecimal totalPrice,
+                                Booking.BookingStatus previous, Booking.BookingStatus status) {
+    }
+}
@@ -0,0 +1,253 @@
+package com.axisride.trip.service;
+
+import com.axisride.outbox.OutboxPublisher;
+import com.axisride.trip.dto.BookingResponse;
+import com.axisride.trip.dto.CreateBookingRequest;
+import com.axisride.trip.dto.TripParticipantResponse;
+import com.axisride.trip.entity.Booking;
+import com.axisride.trip.entity.Trip;
+import com.axisride.trip.event.BookingEvent;
+import com.axisride.trip.event.TripSeatsChangedEvent;
+import com.axisride.trip.repository.BookingRepository;
+import com.axisride.trip.repository.TripRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingService {
+    
+    // cancelledBy of bookings cancelled by the lifecycle scheduler
+    static final String SYSTEM_USER = "system";
+    
+    private static final EnumSet<Booking.BookingStatus> ACTIVE_STATUSES = EnumSet.of(
+            Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.IN_PROGRESS);
+    
+    private final TripRepository tripRepository;
+    private final BookingRepository bookingRepository;
+    private final SeatInventory seatInventory;
+    private final BookingBatchWriter bookingBatchWriter;
+    private final TripBookingSummaryService summaryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxPublisher outboxPublisher;
+    
+    public BookingResponse createBooking(String tripId, String passengerId, CreateBookingRequest request) {
+        Trip trip = tripRepository.findById(tripId)
+                .orElseThrow(() -> new RuntimeException("Trip not found"));
+        
+        if (trip.getStatus() != Trip.TripStatus.PLANNED) {
+            throw new RuntimeException("Trip is not open for booking");
+        }
+        
+        if (trip.getDriverId().equals(passengerId)) {
+            throw new RuntimeException("Drivers cannot book their own trip");
+        }
+        
+        int seats = request.getSeats();
+        if (!seatInventory.tryReserve(trip, seats)) {
+            throw new RuntimeException("Not enough seats available");
+        }
+        
+        // Ids are assigned here because the row is written later by the batch writer
+        LocalDateTime now = LocalDateTime.now();
+        Booking booking = Booking.builder()
+                .id(UUID.randomUUID().toString())
+                .trip(trip)
+                .passengerId(passengerId)
+                .seatsBooked(seats)
+                .totalPrice(trip.getPricePerSeat().multiply(BigDecimal.valueOf(seats)))
+                .status(Booking.BookingStatus.PENDING)
+                .pickupAddress(request.getPickupAddress())
+                .dropoffAddress(request.getDropoffAddress())
+                .passengerNotes(request.getPassengerNotes())
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        
+        if (!bookingBatchWriter.enqueue(booking)) {
+            seatInventory.release(tripId, seats);
+            throw new RuntimeException("Booking service is busy, please retry");
+        }
+        
+        log.info("Reserved {} seats on trip {} for passenger {}", seats, tripId, passengerId);
+        return toResponse(booking);
+    }
+    
+    @Transactional
+    public BookingResponse confirmBooking(String tripId, String bookingId, String driverId) {
+        Booking booking = findBooking(tripId, bookingId);
+        
+        if (!booking.getTrip().getDriverId().equals(driverId)) {
+            throw new RuntimeException("Only the driver can confirm this booking");
+        }
+        
+        if (booking.getStatus() != Booking.BookingStatus.PENDING) {
+            throw new RuntimeException("Only pending bookings can be confirmed");
+        }
+        
+        transition(booking, Booking.BookingStatus.CONFIRMED);
+        outboxPublisher.publish(BookingEvent.CONFIRMED_TOPIC, booking.getId(), toEvent(booking));
+        return toResponse(booking);
+    }
+    
+    @Transactional
+    public BookingResponse cancelBooking(String tripId, String bookingId, String userId, String reason) {
+        Booking booking = findBooking(tripId, bookingId);
+        
+        boolean isPassenger = booking.getPassengerId().equals(userId);
+        if (!isPassenger && !booking.getTrip().getDriverId().equals(userId)) {
+            throw new RuntimeException("Not allowed to cancel this booking");
+        }
+        
+        if (booking.getStatus() != Booking.BookingStatus.PENDING
+                && booking.getStatus() != Booking.BookingStatus.CONFIRMED) {
+            throw new RuntimeException("Booking can no longer be cancelled");
+        }
+        
+        booking.setCancelledBy(userId);
+        booking.setCancellationReason(reason);
+        booking.setCancelledAt(LocalDateTime.now());
+        transition(booking, Booking.BookingStatus.CANCELLED);
+        outboxPublisher.publish(BookingEvent.CANCELLED_TOPIC, booking.getId(), toEvent(booking));
+        
+        releaseSeats(booking.getTrip(), booking.getSeatsBooked());
+        return toResponse(booking);
+    }
+    
+    /**
+     * The trip's driver, provided the passenger holds an active booking on the trip; lets other
+     * services check who a passenger may deal with instead of trusting the client. Bookings still
+     * in the write-behind queue are not seen yet.
+     */
+    @Transactional(readOnly = true)
+    public TripParticipantResponse getParticipant(String tripId, String passengerId) {
+        Trip trip = tripRepository.findById(tripId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Trip not found"));
+        if (!bookingRepository.existsByTripIdAndPassengerIdAndStatusIn(tripId, passengerId, ACTIVE_STATUSES)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No active booking on this trip");
+        }
+        return TripParticipantResponse.builder()
+                .tripId(tripId)
+                .driverId(trip.getDriverId())
+                .passengerId(passengerId)
+                .tripStatus(trip.getStatus().name())
+                .build();
+    }
+    
+    /**
+     * Cancels the given bookings that are still pending and were created before
+     * {@code createdBefore}, returning their seats to the trip. Called by the lifecycle
+     * scheduler when the booking hold runs out; bookings confirmed or cancelled meanwhile are
+     * left alone.
+     */
+    @Transactional
+    public int expirePendingBookings(Collection<String> bookingIds, LocalDateTime createdBefore) {
+        // By trip id: the entity's generated equals/hashCode covers its mutable fields
+        Map<String, Integer> releasedSeats = new HashMap<>();
+        Map<String, Trip> trips = new HashMap<>();
+        int expired = 0;
+        for (Booking booking : bookingRepository.findByIdInAndStatus(bookingIds, Booking.BookingStatus.PENDING)) {
+            if (booking.getCreatedAt().isAfter(createdBefore)) {
+                continue;
+            }
+            cancelAsSystem(booking, "Booking hold expired");
+            releasedSeats.merge(booking.getTrip().getId(), booking.getSeatsBooked(), Integer::sum);
+            trips.putIfAbsent(booking.getTrip().getId(), booking.getTrip());
+            expired++;
+        }
+        releasedSeats.forEach((tripId, seats) -> releaseSeats(trips.get(tripId), seats));
+        return expired;
+    }
+    
+    private void cancelAsSystem(Booking booking, String reason) {
+        booking.setCancelledBy(SYSTEM_USER);
+        booking.setCancellationReason(reason);
+        booking.setCancelledAt(LocalDateTime.now());
+        transition(booking, Booking.BookingStatus.CANCELLED);
+        outboxPublisher.publish(BookingEvent.CANCELLED_TOPIC, booking.getId(), toEvent(booking));
+    }
+    
+    private void releaseSeats(Trip trip, int seats) {
+        String tripId = trip.getId();
+        tripRepository.releaseSeats(tripId, seats);
+        Integer availableSeats = tripRepository.findAvailableSeatsById(tripId);
+        eventPublisher.publishEvent(new TripSeatsChangedEvent(
+                tripId, trip.getDepartureCity(), trip.getArrivalCity(), availableSeats));
+        afterCommit(() -> seatInventory.release(tripId, seats));
+    }
+    
+    /**
+     * Single entry point for booking status changes, keeping the trip's booking summary in step.
+     */
+    private void transition(Booking booking, Booking.BookingStatus newStatus) {
+        Booking.BookingStatus previous = booking.getStatus();
+        booking.setStatus(newStatus);
+        summaryService.applyTransition(booking.getTrip().getId(), booking.getSeatsBooked(), previous, newStatus);
+        log.info("Booking {} moved from {} to {}", booking.getId(), previous, newStatus);
+    }
+    
+    private Booking findBooking(String tripId, String bookingId) {
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
+        if (!booking.getTrip().getId().equals(tripId)) {
+            throw new RuntimeException("Booking not found");
+        }
+        return booking;
+    }
+    
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    static BookingEvent toEvent(Booking booking) {
+        return BookingEvent.builder()
+                .bookingId(booking.getId())
+                .tripId(booking.getTrip().getId())
+                .passengerId(booking.getPassengerId())
+                .driverId(booking.getTrip().getDriverId())
+                .seats(booking.getSeatsBooked())
+                .totalPrice(booking.getTotalPrice())
+                .status(booking.getStatus().name())
+                .cancelledBy(booking.getCancelledBy())
+                .cancellationReason(booking.getCancellationReason())
+                .occurredAt(LocalDateTime.now())
+                .departureCity(booking.getTrip().getDepartureCity())
+                .arrivalCity(booking.getTrip().getArrivalCity())
+                .currency(booking.getTrip().getCurrency())
+                .build();
+    }
+    
+    private BookingResponse toResponse(Booking booking) {
+        return BookingResponse.builder()
+                .id(booking.getId())
+                .tripId(booking.getTrip().getId())
+                .passengerId(booking.getPassengerId())
+                .seatsBooked(booking.getSeatsBooked())
+                .totalPrice(booking.getTotalPrice())
+                .currency(booking.getTrip().getCurrency())
+                .status(booking.getStatus().name())
+                .createdAt(booking.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.axisride.trip.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Leadership held as a Redis key with a TTL: {@code SET NX PX} to take it, and a compare-and-
+ * expire script to renew it, so only the owner can extend or release it. The lease expires on
+ * its own if the leader dies. A Redis error counts as losing leadership.
+ * <p>
+ * Leadership can overlap for up to one renew interval around a handover, so work done under
+ * it must be idempotent.
+ */
+@Slf4j
+public class LeaderLease {
+
+    private static final RedisScript<Long> RENEW = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end", Long.class);
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String key;
+    private final Duration ttl;
+    private final String owner = UUID.randomUUID().toString();
+    private volatile boolean leader;
+
+    public LeaderLease(StringRedisTemplate redisTemplate, String key, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.key = key;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Renews the lease if held, otherwise tries to take it. Returns whether this instance is
+     * the leader afterwards.
+     */
+    public boolean acquireOrRenew() {
+        try {
+            if (leader) {
+                Long renewed = redisTemplate.execute(RENEW, List.of(key), owner, String.valueOf(ttl.toMillis()));
+                leader = renewed != null && renewed == 1;
+            } else {
+                leader = Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, owner, ttl));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Leader lease {} unavailable: {}", key, e.getMessage());
+            leader = false;
+        }
+        return leader;
+    }
+
+    public boolean isLeader() {
+        return leader;
+    }
+
+    public void release() {
+        if (!leader) {
+            return;
+        }
+        leader = false;
+        try {
+            redisTemplate.execute(RELEASE, List.of(key), owner);
+        } catch (RuntimeException e) {
+            log.warn("Could not release leader lease {}: {}", key, e.getMessage());
+        }
+    }
+}
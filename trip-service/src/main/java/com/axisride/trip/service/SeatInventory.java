@@ -0,0 +1,60 @@
+package com.axisride.trip.service;
+
+import com.axisride.trip.entity.Trip;
+import com.axisride.trip.event.TripChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-trip free seat counters held in memory.
+ * <p>
+ * Counters are seeded from {@code Trip.availableSeats} the first time a trip is booked and
+ * then reserved with compare-and-set, so concurrent bookings on the same departure never
+ * take a lock or touch the trip row. The map itself is lock-striped by trip id. Postgres
+ * remains the authority: {@link BookingBatchWriter} applies guarded decrements and evicts a
+ * counter whenever the database disagrees, and any JPA change to a trip evicts it as well.
+ */
+@Component
+public class SeatInventory {
+
+    private final Map<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+
+    public boolean tryReserve(Trip trip, int seats) {
+        AtomicInteger counter = counters.computeIfAbsent(trip.getId(),
+                id -> new AtomicInteger(trip.getAvailableSeats()));
+        int current;
+        do {
+            current = counter.get();
+            if (current < seats) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - seats));
+        return true;
+    }
+
+    public void release(String tripId, int seats) {
+        AtomicInteger counter = counters.get(tripId);
+        if (counter != null) {
+            counter.addAndGet(seats);
+        }
+    }
+
+    public OptionalInt availableSeats(String tripId) {
+        AtomicInteger counter = counters.get(tripId);
+        return counter != null ? OptionalInt.of(counter.get()) : OptionalInt.empty();
+    }
+
+    public void evict(String tripId) {
+        counters.remove(tripId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTripChanged(TripChangedEvent event) {
+        evict(event.getTrip().getId());
+    }
+}
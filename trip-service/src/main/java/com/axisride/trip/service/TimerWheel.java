@@ -0,0 +1,110 @@
+package com.axisride.trip.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel: {@code slots} buckets of one tick each, deadlines further away than a
+ * full turn carry a count of remaining rounds. Scheduling and cancelling are O(1) and a tick
+ * only looks at its own bucket, whatever the number of pending timers.
+ * <p>
+ * A key has at most one deadline; scheduling it again replaces the previous one. Methods are
+ * synchronized, each holding the lock for one bucket at most.
+ */
+final class TimerWheel<K> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<ArrayDeque<Entry<K>>> buckets;
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    private final long startMillis;
+    private long currentTick;
+
+    TimerWheel(long tickMillis, int slots, long startMillis) {
+        if (Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("Slot count must be a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.mask = slots - 1;
+        this.buckets = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            buckets.add(new ArrayDeque<>());
+        }
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * Schedules {@code key} at {@code deadlineMillis}; a deadline already past fires on the
+     * next tick.
+     */
+    synchronized void schedule(K key, long deadlineMillis) {
+        Entry<K> previous = entries.remove(key);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        long deadlineTick = Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis);
+        long targetTick = Math.max(deadlineTick, currentTick + 1);
+        Entry<K> entry = new Entry<>(key, (targetTick - currentTick - 1) / buckets.size());
+        buckets.get((int) (targetTick & mask)).add(entry);
+        entries.put(key, entry);
+    }
+
+    synchronized void cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry != null) {
+            entry.cancelled = true;
+        }
+    }
+
+    /**
+     * Moves the wheel up to {@code nowMillis} and returns the keys whose deadline passed,
+     * removing them.
+     */
+    synchronized List<K> advance(long nowMillis) {
+        long nowTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        List<K> expired = new ArrayList<>();
+        while (currentTick < nowTick) {
+            currentTick++;
+            Iterator<Entry<K>> iterator = buckets.get((int) (currentTick & mask)).iterator();
+            while (iterator.hasNext()) {
+                Entry<K> entry = iterator.next();
+                if (entry.cancelled) {
+                    iterator.remove();
+                } else if (entry.rounds == 0) {
+                    iterator.remove();
+                    entries.remove(entry.key);
+                    expired.add(entry.key);
+                } else {
+                    entry.rounds--;
+                }
+            }
+        }
+        return expired;
+    }
+
+    synchronized void clear() {
+        for (ArrayDeque<Entry<K>> bucket : buckets) {
+            bucket.clear();
+        }
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Entry<K> {
+        final K key;
+        long rounds;
+        boolean cancelled;
+
+        Entry(K key, long rounds) {
+            this.key = key;
+            this.rounds = rounds;
+        }
+    }
+}
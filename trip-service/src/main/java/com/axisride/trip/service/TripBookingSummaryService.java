@@ -0,0 +1,133 @@
+package com.axisride.trip.service;
+
+import com.axisride.trip.dto.BookingSummaryResponse;
+import com.axisride.trip.entity.Booking;
+import com.axisride.trip.entity.TripBookingSummary;
+import com.axisride.trip.repository.BookingRepository;
+import com.axisride.trip.repository.TripBookingSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintains {@link TripBookingSummary} rows.
+ * <p>
+ * Every booking status change calls {@link #applyTransition} inside the transaction that
+ * changes the booking, so the summary moves with the booking row. A scheduled reconciliation
+ * compares the summaries of open trips with the real aggregates and repairs drift under a
+ * row lock.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TripBookingSummaryService {
+
+    private final TripBookingSummaryRepository summaryRepository;
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Applies the counter deltas of a booking moving from {@code from} to {@code to}.
+     * {@code from} is {@code null} for a newly created booking.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyTransition(String tripId, int seats, Booking.BookingStatus from, Booking.BookingStatus to) {
+        applyTransitions(tripId, seats, from, to, 1);
+    }
+
+    /**
+     * Same as {@link #applyTransition} for {@code count} bookings of the same trip that all
+     * made the same move, {@code seats} being their total.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyTransitions(String tripId, int seats, Booking.BookingStatus from, Booking.BookingStatus to,
+                                 int count) {
+        int confirmedSeats = (isConfirmed(to) ? seats : 0) - (isConfirmed(from) ? seats : 0);
+        int pendingSeats = (to == Booking.BookingStatus.PENDING ? seats : 0)
+                - (from == Booking.BookingStatus.PENDING ? seats : 0);
+        int confirmedBookings = (isConfirmed(to) ? count : 0) - (isConfirmed(from) ? count : 0);
+
+        if (confirmedSeats != 0 || pendingSeats != 0 || confirmedBookings != 0) {
+            summaryRepository.applyDelta(tripId, confirmedSeats, pendingSeats, confirmedBookings);
+        }
+    }
+
+    public BookingSummaryResponse getSummary(String tripId) {
+        TripBookingSummary summary = summaryRepository.findById(tripId)
+                .orElseGet(() -> TripBookingSummary.builder().tripId(tripId).build());
+
+        return BookingSummaryResponse.builder()
+                .tripId(summary.getTripId())
+                .confirmedSeats(summary.getConfirmedSeats())
+                .pendingSeats(summary.getPendingSeats())
+                .confirmedBookings(summary.getConfirmedBookings())
+                .updatedAt(summary.getUpdatedAt())
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${trip.booking.summary.reconcile-interval-ms:900000}",
+               initialDelayString = "${trip.booking.summary.reconcile-initial-delay-ms:60000}")
+    public void reconcile() {
+        Map<String, TripBookingSummary> summaries = new HashMap<>();
+        summaryRepository.findForOpenTrips().forEach(summary -> summaries.put(summary.getTripId(), summary));
+
+        Set<String> drifted = new HashSet<>();
+        Set<String> aggregated = new HashSet<>();
+        for (BookingRepository.BookingAggregate aggregate : bookingRepository.aggregateOpenTrips()) {
+            aggregated.add(aggregate.getTripId());
+            TripBookingSummary summary = summaries.get(aggregate.getTripId());
+            if (summary == null
+                    || summary.getConfirmedSeats() != aggregate.getConfirmedSeats().intValue()
+                    || summary.getPendingSeats() != aggregate.getPendingSeats().intValue()
+                    || summary.getConfirmedBookings() != aggregate.getConfirmedBookings().intValue()) {
+                drifted.add(aggregate.getTripId());
+            }
+        }
+        summaries.values().stream()
+                .filter(summary -> !aggregated.contains(summary.getTripId()))
+                .filter(summary -> summary.getConfirmedSeats() != 0 || summary.getPendingSeats() != 0
+                        || summary.getConfirmedBookings() != 0)
+                .forEach(summary -> drifted.add(summary.getTripId()));
+
+        drifted.forEach(this::repair);
+        if (!drifted.isEmpty()) {
+            log.warn("Repaired booking summaries for {} trips", drifted.size());
+        }
+    }
+
+    private void repair(String tripId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Taking the row lock first makes concurrent transitions queue behind the repair
+            summaryRepository.applyDelta(tripId, 0, 0, 0);
+            TripBookingSummary summary = summaryRepository.findWithLockByTripId(tripId)
+                    .orElseThrow(() -> new IllegalStateException("Summary row missing for trip " + tripId));
+
+            Integer confirmedSeats = bookingRepository.sumBookedSeatsByTrip(tripId);
+            Integer pendingSeats = bookingRepository.sumPendingSeatsByTrip(tripId);
+            Long confirmedBookings = bookingRepository.countConfirmedBookingsByTrip(tripId);
+
+            log.debug("Booking summary drift on trip {}: confirmed {}->{}, pending {}->{}, bookings {}->{}",
+                    tripId, summary.getConfirmedSeats(), confirmedSeats, summary.getPendingSeats(), pendingSeats,
+                    summary.getConfirmedBookings(), confirmedBookings);
+
+            summary.setConfirmedSeats(confirmedSeats != null ? confirmedSeats : 0);
+            summary.setPendingSeats(pendingSeats != null ? pendingSeats : 0);
+            summary.setConfirmedBookings(confirmedBookings != null ? confirmedBookings.intValue() : 0);
+            summary.setUpdatedAt(LocalDateTime.now());
+        });
+    }
+
+    private static boolean isConfirmed(Booking.BookingStatus status) {
+        return status == Booking.BookingStatus.CONFIRMED || status == Booking.BookingStatus.IN_PROGRESS;
+    }
+}
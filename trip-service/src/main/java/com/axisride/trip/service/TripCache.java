@@ -0,0 +1,429 @@
+package com.axisride.trip.service;
+
+import com.axisride.trip.dto.TripCursorPageResponse;
+import com.axisride.trip.dto.TripPageResponse;
+import com.axisride.trip.dto.TripResponse;
+import com.axisride.trip.entity.Trip;
+import com.axisride.trip.event.TripChangedEvent;
+import com.axisride.trip.event.TripSeatsChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier read-through cache for trip search pages and single trips.
+ * <p>
+ * L1 is a small Caffeine cache per instance, L2 is Redis (database 2). Search keys are
+ * normalised to {@code route|date|minSeats|page|size}, the route being both cities with their
+ * lengths in front so that no city name can run into the other. For every cached search page,
+ * Redis also records the key under its route and under each trip it contains; L1 keeps the
+ * same route index in memory. Concurrent L1 misses on a key share one load, run by the calling
+ * thread outside of any cache lock.
+ * <p>
+ * Invalidations are driven by {@link TripChangedEvent} and {@link TripSeatsChangedEvent} after
+ * commit and broadcast on a Redis channel so the other instances drop their L1 copies too. A
+ * trip change drops every entry of its route, a seat change only the trip and the pages
+ * showing it. Both bump a generation per route and per trip, and a loaded value only reaches
+ * Redis if its generation did not move meanwhile, so a load racing with an invalidation cannot
+ * store the old value after it. Redis failures degrade to a database read.
+ */
+@Component
+@Slf4j
+public class TripCache implements MessageListener {
+
+    private static final String SEARCH_PREFIX = "trip:search:";
+    private static final String TRIP_PREFIX = "trip:byid:";
+    private static final String ROUTE_KEYS_PREFIX = "trip:search-keys:route:";
+    private static final String TRIP_KEYS_PREFIX = "trip:search-keys:trip:";
+    private static final String ROUTE_GENERATION_PREFIX = "trip:cache-generation:route:";
+    private static final String TRIP_GENERATION_PREFIX = "trip:cache-generation:trip:";
+    private static final String INVALIDATION_CHANNEL = "trip-cache-invalidation";
+    private static final RedisScript<Long> SET_IF_GENERATION =
+            RedisScript.of(new ClassPathResource("scripts/trip_cache_set.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, Object> localCache;
+    // L1 search keys by route, for invalidation without scanning the whole cache
+    private final Map<String, Set<String>> localKeysByRoute = new ConcurrentHashMap<>();
+    // L1 misses being loaded; only these few are scanned on invalidation
+    private final Map<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final Duration remoteTtl;
+    private final Counters searchCounters;
+    private final Counters tripCounters;
+
+    public TripCache(StringRedisTemplate redisTemplate,
+                     ObjectMapper objectMapper,
+                     RedisMessageListenerContainer listenerContainer,
+                     MeterRegistry meterRegistry,
+                     @Value("${trip.cache.local.max-size:10000}") long localMaxSize,
+                     @Value("${trip.cache.local.ttl:PT10S}") Duration localTtl,
+                     @Value("${trip.cache.remote.ttl:PT60S}") Duration remoteTtl) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.listenerContainer = listenerContainer;
+        this.meterRegistry = meterRegistry;
+        this.remoteTtl = remoteTtl;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .evictionListener(this::onLocalEviction)
+                .build();
+        this.searchCounters = new Counters(meterRegistry, "search");
+        this.tripCounters = new Counters(meterRegistry, "trip");
+    }
+
+    @PostConstruct
+    void init() {
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "trip.cache.local");
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public TripPageResponse getSearch(String departureCity, String arrivalCity, LocalDate date, int minSeats,
+                                      int page, int size, Supplier<TripPageResponse> loader) {
+        String route = routeOf(departureCity, arrivalCity);
+        String key = SEARCH_PREFIX + route + "|" + date + "|" + minSeats + "|" + page + "|" + size;
+        return get(searchCounters, key, route, ROUTE_GENERATION_PREFIX + route, TripPageResponse.class, loader,
+                result -> indexSearchKey(key, route, result.getContent()));
+    }
+
+    /**
+     * Keyset search page; stored under the same route prefix as offset pages so the same
+     * invalidations apply.
+     */
+    public TripCursorPageResponse getCursorSearch(String departureCity, String arrivalCity, LocalDate date,
+                                                  int minSeats, String cursor, int size,
+                                                  Supplier<TripCursorPageResponse> loader) {
+        String route = routeOf(departureCity, arrivalCity);
+        String key = SEARCH_PREFIX + route + "|" + date + "|" + minSeats + "|after:" + cursor + "|" + size;
+        return get(searchCounters, key, route, ROUTE_GENERATION_PREFIX + route, TripCursorPageResponse.class, loader,
+                result -> indexSearchKey(key, route, result.getContent()));
+    }
+
+    public TripResponse getTrip(String tripId, Supplier<TripResponse> loader) {
+        return get(tripCounters, TRIP_PREFIX + tripId, null, TRIP_GENERATION_PREFIX + tripId, TripResponse.class,
+                loader, result -> { });
+    }
+
+    /**
+     * Normalises a city name the same way for cache keys and for the database query.
+     */
+    public static String normalizeCity(String city) {
+        return city == null ? "" : city.trim().replaceAll("\\s+", " ");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTripChanged(TripChangedEvent event) {
+        Trip trip = event.getTrip();
+        invalidate(trip.getId(), routeOf(trip.getDepartureCity(), trip.getArrivalCity()), true);
+    }
+
+    /**
+     * Drops the trip and the pages showing it, but not the rest of its route: a page that left
+     * the trip out for lack of seats may miss it until it expires.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsChanged(TripSeatsChangedEvent event) {
+        invalidate(event.getTripId(), routeOf(event.getDepartureCity(), event.getArrivalCity()), false);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Invalidation invalidation = objectMapper.readValue(message.getBody(), Invalidation.class);
+            evictLocal(invalidation);
+        } catch (Exception e) {
+            log.warn("Ignoring malformed trip cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    private <T> T get(Counters counters, String key, String route, String generationKey, Class<T> type,
+                      Supplier<T> loader, Consumer<T> onRemoteStore) {
+        Object cached = localCache.getIfPresent(key);
+        if (cached != null) {
+            counters.localHit.increment();
+            return type.cast(cached);
+        }
+        counters.localMiss.increment();
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> concurrent = loading.putIfAbsent(key, load);
+        if (concurrent != null) {
+            return type.cast(join(concurrent));
+        }
+        try {
+            T value = load(counters, key, generationKey, type, loader, onRemoteStore);
+            if (value != null) {
+                localCache.put(key, value);
+                indexLocal(route, key);
+            }
+            // An invalidation during the load took the key out of loading: the value is not kept
+            if (!loading.remove(key, load)) {
+                localCache.invalidate(key);
+            }
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loading.remove(key, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private <T> T load(Counters counters, String key, String generationKey, Class<T> type, Supplier<T> loader,
+                       Consumer<T> onRemoteStore) {
+        List<String> remote = readRemote(key, generationKey);
+        T cached = remote != null ? decode(key, remote.get(0), type) : null;
+        if (cached != null) {
+            counters.remoteHit.increment();
+            return cached;
+        }
+        counters.remoteMiss.increment();
+        T value = loader.get();
+        // Not stored without the generation it was loaded at
+        if (value != null && remote != null && writeRemote(key, generationKey, remote.get(1), value)) {
+            onRemoteStore.accept(value);
+        }
+        return value;
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // The entry and the current generation, or null when Redis cannot be read
+    private List<String> readRemote(String key, String generationKey) {
+        try {
+            return redisTemplate.opsForValue().multiGet(List.of(key, generationKey));
+        } catch (Exception e) {
+            log.warn("Trip cache read failed for {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private <T> T decode(String key, String json, Class<T> type) {
+        try {
+            return json != null ? objectMapper.readValue(json, type) : null;
+        } catch (Exception e) {
+            log.warn("Trip cache entry {} cannot be read: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean writeRemote(String key, String generationKey, String generation, Object value) {
+        try {
+            Long stored = redisTemplate.execute(SET_IF_GENERATION, List.of(key, generationKey),
+                    generation != null ? generation : "0", objectMapper.writeValueAsString(value),
+                    String.valueOf(remoteTtl.toMillis()));
+            return stored != null && stored == 1;
+        } catch (Exception e) {
+            log.warn("Trip cache write failed for {}: {}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    private void indexSearchKey(String key, String route, List<TripResponse> trips) {
+        // Index sets outlive the entries they point to so an invalidation never misses one
+        long indexTtlSeconds = remoteTtl.multipliedBy(2).toSeconds();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                redis.sAdd(ROUTE_KEYS_PREFIX + route, key);
+                redis.expire(ROUTE_KEYS_PREFIX + route, indexTtlSeconds);
+                for (TripResponse trip : trips) {
+                    redis.sAdd(TRIP_KEYS_PREFIX + trip.getId(), key);
+                    redis.expire(TRIP_KEYS_PREFIX + trip.getId(), indexTtlSeconds);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Trip cache index update failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void invalidate(String tripId, String route, boolean wholeRoute) {
+        List<String> keys = new ArrayList<>();
+        keys.add(TRIP_PREFIX + tripId);
+        try {
+            // First, so that loads still running can no longer store what they read
+            bumpGenerations(tripId, route);
+
+            Set<String> searchKeys = new HashSet<>();
+            Set<String> byRoute = wholeRoute ? redisTemplate.opsForSet().members(ROUTE_KEYS_PREFIX + route) : null;
+            Set<String> byTrip = redisTemplate.opsForSet().members(TRIP_KEYS_PREFIX + tripId);
+            if (byRoute != null) {
+                searchKeys.addAll(byRoute);
+            }
+            if (byTrip != null) {
+                searchKeys.addAll(byTrip);
+            }
+            keys.addAll(searchKeys);
+
+            List<String> toDelete = new ArrayList<>(keys);
+            if (wholeRoute) {
+                toDelete.add(ROUTE_KEYS_PREFIX + route);
+            }
+            toDelete.add(TRIP_KEYS_PREFIX + tripId);
+            redisTemplate.delete(toDelete);
+
+            Invalidation invalidation = new Invalidation(keys, route, wholeRoute);
+            evictLocal(invalidation);
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, objectMapper.writeValueAsString(invalidation));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to encode trip cache invalidation", e);
+        } catch (Exception e) {
+            log.warn("Trip cache invalidation failed for trip {}: {}", tripId, e.getMessage());
+            evictLocal(new Invalidation(keys, route, wholeRoute));
+        }
+    }
+
+    private void bumpGenerations(String tripId, String route) {
+        // Generations only have to outlive the loads they guard
+        long ttlSeconds = remoteTtl.multipliedBy(2).toSeconds();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            redis.incr(ROUTE_GENERATION_PREFIX + route);
+            redis.expire(ROUTE_GENERATION_PREFIX + route, ttlSeconds);
+            redis.incr(TRIP_GENERATION_PREFIX + tripId);
+            redis.expire(TRIP_GENERATION_PREFIX + tripId, ttlSeconds);
+            return null;
+        });
+    }
+
+    private void evictLocal(Invalidation invalidation) {
+        localCache.invalidateAll(invalidation.keys());
+        String route = invalidation.route();
+        if (route != null && invalidation.wholeRoute()) {
+            Set<String> routeKeys = localKeysByRoute.remove(route);
+            if (routeKeys != null) {
+                localCache.invalidateAll(routeKeys);
+            }
+        }
+        // Any page of the route being loaded may show the trip as it was
+        loading.keySet().removeIf(key -> invalidation.keys().contains(key)
+                || (route != null && route.equals(searchRouteOf(key))));
+    }
+
+    // Size and expiry evictions, called atomically with the removal
+    private void onLocalEviction(String key, Object value, RemovalCause cause) {
+        String route = key != null ? searchRouteOf(key) : null;
+        if (route == null) {
+            return;
+        }
+        localKeysByRoute.computeIfPresent(route, (r, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private void indexLocal(String route, String key) {
+        if (route == null) {
+            return;
+        }
+        localKeysByRoute.compute(route, (r, keys) -> {
+            Set<String> routeKeys = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            routeKeys.add(key);
+            return routeKeys;
+        });
+    }
+
+    // The route a search key starts with, read by the lengths of its two cities; null for
+    // other keys
+    static String searchRouteOf(String key) {
+        if (!key.startsWith(SEARCH_PREFIX)) {
+            return null;
+        }
+        int end = SEARCH_PREFIX.length();
+        for (int city = 0; city < 2; city++) {
+            int colon = key.indexOf(':', end);
+            if (colon < 0) {
+                return null;
+            }
+            try {
+                end = colon + 1 + Integer.parseInt(key, end, colon, 10) + (city == 0 ? 1 : 0);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return end <= key.length() ? key.substring(SEARCH_PREFIX.length(), end) : null;
+    }
+
+    // <length>:<departure>|<length>:<arrival>
+    static String routeOf(String departureCity, String arrivalCity) {
+        String departure = normalizeCity(departureCity);
+        String arrival = normalizeCity(arrivalCity);
+        return departure.length() + ":" + departure + "|" + arrival.length() + ":" + arrival;
+    }
+
+    /**
+     * Keys to drop everywhere. With {@code wholeRoute} the cached pages of the route go too;
+     * pages of the route being loaded are discarded either way.
+     */
+    record Invalidation(List<String> keys, String route, boolean wholeRoute) {
+    }
+
+    private static final class Counters {
+
+        final Counter localHit;
+        final Counter localMiss;
+        final Counter remoteHit;
+        final Counter remoteMiss;
+
+        Counters(MeterRegistry meterRegistry, String cacheName) {
+            localHit = counter(meterRegistry, cacheName, "local", "hit");
+            localMiss = counter(meterRegistry, cacheName, "local", "miss");
+            remoteHit = counter(meterRegistry, cacheName, "remote", "hit");
+            remoteMiss = counter(meterRegistry, cacheName, "remote", "miss");
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String cacheName, String tier, String result) {
+            return Counter.builder("trip.cache.requests")
+                    .tag("cache", cacheName)
+                    .tag("tier", tier)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+}
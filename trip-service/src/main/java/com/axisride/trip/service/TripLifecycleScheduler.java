@@ -0,0 +1,261 @@
+package com.axisride.trip.service;
+
+import com.axisride.trip.entity.Trip;
+import com.axisride.trip.event.TripChangedEvent;
+import com.axisride.trip.repository.BookingRepository;
+import com.axisride.trip.repository.TripRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires trip and booking status changes at their deadline instead of polling for them.
+ * <p>
+ * One instance, elected through a Redis {@link LeaderLease}, keeps every upcoming deadline in
+ * a {@link TimerWheel} ticked once per {@code trip.lifecycle.tick-ms}: departures of PLANNED
+ * trips within {@code trip.lifecycle.horizon}, arrival deadlines of ACTIVE trips and hold
+ * expiry of PENDING bookings. The wheel is loaded when leadership is gained and then kept up
+ * by {@link TripChangedEvent}s and by a periodic refill that only reads rows changed since the
+ * previous one, plus the slice of time the horizon moved over, all through index range scans.
+ * <p>
+ * Transitions are delegated to {@link TripLifecycleService} and
+ * {@link BookingService#expirePendingBookings}, which re-check every row, so a deadline fired
+ * twice during a leadership handover or for a row edited meanwhile is harmless.
+ */
+@Component
+@ConditionalOnProperty(name = "trip.lifecycle.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class TripLifecycleScheduler {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int BATCH_SIZE = 200;
+
+    private final TripRepository tripRepository;
+    private final BookingRepository bookingRepository;
+    private final TripLifecycleService lifecycleService;
+    private final BookingService bookingService;
+    private final MeterRegistry meterRegistry;
+    private final LeaderLease lease;
+    private final TimerWheel<Timer> wheel;
+    private final long tickMillis;
+    private final Duration horizon;
+    private final Duration refillOverlap;
+    private final Duration bookingHold;
+    private final Duration retryDelay;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "trip-lifecycle-ticker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Written by the Spring scheduler thread only, read by event listeners too
+    private volatile boolean loaded;
+    private volatile LocalDateTime horizonEnd;
+    private LocalDateTime lastRefill;
+
+    public TripLifecycleScheduler(TripRepository tripRepository,
+                                  BookingRepository bookingRepository,
+                                  TripLifecycleService lifecycleService,
+                                  BookingService bookingService,
+                                  StringRedisTemplate redisTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${trip.lifecycle.tick-ms:1000}") long tickMillis,
+                                  @Value("${trip.lifecycle.wheel-slots:8192}") int wheelSlots,
+                                  @Value("${trip.lifecycle.horizon:PT2H}") Duration horizon,
+                                  @Value("${trip.lifecycle.refill-overlap:PT1M}") Duration refillOverlap,
+                                  @Value("${trip.lifecycle.booking-hold:PT15M}") Duration bookingHold,
+                                  @Value("${trip.lifecycle.retry-delay:PT30S}") Duration retryDelay,
+                                  @Value("${trip.lifecycle.leader-lease.key:trip:lifecycle:leader}") String leaseKey,
+                                  @Value("${trip.lifecycle.leader-lease.ttl:PT15S}") Duration leaseTtl) {
+        this.tripRepository = tripRepository;
+        this.bookingRepository = bookingRepository;
+        this.lifecycleService = lifecycleService;
+        this.bookingService = bookingService;
+        this.meterRegistry = meterRegistry;
+        this.lease = new LeaderLease(redisTemplate, leaseKey, leaseTtl);
+        this.wheel = new TimerWheel<>(tickMillis, wheelSlots, System.currentTimeMillis());
+        this.tickMillis = tickMillis;
+        this.horizon = horizon;
+        this.refillOverlap = refillOverlap;
+        this.bookingHold = bookingHold;
+        this.retryDelay = retryDelay;
+        meterRegistry.gauge("trip.lifecycle.scheduled", wheel, TimerWheel::size);
+        meterRegistry.gauge("trip.lifecycle.leader", lease, l -> l.isLeader() ? 1 : 0);
+    }
+
+    @PostConstruct
+    void start() {
+        ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        ticker.shutdownNow();
+        lease.release();
+    }
+
+    @Scheduled(fixedDelayString = "${trip.lifecycle.leader-lease.renew-interval-ms:5000}")
+    public void heartbeat() {
+        if (!lease.acquireOrRenew()) {
+            if (loaded) {
+                log.info("Lost trip lifecycle leadership, dropping {} timers", wheel.size());
+                wheel.clear();
+                loaded = false;
+            }
+            return;
+        }
+        if (!loaded) {
+            try {
+                load();
+                loaded = true;
+            } catch (RuntimeException e) {
+                wheel.clear();
+                log.warn("Loading trip lifecycle timers failed, will retry: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${trip.lifecycle.refill-interval-ms:30000}")
+    public void refill() {
+        if (!loaded || !lease.isLeader()) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime since = lastRefill.minus(refillOverlap);
+            LocalDateTime previousHorizonEnd = horizonEnd;
+            horizonEnd = now.plus(horizon);
+            tripRepository.findOpenTripsUpdatedSince(since).forEach(this::scheduleTrip);
+            tripRepository.findPlannedDeparturesBetween(previousHorizonEnd, horizonEnd).forEach(this::scheduleTrip);
+            bookingRepository.findPendingUpdatedSince(since).forEach(this::scheduleBooking);
+            lastRefill = now;
+        } catch (RuntimeException e) {
+            // A partial refill may leave a gap behind the moved horizon; the next heartbeat reloads
+            loaded = false;
+            log.warn("Trip lifecycle refill failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTripChanged(TripChangedEvent event) {
+        if (!loaded || !lease.isLeader()) {
+            return;
+        }
+        Trip trip = event.getTrip();
+        if (event.getChangeType() == TripChangedEvent.ChangeType.DELETED) {
+            wheel.cancel(new Timer(Kind.DEPART, trip.getId()));
+            wheel.cancel(new Timer(Kind.ARRIVE, trip.getId()));
+            return;
+        }
+        scheduleTrip(trip.getId(), trip.getStatus(), trip.getDepartureTime(), trip.getArrivalTime(),
+                trip.getDurationMinutes());
+    }
+
+    private void load() {
+        wheel.clear();
+        LocalDateTime now = LocalDateTime.now();
+        horizonEnd = now.plus(horizon);
+        tripRepository.findPlannedDeparturesBefore(horizonEnd).forEach(this::scheduleTrip);
+        tripRepository.findActiveTripDeadlines().forEach(this::scheduleTrip);
+        bookingRepository.findPendingUpdatedSince(EPOCH).forEach(this::scheduleBooking);
+        lastRefill = now;
+        log.info("Gained trip lifecycle leadership, {} timers scheduled up to {}", wheel.size(), horizonEnd);
+    }
+
+    private void scheduleTrip(TripRepository.TripDeadline trip) {
+        scheduleTrip(trip.getId(), trip.getStatus(), trip.getDepartureTime(), trip.getArrivalTime(),
+                trip.getDurationMinutes());
+    }
+
+    private void scheduleTrip(String tripId, Trip.TripStatus status, LocalDateTime departureTime,
+                              LocalDateTime arrivalTime, Integer durationMinutes) {
+        Timer depart = new Timer(Kind.DEPART, tripId);
+        Timer arrive = new Timer(Kind.ARRIVE, tripId);
+        if (status == Trip.TripStatus.PLANNED && departureTime.isBefore(horizonEnd)) {
+            wheel.cancel(arrive);
+            wheel.schedule(depart, toMillis(departureTime));
+        } else if (status == Trip.TripStatus.ACTIVE) {
+            wheel.cancel(depart);
+            wheel.schedule(arrive, toMillis(lifecycleService.arrivalDeadline(departureTime, arrivalTime, durationMinutes)));
+        } else {
+            // Beyond the horizon the refill picks it up later; otherwise nothing is left to fire
+            wheel.cancel(depart);
+            wheel.cancel(arrive);
+        }
+    }
+
+    private void scheduleBooking(BookingRepository.PendingBooking booking) {
+        wheel.schedule(new Timer(Kind.EXPIRE_BOOKING, booking.getId()), toMillis(booking.getCreatedAt().plus(bookingHold)));
+    }
+
+    private void tick() {
+        try {
+            List<Timer> due = wheel.advance(System.currentTimeMillis());
+            if (due.isEmpty() || !lease.isLeader()) {
+                return;
+            }
+            Map<Kind, List<String>> idsByKind = new EnumMap<>(Kind.class);
+            for (Timer timer : due) {
+                idsByKind.computeIfAbsent(timer.kind(), k -> new ArrayList<>()).add(timer.id());
+            }
+            idsByKind.forEach((kind, ids) -> {
+                for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                    fire(kind, ids.subList(from, Math.min(from + BATCH_SIZE, ids.size())));
+                }
+            });
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task
+            log.error("Trip lifecycle tick failed", e);
+        }
+    }
+
+    private void fire(Kind kind, List<String> ids) {
+        try {
+            int changed = switch (kind) {
+                case DEPART -> lifecycleService.departTrips(ids);
+                case ARRIVE -> lifecycleService.completeTrips(ids);
+                case EXPIRE_BOOKING -> bookingService.expirePendingBookings(ids, LocalDateTime.now().minus(bookingHold));
+            };
+            meterRegistry.counter("trip.lifecycle.transitions", "kind", kind.name()).increment(changed);
+        } catch (RuntimeException e) {
+            meterRegistry.counter("trip.lifecycle.failures", "kind", kind.name()).increment();
+            log.warn("Trip lifecycle {} of {} rows failed, retrying in {}: {}", kind, ids.size(), retryDelay, e.getMessage());
+            long retryAt = System.currentTimeMillis() + retryDelay.toMillis();
+            for (String id : ids) {
+                wheel.schedule(new Timer(kind, id), retryAt);
+            }
+        }
+    }
+
+    private long toMillis(LocalDateTime time) {
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private enum Kind {
+        DEPART,
+        ARRIVE,
+        EXPIRE_BOOKING
+    }
+
+    private record Timer(Kind kind, String id) {
+    }
+}
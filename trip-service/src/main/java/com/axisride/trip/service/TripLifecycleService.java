@@ -0,0 +1,167 @@
+package com.axisride.trip.service;
+
+import com.axisride.trip.dto.TripTransitionResponse;
+import com.axisride.trip.entity.Booking;
+import com.axisride.trip.entity.Trip;
+import com.axisride.trip.event.TripBookingsChangedEvent;
+import com.axisride.trip.repository.TripRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Trip status changes and the bookings that follow them: PLANNED trips become ACTIVE at
+ * departure and ACTIVE trips COMPLETED at their arrival deadline, driven by
+ * {@link TripLifecycleScheduler}; drivers can also cancel or complete a trip themselves.
+ * <p>
+ * Every transition loads the trip with a row lock ({@code SELECT ... FOR UPDATE}) and
+ * re-checks status and time on it, so a driver's cancellation and the scheduler's departure
+ * of the same trip are serialized and the second one sees the first; calling a transition
+ * twice, late, or for a trip edited meanwhile changes nothing. The trip is written through
+ * its entity, so {@link com.axisride.trip.event.TripChangedEvent} keeps caches and schedulers
+ * in step; its bookings are moved in bulk by {@link BookingBulkUpdater}.
+ */
+@Service
+@Slf4j
+public class TripLifecycleService {
+
+    private static final Map<Booking.BookingStatus, Booking.BookingStatus> ON_DEPARTURE = moves(
+            Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.IN_PROGRESS,
+            // Never confirmed by the driver
+            Booking.BookingStatus.PENDING, Booking.BookingStatus.CANCELLED);
+
+    private static final Map<Booking.BookingStatus, Booking.BookingStatus> ON_COMPLETION = moves(
+            Booking.BookingStatus.IN_PROGRESS, Booking.BookingStatus.COMPLETED,
+            // Completed by the driver before the scheduler saw the departure
+            Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.COMPLETED,
+            Booking.BookingStatus.PENDING, Booking.BookingStatus.CANCELLED);
+
+    private static final Map<Booking.BookingStatus, Booking.BookingStatus> ON_CANCELLATION = moves(
+            Booking.BookingStatus.PENDING, Booking.BookingStatus.CANCELLED,
+            Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.CANCELLED,
+            Booking.BookingStatus.IN_PROGRESS, Booking.BookingStatus.CANCELLED);
+
+    private final TripRepository tripRepository;
+    private final BookingBulkUpdater bookingBulkUpdater;
+    private final Duration defaultTripDuration;
+
+    public TripLifecycleService(TripRepository tripRepository,
+                                BookingBulkUpdater bookingBulkUpdater,
+                                @Value("${trip.lifecycle.default-trip-duration:PT4H}") Duration defaultTripDuration) {
+        this.tripRepository = tripRepository;
+        this.bookingBulkUpdater = bookingBulkUpdater;
+        this.defaultTripDuration = defaultTripDuration;
+    }
+
+    @Transactional
+    public TripTransitionResponse cancelTrip(String tripId, String driverId, String reason) {
+        Trip trip = findDriverTrip(tripId, driverId);
+        if (trip.getStatus() != Trip.TripStatus.PLANNED && trip.getStatus() != Trip.TripStatus.ACTIVE) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Trip can no longer be cancelled");
+        }
+        trip.setStatus(Trip.TripStatus.CANCELLED);
+        BookingBulkUpdater.Result result = bookingBulkUpdater.apply(trip, ON_CANCELLATION, driverId, reason,
+                TripBookingsChangedEvent.CANCELLED_TOPIC);
+        return toResponse(trip, result);
+    }
+
+    @Transactional
+    public TripTransitionResponse completeTrip(String tripId, String driverId) {
+        Trip trip = findDriverTrip(tripId, driverId);
+        if (trip.getStatus() != Trip.TripStatus.ACTIVE
+                && (trip.getStatus() != Trip.TripStatus.PLANNED || trip.getDepartureTime().isAfter(LocalDateTime.now()))) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Only departed trips can be completed");
+        }
+        trip.setStatus(Trip.TripStatus.COMPLETED);
+        BookingBulkUpdater.Result result = bookingBulkUpdater.apply(trip, ON_COMPLETION, driverId,
+                "Trip completed before the booking was confirmed", TripBookingsChangedEvent.COMPLETED_TOPIC);
+        return toResponse(trip, result);
+    }
+
+    @Transactional
+    public int departTrips(Collection<String> tripIds) {
+        LocalDateTime now = LocalDateTime.now();
+        int departed = 0;
+        for (Trip trip : tripRepository.findAllWithLockByIdIn(tripIds)) {
+            if (trip.getStatus() != Trip.TripStatus.PLANNED || trip.getDepartureTime().isAfter(now)) {
+                continue;
+            }
+            trip.setStatus(Trip.TripStatus.ACTIVE);
+            bookingBulkUpdater.apply(trip, ON_DEPARTURE, BookingService.SYSTEM_USER,
+                    "Trip departed before the booking was confirmed", TripBookingsChangedEvent.STARTED_TOPIC);
+            departed++;
+        }
+        log.debug("Departed {} of {} due trips", departed, tripIds.size());
+        return departed;
+    }
+
+    @Transactional
+    public int completeTrips(Collection<String> tripIds) {
+        LocalDateTime now = LocalDateTime.now();
+        int completed = 0;
+        for (Trip trip : tripRepository.findAllWithLockByIdIn(tripIds)) {
+            if (trip.getStatus() != Trip.TripStatus.ACTIVE
+                    || arrivalDeadline(trip.getDepartureTime(), trip.getArrivalTime(), trip.getDurationMinutes()).isAfter(now)) {
+                continue;
+            }
+            trip.setStatus(Trip.TripStatus.COMPLETED);
+            bookingBulkUpdater.apply(trip, ON_COMPLETION, BookingService.SYSTEM_USER,
+                    "Trip completed before the booking was confirmed", TripBookingsChangedEvent.COMPLETED_TOPIC);
+            completed++;
+        }
+        log.debug("Completed {} of {} due trips", completed, tripIds.size());
+        return completed;
+    }
+
+    /**
+     * When an active trip is considered over: its planned arrival, else departure plus the
+     * route duration, else departure plus {@code trip.lifecycle.default-trip-duration}.
+     */
+    public LocalDateTime arrivalDeadline(LocalDateTime departureTime, LocalDateTime arrivalTime, Integer durationMinutes) {
+        if (arrivalTime != null) {
+            return arrivalTime;
+        }
+        if (durationMinutes != null) {
+            return departureTime.plusMinutes(durationMinutes);
+        }
+        return departureTime.plus(defaultTripDuration);
+    }
+
+    private Trip findDriverTrip(String tripId, String driverId) {
+        Trip trip = tripRepository.findWithLockById(tripId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Trip not found"));
+        if (!trip.getDriverId().equals(driverId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only the driver can change this trip");
+        }
+        return trip;
+    }
+
+    private static TripTransitionResponse toResponse(Trip trip, BookingBulkUpdater.Result result) {
+        Map<String, Integer> bookingsByStatus = new LinkedHashMap<>();
+        result.byStatus().forEach((status, count) -> bookingsByStatus.put(status.name(), count));
+        return TripTransitionResponse.builder()
+                .tripId(trip.getId())
+                .status(trip.getStatus().name())
+                .updatedBookings(result.updated())
+                .bookingsByStatus(bookingsByStatus)
+                .build();
+    }
+
+    private static Map<Booking.BookingStatus, Booking.BookingStatus> moves(Booking.BookingStatus... fromTo) {
+        Map<Booking.BookingStatus, Booking.BookingStatus> moves = new EnumMap<>(Booking.BookingStatus.class);
+        for (int i = 0; i < fromTo.length; i += 2) {
+            moves.put(fromTo[i], fromTo[i + 1]);
+        }
+        return moves;
+    }
+}
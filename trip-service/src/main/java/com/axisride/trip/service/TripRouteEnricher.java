@@ -0,0 +1,108 @@
+package com.axisride.trip.service;
+
+import com.axisride.trip.client.GeolocationClient;
+import com.axisride.trip.dto.RouteBatchRequest;
+import com.axisride.trip.dto.RouteBatchResponse;
+import com.axisride.trip.dto.RouteRequest;
+import com.axisride.trip.dto.RouteResponse;
+import com.axisride.trip.entity.Trip;
+import com.axisride.trip.repository.TripRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fills {@code distanceKm} and {@code durationMinutes} of planned trips that have both
+ * locations but no route yet, with one call to geolocation-service per batch of trips.
+ * <p>
+ * The remote call runs outside any transaction; the results are then written through the
+ * entities so that {@link com.axisride.trip.event.TripChangedEvent} refreshes caches and the
+ * spatial index as for any other trip change. A failed call is retried on the next run.
+ */
+@Component
+@Slf4j
+public class TripRouteEnricher {
+
+    private final TripRepository tripRepository;
+    private final GeolocationClient geolocationClient;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+
+    public TripRouteEnricher(TripRepository tripRepository,
+                             GeolocationClient geolocationClient,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${trip.route.batch-size:200}") int batchSize) {
+        this.tripRepository = tripRepository;
+        this.geolocationClient = geolocationClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${trip.route.enrich-interval-ms:30000}")
+    public void enrichMissingRoutes() {
+        try {
+            int enriched;
+            do {
+                enriched = enrichBatch();
+            } while (enriched == batchSize);
+        } catch (RuntimeException e) {
+            meterRegistry.counter("trip.route.enrich.failures").increment();
+            log.warn("Route enrichment failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private int enrichBatch() {
+        List<Trip> trips = tripRepository.findPlannedTripsWithoutRoute(PageRequest.of(0, batchSize));
+        if (trips.isEmpty()) {
+            return 0;
+        }
+
+        List<RouteRequest> requests = trips.stream()
+                .map(trip -> RouteRequest.builder()
+                        .id(trip.getId())
+                        .fromLatitude(trip.getDepartureLocation().getY())
+                        .fromLongitude(trip.getDepartureLocation().getX())
+                        .toLatitude(trip.getArrivalLocation().getY())
+                        .toLongitude(trip.getArrivalLocation().getX())
+                        .build())
+                .toList();
+        RouteBatchResponse response = geolocationClient.estimateRoutes(
+                RouteBatchRequest.builder().routes(requests).build());
+        Map<String, RouteResponse> routes = response.getRoutes().stream()
+                .filter(route -> route.getId() != null)
+                .collect(Collectors.toMap(RouteResponse::getId, Function.identity(), (first, second) -> first));
+
+        Integer updated = transactionTemplate.execute(status -> {
+            int count = 0;
+            // Locked like the status transitions, whose changes a full-row update would otherwise undo
+            for (Trip trip : tripRepository.findAllWithLockByIdIn(routes.keySet())) {
+                RouteResponse route = routes.get(trip.getId());
+                // Left alone if a driver edit filled it in meanwhile
+                if (trip.getDistanceKm() == null) {
+                    trip.setDistanceKm(route.getDistanceKm());
+                    trip.setDurationMinutes(route.getDurationMinutes());
+                    count++;
+                }
+            }
+            return count;
+        });
+        int count = updated != null ? updated : 0;
+        meterRegistry.counter("trip.route.enriched").increment(count);
+        log.debug("Enriched {} trips with route distance and duration", count);
+        // A short count ends the run, so trips the remote side skipped are not fetched in a loop
+        return count;
+    }
+}
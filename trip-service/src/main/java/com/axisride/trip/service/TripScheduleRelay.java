@@ -0,0 +1,169 @@
+package com.axisride.trip.service;
+
+import com.axisride.outbox.OutboxMessage;
+import com.axisride.outbox.OutboxPublisher;
+import com.axisride.trip.entity.Trip;
+import com.axisride.trip.event.TripScheduleEvent;
+import com.axisride.trip.repository.TripRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Point;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes {@code trip.scheduled} for planned trips whose departure is new or has moved, so
+ * notification-service can schedule reminders without reading this database.
+ * <p>
+ * Changes are found the way {@link TripLifecycleScheduler} refills: rows updated since the
+ * previous pass minus an overlap, read on {@code idx_trips_open_updated}, which covers trips
+ * written outside of JPA too. One instance holds a {@link LeaderLease} and keeps the position
+ * in Redis so the next leader carries on from there. Seat updates also touch
+ * {@code updated_at}; trips whose departure did not change since the last message are skipped.
+ * <p>
+ * Each page is read and written to the outbox in one transaction, and only remembered as
+ * published once that transaction has committed.
+ */
+@Component
+@ConditionalOnProperty(name = "trip.schedule-relay.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class TripScheduleRelay {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final TripRepository tripRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaderLease lease;
+    private final String positionKey;
+    private final Duration overlap;
+    private final int batchSize;
+    // Departure last published per trip, on this leader
+    private final Cache<String, Departure> published;
+
+    public TripScheduleRelay(TripRepository tripRepository,
+                             OutboxPublisher outboxPublisher,
+                             StringRedisTemplate redisTemplate,
+                             MeterRegistry meterRegistry,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${trip.schedule-relay.position-key:trip:schedule-relay:position}") String positionKey,
+                             @Value("${trip.schedule-relay.overlap:PT1M}") Duration overlap,
+                             @Value("${trip.schedule-relay.batch-size:500}") int batchSize,
+                             @Value("${trip.schedule-relay.max-tracked:200000}") long maxTracked,
+                             @Value("${trip.schedule-relay.leader-lease.key:trip:schedule-relay:leader}") String leaseKey,
+                             @Value("${trip.schedule-relay.leader-lease.ttl:PT15S}") Duration leaseTtl) {
+        this.tripRepository = tripRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lease = new LeaderLease(redisTemplate, leaseKey, leaseTtl);
+        this.positionKey = positionKey;
+        this.overlap = overlap;
+        this.batchSize = batchSize;
+        this.published = Caffeine.newBuilder().maximumSize(maxTracked).build();
+    }
+
+    @PreDestroy
+    void stop() {
+        lease.release();
+    }
+
+    @Scheduled(fixedDelayString = "${trip.schedule-relay.interval-ms:5000}")
+    public void relay() {
+        boolean wasLeader = lease.isLeader();
+        if (!lease.acquireOrRenew()) {
+            if (wasLeader) {
+                published.invalidateAll();
+            }
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime afterTime = readPosition().minus(overlap);
+            String afterId = "";
+            int sent = 0;
+            List<TripRepository.TripSchedule> page;
+            do {
+                LocalDateTime pageAfterTime = afterTime;
+                String pageAfterId = afterId;
+                Map<String, Departure> changed = new LinkedHashMap<>();
+                page = transactionTemplate.execute(status -> {
+                    List<TripRepository.TripSchedule> trips =
+                            tripRepository.findPlannedTripsUpdatedAfter(pageAfterTime, pageAfterId, Limit.of(batchSize));
+                    publishChanged(trips, changed);
+                    return trips;
+                });
+                // Committed: these departures are now in the outbox
+                published.putAll(changed);
+                sent += changed.size();
+                if (!page.isEmpty()) {
+                    TripRepository.TripSchedule last = page.get(page.size() - 1);
+                    afterTime = last.getUpdatedAt();
+                    afterId = last.getId();
+                }
+                // Renewed per page, so a long catch-up never outlives the lease
+            } while (page.size() == batchSize && lease.acquireOrRenew());
+            if (page.size() < batchSize) {
+                // Only once all changes were read: a leader that lost the lease leaves the position
+                redisTemplate.opsForValue().set(positionKey, now.toString());
+            }
+            meterRegistry.counter("trip.schedule.published").increment(sent);
+        } catch (RuntimeException e) {
+            // The position did not move, the next pass reads the same rows again
+            log.warn("Trip schedule relay failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    // Writes the outbox messages of the trips whose departure changed, collecting them in changed
+    private void publishChanged(List<TripRepository.TripSchedule> trips, Map<String, Departure> changed) {
+        List<OutboxMessage> messages = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (TripRepository.TripSchedule trip : trips) {
+            Point location = trip.getDepartureLocation();
+            Departure departure = new Departure(trip.getDepartureTime(),
+                    location != null ? location.getY() : null, location != null ? location.getX() : null);
+            if (departure.equals(published.getIfPresent(trip.getId()))) {
+                continue;
+            }
+            changed.put(trip.getId(), departure);
+            messages.add(new OutboxMessage(TripScheduleEvent.TOPIC, trip.getId(), TripScheduleEvent.builder()
+                    .tripId(trip.getId())
+                    .driverId(trip.getDriverId())
+                    .tripStatus(Trip.TripStatus.PLANNED.name())
+                    .departureTime(departure.time())
+                    .departureLatitude(departure.latitude())
+                    .departureLongitude(departure.longitude())
+                    .occurredAt(now)
+                    .build()));
+        }
+        outboxPublisher.publishAll(messages);
+    }
+
+    private LocalDateTime readPosition() {
+        String position = redisTemplate.opsForValue().get(positionKey);
+        // Nothing relayed yet: every planned trip is published once
+        return position != null ? LocalDateTime.parse(position) : EPOCH.plus(overlap);
+    }
+
+    private record Departure(LocalDateTime time, Double latitude, Double longitude) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.axisride.trip.service;
+
+import com.axisride.trip.dto.TripResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a trip search ordered by {@code (departureTime, id)}: the next page starts
+ * strictly after it. Sent to clients as an opaque URL-safe token.
+ */
+public record TripSearchCursor(LocalDateTime departureTime, String id) {
+
+    /**
+     * Start of a search: every trip departing at or after {@code from}, since any id sorts
+     * after the empty string.
+     */
+    public static TripSearchCursor startingAt(LocalDateTime from) {
+        return new TripSearchCursor(from, "");
+    }
+
+    public static TripSearchCursor after(TripResponse trip) {
+        return new TripSearchCursor(trip.getDepartureTime(), trip.getId());
+    }
+
+    public static TripSearchCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf('|');
+            return new TripSearchCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    value.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid search cursor");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((departureTime + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,195 @@
+package com.axisride.trip.service;
+
+import com.axisride.trip.dto.TripCursorPageResponse;
+import com.axisride.trip.dto.TripPageResponse;
+import com.axisride.trip.dto.TripResponse;
+import com.axisride.trip.dto.TripSummaryPageResponse;
+import com.axisride.trip.dto.TripSummaryResponse;
+import com.axisride.trip.entity.Trip;
+import com.axisride.trip.repository.TripRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Point;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class TripService {
+    
+    private final TripRepository tripRepository;
+    private final TripCache tripCache;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    
+    public TripService(TripRepository tripRepository, TripCache tripCache, EntityManager entityManager,
+                       PlatformTransactionManager transactionManager) {
+        this.tripRepository = tripRepository;
+        this.tripCache = tripCache;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    public TripResponse getTrip(String tripId) {
+        TripResponse trip = tripCache.getTrip(tripId,
+                () -> tripRepository.findById(tripId).map(this::toResponse).orElse(null));
+        if (trip == null) {
+            throw new RuntimeException("Trip not found");
+        }
+        return trip;
+    }
+    
+    public TripPageResponse searchTrips(String departureCity, String arrivalCity, LocalDate date,
+                                        int minSeats, int page, int size) {
+        String from = TripCache.normalizeCity(departureCity);
+        String to = TripCache.normalizeCity(arrivalCity);
+        LocalDate day = searchDay(date);
+        
+        return tripCache.getSearch(from, to, day, minSeats, page, size, () -> {
+            LocalDateTime fromDate = searchStart(day);
+            Page<Trip> trips = tripRepository.searchTrips(from, to, fromDate, minSeats, PageRequest.of(page, size));
+            return TripPageResponse.builder()
+                    .content(trips.map(this::toResponse).getContent())
+                    .page(page)
+                    .size(size)
+                    .totalElements(trips.getTotalElements())
+                    .totalPages(trips.getTotalPages())
+                    .build();
+        });
+    }
+    
+    /**
+     * Keyset-paginated search: no {@code COUNT(*)}, and page 50 costs the same as page 1.
+     */
+    public TripCursorPageResponse searchTripsAfter(String departureCity, String arrivalCity, LocalDate date,
+                                                   int minSeats, String cursor, int size) {
+        String from = TripCache.normalizeCity(departureCity);
+        String to = TripCache.normalizeCity(arrivalCity);
+        LocalDate day = searchDay(date);
+        TripSearchCursor position = cursor != null ? TripSearchCursor.decode(cursor) : TripSearchCursor.startingAt(searchStart(day));
+        
+        // The first page starts at "now", so it is cached under a fixed token rather than its cursor
+        String cacheCursor = cursor != null ? position.encode() : "first";
+        return tripCache.getCursorSearch(from, to, day, minSeats, cacheCursor, size, () -> {
+            // One extra row tells whether another page exists
+            List<Trip> trips = tripRepository.searchTripsAfter(from, to, position.departureTime(), position.id(),
+                    minSeats, Limit.of(size + 1));
+            boolean hasMore = trips.size() > size;
+            List<TripResponse> content = trips.stream().limit(size).map(this::toResponse).toList();
+            return TripCursorPageResponse.builder()
+                    .content(content)
+                    .size(size)
+                    .hasMore(hasMore)
+                    .nextCursor(hasMore ? TripSearchCursor.after(content.get(content.size() - 1)).encode() : null)
+                    .build();
+        });
+    }
+    
+    /**
+     * Streams matching trips to {@code sink} as they are read from a database cursor, each
+     * with the cursor that resumes right after it. Entities are detached as soon as they are
+     * mapped so the persistence context stays small however many rows are sent.
+     */
+    public int streamTrips(String departureCity, String arrivalCity, LocalDate date, int minSeats, String cursor,
+                           int limit, BiConsumer<TripResponse, String> sink) {
+        String from = TripCache.normalizeCity(departureCity);
+        String to = TripCache.normalizeCity(arrivalCity);
+        TripSearchCursor position = cursor != null ? TripSearchCursor.decode(cursor) : TripSearchCursor.startingAt(searchStart(searchDay(date)));
+        
+        Integer sent = readOnlyTransaction.execute(status -> {
+            int count = 0;
+            try (Stream<Trip> trips = tripRepository.streamTripsAfter(from, to, position.departureTime(), position.id(),
+                    minSeats, Limit.of(limit))) {
+                Iterator<Trip> iterator = trips.iterator();
+                while (iterator.hasNext()) {
+                    Trip trip = iterator.next();
+                    TripResponse response = toResponse(trip);
+                    entityManager.detach(trip);
+                    sink.accept(response, TripSearchCursor.after(response).encode());
+                    count++;
+                }
+            }
+            return count;
+        });
+        return sent != null ? sent : 0;
+    }
+    
+    public TripSummaryPageResponse getDriverTrips(String driverId, int page, int size) {
+        return toSummaryPage(tripRepository.findSummariesByDriverId(driverId, PageRequest.of(page, size)));
+    }
+    
+    public List<TripSummaryResponse> getUpcomingDriverTrips(String driverId) {
+        return tripRepository.findUpcomingSummariesByDriver(driverId);
+    }
+    
+    public TripSummaryPageResponse getTripsByStatus(Trip.TripStatus status, int page, int size) {
+        return toSummaryPage(tripRepository.findSummariesByStatus(status, PageRequest.of(page, size)));
+    }
+    
+    private static TripSummaryPageResponse toSummaryPage(Slice<TripSummaryResponse> slice) {
+        return TripSummaryPageResponse.builder()
+                .content(slice.getContent())
+                .page(slice.getNumber())
+                .size(slice.getSize())
+                .hasNext(slice.hasNext())
+                .build();
+    }
+    
+    private static LocalDate searchDay(LocalDate date) {
+        return date != null && date.isAfter(LocalDate.now()) ? date : LocalDate.now();
+    }
+    
+    private static LocalDateTime searchStart(LocalDate day) {
+        return day.equals(LocalDate.now()) ? LocalDateTime.now() : day.atStartOfDay();
+    }
+    
+    TripResponse toResponse(Trip trip) {
+        Point departure = trip.getDepartureLocation();
+        Point arrival = trip.getArrivalLocation();
+        
+        return TripResponse.builder()
+                .id(trip.getId())
+                .driverId(trip.getDriverId())
+                .departureAddress(trip.getDepartureAddress())
+                .departureCity(trip.getDepartureCity())
+                .departureLatitude(departure != null ? departure.getY() : null)
+                .departureLongitude(departure != null ? departure.getX() : null)
+                .arrivalAddress(trip.getArrivalAddress())
+                .arrivalCity(trip.getArrivalCity())
+                .arrivalLatitude(arrival != null ? arrival.getY() : null)
+                .arrivalLongitude(arrival != null ? arrival.getX() : null)
+                .departureTime(trip.getDepartureTime())
+                .arrivalTime(trip.getArrivalTime())
+                .availableSeats(trip.getAvailableSeats())
+                .totalSeats(trip.getTotalSeats())
+                .pricePerSeat(trip.getPricePerSeat())
+                .currency(trip.getCurrency())
+                .status(trip.getStatus().name())
+                .description(trip.getDescription())
+                .luggageAllowed(trip.getLuggageAllowed())
+                .petsAllowed(trip.getPetsAllowed())
+                .smokingAllowed(trip.getSmokingAllowed())
+                .musicAllowed(trip.getMusicAllowed())
+                .instantBooking(trip.getInstantBooking())
+                .vehicleType(trip.getVehicleType())
+                .vehicleModel(trip.getVehicleModel())
+                .vehicleColor(trip.getVehicleColor())
+                .licensePlate(trip.getLicensePlate())
+                .distanceKm(trip.getDistanceKm())
+                .durationMinutes(trip.getDurationMinutes())
+                .build();
+    }
+}
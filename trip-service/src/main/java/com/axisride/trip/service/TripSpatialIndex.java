@@ -0,0 +1,277 @@
+package com.axisride.trip.service;
+
+import com.axisride.trip.dto.NearbyTripResponse;
+import com.axisride.trip.entity.Trip;
+import com.axisride.trip.event.TripChangedEvent;
+import com.axisride.trip.event.TripSeatsChangedEvent;
+import com.axisride.trip.repository.TripRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Point;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory grid index of PLANNED trips keyed by their departure point.
+ * <p>
+ * The globe is cut into square lat/lon cells of {@code trip.search.nearby.cell-size-degrees};
+ * a radius query only visits the handful of cells overlapping the search circle, so
+ * "trips near me" never reaches Postgres. The index follows {@link TripChangedEvent}s after
+ * commit and is fully resynchronised from the database on a fixed delay to pick up
+ * changes made by other instances.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TripSpatialIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+
+    private final TripRepository tripRepository;
+
+    private final Map<String, IndexedTrip> tripsById = new ConcurrentHashMap<>();
+    private final Map<Long, Map<String, IndexedTrip>> cells = new ConcurrentHashMap<>();
+
+    @Value("${trip.search.nearby.cell-size-degrees:0.1}")
+    private double cellSizeDegrees;
+
+    @Value("${trip.search.nearby.max-radius-km:100}")
+    private double maxRadiusKm;
+
+    @Scheduled(fixedDelayString = "${trip.search.nearby.resync-interval-ms:300000}")
+    public void resync() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Trip> plannedTrips = tripRepository.findByStatusAndDepartureTimeAfter(Trip.TripStatus.PLANNED, now);
+
+        Set<String> liveIds = new HashSet<>();
+        for (Trip trip : plannedTrips) {
+            liveIds.add(trip.getId());
+            upsert(trip);
+        }
+        for (IndexedTrip indexed : tripsById.values()) {
+            if (!liveIds.contains(indexed.id()) && isOlderThan(indexed, now)) {
+                remove(indexed.id());
+            }
+        }
+        log.debug("Trip spatial index resynchronised: {} planned trips indexed", tripsById.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTripChanged(TripChangedEvent event) {
+        Trip trip = event.getTrip();
+        if (event.getChangeType() == TripChangedEvent.ChangeType.DELETED) {
+            remove(trip.getId());
+        } else {
+            upsert(trip);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsChanged(TripSeatsChangedEvent event) {
+        tripsById.computeIfPresent(event.getTripId(), (id, existing) -> {
+            IndexedTrip updated = existing.withAvailableSeats(event.getAvailableSeats());
+            cells.computeIfPresent(cellKeyOf(updated), (key, cell) -> {
+                cell.put(id, updated);
+                return cell;
+            });
+            return updated;
+        });
+    }
+
+    /**
+     * Returns PLANNED trips departing within {@code radiusKm} of the given point, inside the
+     * time window and with at least {@code minSeats} free seats, ordered by departure time.
+     */
+    public List<NearbyTripResponse> findNearby(double latitude, double longitude, double radiusKm,
+                                               LocalDateTime from, LocalDateTime to,
+                                               int minSeats, int limit) {
+        double radius = Math.min(radiusKm, maxRadiusKm);
+        double latDelta = radius / KM_PER_DEGREE_LAT;
+        double lonDelta = latDelta / Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+
+        int minLatIdx = Math.max(latIndex(latitude - latDelta), 0);
+        int maxLatIdx = Math.min(latIndex(latitude + latDelta), latCellCount() - 1);
+        int minLonIdx = lonIndex(longitude - lonDelta);
+        int lonSpan = Math.min(lonIndex(longitude + lonDelta) - minLonIdx, lonCellCount() - 1);
+
+        List<Match> matches = new ArrayList<>();
+        for (int latIdx = minLatIdx; latIdx <= maxLatIdx; latIdx++) {
+            for (int step = 0; step <= lonSpan; step++) {
+                Map<String, IndexedTrip> cell = cells.get(cellKey(latIdx, Math.floorMod(minLonIdx + step, lonCellCount())));
+                if (cell == null) {
+                    continue;
+                }
+                for (IndexedTrip trip : cell.values()) {
+                    if (trip.availableSeats() < minSeats
+                            || trip.departureTime().isBefore(from)
+                            || (to != null && trip.departureTime().isAfter(to))) {
+                        continue;
+                    }
+                    double distance = haversineKm(latitude, longitude, trip.latitude(), trip.longitude());
+                    if (distance <= radius) {
+                        matches.add(new Match(trip, distance));
+                    }
+                }
+            }
+        }
+
+        return matches.stream()
+                .sorted(Comparator.comparing((Match m) -> m.trip().departureTime())
+                        .thenComparingDouble(Match::distanceKm))
+                .limit(limit)
+                .map(this::toResponse)
+                .toList();
+    }
+
+    public int size() {
+        return tripsById.size();
+    }
+
+    private void upsert(Trip trip) {
+        Point location = trip.getDepartureLocation();
+        if (trip.getStatus() != Trip.TripStatus.PLANNED
+                || location == null
+                || trip.getDepartureTime() == null
+                || trip.getDepartureTime().isBefore(LocalDateTime.now())) {
+            remove(trip.getId());
+            return;
+        }
+
+        IndexedTrip candidate = new IndexedTrip(
+                trip.getId(),
+                trip.getDriverId(),
+                trip.getDepartureCity(),
+                trip.getArrivalCity(),
+                location.getY(),
+                location.getX(),
+                trip.getDepartureTime(),
+                trip.getAvailableSeats(),
+                trip.getPricePerSeat(),
+                trip.getCurrency(),
+                trip.getUpdatedAt()
+        );
+
+        tripsById.compute(trip.getId(), (id, existing) -> {
+            if (existing != null && isNewer(existing, candidate)) {
+                return existing;
+            }
+            if (existing != null) {
+                removeFromCell(existing);
+            }
+            cells.compute(cellKeyOf(candidate), (key, cell) -> {
+                Map<String, IndexedTrip> target = cell != null ? cell : new ConcurrentHashMap<>();
+                target.put(id, candidate);
+                return target;
+            });
+            return candidate;
+        });
+    }
+
+    private void remove(String tripId) {
+        tripsById.computeIfPresent(tripId, (id, existing) -> {
+            removeFromCell(existing);
+            return null;
+        });
+    }
+
+    private void removeFromCell(IndexedTrip trip) {
+        cells.computeIfPresent(cellKeyOf(trip), (key, cell) -> {
+            cell.remove(trip.id());
+            return cell.isEmpty() ? null : cell;
+        });
+    }
+
+    private boolean isNewer(IndexedTrip existing, IndexedTrip candidate) {
+        return existing.updatedAt() != null && candidate.updatedAt() != null
+                && existing.updatedAt().isAfter(candidate.updatedAt());
+    }
+
+    private boolean isOlderThan(IndexedTrip trip, LocalDateTime instant) {
+        return trip.updatedAt() == null || trip.updatedAt().isBefore(instant);
+    }
+
+    private long cellKeyOf(IndexedTrip trip) {
+        return cellKey(latIndex(trip.latitude()), Math.floorMod(lonIndex(trip.longitude()), lonCellCount()));
+    }
+
+    private long cellKey(int latIdx, int lonIdx) {
+        return ((long) latIdx << 32) | (lonIdx & 0xFFFFFFFFL);
+    }
+
+    private int latIndex(double latitude) {
+        return (int) Math.floor((latitude + 90.0) / cellSizeDegrees);
+    }
+
+    private int lonIndex(double longitude) {
+        return (int) Math.floor((longitude + 180.0) / cellSizeDegrees);
+    }
+
+    private int latCellCount() {
+        return (int) Math.ceil(180.0 / cellSizeDegrees);
+    }
+
+    private int lonCellCount() {
+        return (int) Math.ceil(360.0 / cellSizeDegrees);
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private NearbyTripResponse toResponse(Match match) {
+        IndexedTrip trip = match.trip();
+        return NearbyTripResponse.builder()
+                .id(trip.id())
+                .driverId(trip.driverId())
+                .departureCity(trip.departureCity())
+                .arrivalCity(trip.arrivalCity())
+                .departureLatitude(trip.latitude())
+                .departureLongitude(trip.longitude())
+                .distanceKm(Math.round(match.distanceKm() * 100.0) / 100.0)
+                .departureTime(trip.departureTime())
+                .availableSeats(trip.availableSeats())
+                .pricePerSeat(trip.pricePerSeat())
+                .currency(trip.currency())
+                .build();
+    }
+
+    private record IndexedTrip(
+            String id,
+            String driverId,
+            String departureCity,
+            String arrivalCity,
+            double latitude,
+            double longitude,
+            LocalDateTime departureTime,
+            int availableSeats,
+            BigDecimal pricePerSeat,
+            String currency,
+            LocalDateTime updatedAt
+    ) {
+        IndexedTrip withAvailableSeats(int seats) {
+            return new IndexedTrip(id, driverId, departureCity, arrivalCity, latitude, longitude,
+                    departureTime, seats, pricePerSeat, currency, LocalDateTime.now());
+        }
+    }
+
+    private record Match(IndexedTrip trip, double distanceKm) {
+    }
+}
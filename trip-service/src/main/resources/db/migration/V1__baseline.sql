@@ -0,0 +1,62 @@
+-- Schema as previously created by hibernate.ddl-auto=update, before any migration existed.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and
+-- start at V2.
+
+CREATE EXTENSION IF NOT EXISTS postgis;
+
+CREATE TABLE IF NOT EXISTS trips (
+    id                 VARCHAR(255)  PRIMARY KEY,
+    driver_id          VARCHAR(255)  NOT NULL,
+    departure_address  VARCHAR(500)  NOT NULL,
+    departure_city     VARCHAR(100)  NOT NULL,
+    departure_location geography(Point, 4326),
+    arrival_address    VARCHAR(500)  NOT NULL,
+    arrival_city       VARCHAR(100)  NOT NULL,
+    arrival_location   geography(Point, 4326),
+    departure_time     TIMESTAMP(6)  NOT NULL,
+    arrival_time       TIMESTAMP(6),
+    available_seats    INTEGER       NOT NULL,
+    total_seats        INTEGER       NOT NULL,
+    price_per_seat     NUMERIC(10, 2) NOT NULL,
+    currency           VARCHAR(3)    NOT NULL,
+    status             VARCHAR(20)   NOT NULL,
+    description        VARCHAR(1000),
+    luggage_allowed    BOOLEAN,
+    pets_allowed       BOOLEAN,
+    smoking_allowed    BOOLEAN,
+    music_allowed      BOOLEAN,
+    instant_booking    BOOLEAN,
+    vehicle_type       VARCHAR(50),
+    vehicle_model      VARCHAR(100),
+    vehicle_color      VARCHAR(50),
+    license_plate      VARCHAR(20),
+    distance_km        NUMERIC(10, 2),
+    duration_minutes   INTEGER,
+    created_at         TIMESTAMP(6)  NOT NULL,
+    updated_at         TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id                  VARCHAR(255)   PRIMARY KEY,
+    trip_id             VARCHAR(255)   NOT NULL REFERENCES trips (id),
+    passenger_id        VARCHAR(255)   NOT NULL,
+    seats_booked        INTEGER        NOT NULL,
+    total_price         NUMERIC(10, 2) NOT NULL,
+    status              VARCHAR(20)    NOT NULL,
+    pickup_address      VARCHAR(500),
+    dropoff_address     VARCHAR(500),
+    passenger_notes     VARCHAR(1000),
+    payment_id          VARCHAR(255),
+    payment_status      VARCHAR(20),
+    cancelled_by        VARCHAR(255),
+    cancellation_reason VARCHAR(1000),
+    cancelled_at        TIMESTAMP(6),
+    created_at          TIMESTAMP(6)   NOT NULL,
+    updated_at          TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_driver_id ON trips (driver_id);
+CREATE INDEX IF NOT EXISTS idx_status ON trips (status);
+CREATE INDEX IF NOT EXISTS idx_departure_time ON trips (departure_time);
+CREATE INDEX IF NOT EXISTS idx_trip_id ON bookings (trip_id);
+CREATE INDEX IF NOT EXISTS idx_passenger_id ON bookings (passenger_id);
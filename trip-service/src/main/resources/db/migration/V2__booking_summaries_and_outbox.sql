@@ -0,0 +1,17 @@
+-- Seat totals kept per trip by TripBookingSummaryService, and the transactional outbox of
+-- common-outbox (outbox.initialize-schema is off here, the table is created by Flyway).
+CREATE TABLE IF NOT EXISTS trip_booking_summaries (
+    trip_id            VARCHAR(255) PRIMARY KEY,
+    confirmed_seats    INTEGER      NOT NULL,
+    pending_seats      INTEGER      NOT NULL,
+    confirmed_bookings INTEGER      NOT NULL,
+    updated_at         TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id          BIGSERIAL PRIMARY KEY,
+    topic       VARCHAR(200) NOT NULL,
+    message_key VARCHAR(200),
+    payload     BYTEA        NOT NULL,
+    created_at  TIMESTAMP    NOT NULL DEFAULT now()
+);
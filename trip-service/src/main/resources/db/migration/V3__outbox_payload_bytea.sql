@@ -0,0 +1,12 @@
+-- Where common-outbox created the outbox table before the binary event codec, V2 kept it
+-- with the payload as TEXT. Rows still pending keep their JSON bytes,
+-- which binary consumers cannot decode: let the relay drain the outbox before upgrading.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = 'outbox_events'
+                 AND column_name = 'payload' AND data_type = 'text') THEN
+        ALTER TABLE outbox_events ALTER COLUMN payload TYPE BYTEA USING convert_to(payload, 'UTF8');
+    END IF;
+END
+$$;
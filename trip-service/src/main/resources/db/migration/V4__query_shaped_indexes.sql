@@ -0,0 +1,49 @@
+-- Indexes matched to the queries trip-service actually runs; the queryPlanCheck task plans
+-- those queries against a migrated database.
+--
+-- Built CONCURRENTLY so trips and bookings stay writable, which cannot run in a transaction
+-- (see the .conf file). A build that fails leaves an INVALID index behind: drop it before
+-- running the migration again.
+
+-- searchTrips / searchTripsAfter / streamTripsAfter: equality on the route, range and
+-- order on (departure_time, id), only ever for PLANNED trips. Seats are filtered from
+-- the index without visiting the heap.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_trips_planned_route
+    ON trips (departure_city, arrival_city, departure_time, id)
+    INCLUDE (available_seats)
+    WHERE status = 'PLANNED';
+
+-- findSummariesByDriverId (newest first), findUpcomingSummariesByDriver, findByDriverId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_trips_driver_departure ON trips (driver_id, departure_time, id);
+
+-- findSummariesByStatus, findByStatusAndDepartureTimeAfter (spatial index resync)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_trips_status_departure ON trips (status, departure_time, id);
+
+-- findPlannedTripsWithoutRoute: stays tiny, rows leave it once enriched
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_trips_planned_without_route
+    ON trips (departure_time)
+    WHERE status = 'PLANNED' AND distance_km IS NULL;
+
+-- Radius queries on pickup and drop-off points
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_trips_departure_location ON trips USING GIST (departure_location);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_trips_arrival_location ON trips USING GIST (arrival_location);
+
+-- findActivebookingsByTrip, sum/count by trip and status, summary reconciliation
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bookings_trip_status ON bookings (trip_id, status) INCLUDE (seats_booked);
+
+-- findByPassengerId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bookings_passenger_created ON bookings (passenger_id, created_at);
+
+-- Single-column indexes superseded above, dropped once their replacements exist. Booking's
+-- idx_status never existed: index names are schema-wide in Postgres and Trip's idx_status
+-- took it. idx_route_departure only exists where a build between V1 and Flyway let ddl-auto
+-- create it.
+DROP INDEX CONCURRENTLY IF EXISTS idx_driver_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_status;
+DROP INDEX CONCURRENTLY IF EXISTS idx_departure_time;
+DROP INDEX CONCURRENTLY IF EXISTS idx_route_departure;
+DROP INDEX CONCURRENTLY IF EXISTS idx_trip_id;
+DROP INDEX CONCURRENTLY IF EXISTS idx_passenger_id;
+
+ANALYZE trips;
+ANALYZE bookings;
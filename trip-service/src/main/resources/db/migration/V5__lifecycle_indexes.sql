@@ -0,0 +1,11 @@
+-- Incremental refill of TripLifecycleScheduler: open trips changed since the last refill.
+-- Other deadline queries use idx_trips_status_departure. Built CONCURRENTLY, outside of a
+-- transaction (see the .conf file), like V4.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_trips_open_updated
+    ON trips (updated_at)
+    WHERE status IN ('PLANNED', 'ACTIVE');
+
+-- Booking hold expiry: pending bookings only, by creation time
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bookings_pending_created
+    ON bookings (created_at)
+    WHERE status = 'PENDING';
@@ -0,0 +1,9 @@
+-- Booking hold expiry refill: pending bookings by the time they were written, which
+-- BookingBatchWriter stamps in updated_at, rather than by creation time, which can be older
+-- than the refill window when bookings wait in the write-behind queue. Built CONCURRENTLY,
+-- outside of a transaction (see the .conf file), like V4.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bookings_pending_updated
+    ON bookings (updated_at)
+    WHERE status = 'PENDING';
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_bookings_pending_created;
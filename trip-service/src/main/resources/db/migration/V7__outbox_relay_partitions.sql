@@ -0,0 +1,15 @@
+-- Claims and partition leases of the outbox relay (see OutboxRelay in common-outbox): rows are
+-- claimed for the time of a send instead of being locked, and each message key partition is
+-- relayed by one instance at a time.
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS claimed_until TIMESTAMP;
+
+CREATE TABLE IF NOT EXISTS outbox_relay_partitions (
+    partition_id INTEGER PRIMARY KEY,
+    owner        VARCHAR(64),
+    lease_until  TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS outbox_relays (
+    owner       VARCHAR(64) PRIMARY KEY,
+    alive_until TIMESTAMP   NOT NULL
+);
@@ -0,0 +1,13 @@
+-- Stores a trip cache entry unless an invalidation moved its generation after the entry was
+-- loaded, so a load that raced with a change never puts the old value back.
+-- KEYS[1]  entry key
+-- KEYS[2]  generation key of the route or trip
+-- ARGV[1]  generation read before loading, '0' when there was none
+-- ARGV[2]  entry value
+-- ARGV[3]  entry ttl in milliseconds
+-- Returns 1 if the entry was stored, 0 otherwise
+if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then
+  return 0
+end
+redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+return 1
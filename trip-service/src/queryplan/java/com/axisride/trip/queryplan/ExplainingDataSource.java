@@ -0,0 +1,101 @@
+package com.axisride.trip.queryplan;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data source that, while {@link #capture} is set on the calling thread, plans every SELECT
+ * before running it: the statement Hibernate prepared is re-prepared as
+ * {@code EXPLAIN (FORMAT JSON)} on the same connection with the same parameters, with
+ * {@code enable_seqscan} off for the rest of the transaction.
+ */
+class ExplainingDataSource extends DelegatingDataSource {
+
+    static final ThreadLocal<List<Plan>> capture = new ThreadLocal<>();
+
+    ExplainingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return explaining(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return explaining(super.getConnection(username, password));
+    }
+
+    private static Connection explaining(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(ExplainingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (method.getName().equals("prepareStatement") && args[0] instanceof String sql) {
+                        return explaining(connection, (PreparedStatement) result, sql);
+                    }
+                    return result;
+                });
+    }
+
+    private static PreparedStatement explaining(Connection connection, PreparedStatement statement, String sql) {
+        // Parameter setters in call order, replayed on the EXPLAIN statement
+        List<Object[]> setters = new ArrayList<>();
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length > 1 && args[0] instanceof Integer) {
+                setters.add(new Object[]{method, args});
+            } else if (name.equals("clearParameters")) {
+                setters.clear();
+            } else if (name.equals("executeQuery") && args == null) {
+                List<Plan> plans = capture.get();
+                if (plans != null) {
+                    plans.add(new Plan(sql, explain(connection, sql, setters)));
+                }
+            }
+            return invoke(statement, method, args);
+        };
+        return (PreparedStatement) Proxy.newProxyInstance(ExplainingDataSource.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, handler);
+    }
+
+    private static String explain(Connection connection, String sql, List<Object[]> setters) throws SQLException {
+        try (Statement settings = connection.createStatement()) {
+            settings.execute("SET LOCAL enable_seqscan = off");
+        }
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + sql)) {
+            for (Object[] setter : setters) {
+                invoke(explain, (Method) setter[0], (Object[]) setter[1]);
+            }
+            try (ResultSet plan = explain.executeQuery()) {
+                plan.next();
+                return plan.getString(1);
+            }
+        } catch (Throwable e) {
+            throw e instanceof SQLException sqlException ? sqlException : new SQLException(e);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    record Plan(String sql, String json) {
+    }
+}
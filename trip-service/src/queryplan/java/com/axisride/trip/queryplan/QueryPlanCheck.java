@@ -0,0 +1,152 @@
+package com.axisride.trip.queryplan;
+
+import com.axisride.trip.entity.Trip;
+import com.axisride.trip.repository.BookingRepository;
+import com.axisride.trip.repository.TripRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EXPLAIN-based guard for the hot trip-service queries, run by the {@code queryPlanCheck}
+ * Gradle task against a migrated database (the {@code DB_*} settings of trip-service).
+ * <p>
+ * Each check calls the repository method itself, so the plans are those of the SQL Hibernate
+ * actually generates. Plans are made with {@code enable_seqscan = off}, which makes the
+ * planner take any usable index however small the tables are; a sequential scan left in such
+ * a plan means no index matches the query shape any more, and the task fails.
+ */
+@SpringBootConfiguration
+@ImportAutoConfiguration({DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class, FlywayAutoConfiguration.class, TransactionAutoConfiguration.class})
+@EntityScan("com.axisride.trip.entity")
+@EnableJpaRepositories("com.axisride.trip.repository")
+public class QueryPlanCheck {
+
+    private static final String ANY_ID = "00000000-0000-0000-0000-000000000000";
+
+    public static void main(String[] args) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(QueryPlanCheck.class)
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            TripRepository trips = context.getBean(TripRepository.class);
+            BookingRepository bookings = context.getBean(BookingRepository.class);
+            TransactionTemplate transactionTemplate =
+                    new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            LocalDateTime now = LocalDateTime.now();
+
+            Map<String, Runnable> checks = new LinkedHashMap<>();
+            checks.put("TripRepository.searchTrips", () ->
+                    trips.searchTrips("Yaounde", "Douala", now, 1, PageRequest.of(0, 20)));
+            checks.put("TripRepository.searchTripsAfter", () ->
+                    trips.searchTripsAfter("Yaounde", "Douala", now, ANY_ID, 1, Limit.of(21)));
+            checks.put("TripRepository.findSummariesByDriverId", () ->
+                    trips.findSummariesByDriverId(ANY_ID, PageRequest.of(0, 20)));
+            checks.put("TripRepository.findUpcomingSummariesByDriver", () ->
+                    trips.findUpcomingSummariesByDriver(ANY_ID));
+            checks.put("TripRepository.findSummariesByStatus", () ->
+                    trips.findSummariesByStatus(Trip.TripStatus.PLANNED, PageRequest.of(0, 20)));
+            checks.put("TripRepository.findPlannedTripsWithoutRoute", () ->
+                    trips.findPlannedTripsWithoutRoute(PageRequest.of(0, 200)));
+            checks.put("TripRepository.findPlannedDeparturesBetween", () ->
+                    trips.findPlannedDeparturesBetween(now, now.plusHours(2)));
+            checks.put("TripRepository.findActiveTripDeadlines", trips::findActiveTripDeadlines);
+            checks.put("TripRepository.findOpenTripsUpdatedSince", () -> trips.findOpenTripsUpdatedSince(now));
+            checks.put("TripRepository.findPlannedTripsUpdatedAfter", () ->
+                    trips.findPlannedTripsUpdatedAfter(now, ANY_ID, Limit.of(500)));
+            checks.put("BookingRepository.findActivebookingsByTrip", () -> bookings.findActivebookingsByTrip(ANY_ID));
+            checks.put("BookingRepository.sumBookedSeatsByTrip", () -> bookings.sumBookedSeatsByTrip(ANY_ID));
+            checks.put("BookingRepository.findPendingUpdatedSince", () -> bookings.findPendingUpdatedSince(now));
+            checks.put("BookingRepository.findByPassengerId", () -> bookings.findByPassengerId(ANY_ID));
+
+            ObjectMapper objectMapper = new ObjectMapper();
+            List<String> offenders = new ArrayList<>();
+            checks.forEach((name, check) -> {
+                List<ExplainingDataSource.Plan> plans = plan(transactionTemplate, check);
+                if (plans.isEmpty()) {
+                    offenders.add(name + " ran no query");
+                }
+                for (ExplainingDataSource.Plan plan : plans) {
+                    List<String> scans = new ArrayList<>();
+                    try {
+                        collectSequentialScans(objectMapper.readTree(plan.json()).get(0).get("Plan"), scans);
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Cannot read plan of " + plan.sql(), e);
+                    }
+                    if (!scans.isEmpty()) {
+                        offenders.add(name + " scans " + String.join(", ", scans) + " in: " + plan.sql());
+                    }
+                }
+            });
+
+            if (!offenders.isEmpty()) {
+                System.err.println("Hot queries fall back to sequential scans:");
+                offenders.forEach(offender -> System.err.println("  " + offender));
+                System.exit(1);
+            }
+            System.out.println("Query plan check passed for " + checks.size() + " hot queries");
+        }
+    }
+
+    @Bean
+    static BeanPostProcessor explainingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof ExplainingDataSource)
+                        ? new ExplainingDataSource(dataSource) : bean;
+            }
+        };
+    }
+
+    // Runs the check in a transaction that is rolled back, collecting the plans of its SELECTs
+    private static List<ExplainingDataSource.Plan> plan(TransactionTemplate transactionTemplate, Runnable check) {
+        List<ExplainingDataSource.Plan> plans = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            ExplainingDataSource.capture.set(plans);
+            try {
+                check.run();
+            } finally {
+                ExplainingDataSource.capture.remove();
+                status.setRollbackOnly();
+            }
+        });
+        return plans;
+    }
+
+    private static void collectSequentialScans(JsonNode node, List<String> scans) {
+        if (node == null) {
+            return;
+        }
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            scans.add(node.path("Relation Name").asText("?"));
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSequentialScans(child, scans);
+        }
+    }
+}
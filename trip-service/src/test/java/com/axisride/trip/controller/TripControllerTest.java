@@ -0,0 +1,66 @@
+package com.axisride.trip.controller;
+
+import com.axisride.trip.entity.Trip;
+import com.axisride.trip.service.TripLifecycleService;
+import com.axisride.trip.service.TripService;
+import com.axisride.trip.service.TripSpatialIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TripControllerTest {
+
+    private final TripService tripService = mock(TripService.class);
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        TripController controller = new TripController(tripService, mock(TripSpatialIndex.class),
+                mock(TripLifecycleService.class), new ObjectMapper());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/trips/search?from=Yaounde&to=Douala&page=-1",
+            "/trips/search?from=Yaounde&to=Douala&size=0",
+            "/trips?page=-1",
+            "/trips?size=0",
+            "/trips/driver/me?page=-1",
+            "/trips/driver/me?size=-5"
+    })
+    void rejectsNegativePagesAndEmptySizes(String url) throws Exception {
+        mockMvc.perform(get(url).header("X-User-Id", "driver-1"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(tripService);
+    }
+
+    @Test
+    void acceptsFirstPageAndCapsTheSize() throws Exception {
+        mockMvc.perform(get("/trips/search?from=Yaounde&to=Douala&page=0&size=500"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/trips?page=0&size=1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/trips/driver/me?page=3&size=20").header("X-User-Id", "driver-1"))
+                .andExpect(status().isOk());
+
+        verify(tripService).searchTrips(eq("Yaounde"), eq("Douala"), any(), anyInt(), eq(0), eq(50));
+        verify(tripService).getTripsByStatus(Trip.TripStatus.PLANNED, 0, 1);
+        verify(tripService).getDriverTrips("driver-1", 3, 20);
+    }
+}
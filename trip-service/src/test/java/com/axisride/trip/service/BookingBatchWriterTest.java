@@ -0,0 +1,196 @@
+package com.axisride.trip.service;
+
+import com.axisride.outbox.OutboxPublisher;
+import com.axisride.trip.entity.Booking;
+import com.axisride.trip.entity.Trip;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BookingBatchWriterTest {
+
+    private static final Trip TRIP = Trip.builder()
+            .id("trip-1")
+            .driverId("driver-1")
+            .departureCity("Yaounde")
+            .arrivalCity("Douala")
+            .currency("XAF")
+            .build();
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private SeatInventory seatInventory;
+    @Mock
+    private TripBookingSummaryService summaryService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    private BookingBatchWriter writer;
+    // Ids of the bookings inserted by committed batches, and by the batch in progress
+    private final List<String> inserted = new ArrayList<>();
+    private final List<String> pendingRows = new ArrayList<>();
+    private final Set<String> poisoned = new HashSet<>();
+    private final AtomicBoolean databaseDown = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        writer = new BookingBatchWriter(jdbcTemplate, transactionTemplate, seatInventory, summaryService,
+                eventPublisher, outboxPublisher);
+        ReflectionTestUtils.setField(writer, "capacity", 100);
+        ReflectionTestUtils.setField(writer, "batchSize", 100);
+        ReflectionTestUtils.setField(writer, "retryBackoffMs", 0L);
+        ReflectionTestUtils.setField(writer, "maxBackoffMs", 0L);
+        writer.init();
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            if (databaseDown.get()) {
+                throw new CannotGetJdbcConnectionException("Connection refused");
+            }
+            return commit(invocation.getArgument(0));
+        });
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), any(Object[].class)))
+                .thenReturn(List.of(10));
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            pendingRows.clear();
+            for (Object row : invocation.<Collection<?>>getArgument(1)) {
+                Booking booking = (Booking) row;
+                if (poisoned.contains(booking.getId())) {
+                    throw new DataIntegrityViolationException("value too long for type character varying(1000)");
+                }
+                pendingRows.add(booking.getId());
+            }
+            return new int[0][];
+        });
+    }
+
+    @Test
+    void writesQueuedBookingsInOneBatch() {
+        writer.enqueue(booking("b1", 1));
+        writer.enqueue(booking("b2", 2));
+
+        writer.flush();
+
+        assertThat(inserted).containsExactly("b1", "b2");
+        verify(seatInventory, never()).release(anyString(), anyInt());
+    }
+
+    @Test
+    void dropsTheRowThatCannotBeWrittenAndWritesTheRest() {
+        poisoned.add("b2");
+        writer.enqueue(booking("b1", 1));
+        writer.enqueue(booking("b2", 2));
+        writer.enqueue(booking("b3", 3));
+
+        writer.flush();
+
+        assertThat(inserted).containsExactly("b1", "b3");
+        verify(seatInventory).release("trip-1", 2);
+
+        // Nothing is left behind to retry, the queue keeps draining
+        writer.enqueue(booking("b4", 1));
+        writer.flush();
+        assertThat(inserted).containsExactly("b1", "b3", "b4");
+    }
+
+    @Test
+    void keepsTheBatchWhileTheDatabaseIsDown() {
+        databaseDown.set(true);
+        writer.enqueue(booking("b1", 1));
+        writer.enqueue(booking("b2", 2));
+
+        writer.flush();
+
+        assertThat(inserted).isEmpty();
+        verify(seatInventory, never()).release(anyString(), anyInt());
+
+        databaseDown.set(false);
+        writer.enqueue(booking("b3", 1));
+        writer.flush();
+
+        // The failed batch goes first, then the queue
+        assertThat(inserted).containsExactly("b1", "b2", "b3");
+    }
+
+    @Test
+    void keepsTheRestForRetryWhenTheDatabaseFailsWhileSplitting() {
+        writer.enqueue(booking("b1", 1));
+        writer.enqueue(booking("b2", 2));
+        writer.enqueue(booking("b3", 3));
+        doThrow(new DataIntegrityViolationException("batch"))
+                .doThrow(new DataIntegrityViolationException("b1"))
+                .doThrow(new CannotGetJdbcConnectionException("Connection refused"))
+                .doAnswer(invocation -> commit(invocation.getArgument(0)))
+                .when(transactionTemplate).execute(any());
+
+        writer.flush();
+
+        assertThat(inserted).isEmpty();
+        verify(seatInventory).release("trip-1", 1);
+
+        writer.flush();
+
+        assertThat(inserted).containsExactly("b2", "b3");
+    }
+
+    // Runs the callback; its rows only count as inserted once it returned
+    private Object commit(TransactionCallback<?> callback) {
+        pendingRows.clear();
+        Object result = callback.doInTransaction(null);
+        inserted.addAll(pendingRows);
+        pendingRows.clear();
+        return result;
+    }
+
+    private static Booking booking(String id, int seats) {
+        LocalDateTime now = LocalDateTime.now();
+        return Booking.builder()
+                .id(id)
+                .trip(TRIP)
+                .passengerId("passenger-" + id)
+                .seatsBooked(seats)
+                .totalPrice(BigDecimal.valueOf(1000L * seats))
+                .status(Booking.BookingStatus.PENDING)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+}
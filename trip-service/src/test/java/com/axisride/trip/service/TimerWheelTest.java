@@ -0,0 +1,87 @@
+package com.axisride.trip.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimerWheelTest {
+
+    private static final long TICK = 100;
+    private static final long START = 1_000_000;
+
+    private final TimerWheel<String> wheel = new TimerWheel<>(TICK, 8, START);
+
+    @Test
+    void expiresKeysInDeadlineOrder() {
+        wheel.schedule("c", START + 750);
+        wheel.schedule("a", START + 150);
+        wheel.schedule("b", START + 420);
+
+        List<String> expired = new ArrayList<>();
+        for (long now = START; now <= START + 1000; now += TICK) {
+            expired.addAll(wheel.advance(now));
+        }
+
+        assertThat(expired).containsExactly("a", "b", "c");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void neverFiresBeforeTheDeadline() {
+        wheel.schedule("a", START + 250);
+
+        assertThat(wheel.advance(START + 200)).isEmpty();
+        assertThat(wheel.advance(START + 299)).isEmpty();
+        assertThat(wheel.advance(START + 300)).containsExactly("a");
+    }
+
+    @Test
+    void waitsFullTurnsForDistantDeadlines() {
+        // 8 slots of 100 ms: two and a half turns away
+        wheel.schedule("far", START + 2050);
+        wheel.schedule("near", START + 50);
+
+        assertThat(wheel.advance(START + 100)).containsExactly("near");
+        assertThat(wheel.advance(START + 2000)).isEmpty();
+        assertThat(wheel.advance(START + 2100)).containsExactly("far");
+    }
+
+    @Test
+    void firesPastDeadlinesOnTheNextTick() {
+        wheel.advance(START + 500);
+        wheel.schedule("late", START + 100);
+
+        assertThat(wheel.advance(START + 599)).isEmpty();
+        assertThat(wheel.advance(START + 600)).containsExactly("late");
+    }
+
+    @Test
+    void reschedulingReplacesTheDeadline() {
+        wheel.schedule("a", START + 100);
+        wheel.schedule("a", START + 300);
+
+        assertThat(wheel.advance(START + 200)).isEmpty();
+        assertThat(wheel.advance(START + 300)).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelledKeysNeverFire() {
+        wheel.schedule("a", START + 100);
+        wheel.schedule("b", START + 100);
+        wheel.cancel("a");
+
+        assertThat(wheel.advance(START + 1000)).containsExactly("b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void rejectsSlotCountsThatAreNotPowersOfTwo() {
+        assertThatThrownBy(() -> new TimerWheel<String>(TICK, 6, START))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,239 @@
+package com.axisride.trip.service;
+
+import com.axisride.trip.dto.TripPageResponse;
+import com.axisride.trip.dto.TripResponse;
+import com.axisride.trip.entity.Trip;
+import com.axisride.trip.event.TripChangedEvent;
+import com.axisride.trip.event.TripSeatsChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TripCacheTest {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 11, 2);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final FakeRedis redis = new FakeRedis();
+    private TripCache cache;
+    private TripCache otherInstance;
+
+    @BeforeEach
+    void setUp() {
+        cache = newCache();
+        otherInstance = newCache();
+    }
+
+    @Test
+    void loadRacingWithAnInvalidationIsNotStored() {
+        TripResponse stale = cache.getTrip("t1", () -> {
+            // The change commits while this load still holds the old row
+            cache.onSeatsChanged(new TripSeatsChangedEvent("t1", "Yaounde", "Douala", 2));
+            return trip("t1", 3);
+        });
+
+        assertThat(stale.getAvailableSeats()).isEqualTo(3);
+        assertThat(redis.strings).doesNotContainKey("trip:byid:t1");
+        AtomicInteger loads = new AtomicInteger();
+        assertThat(cache.getTrip("t1", () -> {
+            loads.incrementAndGet();
+            return trip("t1", 2);
+        }).getAvailableSeats()).isEqualTo(2);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void pageLoadRacingWithASeatChangeOnItsRouteIsNotStored() {
+        cache.getSearch("Yaounde", "Douala", DATE, 1, 0, 20, () -> {
+            cache.onSeatsChanged(new TripSeatsChangedEvent("t9", "Yaounde", "Douala", 0));
+            return page(trip("t9", 1));
+        });
+
+        assertThat(redis.strings.keySet()).noneMatch(key -> key.startsWith("trip:search:"));
+    }
+
+    @Test
+    void seatChangeOnlyDropsThePagesShowingTheTrip() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.getSearch("Yaounde", "Douala", DATE, 1, 0, 20, () -> counted(loads, page(trip("t1", 3))));
+        cache.getSearch("Yaounde", "Douala", DATE, 1, 1, 20, () -> counted(loads, page(trip("t2", 3))));
+
+        cache.onSeatsChanged(new TripSeatsChangedEvent("t1", "Yaounde", "Douala", 2));
+
+        cache.getSearch("Yaounde", "Douala", DATE, 1, 0, 20, () -> counted(loads, page(trip("t1", 2))));
+        cache.getSearch("Yaounde", "Douala", DATE, 1, 1, 20, () -> counted(loads, page(trip("t2", 3))));
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void tripChangeDropsEveryPageOfTheRoute() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.getSearch("Yaounde", "Douala", DATE, 1, 0, 20, () -> counted(loads, page(trip("t1", 3))));
+        cache.getSearch("Yaounde", "Douala", DATE, 1, 1, 20, () -> counted(loads, page(trip("t2", 3))));
+
+        cache.onTripChanged(new TripChangedEvent(Trip.builder().id("t3").departureCity("Yaounde")
+                .arrivalCity("Douala").build(), TripChangedEvent.ChangeType.CREATED));
+
+        cache.getSearch("Yaounde", "Douala", DATE, 1, 0, 20, () -> counted(loads, page(trip("t1", 3))));
+        cache.getSearch("Yaounde", "Douala", DATE, 1, 1, 20, () -> counted(loads, page(trip("t2", 3))));
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void invalidationReachesTheOtherInstances() {
+        AtomicInteger loads = new AtomicInteger();
+        otherInstance.getTrip("t1", () -> counted(loads, trip("t1", 3)));
+        otherInstance.getTrip("t1", () -> counted(loads, trip("t1", 3)));
+        assertThat(loads).hasValue(1);
+
+        cache.onSeatsChanged(new TripSeatsChangedEvent("t1", "Yaounde", "Douala", 2));
+
+        assertThat(otherInstance.getTrip("t1", () -> counted(loads, trip("t1", 2))).getAvailableSeats())
+                .isEqualTo(2);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void citiesContainingTheSeparatorKeepTheirOwnEntries() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.getSearch("A|B", "C", DATE, 1, 0, 20, () -> counted(loads, page(trip("t1", 3))));
+        TripPageResponse other = cache.getSearch("A", "B|C", DATE, 1, 0, 20,
+                () -> counted(loads, page(trip("t2", 3))));
+
+        assertThat(loads).hasValue(2);
+        assertThat(other.getContent().get(0).getId()).isEqualTo("t2");
+    }
+
+    @Test
+    void searchRouteIsReadFromTheFrontOfTheKey() {
+        String route = TripCache.routeOf("A|B", " C ");
+
+        assertThat(TripCache.searchRouteOf("trip:search:" + route + "|2026-11-02|1|after:x|y|z|20"))
+                .isEqualTo(route);
+        assertThat(TripCache.searchRouteOf("trip:byid:t1")).isNull();
+        assertThat(TripCache.searchRouteOf("trip:search:garbage")).isNull();
+    }
+
+    private TripCache newCache() {
+        TripCache tripCache = new TripCache(redis.template, objectMapper, mock(RedisMessageListenerContainer.class),
+                new SimpleMeterRegistry(), 1000, Duration.ofSeconds(10), Duration.ofSeconds(60));
+        redis.subscribers.add(tripCache);
+        return tripCache;
+    }
+
+    private static <T> T counted(AtomicInteger loads, T value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+    private static TripResponse trip(String id, int seats) {
+        return TripResponse.builder().id(id).availableSeats(seats).build();
+    }
+
+    private static TripPageResponse page(TripResponse... trips) {
+        return TripPageResponse.builder().content(List.of(trips)).page(0).size(20).build();
+    }
+
+    /**
+     * Just enough of Redis for TripCache, on maps; the conditional write follows
+     * scripts/trip_cache_set.lua.
+     */
+    @SuppressWarnings("unchecked")
+    private static final class FakeRedis {
+
+        final Map<String, String> strings = new ConcurrentHashMap<>();
+        final Map<String, Set<String>> sets = new ConcurrentHashMap<>();
+        final List<TripCache> subscribers = new ArrayList<>();
+        final StringRedisTemplate template = mock(StringRedisTemplate.class);
+
+        FakeRedis() {
+            ValueOperations<String, String> values = mock(ValueOperations.class);
+            SetOperations<String, String> setOperations = mock(SetOperations.class);
+            StringRedisConnection connection = mock(StringRedisConnection.class);
+            when(template.opsForValue()).thenReturn(values);
+            when(template.opsForSet()).thenReturn(setOperations);
+
+            when(values.multiGet(anyCollection())).thenAnswer(invocation -> {
+                List<String> found = new ArrayList<>();
+                for (String key : invocation.<Collection<String>>getArgument(0)) {
+                    found.add(strings.get(key));
+                }
+                return found;
+            });
+            when(setOperations.members(anyString())).thenAnswer(invocation ->
+                    new HashSet<>(sets.getOrDefault(invocation.<String>getArgument(0), Set.of())));
+            when(template.delete(anyCollection())).thenAnswer(invocation -> {
+                for (String key : invocation.<Collection<String>>getArgument(0)) {
+                    strings.remove(key);
+                    sets.remove(key);
+                }
+                return 0L;
+            });
+            when(template.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenAnswer(invocation -> {
+                List<String> keys = invocation.getArgument(1);
+                Object[] args = (Object[]) invocation.getRawArguments()[2];
+                if (!strings.getOrDefault(keys.get(1), "0").equals(args[0])) {
+                    return 0L;
+                }
+                strings.put(keys.get(0), (String) args[1]);
+                return 1L;
+            });
+            when(template.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+                invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+                return List.of();
+            });
+            when(template.convertAndSend(anyString(), any())).thenAnswer(invocation -> {
+                byte[] body = invocation.<String>getArgument(1).getBytes(StandardCharsets.UTF_8);
+                for (TripCache subscriber : subscribers) {
+                    subscriber.onMessage(new DefaultMessage(invocation.<String>getArgument(0)
+                            .getBytes(StandardCharsets.UTF_8), body), null);
+                }
+                return (long) subscribers.size();
+            });
+
+            when(connection.incr(anyString())).thenAnswer(invocation -> {
+                String key = invocation.getArgument(0);
+                return Long.parseLong(strings.merge(key, "1", (old, one) -> String.valueOf(Long.parseLong(old) + 1)));
+            });
+            when(connection.sAdd(anyString(), any(String[].class))).thenAnswer(invocation -> {
+                Object[] arguments = invocation.getArguments();
+                Set<String> members = sets.computeIfAbsent((String) arguments[0], key -> ConcurrentHashMap.newKeySet());
+                for (int i = 1; i < arguments.length; i++) {
+                    members.add((String) arguments[i]);
+                }
+                return (long) arguments.length - 1;
+            });
+            when(connection.expire(anyString(), anyLong())).thenReturn(true);
+        }
+    }
+}